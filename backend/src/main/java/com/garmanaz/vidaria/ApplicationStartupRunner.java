@@ -1,44 +1,57 @@
 package com.garmanaz.vidaria;
 
-import com.garmanaz.vidaria.services.MovieService;
-import com.garmanaz.vidaria.services.SerieService;
+import com.garmanaz.vidaria.services.CacheWarmupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class ApplicationStartupRunner implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(ApplicationStartupRunner.class);
 
-    private final SerieService serieService;
-    private final MovieService movieService;
+    private final CacheWarmupService cacheWarmupService;
+
+    // Con background=true la aplicación queda lista sin esperar a que termine la precarga
+    @Value("${vidaria.cache.warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    @Value("${vidaria.cache.warmup.background:false}")
+    private boolean warmupInBackground;
 
     @Autowired
-    public ApplicationStartupRunner(SerieService serieService, MovieService movieService) {
-        this.serieService = serieService;
-        this.movieService = movieService;
+    public ApplicationStartupRunner(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
     }
 
     @Override
     public void run(String... args) {
-        if (serieService == null || movieService == null) {
-            logger.error("SerieService or MovieService is not properly initialized!");
+        if (!warmupEnabled) {
+            logger.info("Cache warm-up disabled.");
             return;
         }
 
-        try {
-            logger.info("Starting to precache series...");
-            serieService.preCacheSeries();
-            logger.info("Series precaching completed.");
-
-            logger.info("Starting to precache movies...");
-            movieService.preCacheMovies();
-            logger.info("Movies precaching completed.");
-        } catch (Exception e) {
-            logger.error("Error during precaching process", e);
+        logger.info("Starting to precache series and movies...");
+        CompletableFuture<?> warmup = cacheWarmupService.warmUp()
+                .whenComplete((results, e) -> {
+                    if (e != null) {
+                        logger.error("Error during precaching process", e);
+                    } else {
+                        logger.info("Precaching completed.");
+                    }
+                });
+
+        if (!warmupInBackground) {
+            try {
+                warmup.join();
+            } catch (Exception e) {
+                // Ya registrado en whenComplete; un fallo de la caché no debe impedir el arranque
+            }
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.garmanaz.vidaria;
+
+import com.garmanaz.vidaria.services.CatalogImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Carga inicial del catálogo desde un volcado diario de TMDB, fuera del servidor web:
+// java -jar vidaria.jar --spring.profiles.active=import --vidaria.import.file=/data/movie_ids_05_15_2024.json.gz
+// Se puede relanzar con el mismo fichero: continúa desde el último bloque importado.
+@Component
+@Profile("import")
+public class CatalogImportRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportRunner.class);
+
+    private final CatalogImportService catalogImportService;
+    private final ApplicationContext applicationContext;
+
+    @Value("${vidaria.import.file}")
+    private String file;
+
+    // movie o tv; vacío para deducirlo del nombre del fichero
+    @Value("${vidaria.import.type:}")
+    private String type;
+
+    @Value("${vidaria.import.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Autowired
+    public CatalogImportRunner(CatalogImportService catalogImportService, ApplicationContext applicationContext) {
+        this.catalogImportService = catalogImportService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(String... args) {
+        Path path = Path.of(file);
+        int exitCode = 0;
+        try {
+            catalogImportService.importFile(path, type.isBlank() ? CatalogImportService.typeOf(path) : type);
+        } catch (Exception e) {
+            logger.error("Import of {} failed", path, e);
+            exitCode = 1;
+        }
+        if (exitOnCompletion) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(applicationContext, () -> code));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.garmanaz.vidaria.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Page of the TMDB change feed (/movie/changes, /tv/changes)")
+public class ChangesResponse {
+
+    @Schema(description = "Current page number", example = "1")
+    private Long page;
+
+    @Schema(description = "Ids changed in the requested window")
+    private List<Change> results;
+
+    @JsonProperty("total_pages")
+    @Schema(description = "Total number of pages", example = "12")
+    private Long totalPages;
+
+    @JsonProperty("total_results")
+    @Schema(description = "Total number of changed ids", example = "1150")
+    private Long totalResults;
+
+    @Data
+    @Schema(description = "A changed movie or series")
+    public static class Change {
+
+        @Schema(description = "TMDB id of the changed title", example = "550")
+        private Long id;
+
+        @Schema(description = "Indicates if the title is for adults", example = "false")
+        private Boolean adult;
+    }
+}
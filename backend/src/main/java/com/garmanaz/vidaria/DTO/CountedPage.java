@@ -0,0 +1,27 @@
+package com.garmanaz.vidaria.DTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// Página de búsqueda con el total calculado según la estrategia pedida en ?count= (exact, cached, estimate, none).
+// totalElements y totalPages son null con none; exact=false cuando el total es una estimación del planificador
+public record CountedPage<T>(List<T> content, int page, int size, Long totalElements, Integer totalPages,
+                             boolean hasNext, String count, boolean exact) {
+
+    public static <T> CountedPage<T> of(List<T> content, Pageable pageable, Long total, boolean hasNext,
+                                        String count, boolean exact) {
+        Integer totalPages = total == null ? null : (int) Math.ceil((double) total / pageable.getPageSize());
+        return new CountedPage<>(content, pageable.getPageNumber(), pageable.getPageSize(), total, totalPages,
+                hasNext, count, exact);
+    }
+
+    public static <T> CountedPage<T> from(Page<T> page) {
+        return of(page.getContent(), page.getPageable(), page.getTotalElements(), page.hasNext(), "exact", true);
+    }
+
+    public <R> CountedPage<R> withContent(List<R> newContent) {
+        return new CountedPage<>(newContent, page, size, totalElements, totalPages, hasNext, count, exact);
+    }
+}
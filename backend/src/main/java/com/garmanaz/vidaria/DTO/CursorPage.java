@@ -0,0 +1,16 @@
+package com.garmanaz.vidaria.DTO;
+
+import java.util.List;
+
+// Página de la paginación por cursor (keyset): sin total ni número de página.
+// nextCursor es opaco y se devuelve tal cual en ?cursor= para pedir la siguiente; es null en la última
+public record CursorPage<T>(List<T> content, int size, String nextCursor, boolean hasNext) {
+
+    public static <T> CursorPage<T> of(List<T> content, int size, String nextCursor) {
+        return new CursorPage<>(content, size, nextCursor, nextCursor != null);
+    }
+
+    public <R> CursorPage<R> withContent(List<R> newContent) {
+        return new CursorPage<>(newContent, size, nextCursor, hasNext);
+    }
+}
@@ -0,0 +1,36 @@
+package com.garmanaz.vidaria.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Schema(description = "Line of a TMDB daily id export (movie_ids_MM_DD_YYYY.json.gz, tv_series_ids_MM_DD_YYYY.json.gz)")
+public class ExportEntry {
+
+    @Schema(description = "TMDB id of the title", example = "550")
+    private Long id;
+
+    @Schema(description = "Indicates if the title is for adults", example = "false")
+    private boolean adult;
+
+    @Schema(description = "Indicates if the entry is a video rather than a movie", example = "false")
+    private boolean video;
+
+    @Schema(description = "Popularity of the title", example = "61.4")
+    private Double popularity;
+
+    @JsonProperty("original_title")
+    @Schema(description = "Original title of a movie", example = "Fight Club")
+    private String originalTitle;
+
+    @JsonProperty("original_name")
+    @Schema(description = "Original name of a series", example = "Breaking Bad")
+    private String originalName;
+}
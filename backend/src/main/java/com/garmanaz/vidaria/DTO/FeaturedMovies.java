@@ -0,0 +1,19 @@
+package com.garmanaz.vidaria.DTO;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+// Selección de destacadas ya calculada que se guarda en Redis como un único valor.
+// version es el hash del contenido (el ETag de /movies/featured) y threshold la popularidad más baja
+// de la selección: un cambio por debajo de ella no puede alterar el resultado.
+// Cambiar los campos implica subir SCHEMA_VERSION.
+public record FeaturedMovies(
+        String version,
+        Instant computedAt,
+        Double threshold,
+        List<MovieSnapshot> movies
+) implements Serializable {
+
+    public static final byte SCHEMA_VERSION = 1;
+}
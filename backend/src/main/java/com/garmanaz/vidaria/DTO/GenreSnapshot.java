@@ -0,0 +1,31 @@
+package com.garmanaz.vidaria.DTO;
+
+import com.garmanaz.vidaria.entities.Genre;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Vista plana de Genre para la caché de Redis (sin las colecciones inversas de la entidad)
+public record GenreSnapshot(Long id, String name) implements Serializable {
+
+    public static GenreSnapshot from(Genre genre) {
+        return new GenreSnapshot(genre.getId(), genre.getName());
+    }
+
+    public Genre toGenre() {
+        return new Genre(id, name);
+    }
+
+    public static GenreSnapshot[] fromList(List<Genre> genres) {
+        return genres.stream().map(GenreSnapshot::from).toArray(GenreSnapshot[]::new);
+    }
+
+    public static List<Genre> toList(GenreSnapshot[] snapshots) {
+        List<Genre> genres = new ArrayList<>(snapshots.length);
+        for (GenreSnapshot snapshot : snapshots) {
+            genres.add(snapshot.toGenre());
+        }
+        return genres;
+    }
+}
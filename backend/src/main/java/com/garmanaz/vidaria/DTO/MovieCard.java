@@ -0,0 +1,25 @@
+package com.garmanaz.vidaria.DTO;
+
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Movie;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Película en los listados: lo que pintan la rejilla y la cabecera del frontend (descripción y tráiler).
+// El detalle sigue devolviendo la entidad
+public record MovieCard(Long id, String title, String description, String cover, String background, LocalDate releaseDate,
+                        Double rating, Double popularity, String trailer, CategoryRef category, List<GenreSnapshot> genres) {
+
+    public record CategoryRef(Long id, String name) {
+    }
+
+    // La misma vista a partir de la entidad ya cacheada
+    public static MovieCard from(Movie movie) {
+        Category category = movie.getCategory();
+        return new MovieCard(movie.getId(), movie.getTitle(), movie.getDescription(), movie.getCover(), movie.getBackground(),
+                movie.getReleaseDate(), movie.getRating(), movie.getPopularity(), movie.getTrailer(),
+                category != null ? new CategoryRef(category.getId(), category.getName()) : null,
+                movie.getGenres() != null ? movie.getGenres().stream().map(GenreSnapshot::from).toList() : List.of());
+    }
+}
@@ -162,6 +162,7 @@ public class MovieResponse {
         @Schema(description = "List of production countries for the movie")
         private List<ProductionCountry> productionCountries;
 
+        @JsonProperty("release_date")
         @Schema(description = "Release date of the movie", example = "2022-01-01")
         private LocalDate releaseDate;
 
@@ -194,6 +195,57 @@ public class MovieResponse {
         @JsonProperty("vote_count")
         @Schema(description = "Total number of votes for the movie", example = "1500")
         private long voteCount;
+
+        @Schema(description = "Videos of the movie, present when requested with append_to_response=videos")
+        private MovieVideosResponse videos;
+
+        @Schema(description = "Cast and crew of the movie, present when requested with append_to_response=credits")
+        private Credits credits;
+    }
+
+    @Data
+    @Schema(description = "Cast and crew of a movie")
+    public static class Credits {
+
+        @Schema(description = "List of cast members")
+        private List<CastMember> cast;
+
+        @Schema(description = "List of crew members")
+        private List<CrewMember> crew;
+
+        @Data
+        @Schema(description = "Details of a cast member")
+        public static class CastMember {
+
+            @Schema(description = "Person ID", example = "287")
+            private long id;
+
+            @Schema(description = "Name of the actor", example = "Brad Pitt")
+            private String name;
+
+            @Schema(description = "Character played", example = "Tyler Durden")
+            private String character;
+
+            @Schema(description = "Billing order", example = "0")
+            private int order;
+        }
+
+        @Data
+        @Schema(description = "Details of a crew member")
+        public static class CrewMember {
+
+            @Schema(description = "Person ID", example = "7467")
+            private long id;
+
+            @Schema(description = "Name of the crew member", example = "David Fincher")
+            private String name;
+
+            @Schema(description = "Department", example = "Directing")
+            private String department;
+
+            @Schema(description = "Job within the department", example = "Director")
+            private String job;
+        }
     }
 
     @Data
@@ -0,0 +1,80 @@
+package com.garmanaz.vidaria.DTO;
+
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Representación de Movie que se guarda en Redis. Cambiar los campos implica subir SCHEMA_VERSION.
+public record MovieSnapshot(
+        Long id,
+        String title,
+        String description,
+        LocalDate releaseDate,
+        String cover,
+        String background,
+        String director,
+        Long duration,
+        Double rating,
+        Double popularity,
+        Long categoryId,
+        String categoryName,
+        List<GenreSnapshot> genres,
+        String trailer
+) implements Serializable {
+
+    public static final byte SCHEMA_VERSION = 1;
+
+    public static MovieSnapshot from(Movie movie) {
+        Category category = movie.getCategory();
+        List<GenreSnapshot> genres = movie.getGenres() != null
+                ? movie.getGenres().stream().map(GenreSnapshot::from).toList()
+                : List.of();
+        return new MovieSnapshot(
+                movie.getId(),
+                movie.getTitle(),
+                movie.getDescription(),
+                movie.getReleaseDate(),
+                movie.getCover(),
+                movie.getBackground(),
+                movie.getDirector(),
+                movie.getDuration(),
+                movie.getRating(),
+                movie.getPopularity(),
+                category != null ? category.getId() : null,
+                category != null ? category.getName() : null,
+                genres,
+                movie.getTrailer());
+    }
+
+    public Movie toMovie() {
+        Category category = null;
+        if (categoryId != null || categoryName != null) {
+            category = new Category(categoryName);
+            category.setId(categoryId);
+        }
+        List<Genre> movieGenres = new ArrayList<>();
+        if (genres != null) {
+            genres.forEach(genre -> movieGenres.add(genre.toGenre()));
+        }
+        return Movie.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .releaseDate(releaseDate)
+                .cover(cover)
+                .background(background)
+                .director(director)
+                .duration(duration)
+                .rating(rating)
+                .popularity(popularity)
+                .category(category)
+                .genres(movieGenres)
+                .trailer(trailer)
+                .build();
+    }
+}
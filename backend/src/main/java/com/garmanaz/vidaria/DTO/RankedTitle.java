@@ -0,0 +1,5 @@
+package com.garmanaz.vidaria.DTO;
+
+// Lo que necesita una clasificación de cada título: su id y las dos puntuaciones por las que se ordena
+public record RankedTitle(Long id, Double rating, Double popularity) {
+}
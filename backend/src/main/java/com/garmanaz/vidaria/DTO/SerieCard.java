@@ -0,0 +1,19 @@
+package com.garmanaz.vidaria.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.garmanaz.vidaria.entities.Serie;
+
+import java.util.List;
+
+// Serie en los listados, sin temporadas ni textos largos. Mantiene los nombres JSON de la entidad (release_date, genre_id)
+public record SerieCard(Long id, String title, String poster, String backdrop,
+                        @JsonProperty("release_date") String releaseDate,
+                        Double rating, Double popularity,
+                        @JsonProperty("genre_id") List<GenreSnapshot> genres) {
+
+    public static SerieCard from(Serie serie) {
+        return new SerieCard(serie.getId(), serie.getTitle(), serie.getPoster(), serie.getBackdrop(), serie.getReleaseDate(),
+                serie.getRating(), serie.getPopularity(),
+                serie.getGenreID() != null ? serie.getGenreID().stream().map(GenreSnapshot::from).toList() : List.of());
+    }
+}
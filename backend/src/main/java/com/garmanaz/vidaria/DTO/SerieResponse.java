@@ -193,6 +193,9 @@ public class SerieResponse {
         @Schema(description = "Total number of votes for the series", example = "1000")
         private Long voteCount;
 
+        @Schema(description = "Videos of the series, present when requested with append_to_response=videos")
+        private SerieTrailer videos;
+
         @Data
         @Schema(description = "Details of a creator of the series")
         public static class CreatedBy {
@@ -0,0 +1,103 @@
+package com.garmanaz.vidaria.DTO;
+
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Season;
+import com.garmanaz.vidaria.entities.Serie;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Representación de Serie que se guarda en Redis. Cambiar los campos implica subir SCHEMA_VERSION.
+public record SerieSnapshot(
+        Long id,
+        String title,
+        String description,
+        List<GenreSnapshot> genres,
+        String creator,
+        String releaseDate,
+        String poster,
+        String backdrop,
+        Double rating,
+        Double popularity,
+        Long numberOfSeasons,
+        Long numberOfEpisodes,
+        List<SeasonSnapshot> seasons,
+        String trailer,
+        String status
+) implements Serializable {
+
+    public static final byte SCHEMA_VERSION = 1;
+
+    public record SeasonSnapshot(Long id, String releaseDate, Long episodeCount, String name, String poster,
+                                 Long seasonNumber) implements Serializable {
+    }
+
+    public static SerieSnapshot from(Serie serie) {
+        List<GenreSnapshot> genres = serie.getGenreID() != null
+                ? serie.getGenreID().stream().map(GenreSnapshot::from).toList()
+                : null;
+        List<SeasonSnapshot> seasons = serie.getSeasons() != null
+                ? serie.getSeasons().stream()
+                .map(season -> new SeasonSnapshot(season.getId(), season.getReleaseDate(), season.getEpisodeCount(),
+                        season.getName(), season.getPoster(), season.getSeasonNumber()))
+                .toList()
+                : null;
+        return new SerieSnapshot(
+                serie.getId(),
+                serie.getTitle(),
+                serie.getDescription(),
+                genres,
+                serie.getCreator(),
+                serie.getReleaseDate(),
+                serie.getPoster(),
+                serie.getBackdrop(),
+                serie.getRating(),
+                serie.getPopularity(),
+                serie.getNumberOfSeasons(),
+                serie.getNumberOfEpisodes(),
+                seasons,
+                serie.getTrailer(),
+                serie.getStatus());
+    }
+
+    public Serie toSerie() {
+        Serie serie = Serie.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .creator(creator)
+                .releaseDate(releaseDate)
+                .poster(poster)
+                .backdrop(backdrop)
+                .rating(rating)
+                .popularity(popularity)
+                .numberOfSeasons(numberOfSeasons)
+                .numberOfEpisodes(numberOfEpisodes)
+                .trailer(trailer)
+                .status(status)
+                .build();
+
+        if (genres != null) {
+            List<Genre> serieGenres = new ArrayList<>(genres.size());
+            genres.forEach(genre -> serieGenres.add(genre.toGenre()));
+            serie.setGenreID(serieGenres);
+        }
+        if (seasons != null) {
+            List<Season> serieSeasons = new ArrayList<>(seasons.size());
+            for (SeasonSnapshot season : seasons) {
+                serieSeasons.add(Season.builder()
+                        .id(season.id())
+                        .releaseDate(season.releaseDate())
+                        .episodeCount(season.episodeCount())
+                        .name(season.name())
+                        .poster(season.poster())
+                        .seasonNumber(season.seasonNumber())
+                        .serie(serie)
+                        .build());
+            }
+            serie.setSeasons(serieSeasons);
+        }
+        return serie;
+    }
+}
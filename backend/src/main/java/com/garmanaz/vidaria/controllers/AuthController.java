@@ -196,7 +196,7 @@ public class AuthController {
 
             String resetLink = "http://localhost:8081/auth/reset-password-link?token=" + token;
             emailService.sendResetPasswordEmail(user.getEmail(), resetLink);
-            logger.info("Password reset email sent successfully to: {}", email);
+            logger.info("Password reset email queued for: {}", email);
 
             return ResponseEntity.ok(Map.of("message", "Reset email sent successfully"));
         } catch (Exception e) {
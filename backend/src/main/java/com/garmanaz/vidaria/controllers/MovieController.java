@@ -1,8 +1,14 @@
 package com.garmanaz.vidaria.controllers;
 
+import com.garmanaz.vidaria.DTO.MovieCard;
 import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.repositories.CountStrategy;
+import com.garmanaz.vidaria.services.CatalogIndexService;
+import com.garmanaz.vidaria.services.FeaturedMoviesService;
 import com.garmanaz.vidaria.services.MovieCacheService;
 import com.garmanaz.vidaria.services.MovieService;
+import com.garmanaz.vidaria.utils.search.CatalogQuery;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,6 +20,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -31,10 +38,15 @@ public class MovieController {
 
     private final MovieService movieService;
     private final MovieCacheService movieCacheService;
+    private final CatalogIndexService catalogIndexService;
+    private final FeaturedMoviesService featuredMoviesService;
 
-    public MovieController(MovieService movieService, MovieCacheService movieCacheService) {
+    public MovieController(MovieService movieService, MovieCacheService movieCacheService, CatalogIndexService catalogIndexService,
+                           FeaturedMoviesService featuredMoviesService) {
         this.movieService = movieService;
         this.movieCacheService = movieCacheService;
+        this.catalogIndexService = catalogIndexService;
+        this.featuredMoviesService = featuredMoviesService;
     }
 
     @Operation(summary = "Get movies by category",
@@ -44,14 +56,25 @@ public class MovieController {
                     @ApiResponse(responseCode = "404", description = "Movies not found")
             })
     @GetMapping("/category/{categoryName}")
-    public ResponseEntity<Page<Movie>> getMoviesByCategory(
+    public ResponseEntity<?> getMoviesByCategory(
             @Parameter(description = "Name of the category", example = "Action") @PathVariable String categoryName,
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
+            @Parameter(description = "How to compute the total: exact, cached, estimate or none") @RequestParam(required = false) String count,
             @PageableDefault(size = 20) Pageable pageable) {
         if (categoryName == null || categoryName.trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(movieService.getMoviesByCategoryAfter(categoryName, cursor, pageable));
+            }
+            if (count != null) {
+                return ResponseEntity.ok(movieService.getMoviesByCategory(categoryName, pageable, CountStrategy.of(count)));
+            }
             return ResponseEntity.ok(movieService.getMoviesByCategory(categoryName, pageable));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for getMoviesByCategory: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching movies by category: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -65,7 +88,7 @@ public class MovieController {
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             })
     @GetMapping("/search")
-    public ResponseEntity<Page<Movie>> searchMovies(
+    public ResponseEntity<?> searchMovies(
             @Parameter(description = "Title of the movie", example = "Inception") @RequestParam(required = false) String title,
             @Parameter(description = "List of genres to filter") @RequestParam(required = false) List<String> genres,
             @Parameter(description = "List of categories to filter") @RequestParam(required = false) List<String> categories,
@@ -75,10 +98,20 @@ public class MovieController {
             @Parameter(description = "Maximum rating") @RequestParam(required = false) Double ratingTo,
             @Parameter(description = "Minimum popularity score") @RequestParam(required = false) Double popularityFrom,
             @Parameter(description = "Maximum popularity score") @RequestParam(required = false) Double popularityTo,
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
+            @Parameter(description = "How to compute the total: exact, cached, estimate or none") @RequestParam(required = false) String count,
             @PageableDefault(size = 20) Pageable pageable
     ) {
         try {
-            Page<Movie> movies = movieService.searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo,
+            if (cursor != null) {
+                return ResponseEntity.ok(movieService.searchMoviesAfter(title, genres, categories, releaseDateFrom, releaseDateTo,
+                        ratingFrom, ratingTo, popularityFrom, popularityTo, cursor, pageable));
+            }
+            if (count != null) {
+                return ResponseEntity.ok(movieService.searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo,
+                        ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, CountStrategy.of(count)));
+            }
+            Page<MovieCard> movies = movieService.searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo,
                     ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
             return ResponseEntity.ok(movies);
         } catch (IllegalArgumentException e) {
@@ -90,16 +123,47 @@ public class MovieController {
         }
     }
 
+    @Operation(summary = "Suggest movies while typing",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Suggestions fetched successfully"),
+                    @ApiResponse(responseCode = "503", description = "Search index still loading")
+            })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SearchDocument>> suggestMovies(
+            @Parameter(description = "Beginning of the title words", example = "incep") @RequestParam(required = false) String q,
+            @Parameter(description = "List of genres to filter") @RequestParam(required = false) List<String> genres,
+            @Parameter(description = "List of categories to filter") @RequestParam(required = false) List<String> categories,
+            @Parameter(description = "Filter movies released after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releaseDateFrom,
+            @Parameter(description = "Filter movies released before this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releaseDateTo,
+            @Parameter(description = "Minimum rating") @RequestParam(required = false) Double ratingFrom,
+            @Parameter(description = "Maximum rating") @RequestParam(required = false) Double ratingTo,
+            @Parameter(description = "Minimum popularity score") @RequestParam(required = false) Double popularityFrom,
+            @Parameter(description = "Maximum popularity score") @RequestParam(required = false) Double popularityTo,
+            @Parameter(description = "Maximum number of suggestions", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(catalogIndexService.suggestMovies(CatalogQuery.of(q, genres, categories,
+                    releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, limit)));
+        } catch (IllegalStateException e) {
+            logger.warn("Movie suggestions unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @Operation(summary = "Get featured movies",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Featured movies fetched successfully"),
+                    @ApiResponse(responseCode = "304", description = "Featured movies not modified since the If-None-Match version"),
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             })
     @GetMapping("/featured")
     public ResponseEntity<List<Movie>> getFeaturedMovies() {
         try {
-            List<Movie> featuredMovies = movieService.getFeaturedMovies();
-            return ResponseEntity.ok(featuredMovies);
+            // Selección precalculada: con If-None-Match igual al ETag se responde 304 sin cuerpo
+            FeaturedMoviesService.Featured featured = featuredMoviesService.getFeatured();
+            return ResponseEntity.ok()
+                    .eTag(featured.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .body(featured.movies());
         } catch (Exception e) {
             logger.error("Error fetching featured movies: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -113,14 +177,21 @@ public class MovieController {
                     @ApiResponse(responseCode = "404", description = "Movies not found")
             })
     @GetMapping("/best/{genre}")
-    public ResponseEntity<Page<Movie>> getBestMoviesByGenres(
+    public ResponseEntity<?> getBestMoviesByGenres(
             @Parameter(description = "Genre to filter by", example = "Drama") @PathVariable String genre,
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
             @PageableDefault(size = 20) Pageable pageable) {
         if (genre == null || genre.trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(movieService.getBestMoviesByGenresAfter(genre, cursor, pageable));
+            }
             return ResponseEntity.ok(movieService.getBestMoviesByGenres(genre, pageable));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for getBestMoviesByGenres: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching best movies by genre: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -133,9 +204,17 @@ public class MovieController {
                     @ApiResponse(responseCode = "404", description = "Movies not found")
             })
     @GetMapping
-    public ResponseEntity<Page<Movie>> getMovies(Pageable pageable) {
+    public ResponseEntity<?> getMovies(
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
+            Pageable pageable) {
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(movieService.getMoviesAfter(cursor, pageable));
+            }
             return ResponseEntity.ok(movieService.getPaginatedMovies(pageable));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for getMovies: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching all movies: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -1,7 +1,12 @@
 package com.garmanaz.vidaria.controllers;
 
+import com.garmanaz.vidaria.DTO.SerieCard;
 import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.CountStrategy;
+import com.garmanaz.vidaria.services.CatalogIndexService;
 import com.garmanaz.vidaria.services.SerieService;
+import com.garmanaz.vidaria.utils.search.CatalogQuery;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -29,10 +34,12 @@ public class SerieController {
 
     private static final Logger logger = LoggerFactory.getLogger(SerieController.class);
     private final SerieService serieService;
+    private final CatalogIndexService catalogIndexService;
 
     @Autowired
-    public SerieController(SerieService serieService) {
+    public SerieController(SerieService serieService, CatalogIndexService catalogIndexService) {
         this.serieService = serieService;
+        this.catalogIndexService = catalogIndexService;
         logger.info("SerieController initialized with SerieService: {}", serieService.getClass().getName());
     }
 
@@ -92,7 +99,7 @@ public class SerieController {
                     @ApiResponse(responseCode = "404", description = "Series not found")
             })
     @GetMapping("/search")
-    public ResponseEntity<Page<Serie>> searchSerie(
+    public ResponseEntity<?> searchSerie(
             @Parameter(description = "Title of the series") @RequestParam(required = false) String title,
             @Parameter(description = "Genres to filter by") @RequestParam(required = false) List<String> genres,
             @Parameter(description = "Filter series released after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releaseDateFrom,
@@ -101,32 +108,77 @@ public class SerieController {
             @Parameter(description = "Maximum rating") @RequestParam(required = false) Double ratingTo,
             @Parameter(description = "Minimum popularity score") @RequestParam(required = false) Double popularityFrom,
             @Parameter(description = "Maximum popularity score") @RequestParam(required = false) Double popularityTo,
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
+            @Parameter(description = "How to compute the total: exact, cached, estimate or none") @RequestParam(required = false) String count,
             Pageable pageable) {
         try {
-            Page<Serie> series = serieService.searchSeries(
+            if (cursor != null) {
+                return ResponseEntity.ok(serieService.searchSeriesAfter(title, genres, releaseDateFrom, releaseDateTo,
+                        ratingFrom, ratingTo, popularityFrom, popularityTo, cursor, pageable));
+            }
+            if (count != null) {
+                return ResponseEntity.ok(serieService.searchSeries(title, genres, releaseDateFrom, releaseDateTo,
+                        ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, CountStrategy.of(count)));
+            }
+            Page<SerieCard> series = serieService.searchSeries(
                     title, genres, releaseDateFrom, releaseDateTo,
                     ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
             return ResponseEntity.ok()
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(series);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for searchSerie: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error searching series: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 
+    @Operation(summary = "Suggest series while typing",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Suggestions fetched successfully"),
+                    @ApiResponse(responseCode = "503", description = "Search index still loading")
+            })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SearchDocument>> suggestSeries(
+            @Parameter(description = "Beginning of the title words", example = "break") @RequestParam(required = false) String q,
+            @Parameter(description = "Genres to filter by") @RequestParam(required = false) List<String> genres,
+            @Parameter(description = "Filter series released after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releaseDateFrom,
+            @Parameter(description = "Filter series released before this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releaseDateTo,
+            @Parameter(description = "Minimum rating") @RequestParam(required = false) Double ratingFrom,
+            @Parameter(description = "Maximum rating") @RequestParam(required = false) Double ratingTo,
+            @Parameter(description = "Minimum popularity score") @RequestParam(required = false) Double popularityFrom,
+            @Parameter(description = "Maximum popularity score") @RequestParam(required = false) Double popularityTo,
+            @Parameter(description = "Maximum number of suggestions", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(catalogIndexService.suggestSeries(CatalogQuery.of(q, genres, null,
+                    releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, limit)));
+        } catch (IllegalStateException e) {
+            logger.warn("Serie suggestions unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @Operation(summary = "Get best series by genre",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Best series fetched successfully"),
                     @ApiResponse(responseCode = "404", description = "Series not found")
             })
     @GetMapping("/best/{genre}")
-    public ResponseEntity<Page<Serie>> getBestSeriesByGenres(
+    public ResponseEntity<?> getBestSeriesByGenres(
             @Parameter(description = "Genre to filter by", example = "Comedy") @PathVariable String genre,
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
             Pageable pageable) {
         try {
-            Page<Serie> series = serieService.getBestSeriesByGenres(genre, pageable);
+            if (cursor != null) {
+                return ResponseEntity.ok(serieService.getBestSeriesByGenresAfter(genre, cursor, pageable));
+            }
+            Page<SerieCard> series = serieService.getBestSeriesByGenres(genre, pageable);
             return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for getBestSeriesByGenres: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching best series by genre '{}': {}", genre, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -139,10 +191,18 @@ public class SerieController {
                     @ApiResponse(responseCode = "404", description = "Series not found")
             })
     @GetMapping
-    public ResponseEntity<Page<Serie>> getSeries(Pageable pageable) {
+    public ResponseEntity<?> getSeries(
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
+            Pageable pageable) {
         try {
-            Page<Serie> series = serieService.getSeries(pageable);
+            if (cursor != null) {
+                return ResponseEntity.ok(serieService.getSeriesAfter(cursor, pageable));
+            }
+            Page<SerieCard> series = serieService.getSeries(pageable);
             return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for getSeries: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching series: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -155,10 +215,18 @@ public class SerieController {
                     @ApiResponse(responseCode = "404", description = "Series not found")
             })
     @GetMapping("/most-popular")
-    public ResponseEntity<Page<Serie>> getMostPopularAndTopRated(Pageable pageable) {
+    public ResponseEntity<?> getMostPopularAndTopRated(
+            @Parameter(description = "Keyset pagination cursor: empty for the first page, then the nextCursor of the previous one") @RequestParam(required = false) String cursor,
+            Pageable pageable) {
         try {
-            Page<Serie> series = serieService.getMostPopularAndTopRated(pageable);
+            if (cursor != null) {
+                return ResponseEntity.ok(serieService.getMostPopularAndTopRatedAfter(cursor, pageable));
+            }
+            Page<SerieCard> series = serieService.getMostPopularAndTopRated(pageable);
             return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for getMostPopularAndTopRated: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching most popular and top-rated series: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -2,9 +2,13 @@ package com.garmanaz.vidaria.entities;
 
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.garmanaz.vidaria.utils.cache.ReferenceDataListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.util.List;
@@ -14,7 +18,13 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity
+// Tabla de referencia: caché de segundo nivel y diccionario en memoria (ReferenceData)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+@EntityListeners(ReferenceDataListener.class)
 @ToString(exclude = "movies")
+// Movie.category es EAGER: en consultas JPQL sin join se resuelve con un select por lotes, no uno por película
+@BatchSize(size = 100)
 @Schema(description = "Entity representing a category")
 public class Category implements Serializable {
 
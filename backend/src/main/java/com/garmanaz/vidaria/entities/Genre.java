@@ -2,15 +2,22 @@ package com.garmanaz.vidaria.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.garmanaz.vidaria.utils.cache.ReferenceDataListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.*;
 
 
 @Entity
+// Tabla de referencia: caché de segundo nivel y diccionario en memoria (ReferenceData)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "genre")
+@EntityListeners(ReferenceDataListener.class)
 @Getter
 @Setter
 @Builder
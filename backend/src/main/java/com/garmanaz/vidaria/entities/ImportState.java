@@ -0,0 +1,50 @@
+package com.garmanaz.vidaria.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "import_state")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Progress of the offline import of one TMDB daily export file")
+public class ImportState {
+
+    @Id
+    @Schema(description = "Export file name", example = "movie_ids_05_15_2024.json.gz")
+    private String file;
+
+    @Schema(description = "Export type", example = "movie")
+    private String type;
+
+    @Schema(description = "Lines of the file already imported; a new run resumes after them", example = "250000")
+    private long linesRead;
+
+    @Schema(description = "Titles written to the catalogue", example = "180000")
+    private long titlesImported;
+
+    @Schema(description = "Lines skipped (adult, video or not found in TMDB)", example = "70000")
+    private long skipped;
+
+    @Schema(description = "When the last run started")
+    private Instant lastRunAt;
+
+    @Schema(description = "When the whole file was imported, null while pending")
+    private Instant completedAt;
+
+    @Column(length = 1000)
+    @Schema(description = "Error of the last failed run, null after a successful one")
+    private String lastError;
+
+    public ImportState(String file, String type) {
+        this.file = file;
+        this.type = type;
+    }
+}
@@ -1,12 +1,15 @@
 package com.garmanaz.vidaria.entities;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.garmanaz.vidaria.utils.cache.KnownIdsListener;
+import com.garmanaz.vidaria.utils.search.CatalogIndexListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -14,6 +17,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// Los índices de popularidad y valoración siguen el orden de la paginación por cursor (Keyset)
+@Table(indexes = {
+        @Index(name = "idx_movie_popularity", columnList = "popularity DESC, rating DESC, id"),
+        @Index(name = "idx_movie_rating", columnList = "rating DESC, id"),
+        @Index(name = "idx_movie_release_date", columnList = "release_date"),
+        @Index(name = "idx_movie_category", columnList = "category_id")
+})
+// Colecciones LAZY con @BatchSize; cada caso de uso pide lo que necesita con su entity graph:
+// card (páginas de entidades), detail (detalle, caché, índice y sincronización) y admin (edición)
+@NamedEntityGraph(name = "Movie.card", attributeNodes = @NamedAttributeNode("genres"))
+@NamedEntityGraph(name = "Movie.detail", attributeNodes = {@NamedAttributeNode("category"), @NamedAttributeNode("genres")})
+@NamedEntityGraph(name = "Movie.admin", attributeNodes = @NamedAttributeNode("category"))
+@EntityListeners({KnownIdsListener.class, CatalogIndexListener.class})
 @Builder
 @Getter
 @Setter
@@ -72,8 +88,10 @@ public class Movie implements Serializable {
 
 
     @Schema(description = "Genres of the movie")
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(name = "movie_genre", joinColumns = @JoinColumn(name = "movie_id"), inverseJoinColumns = @JoinColumn(name = "genre_id"))
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @JoinTable(name = "movie_genre", joinColumns = @JoinColumn(name = "movie_id"), inverseJoinColumns = @JoinColumn(name = "genre_id"),
+            indexes = @Index(name = "idx_movie_genre_movie", columnList = "movie_id, genre_id"))
     @JsonManagedReference
     private List<Genre> genres = new ArrayList<>();
 
@@ -2,9 +2,12 @@ package com.garmanaz.vidaria.entities;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.garmanaz.vidaria.utils.cache.KnownIdsListener;
+import com.garmanaz.vidaria.utils.search.CatalogIndexListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -12,7 +15,19 @@ import java.util.List;
 
 
 @Entity
-@Builder
+// Los índices de popularidad y valoración siguen el orden de la paginación por cursor (Keyset)
+@Table(indexes = {
+        @Index(name = "idx_serie_popularity", columnList = "popularity DESC, rating DESC, id"),
+        @Index(name = "idx_serie_rating", columnList = "rating DESC, id"),
+        @Index(name = "idx_serie_release_date", columnList = "release_date")
+})
+// Colecciones LAZY con @BatchSize. genreID y seasons son List (bags): pedir las dos en el mismo graph
+// lanza MultipleBagFetchException y, con Set, daría un producto cartesiano géneros x temporadas.
+// Por eso detail solo une los géneros y las temporadas llegan en una segunda consulta por lotes.
+@NamedEntityGraph(name = "Serie.card", attributeNodes = @NamedAttributeNode("genreID"))
+@NamedEntityGraph(name = "Serie.detail", attributeNodes = @NamedAttributeNode("genreID"))
+@EntityListeners({KnownIdsListener.class, CatalogIndexListener.class})
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,10 +47,12 @@ public class Serie implements Serializable {
     @Column(length = 3000)
     private String description;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(name = "serie_genre",
             joinColumns = @JoinColumn(name = "serie_id"),
-            inverseJoinColumns = @JoinColumn(name = "genre_id"))
+            inverseJoinColumns = @JoinColumn(name = "genre_id"),
+            indexes = @Index(name = "idx_serie_genre_serie", columnList = "serie_id, genre_id"))
     @JsonProperty("genre_id")
     @JsonManagedReference
     @Schema(description = "Genres of the serie", example = "[1, 2]")
@@ -69,7 +86,8 @@ public class Serie implements Serializable {
     private Long numberOfEpisodes;
 
     @Schema(description = "Seasons of the serie")
-    @OneToMany(mappedBy = "serie", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "serie", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @BatchSize(size = 100)
     @JsonManagedReference
     private List<Season> seasons;
 
@@ -0,0 +1,56 @@
+package com.garmanaz.vidaria.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "sync_state")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Progress of the incremental sync of one TMDB change feed")
+public class SyncState {
+
+    @Id
+    @Schema(description = "Change feed", example = "movie")
+    private String feed;
+
+    @Schema(description = "Changes are applied up to this date (inclusive)", example = "2024-06-01")
+    private LocalDate highWaterMark;
+
+    @Schema(description = "Start of the window being processed, null when idle", example = "2024-06-01")
+    private LocalDate windowStart;
+
+    @Schema(description = "End of the window being processed", example = "2024-06-02")
+    private LocalDate windowEnd;
+
+    @Schema(description = "Last page of the current window already applied", example = "3")
+    private Integer lastCompletedPage;
+
+    @Schema(description = "Changed ids seen since the feed was created", example = "1200")
+    private long changesSeen;
+
+    @Schema(description = "Stored titles updated since the feed was created", example = "85")
+    private long titlesUpdated;
+
+    @Schema(description = "When the last run started")
+    private Instant lastRunAt;
+
+    @Schema(description = "When a window was last completed up to the current date")
+    private Instant lastSuccessAt;
+
+    @Column(length = 1000)
+    @Schema(description = "Error of the last failed run, null after a successful one")
+    private String lastError;
+
+    public SyncState(String feed) {
+        this.feed = feed;
+    }
+}
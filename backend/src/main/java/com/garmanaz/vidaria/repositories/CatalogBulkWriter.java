@@ -0,0 +1,207 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Season;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.utils.cache.CacheInvalidationBus;
+import com.garmanaz.vidaria.utils.cache.KnownIds;
+import com.garmanaz.vidaria.utils.cache.KnownIdsListener;
+import com.garmanaz.vidaria.utils.search.CatalogIndexListener;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Escritura masiva de la ingesta con JDBC. Con ids asignados por TMDB, save/saveAll hacen merge
+// (un SELECT antes de cada INSERT); aquí cada tabla es un executeBatch por lote de INSERT ... ON CONFLICT
+// (MERGE en H2), y con reWriteBatchedInserts el driver de PostgreSQL lo envía como INSERT multi-fila.
+// Los géneros de cada título se reemplazan: la tabla de unión no tiene clave con la que resolver conflictos.
+// Con JDBC no se ejecutan los listeners JPA; el writer les pasa las entidades escritas para que ids conocidos,
+// invalidación de cachés e índice de búsqueda se enteren tras el commit igual que con save.
+@Repository
+public class CatalogBulkWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogBulkWriter.class);
+
+    private static final List<String> MOVIE_COLUMNS = List.of("id", "title", "description", "release_date", "cover",
+            "background", "director", "duration", "rating", "popularity", "category_id", "trailer");
+    private static final List<String> SERIE_COLUMNS = List.of("id", "title", "description", "creator", "release_date",
+            "poster", "backdrop", "rating", "popularity", "number_of_seasons", "number_of_episodes", "trailer", "status");
+    private static final List<String> SEASON_COLUMNS = List.of("id", "air_date", "episode_count", "name", "poster",
+            "season_number", "serie_id");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KnownIdsListener knownIdsListener;
+    private final CatalogIndexListener catalogIndexListener;
+    private final int batchSize;
+    private final String upsertMovie;
+    private final String upsertSerie;
+    private final String upsertSeason;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CatalogBulkWriter(JdbcTemplate jdbcTemplate, ObjectProvider<KnownIds> knownIds,
+                             ObjectProvider<CacheInvalidationBus> invalidationBus, ApplicationEventPublisher eventPublisher,
+                             @Value("${vidaria.ingest.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.knownIdsListener = new KnownIdsListener(knownIds, invalidationBus);
+        this.catalogIndexListener = new CatalogIndexListener(eventPublisher);
+        this.batchSize = batchSize;
+        boolean postgres = "PostgreSQL".equals(databaseProduct(jdbcTemplate));
+        this.upsertMovie = upsert("movie", MOVIE_COLUMNS, postgres);
+        this.upsertSerie = upsert("serie", SERIE_COLUMNS, postgres);
+        this.upsertSeason = upsert("season", SEASON_COLUMNS, postgres);
+    }
+
+    public int upsertMovies(Collection<Movie> movies) {
+        if (movies.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        // Los géneros o categorías nuevos que JPA tenga pendientes tienen que existir antes que las filas que los referencian
+        entityManager.flush();
+
+        batch(upsertMovie, movies, (ps, movie) -> {
+            ps.setLong(1, movie.getId());
+            ps.setString(2, movie.getTitle());
+            ps.setString(3, movie.getDescription());
+            ps.setObject(4, movie.getReleaseDate() != null ? Date.valueOf(movie.getReleaseDate()) : null, Types.DATE);
+            ps.setString(5, movie.getCover());
+            ps.setString(6, movie.getBackground());
+            ps.setString(7, movie.getDirector());
+            ps.setObject(8, movie.getDuration(), Types.BIGINT);
+            ps.setObject(9, movie.getRating(), Types.DOUBLE);
+            ps.setObject(10, movie.getPopularity(), Types.DOUBLE);
+            ps.setObject(11, movie.getCategory() != null ? movie.getCategory().getId() : null, Types.BIGINT);
+            ps.setString(12, movie.getTrailer());
+        });
+        replaceGenres("movie_genre", "movie_id", movies.stream()
+                .map(movie -> new Owner(movie.getId(), movie.getGenres()))
+                .toList());
+
+        movies.forEach(this::written);
+        logger.debug("Upserted {} movies in {} ms", movies.size(), (System.nanoTime() - start) / 1_000_000);
+        return movies.size();
+    }
+
+    public int upsertSeries(Collection<Serie> series) {
+        if (series.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        entityManager.flush();
+
+        batch(upsertSerie, series, (ps, serie) -> {
+            ps.setLong(1, serie.getId());
+            ps.setString(2, serie.getTitle());
+            ps.setString(3, serie.getDescription());
+            ps.setString(4, serie.getCreator());
+            ps.setString(5, serie.getReleaseDate());
+            ps.setString(6, serie.getPoster());
+            ps.setString(7, serie.getBackdrop());
+            ps.setObject(8, serie.getRating(), Types.DOUBLE);
+            ps.setObject(9, serie.getPopularity(), Types.DOUBLE);
+            ps.setObject(10, serie.getNumberOfSeasons(), Types.BIGINT);
+            ps.setObject(11, serie.getNumberOfEpisodes(), Types.BIGINT);
+            ps.setString(12, serie.getTrailer());
+            ps.setString(13, serie.getStatus());
+        });
+        List<Season> seasons = new ArrayList<>();
+        for (Serie serie : series) {
+            if (serie.getSeasons() != null) {
+                serie.getSeasons().stream().filter(season -> season.getId() != null).forEach(season -> {
+                    season.setSerie(serie);
+                    seasons.add(season);
+                });
+            }
+        }
+        batch(upsertSeason, seasons, (ps, season) -> {
+            ps.setLong(1, season.getId());
+            ps.setString(2, season.getReleaseDate());
+            ps.setObject(3, season.getEpisodeCount(), Types.BIGINT);
+            ps.setString(4, season.getName());
+            ps.setString(5, season.getPoster());
+            ps.setObject(6, season.getSeasonNumber(), Types.BIGINT);
+            ps.setLong(7, season.getSerie().getId());
+        });
+        replaceGenres("serie_genre", "serie_id", series.stream()
+                .map(serie -> new Owner(serie.getId(), serie.getGenreID()))
+                .toList());
+
+        series.forEach(this::written);
+        logger.debug("Upserted {} series and {} seasons in {} ms", series.size(), seasons.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return series.size();
+    }
+
+    private record Owner(Long id, List<Genre> genres) {
+    }
+
+    private record Link(Long ownerId, Long genreId) {
+    }
+
+    private void replaceGenres(String table, String ownerColumn, List<Owner> owners) {
+        batch("DELETE FROM " + table + " WHERE " + ownerColumn + " = ?", owners, (ps, owner) -> ps.setLong(1, owner.id()));
+        List<Link> links = new ArrayList<>();
+        for (Owner owner : owners) {
+            if (owner.genres() != null) {
+                owner.genres().stream().map(Genre::getId).distinct()
+                        .forEach(genreId -> links.add(new Link(owner.id(), genreId)));
+            }
+        }
+        batch("INSERT INTO " + table + " (" + ownerColumn + ", genre_id) VALUES (?, ?)", links, (ps, link) -> {
+            ps.setLong(1, link.ownerId());
+            ps.setLong(2, link.genreId());
+        });
+    }
+
+    private <T> void batch(String sql, Collection<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows, batchSize, setter);
+        }
+    }
+
+    // Mismo efecto que los callbacks @PostPersist/@PostUpdate de un save
+    private void written(Object entity) {
+        knownIdsListener.onPersist(entity);
+        catalogIndexListener.onWrite(entity);
+    }
+
+    static String upsert(String table, List<String> columns, boolean postgres) {
+        String names = String.join(", ", columns);
+        String values = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+        if (!postgres) {
+            return "MERGE INTO " + table + " (" + names + ") KEY (id) VALUES (" + values + ")";
+        }
+        String updates = columns.stream().filter(column -> !column.equals("id"))
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + names + ") VALUES (" + values + ") ON CONFLICT (id) DO UPDATE SET " + updates;
+    }
+
+    private static String databaseProduct(JdbcTemplate jdbcTemplate) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot detect the database for bulk upserts", e);
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package com.garmanaz.vidaria.repositories;
 
 import com.garmanaz.vidaria.entities.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    // Resultado en la caché de consultas; Hibernate lo invalida con cada escritura en category
     @Query("SELECT c FROM Category c WHERE c.name = :name")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
      Category findByName(String name);
 
     @Query("SELECT c FROM Category c WHERE c.name IN :names")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByNames(List<String> names);
 
 
@@ -0,0 +1,29 @@
+package com.garmanaz.vidaria.repositories;
+
+import java.util.Locale;
+
+// Cómo se calcula el total de una página de búsqueda:
+// EXACT cuenta siempre, CACHED guarda el total exacto unos segundos por combinación de filtros,
+// ESTIMATE usa la estimación del planificador cuando la búsqueda es amplia y NONE no cuenta (solo hasNext)
+public enum CountStrategy {
+
+    EXACT,
+    CACHED,
+    ESTIMATE,
+    NONE;
+
+    public static CountStrategy of(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown count strategy: " + value);
+        }
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,9 +1,12 @@
 package com.garmanaz.vidaria.repositories;
 
 import com.garmanaz.vidaria.entities.Genre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,9 +17,11 @@ public interface GenreRepository extends JpaRepository<Genre, Long>, JpaSpecific
     Optional<Genre> findById(long id);
 
     @Query("SELECT g FROM Genre g WHERE g.name = :name")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Genre> findByName(String name);
 
     // get list of genres by name
     @Query("SELECT g FROM Genre g WHERE g.name IN :names")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Genre> findByNames(List<String> names);
 }
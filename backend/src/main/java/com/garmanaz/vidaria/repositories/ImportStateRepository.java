@@ -0,0 +1,9 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.entities.ImportState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportStateRepository extends JpaRepository<ImportState, String> {
+}
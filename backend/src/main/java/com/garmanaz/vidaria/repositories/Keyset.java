@@ -0,0 +1,94 @@
+package com.garmanaz.vidaria.repositories;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+// Órdenes estables para la paginación por cursor: cada página sigue a la última fila de la anterior con un
+// WHERE sobre las columnas del orden en lugar de OFFSET, así la página 5.000 cuesta lo mismo que la primera.
+// Las columnas van de mayor a menor con los nulos al final y el id (ascendente) desempata.
+public enum Keyset {
+
+    POPULARITY("popularity", "rating"),
+    RATING("rating"),
+    ID;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final List<String> properties;
+
+    Keyset(String... properties) {
+        this.properties = List.of(properties);
+    }
+
+    public List<String> getProperties() {
+        return properties;
+    }
+
+    // Solo se admite el orden que tiene índice: popularity desc, rating desc o id asc. Las órdenes secundarias
+    // tienen que seguir las columnas del keyset (y acabar como mucho en id asc): el cursor no puede buscar por
+    // otra columna y la página no coincidiría con la que devuelve la paginación por offset
+    public static Keyset forSort(Sort sort, Keyset defaultKeyset) {
+        if (sort.isUnsorted()) {
+            return defaultKeyset;
+        }
+        List<Sort.Order> orders = sort.toList();
+        for (Keyset keyset : values()) {
+            if (keyset.matches(orders)) {
+                return keyset;
+            }
+        }
+        throw new IllegalArgumentException("Keyset pagination cannot sort by " + sort);
+    }
+
+    private boolean matches(List<Sort.Order> orders) {
+        if (orders.size() > properties.size() + 1) {
+            return false;
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            boolean matches = i < properties.size()
+                    ? properties.get(i).equals(order.getProperty()) && order.isDescending()
+                    : "id".equals(order.getProperty()) && order.isAscending();
+            if (!matches) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // row = [id, valores de las columnas del orden...], tal como lo devuelve la consulta
+    String encode(Object[] row) {
+        StringBuilder cursor = new StringBuilder(name()).append(':').append(row[0]);
+        for (int i = 1; i < row.length; i++) {
+            cursor.append(':').append(row[i] == null ? "" : row[i]);
+        }
+        return ENCODER.encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Fila [id, valores...] tras la que empieza la página; null (primera página) si el cursor es null o vacío.
+    // Se decodifica fuera del repositorio para que un cursor inválido llegue como IllegalArgumentException
+    public Object[] after(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split(":", -1);
+            if (parts.length != properties.size() + 2 || !name().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not belong to the " + name() + " ordering");
+            }
+            Object[] row = new Object[properties.size() + 1];
+            row[0] = Long.parseLong(parts[1]);
+            for (int i = 1; i < row.length; i++) {
+                row[i] = parts[i + 1].isEmpty() ? null : Double.valueOf(parts[i + 1]);
+            }
+            return row;
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException y los errores de Base64 también son IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor: " + e.getMessage(), e);
+        }
+    }
+}
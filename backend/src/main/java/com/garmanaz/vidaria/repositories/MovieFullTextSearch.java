@@ -0,0 +1,215 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Búsqueda de películas sobre PostgreSQL con índices: tsvector (título con peso A, descripción con peso B)
+// para palabras completas y pg_trgm sobre lower(title) para subcadenas y errores de escritura.
+// Los filtros de género y categoría van en EXISTS para no multiplicar filas con los joins.
+// Devuelve solo ids ordenados; las entidades se cargan después con su entity graph.
+@Repository
+@ConditionalOnProperty(name = "vidaria.search.movie.mode", havingValue = "fulltext")
+public class MovieFullTextSearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieFullTextSearch.class);
+
+    // 'simple' no aplica stemming: los títulos vienen en varios idiomas
+    static final List<String> SCHEMA = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "ALTER TABLE movie ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                    + "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || "
+                    + "setweight(to_tsvector('simple', coalesce(description, '')), 'B')) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_movie_search_vector ON movie USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_movie_title_trgm ON movie USING gin (lower(title) gin_trgm_ops)");
+
+    // Relevancia textual (coincidencia de palabras + parecido del título) ponderada por la popularidad,
+    // con la valoración como desempate: un título exacto gana, pero entre parecidos sube el más popular
+    private static final String RELEVANCE_ORDER = "(ts_rank_cd(m.search_vector, websearch_to_tsquery('simple', :title)) "
+            + "+ similarity(lower(m.title), :title)) * ln(2 + coalesce(m.popularity, 0)) DESC, ";
+
+    private static final String DEFAULT_ORDER = "m.popularity DESC NULLS LAST, m.rating DESC NULLS LAST, m.id";
+
+    // Columnas por las que el cliente puede ordenar (?sort=), las mismas que en MovieSearchRepositoryImpl
+    private static final Map<String, String> SORTABLE = Map.of(
+            "popularity", "m.popularity",
+            "rating", "m.rating",
+            "releaseDate", "m.release_date",
+            "title", "m.title",
+            "id", "m.id");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final SearchCounter counter;
+
+    public MovieFullTextSearch(NamedParameterJdbcTemplate jdbcTemplate,
+                               @Value("${vidaria.search.count.cache-ttl:PT30S}") Duration cacheTtl,
+                               @Value("${vidaria.search.count.cache-max-size:10000}") long cacheMaxSize,
+                               @Value("${vidaria.search.count.estimate-threshold:10000}") long estimateThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counter = new SearchCounter(jdbcTemplate, cacheTtl, cacheMaxSize, estimateThreshold);
+    }
+
+    // Las columnas generadas y los índices GIN no los crea ddl-auto; se aplican al arrancar y son idempotentes
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSchema() {
+        long start = System.nanoTime();
+        SCHEMA.forEach(statement -> jdbcTemplate.getJdbcTemplate().execute(statement));
+        logger.info("Movie full-text search schema ready in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public Page<Long> searchIds(String title, List<String> genres, List<String> categories,
+                                LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                Double ratingFrom, Double ratingTo,
+                                Double popularityFrom, Double popularityTo,
+                                Pageable pageable) {
+        Filter filter = filter(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo);
+        List<Long> ids = ids(filter, pageable, pageable.getPageSize());
+
+        // Sin el count cuando la página ya dice cuántos hay
+        long total;
+        if (pageable.getOffset() == 0 && ids.size() < pageable.getPageSize()) {
+            total = ids.size();
+        } else {
+            total = count(filter);
+        }
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    // Con un ?count= explícito, igual que SearchQuery.counted: una fila de más para saber si hay página siguiente
+    public CountedPage<Long> searchIds(String title, List<String> genres, List<String> categories,
+                                       LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                       Double ratingFrom, Double ratingTo,
+                                       Double popularityFrom, Double popularityTo,
+                                       Pageable pageable, CountStrategy strategy) {
+        Filter filter = filter(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo);
+        int size = pageable.getPageSize();
+        List<Long> rows = ids(filter, pageable, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Long> ids = hasNext ? rows.subList(0, size) : rows;
+
+        if (!hasNext && (!ids.isEmpty() || pageable.getOffset() == 0)) {
+            return CountedPage.of(ids, pageable, pageable.getOffset() + ids.size(), false, strategy.label(), true);
+        }
+        String signature = SearchCounter.signature("movie-fulltext", filter.params().getValues());
+        return switch (strategy) {
+            case EXACT -> CountedPage.of(ids, pageable, count(filter), hasNext, strategy.label(), true);
+            case CACHED -> CountedPage.of(ids, pageable, counter.cached(signature, () -> count(filter)),
+                    hasNext, strategy.label(), true);
+            case NONE -> CountedPage.of(ids, pageable, null, hasNext, strategy.label(), false);
+            case ESTIMATE -> {
+                Long estimate = counter.estimate("SELECT 1 FROM movie m" + filter.where(), filter.params().getValues());
+                if (estimate == null || !counter.isBroad(estimate)) {
+                    long exact = counter.cached(signature, () -> count(filter));
+                    yield CountedPage.of(ids, pageable, exact, hasNext, strategy.label(), true);
+                }
+                long seen = pageable.getOffset() + ids.size() + (hasNext ? 1 : 0);
+                yield CountedPage.of(ids, pageable, Math.max(estimate, seen), hasNext, strategy.label(), false);
+            }
+        };
+    }
+
+    // Un orden pedido por el cliente se respeta como en el modo LIKE; la relevancia solo ordena si no hay ninguno
+    static String orderBy(Sort sort, boolean hasTitle) {
+        if (sort.isUnsorted()) {
+            return (hasTitle ? RELEVANCE_ORDER : "") + DEFAULT_ORDER;
+        }
+        List<String> order = new ArrayList<>();
+        for (Sort.Order sortOrder : sort) {
+            String column = SORTABLE.get(sortOrder.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort by " + sortOrder.getProperty());
+            }
+            order.add(column + (sortOrder.isAscending() ? " ASC" : " DESC"));
+        }
+        order.add("m.id");
+        return String.join(", ", order);
+    }
+
+    private Filter filter(String title, List<String> genres, List<String> categories,
+                          LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                          Double ratingFrom, Double ratingTo,
+                          Double popularityFrom, Double popularityTo) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+
+        boolean hasTitle = title != null && !title.isBlank();
+        if (hasTitle) {
+            String normalized = title.trim().toLowerCase(Locale.ROOT);
+            params.addValue("title", normalized);
+            params.addValue("like", "%" + escapeLike(normalized) + "%");
+            where.append(" AND (m.search_vector @@ websearch_to_tsquery('simple', :title)"
+                    + " OR lower(m.title) LIKE :like OR lower(m.title) % :title)");
+        }
+        if (genres != null && !genres.isEmpty()) {
+            params.addValue("genres", lower(genres));
+            where.append(" AND EXISTS (SELECT 1 FROM movie_genre mg JOIN genre g ON g.id = mg.genre_id"
+                    + " WHERE mg.movie_id = m.id AND lower(g.name) IN (:genres))");
+        }
+        if (categories != null && !categories.isEmpty()) {
+            params.addValue("categories", lower(categories));
+            where.append(" AND EXISTS (SELECT 1 FROM category c WHERE c.id = m.category_id AND lower(c.name) IN (:categories))");
+        }
+        range(where, params, "m.release_date", "releaseDate", releaseDateFrom, releaseDateTo);
+        range(where, params, "m.rating", "rating", ratingFrom, ratingTo);
+        range(where, params, "m.popularity", "popularity", popularityFrom, popularityTo);
+        return new Filter(where.toString(), params, hasTitle);
+    }
+
+    private List<Long> ids(Filter filter, Pageable pageable, int limit) {
+        // Copia: limit y offset no forman parte de la firma del count
+        MapSqlParameterSource params = new MapSqlParameterSource(filter.params().getValues())
+                .addValue("limit", limit)
+                .addValue("offset", pageable.getOffset());
+        return jdbcTemplate.queryForList("SELECT m.id FROM movie m" + filter.where()
+                + " ORDER BY " + orderBy(pageable.getSort(), filter.hasTitle())
+                + " LIMIT :limit OFFSET :offset", params, Long.class);
+    }
+
+    private long count(Filter filter) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM movie m" + filter.where(), filter.params(), Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static void range(StringBuilder where, MapSqlParameterSource params, String column, String name,
+                              Object from, Object to) {
+        if (from != null) {
+            params.addValue(name + "From", from);
+            where.append(" AND ").append(column).append(" >= :").append(name).append("From");
+        }
+        if (to != null) {
+            params.addValue(name + "To", to);
+            where.append(" AND ").append(column).append(" <= :").append(name).append("To");
+        }
+    }
+
+    private static List<String> lower(List<String> values) {
+        return values.stream().map(value -> value.toLowerCase(Locale.ROOT)).toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private record Filter(String where, MapSqlParameterSource params, boolean hasTitle) {
+    }
+}
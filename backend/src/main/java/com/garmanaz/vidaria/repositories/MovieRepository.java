@@ -1,5 +1,6 @@
 package com.garmanaz.vidaria.repositories;
 
+import com.garmanaz.vidaria.DTO.RankedTitle;
 import com.garmanaz.vidaria.entities.Movie;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,45 +10,19 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Long> {
-
-
-    @EntityGraph(attributePaths = {"genres", "category"})
-    @Query("SELECT m FROM Movie m LEFT JOIN m.genres g LEFT JOIN m.category c " +
-            "WHERE (:title IS NULL OR LOWER(m.title) LIKE %:title%) " +
-            "AND (:genres IS NULL OR LOWER(g.name) IN :genres) " +
-            "AND (:categories IS NULL OR LOWER(c.name) IN :categories) " +
-            "AND (:releaseDateFrom IS NULL OR m.releaseDate >= :releaseDateFrom) " +
-            "AND (:releaseDateTo IS NULL OR m.releaseDate <= :releaseDateTo) " +
-            "AND (:ratingFrom IS NULL OR m.rating >= :ratingFrom) " +
-            "AND (:ratingTo IS NULL OR m.rating <= :ratingTo) " +
-            "AND (:popularityFrom IS NULL OR m.popularity >= :popularityFrom) " +
-            "AND (:popularityTo IS NULL OR m.popularity <= :popularityTo) " +
-            "ORDER BY m.rating DESC")
-    Page<Movie> searchMovies(
-            @Param("title") String title,
-            @Param("genres") List<String> genres,
-            @Param("categories") List<String> categories,
-            @Param("releaseDateFrom") LocalDate releaseDateFrom,
-            @Param("releaseDateTo") LocalDate releaseDateTo,
-            @Param("ratingFrom") Double ratingFrom,
-            @Param("ratingTo") Double ratingTo,
-            @Param("popularityFrom") Double popularityFrom,
-            @Param("popularityTo") Double popularityTo,
-            Pageable pageable
-    );
-
-    // Método para buscar películas por categoría con carga ansiosa
-    @EntityGraph(attributePaths = {"genres", "category"})
+public interface MovieRepository extends JpaRepository<Movie, Long>, MovieSearchRepository {
+
+    // Método para buscar películas por categoría. Sin fetch de géneros: con una colección en el join
+    // Hibernate pagina en memoria; los géneros llegan por lotes (@BatchSize) al acceder a ellos
     @Query("SELECT m FROM Movie m LEFT JOIN m.category c WHERE LOWER(c.name) = LOWER(:categoryName)")
     Page<Movie> findMoviesByCategory(@Param("categoryName") String categoryName, Pageable pageable);
 
-    // Método para buscar películas por título y géneros con carga ansiosa
-    @EntityGraph(attributePaths = {"genres", "category"})
+    // Método para buscar películas por título y géneros
     @Query("SELECT m FROM Movie m LEFT JOIN m.genres g WHERE LOWER(m.title) LIKE %:title% AND LOWER(g.name) IN :genres")
     Page<Movie> findMovieByTitleAndGenres(@Param("title") String title, @Param("genres") List<String> genres, Pageable pageable);
 
@@ -61,9 +36,34 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
     @Query("SELECT m FROM Movie m ORDER BY m.popularity DESC")
     List<Movie> findFeaturedMovies();
 
-    @Query("SELECT m FROM Movie m JOIN FETCH m.genres g ORDER BY m.popularity DESC")
-    List<Movie> findAllWithGenresLimited(Pageable pageable);
+    // Los géneros se cargan por lotes: un JOIN FETCH con Pageable aplicaría el límite en memoria
+    @Query("SELECT m FROM Movie m WHERE m.genres IS NOT EMPTY ORDER BY m.popularity DESC NULLS LAST, m.id")
+    List<Movie> findMostPopularWithGenres(Pageable pageable);
+
+    // Recorrido por bloques ordenado por id (keyset) para no cargar toda la tabla
+    @Query("SELECT m.id FROM Movie m WHERE m.id > :afterId ORDER BY m.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT m.id FROM Movie m ORDER BY m.popularity DESC NULLS LAST, m.id")
+    List<Long> findIdsByPopularity(Pageable pageable);
+
+    @Query("SELECT m.id FROM Movie m WHERE m.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Contenido esperado de las clasificaciones en Redis, para compararlo con ellas
+    @Query("SELECT new com.garmanaz.vidaria.DTO.RankedTitle(m.id, m.rating, m.popularity) FROM Movie m JOIN m.genres g WHERE g.id = :genreId")
+    List<RankedTitle> findRankedByGenre(@Param("genreId") Long genreId);
+
+    @Query("SELECT new com.garmanaz.vidaria.DTO.RankedTitle(m.id, m.rating, m.popularity) FROM Movie m WHERE m.category.id = :categoryId")
+    List<RankedTitle> findRankedByCategory(@Param("categoryId") Long categoryId);
+
+    @EntityGraph("Movie.detail")
+    List<Movie> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph("Movie.detail")
+    Optional<Movie> findDetailById(Long id);
 
-    @Query("SELECT DISTINCT m FROM Movie m JOIN FETCH m.genres g ORDER BY m.popularity DESC")
-    List<Movie> findAllWithUniqueGenres(Pageable pageable);
+    // Edición: la fila y su categoría; los géneros se sustituyen enteros, no hace falta leerlos
+    @EntityGraph("Movie.admin")
+    Optional<Movie> findAdminById(Long id);
 }
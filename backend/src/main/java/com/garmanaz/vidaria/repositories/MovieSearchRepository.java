@@ -0,0 +1,66 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.MovieCard;
+import com.garmanaz.vidaria.entities.Movie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// type elige qué se devuelve de cada película: la entidad completa (Movie) o la vista de listado (MovieCard)
+public interface MovieSearchRepository {
+
+    // Los filtros nulos no se aplican; sin orden en el Pageable se ordena por popularidad y valoración
+    <T> Page<T> searchMovies(String title, List<String> genres, List<String> categories,
+                             LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                             Double ratingFrom, Double ratingTo,
+                             Double popularityFrom, Double popularityTo,
+                             Pageable pageable, Class<T> type);
+
+    // Mismos filtros con el total calculado según count
+    <T> CountedPage<T> searchMovies(String title, List<String> genres, List<String> categories,
+                                    LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                    Double ratingFrom, Double ratingTo,
+                                    Double popularityFrom, Double popularityTo,
+                                    Pageable pageable, CountStrategy count, Class<T> type);
+
+    // Mismos filtros con paginación por cursor; after es la posición de Keyset.after(cursor), null en la primera página
+    <T> CursorPage<T> seekMovies(String title, List<String> genres, List<String> categories,
+                                 LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                 Double ratingFrom, Double ratingTo,
+                                 Double popularityFrom, Double popularityTo,
+                                 Keyset keyset, Object[] after, int size, Class<T> type);
+
+    // Vistas de listado de los ids dados, en el mismo orden
+    List<MovieCard> findMovieCards(List<Long> ids);
+
+    default Page<Movie> searchMovies(String title, List<String> genres, List<String> categories,
+                                     LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                     Double ratingFrom, Double ratingTo,
+                                     Double popularityFrom, Double popularityTo,
+                                     Pageable pageable) {
+        return searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, pageable, Movie.class);
+    }
+
+    default CountedPage<Movie> searchMovies(String title, List<String> genres, List<String> categories,
+                                            LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                            Double ratingFrom, Double ratingTo,
+                                            Double popularityFrom, Double popularityTo,
+                                            Pageable pageable, CountStrategy count) {
+        return searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, pageable, count, Movie.class);
+    }
+
+    default CursorPage<Movie> seekMovies(String title, List<String> genres, List<String> categories,
+                                         LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                         Double ratingFrom, Double ratingTo,
+                                         Double popularityFrom, Double popularityTo,
+                                         Keyset keyset, Object[] after, int size) {
+        return seekMovies(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, keyset, after, size, Movie.class);
+    }
+}
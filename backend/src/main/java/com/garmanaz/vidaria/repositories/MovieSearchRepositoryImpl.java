@@ -0,0 +1,132 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.MovieCard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Géneros y categoría se filtran con EXISTS: no multiplican filas, no hace falta DISTINCT
+// y el count coincide con lo que se pagina
+@Transactional(readOnly = true)
+public class MovieSearchRepositoryImpl implements MovieSearchRepository {
+
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Order.desc("popularity"), Sort.Order.desc("rating"));
+    private static final Map<String, String> SORTABLE = Map.of(
+            "popularity", "e.popularity",
+            "rating", "e.rating",
+            "releaseDate", "e.releaseDate",
+            "title", "e.title",
+            "id", "e.id");
+
+    // Los mismos filtros en SQL, solo para la estimación de COUNT con EXPLAIN en PostgreSQL
+    private static final Map<String, String> SQL_PREDICATES = Map.of(
+            "title", "lower(e.title) LIKE :title",
+            "genres", "EXISTS (SELECT 1 FROM movie_genre mg JOIN genre g ON g.id = mg.genre_id WHERE mg.movie_id = e.id AND lower(g.name) IN (:genres))",
+            "categories", "EXISTS (SELECT 1 FROM category c WHERE c.id = e.category_id AND lower(c.name) IN (:categories))",
+            "releaseDateFrom", "e.release_date >= :releaseDateFrom",
+            "releaseDateTo", "e.release_date <= :releaseDateTo",
+            "ratingFrom", "e.rating >= :ratingFrom",
+            "ratingTo", "e.rating <= :ratingTo",
+            "popularityFrom", "e.popularity >= :popularityFrom",
+            "popularityTo", "e.popularity <= :popularityTo");
+
+    // Columnas de la rejilla y la cabecera del frontend, con los géneros agregados en SQL
+    private static final String CARD = "SELECT m.id, m.title, m.description, m.cover, m.background, m.releaseDate, m.rating, "
+            + "m.popularity, m.trailer, c.id, c.name, " + SearchQuery.genreList("m.genres") + " FROM Movie m LEFT JOIN m.category c WHERE m.id IN :ids";
+
+    private final Map<String, SearchQuery.Shape> shapes = SearchQuery.newShapeCache();
+    private final SearchCounter counter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MovieSearchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                     @Value("${vidaria.search.count.cache-ttl:PT30S}") Duration cacheTtl,
+                                     @Value("${vidaria.search.count.cache-max-size:10000}") long cacheMaxSize,
+                                     @Value("${vidaria.search.count.estimate-threshold:10000}") long estimateThreshold) {
+        this.counter = new SearchCounter(jdbcTemplate, cacheTtl, cacheMaxSize, estimateThreshold);
+    }
+
+    @Override
+    public <T> Page<T> searchMovies(String title, List<String> genres, List<String> categories,
+                                    LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                    Double ratingFrom, Double ratingTo,
+                                    Double popularityFrom, Double popularityTo,
+                                    Pageable pageable, Class<T> type) {
+        Page<Long> ids = filters(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo).ids(entityManager, pageable, DEFAULT_SORT);
+        return new PageImpl<>(fetch(ids.getContent(), type), pageable, ids.getTotalElements());
+    }
+
+    @Override
+    public <T> CountedPage<T> searchMovies(String title, List<String> genres, List<String> categories,
+                                           LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                           Double ratingFrom, Double ratingTo,
+                                           Double popularityFrom, Double popularityTo,
+                                           Pageable pageable, CountStrategy count, Class<T> type) {
+        CountedPage<Long> ids = filters(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo)
+                .counted(entityManager, pageable, DEFAULT_SORT, count, counter);
+        return ids.withContent(fetch(ids.content(), type));
+    }
+
+    @Override
+    public <T> CursorPage<T> seekMovies(String title, List<String> genres, List<String> categories,
+                                        LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                        Double ratingFrom, Double ratingTo,
+                                        Double popularityFrom, Double popularityTo,
+                                        Keyset keyset, Object[] after, int size, Class<T> type) {
+        CursorPage<Long> ids = filters(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo).seek(entityManager, keyset, after, size);
+        return ids.withContent(fetch(ids.content(), type));
+    }
+
+    @Override
+    public List<MovieCard> findMovieCards(List<Long> ids) {
+        return SearchQuery.project(entityManager, CARD, ids, row -> new MovieCard((Long) row[0], (String) row[1],
+                (String) row[2], (String) row[3], (String) row[4], (LocalDate) row[5], (Double) row[6], (Double) row[7],
+                (String) row[8], row[9] != null ? new MovieCard.CategoryRef((Long) row[9], (String) row[10]) : null,
+                SearchQuery.genres(row[11])));
+    }
+
+    private <T> List<T> fetch(List<Long> ids, Class<T> type) {
+        if (type == MovieCard.class) {
+            return findMovieCards(ids).stream().map(type::cast).toList();
+        }
+        return SearchQuery.load(entityManager, type, "Movie.card", ids);
+    }
+
+    private SearchQuery filters(String title, List<String> genres, List<String> categories,
+                                LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                Double ratingFrom, Double ratingTo,
+                                Double popularityFrom, Double popularityTo) {
+        return new SearchQuery("Movie", "movie", shapes, SORTABLE, SQL_PREDICATES)
+                .where("title", "LOWER(e.title) LIKE :title", title != null ? "%" + title.toLowerCase(Locale.ROOT) + "%" : null)
+                .where("genres", "EXISTS (SELECT 1 FROM e.genres g WHERE LOWER(g.name) IN :genres)", lower(genres))
+                .where("categories", "EXISTS (SELECT 1 FROM Category c WHERE c = e.category AND LOWER(c.name) IN :categories)", lower(categories))
+                .where("releaseDateFrom", "e.releaseDate >= :releaseDateFrom", releaseDateFrom)
+                .where("releaseDateTo", "e.releaseDate <= :releaseDateTo", releaseDateTo)
+                .where("ratingFrom", "e.rating >= :ratingFrom", ratingFrom)
+                .where("ratingTo", "e.rating <= :ratingTo", ratingTo)
+                .where("popularityFrom", "e.popularity >= :popularityFrom", popularityFrom)
+                .where("popularityTo", "e.popularity <= :popularityTo", popularityTo);
+    }
+
+    static List<String> lower(List<String> values) {
+        return values == null ? null : values.stream().map(value -> value.toLowerCase(Locale.ROOT)).toList();
+    }
+}
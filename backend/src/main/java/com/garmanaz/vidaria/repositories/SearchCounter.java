@@ -0,0 +1,86 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+// Totales de las búsquedas paginadas sin repetir el COUNT en cada página:
+// los exactos se guardan poco tiempo por firma de filtros y, en PostgreSQL, las búsquedas amplias
+// usan las filas estimadas por el planificador (EXPLAIN), que no recorre la tabla
+final class SearchCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchCounter.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<String, Long> exactCounts;
+    private final long estimateThreshold;
+    private volatile Boolean postgres;
+
+    SearchCounter(NamedParameterJdbcTemplate jdbcTemplate, Duration ttl, long maxSize, long estimateThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exactCounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.estimateThreshold = estimateThreshold;
+    }
+
+    long cached(String signature, Supplier<Long> count) {
+        return exactCounts.get(signature, ignored -> count.get());
+    }
+
+    // Firma normalizada de los filtros: el mismo conjunto de valores en otro orden comparte total
+    static String signature(String prefix, Map<String, Object> parameters) {
+        StringBuilder signature = new StringBuilder(prefix);
+        new TreeMap<>(parameters).forEach((name, value) -> {
+            Object normalized = value instanceof Collection<?> values
+                    ? values.stream().map(String::valueOf).sorted().distinct().toList()
+                    : value;
+            signature.append('|').append(name).append('=').append(normalized);
+        });
+        return signature.toString();
+    }
+
+    // Por debajo del umbral la estimación es poco fiable y el COUNT es barato: se cuenta de verdad
+    boolean isBroad(long estimate) {
+        return estimate >= estimateThreshold;
+    }
+
+    // null si la base de datos no es PostgreSQL o no se puede leer el plan
+    Long estimate(String sql, Map<String, Object> parameters) {
+        if (!isPostgres()) {
+            return null;
+        }
+        try {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, parameters, String.class);
+            JsonNode rows = JSON.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return rows.isNumber() ? rows.asLong() : null;
+        } catch (Exception e) {
+            logger.warn("Cannot estimate search count: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean current = postgres;
+        if (current == null) {
+            current = Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgresql")));
+            postgres = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,306 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.GenreSnapshot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Consulta de búsqueda que solo lleva los predicados de los filtros recibidos.
+// Cada combinación de filtros y orden es una "forma": su JPQL se genera una vez y se guarda en shapes,
+// así Hibernate recibe siempre el mismo texto para la misma forma y reutiliza el plan compilado
+// (la Criteria API de Hibernate 6.5 no pasa por esa caché).
+// Devuelve solo la página de ids; las entidades se cargan después con load() y las vistas de listado con project().
+final class SearchQuery {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchQuery.class);
+
+    record Shape(String ids, String count) {
+    }
+
+    private final String entity;
+    private final String table;
+    private final Map<String, Shape> shapes;
+    private final Map<String, String> sortable;
+    private final Map<String, String> sqlPredicates;
+    private final Map<String, String> predicates = new LinkedHashMap<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    // sortable: propiedad del Sort -> expresión JPQL permitida para ordenar.
+    // sqlPredicates: el mismo filtro en SQL sobre table (alias e), solo para pedir la estimación al planificador
+    SearchQuery(String entity, String table, Map<String, Shape> shapes, Map<String, String> sortable,
+                Map<String, String> sqlPredicates) {
+        this.entity = entity;
+        this.table = table;
+        this.shapes = shapes;
+        this.sortable = sortable;
+        this.sqlPredicates = sqlPredicates;
+    }
+
+    static Map<String, Shape> newShapeCache() {
+        return new ConcurrentHashMap<>();
+    }
+
+    // El predicado usa el parámetro :name; si value es null (o una colección vacía) el filtro no se emite
+    SearchQuery where(String name, String predicate, Object value) {
+        if (value == null || (value instanceof Collection<?> collection && collection.isEmpty())) {
+            return this;
+        }
+        predicates.put(name, predicate);
+        parameters.put(name, value);
+        return this;
+    }
+
+    Page<Long> ids(EntityManager entityManager, Pageable pageable, Sort defaultSort) {
+        Shape shape = shape(pageable, defaultSort);
+
+        TypedQuery<Long> query = entityManager.createQuery(shape.ids(), Long.class);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = query.getResultList();
+
+        // Sin count si la página ya dice cuántos hay
+        return PageableExecutionUtils.getPage(ids, pageable, () -> count(entityManager, shape));
+    }
+
+    // Igual que ids() pero el total se calcula según strategy. Se pide una fila de más para saber si hay
+    // página siguiente sin depender del total, que con NONE no existe y con ESTIMATE es aproximado
+    CountedPage<Long> counted(EntityManager entityManager, Pageable pageable, Sort defaultSort,
+                              CountStrategy strategy, SearchCounter counter) {
+        if (pageable.isUnpaged()) {
+            return CountedPage.from(ids(entityManager, pageable, defaultSort));
+        }
+        Shape shape = shape(pageable, defaultSort);
+        int size = pageable.getPageSize();
+        TypedQuery<Long> query = entityManager.createQuery(shape.ids(), Long.class);
+        parameters.forEach(query::setParameter);
+        List<Long> rows = query.setFirstResult((int) pageable.getOffset()).setMaxResults(size + 1).getResultList();
+        boolean hasNext = rows.size() > size;
+        List<Long> ids = hasNext ? rows.subList(0, size) : rows;
+
+        // Última página (o primera incompleta): el total sale de ella
+        if (!hasNext && (!ids.isEmpty() || pageable.getOffset() == 0)) {
+            return CountedPage.of(ids, pageable, pageable.getOffset() + ids.size(), false, strategy.label(), true);
+        }
+        return switch (strategy) {
+            case EXACT -> CountedPage.of(ids, pageable, count(entityManager, shape), hasNext, strategy.label(), true);
+            case CACHED -> CountedPage.of(ids, pageable, counter.cached(SearchCounter.signature(entity, parameters), () -> count(entityManager, shape)),
+                    hasNext, strategy.label(), true);
+            case NONE -> CountedPage.of(ids, pageable, null, hasNext, strategy.label(), false);
+            case ESTIMATE -> {
+                Long estimate = estimate(counter);
+                if (estimate == null || !counter.isBroad(estimate)) {
+                    long exact = counter.cached(SearchCounter.signature(entity, parameters), () -> count(entityManager, shape));
+                    yield CountedPage.of(ids, pageable, exact, hasNext, strategy.label(), true);
+                }
+                // La estimación no puede quedarse por debajo de lo que ya se ha visto
+                long seen = pageable.getOffset() + ids.size() + (hasNext ? 1 : 0);
+                yield CountedPage.of(ids, pageable, Math.max(estimate, seen), hasNext, strategy.label(), false);
+            }
+        };
+    }
+
+    private Shape shape(Pageable pageable, Sort defaultSort) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : defaultSort;
+        String key = String.join(",", predicates.keySet()) + "|" + sort;
+        return shapes.computeIfAbsent(key, ignored -> compile(sort));
+    }
+
+    private long count(EntityManager entityManager, Shape shape) {
+        TypedQuery<Long> count = entityManager.createQuery(shape.count(), Long.class);
+        parameters.forEach(count::setParameter);
+        return count.getSingleResult();
+    }
+
+    private Long estimate(SearchCounter counter) {
+        List<String> where = new ArrayList<>(predicates.size());
+        for (String name : predicates.keySet()) {
+            String predicate = sqlPredicates.get(name);
+            if (predicate == null) {
+                return null;
+            }
+            where.add(predicate);
+        }
+        return counter.estimate("SELECT 1 FROM " + table + " e" + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where)),
+                parameters);
+    }
+
+    // Paginación por cursor sobre los mismos filtros. Con columnas de orden, la tabla se recorre en dos tramos:
+    // primero las filas con la primera columna informada (WHERE col <= :valor, que el índice resuelve como rango)
+    // y después las que la tienen a null. Un OR con IS NULL en el mismo WHERE obligaría a recorrer el índice entero
+    CursorPage<Long> seek(EntityManager entityManager, Keyset keyset, Object[] after, int size) {
+        boolean afterInNulls = after != null && after.length > 1 && after[1] == null;
+
+        List<Object[]> rows = new ArrayList<>(size + 1);
+        if (!afterInNulls) {
+            rows.addAll(seekRange(entityManager, keyset, false, after, size + 1));
+        }
+        if (!keyset.getProperties().isEmpty() && rows.size() <= size) {
+            rows.addAll(seekRange(entityManager, keyset, true, afterInNulls ? after : null, size + 1 - rows.size()));
+        }
+
+        // Se pide una fila de más para saber si hay página siguiente sin contar
+        boolean hasNext = rows.size() > size;
+        List<Object[]> page = hasNext ? rows.subList(0, size) : rows;
+        List<Long> ids = page.stream().map(row -> (Long) row[0]).toList();
+        return CursorPage.of(ids, size, hasNext ? keyset.encode(page.get(size - 1)) : null);
+    }
+
+    private List<Object[]> seekRange(EntityManager entityManager, Keyset keyset, boolean nulls, Object[] after, int limit) {
+        List<String> keys = keyset.getProperties();
+        StringBuilder key = new StringBuilder(String.join(",", predicates.keySet())).append("|").append(keyset);
+        if (!keys.isEmpty()) {
+            key.append(nulls ? "|nulls" : "|values");
+        }
+        if (after != null) {
+            key.append("|after");
+            for (int i = 2; i < after.length; i++) {
+                key.append(after[i] == null ? ":null" : ":value");
+            }
+        }
+        Shape shape = shapes.computeIfAbsent(key.toString(), ignored -> compileSeek(keys, nulls, after));
+
+        TypedQuery<Object[]> query = entityManager.createQuery(shape.ids(), Object[].class);
+        parameters.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("afterId", after[0]);
+            for (int i = 1; i < after.length; i++) {
+                if (after[i] != null && (i > 1 || !nulls)) {
+                    query.setParameter("after" + i, after[i]);
+                }
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private Shape compileSeek(List<String> keys, boolean nulls, Object[] after) {
+        List<String> where = new ArrayList<>(predicates.values());
+        List<String> select = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        select.add("e.id");
+        for (int i = 0; i < keys.size(); i++) {
+            select.add("e." + keys.get(i));
+            order.add("e." + keys.get(i) + (i == 0 ? " DESC" : " DESC NULLS LAST"));
+        }
+        order.add("e.id");
+
+        if (!keys.isEmpty()) {
+            where.add("e." + keys.get(0) + (nulls ? " IS NULL" : " IS NOT NULL"));
+        }
+        if (after != null) {
+            String rest = after(keys, after, 1);
+            if (keys.isEmpty() || nulls) {
+                where.add(rest);
+            } else {
+                String first = "e." + keys.get(0);
+                where.add(first + " <= :after1 AND (" + first + " < :after1 OR (" + first + " = :after1 AND " + rest + "))");
+            }
+        }
+
+        String jpql = "SELECT " + String.join(", ", select) + " FROM " + entity + " e"
+                + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                + " ORDER BY " + String.join(", ", order);
+        logger.debug("New {} keyset shape: {}", entity, jpql);
+        return new Shape(jpql, null);
+    }
+
+    // Condición "va después de after" para las columnas desde la posición index (la primera ya la resuelve el tramo)
+    private static String after(List<String> keys, Object[] after, int index) {
+        if (index >= keys.size()) {
+            return "e.id > :afterId";
+        }
+        String column = "e." + keys.get(index);
+        String parameter = ":after" + (index + 1);
+        String rest = after(keys, after, index + 1);
+        if (after[index + 1] == null) {
+            return "(" + column + " IS NULL AND " + rest + ")";
+        }
+        return "(" + column + " < " + parameter + " OR " + column + " IS NULL OR (" + column + " = " + parameter + " AND " + rest + "))";
+    }
+
+    private Shape compile(Sort sort) {
+        String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates.values());
+        List<String> order = new ArrayList<>();
+        for (Sort.Order sortOrder : sort) {
+            String expression = sortable.get(sortOrder.getProperty());
+            if (expression == null) {
+                throw new IllegalArgumentException("Cannot sort by " + sortOrder.getProperty());
+            }
+            order.add(expression + (sortOrder.isAscending() ? " ASC" : " DESC"));
+        }
+        // El id desempata para que las páginas sean estables
+        order.add("e.id");
+        Shape shape = new Shape("SELECT e.id FROM " + entity + " e" + where + " ORDER BY " + String.join(", ", order),
+                "SELECT COUNT(e) FROM " + entity + " e" + where);
+        logger.debug("New {} search shape: {}", entity, shape.ids());
+        return shape;
+    }
+
+    // Entidades de la página en el orden de los ids; el entity graph se suma al mapeo (LOAD). multiLoad usa
+    // el cargador ya preparado; un "IN :ids" en JPQL se vuelve a traducir en cada llamada porque el tamaño cambia
+    @SuppressWarnings("unchecked")
+    static <T> List<T> load(EntityManager entityManager, Class<T> type, String graph, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Session session = entityManager.unwrap(Session.class);
+        return session.byMultipleIds(type).with((RootGraph<T>) session.getEntityGraph(graph), GraphSemantic.LOAD)
+                .multiLoad(ids).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Proyección de listado para los ids de la página, en su orden. El id va en la primera columna.
+    // A diferencia de load() no pasa por la entidad: ni asociaciones EAGER ni contexto de persistencia
+    static <T> List<T> project(EntityManager entityManager, String jpql, List<Long> ids, Function<Object[], T> mapper) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, T> byId = new HashMap<>(ids.size() * 2);
+        for (Object[] row : entityManager.createQuery(jpql, Object[].class).setParameter("ids", ids).getResultList()) {
+            byId.put((Long) row[0], mapper.apply(row));
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Subconsulta que agrega los géneros de collection en una sola columna "id:nombre|id:nombre",
+    // así cada fila del listado sigue siendo una fila y no una por género
+    static String genreList(String collection) {
+        return "(SELECT listagg(concat(cast(g.id as String), ':', g.name), '|') WITHIN GROUP (ORDER BY g.name) FROM "
+                + collection + " g)";
+    }
+
+    static List<GenreSnapshot> genres(Object aggregated) {
+        if (aggregated == null || aggregated.toString().isEmpty()) {
+            return List.of();
+        }
+        List<GenreSnapshot> genres = new ArrayList<>();
+        for (String genre : aggregated.toString().split("\\|")) {
+            int colon = genre.indexOf(':');
+            genres.add(new GenreSnapshot(Long.valueOf(genre.substring(0, colon)), genre.substring(colon + 1)));
+        }
+        return genres;
+    }
+}
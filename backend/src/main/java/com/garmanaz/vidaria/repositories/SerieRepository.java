@@ -1,19 +1,23 @@
 package com.garmanaz.vidaria.repositories;
 
+import com.garmanaz.vidaria.DTO.RankedTitle;
 import com.garmanaz.vidaria.entities.Serie;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SerieRepository extends JpaRepository<Serie, Long>, JpaSpecificationExecutor<Serie> {
+public interface SerieRepository extends JpaRepository<Serie, Long>, JpaSpecificationExecutor<Serie>, SerieSearchRepository {
 
     // query for get best series for genre
     @Query("SELECT s FROM Serie s LEFT JOIN s.genreID g WHERE LOWER(g.name) = LOWER(:genre) ORDER BY s.rating DESC")
@@ -24,25 +28,30 @@ public interface SerieRepository extends JpaRepository<Serie, Long>, JpaSpecific
     Page<Serie> getMostPopularAndTopRated(Pageable pageable);
 
 
-    @Query("SELECT s FROM Serie s LEFT JOIN s.genreID g " +
-            "WHERE (:title IS NULL OR LOWER(s.title) LIKE CONCAT('%', LOWER(:title), '%')) " +
-            "AND (:genres IS NULL OR LOWER(g.name) IN (:genres)) " +
-            "AND (:releaseDateFrom IS NULL OR s.releaseDate >= :releaseDateFrom) " +
-            "AND (:releaseDateTo IS NULL OR s.releaseDate <= :releaseDateTo) " +
-            "AND (:ratingFrom IS NULL OR s.rating >= :ratingFrom) " +
-            "AND (:ratingTo IS NULL OR s.rating <= :ratingTo) " +
-            "AND (:popularityFrom IS NULL OR s.popularity >= :popularityFrom) " +
-            "AND (:popularityTo IS NULL OR s.popularity <= :popularityTo) " +
-            "ORDER BY s.popularity DESC")
-    Page<Serie> searchSeries(@Param("title") String title,
-                             @Param("genres") List<String> genres,
-                             @Param("releaseDateFrom") LocalDate releaseDateFrom,
-                             @Param("releaseDateTo") LocalDate releaseDateTo,
-                             @Param("ratingFrom") Double ratingFrom,
-                             @Param("ratingTo") Double ratingTo,
-                             @Param("popularityFrom") Double popularityFrom,
-                             @Param("popularityTo") Double popularityTo,
-                             Pageable pageable);
+    // Recorrido por bloques ordenado por id (keyset) para no cargar toda la tabla
+    @Query("SELECT s.id FROM Serie s WHERE s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 
+    @Query("SELECT s.id FROM Serie s ORDER BY s.popularity DESC NULLS LAST, s.id")
+    List<Long> findIdsByPopularity(Pageable pageable);
 
+    @Query("SELECT s.id FROM Serie s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.garmanaz.vidaria.DTO.RankedTitle(s.id, s.rating, s.popularity) FROM Serie s JOIN s.genreID g WHERE g.id = :genreId")
+    List<RankedTitle> findRankedByGenre(@Param("genreId") Long genreId);
+
+    // Temporadas por lotes (@BatchSize) solo si se recorren, como al guardar el snapshot en Redis
+    @EntityGraph("Serie.card")
+    List<Serie> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph("Serie.detail")
+    Optional<Serie> findDetailById(Long id);
+
+    // Detalle completo en dos consultas: géneros con el graph y temporadas aparte (ver Serie)
+    default Optional<Serie> findDetail(Long id) {
+        Optional<Serie> serie = findDetailById(id);
+        serie.ifPresent(found -> Hibernate.initialize(found.getSeasons()));
+        return serie;
+    }
 }
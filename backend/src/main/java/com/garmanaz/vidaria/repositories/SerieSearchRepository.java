@@ -0,0 +1,66 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.SerieCard;
+import com.garmanaz.vidaria.entities.Serie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// type elige qué se devuelve de cada serie: la entidad completa (Serie) o la vista de listado (SerieCard)
+public interface SerieSearchRepository {
+
+    // Los filtros nulos no se aplican; sin orden en el Pageable se ordena por popularidad
+    <T> Page<T> searchSeries(String title, List<String> genres,
+                             LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                             Double ratingFrom, Double ratingTo,
+                             Double popularityFrom, Double popularityTo,
+                             Pageable pageable, Class<T> type);
+
+    // Mismos filtros con el total calculado según count
+    <T> CountedPage<T> searchSeries(String title, List<String> genres,
+                                    LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                    Double ratingFrom, Double ratingTo,
+                                    Double popularityFrom, Double popularityTo,
+                                    Pageable pageable, CountStrategy count, Class<T> type);
+
+    // Mismos filtros con paginación por cursor; after es la posición de Keyset.after(cursor), null en la primera página
+    <T> CursorPage<T> seekSeries(String title, List<String> genres,
+                                 LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                 Double ratingFrom, Double ratingTo,
+                                 Double popularityFrom, Double popularityTo,
+                                 Keyset keyset, Object[] after, int size, Class<T> type);
+
+    // Vistas de listado de los ids dados, en el mismo orden
+    List<SerieCard> findSerieCards(List<Long> ids);
+
+    default Page<Serie> searchSeries(String title, List<String> genres,
+                                     LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                     Double ratingFrom, Double ratingTo,
+                                     Double popularityFrom, Double popularityTo,
+                                     Pageable pageable) {
+        return searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, pageable, Serie.class);
+    }
+
+    default CountedPage<Serie> searchSeries(String title, List<String> genres,
+                                            LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                            Double ratingFrom, Double ratingTo,
+                                            Double popularityFrom, Double popularityTo,
+                                            Pageable pageable, CountStrategy count) {
+        return searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, pageable, count, Serie.class);
+    }
+
+    default CursorPage<Serie> seekSeries(String title, List<String> genres,
+                                         LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                         Double ratingFrom, Double ratingTo,
+                                         Double popularityFrom, Double popularityTo,
+                                         Keyset keyset, Object[] after, int size) {
+        return seekSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, keyset, after, size, Serie.class);
+    }
+}
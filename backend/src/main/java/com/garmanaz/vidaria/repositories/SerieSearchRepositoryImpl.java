@@ -0,0 +1,123 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.SerieCard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Transactional(readOnly = true)
+public class SerieSearchRepositoryImpl implements SerieSearchRepository {
+
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Order.desc("popularity"));
+    private static final Map<String, String> SORTABLE = Map.of(
+            "popularity", "e.popularity",
+            "rating", "e.rating",
+            "releaseDate", "e.releaseDate",
+            "title", "e.title",
+            "id", "e.id");
+
+    // Los mismos filtros en SQL, solo para la estimación de COUNT con EXPLAIN en PostgreSQL
+    private static final Map<String, String> SQL_PREDICATES = Map.of(
+            "title", "lower(e.title) LIKE :title",
+            "genres", "EXISTS (SELECT 1 FROM serie_genre sg JOIN genre g ON g.id = sg.genre_id WHERE sg.serie_id = e.id AND lower(g.name) IN (:genres))",
+            "releaseDateFrom", "e.release_date >= :releaseDateFrom",
+            "releaseDateTo", "e.release_date <= :releaseDateTo",
+            "ratingFrom", "e.rating >= :ratingFrom",
+            "ratingTo", "e.rating <= :ratingTo",
+            "popularityFrom", "e.popularity >= :popularityFrom",
+            "popularityTo", "e.popularity <= :popularityTo");
+
+    // Columnas de la rejilla del frontend, con los géneros agregados en SQL; las temporadas no se tocan
+    private static final String CARD = "SELECT s.id, s.title, s.poster, s.backdrop, s.releaseDate, s.rating, s.popularity, "
+            + SearchQuery.genreList("s.genreID") + " FROM Serie s WHERE s.id IN :ids";
+
+    private final Map<String, SearchQuery.Shape> shapes = SearchQuery.newShapeCache();
+    private final SearchCounter counter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SerieSearchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                     @Value("${vidaria.search.count.cache-ttl:PT30S}") Duration cacheTtl,
+                                     @Value("${vidaria.search.count.cache-max-size:10000}") long cacheMaxSize,
+                                     @Value("${vidaria.search.count.estimate-threshold:10000}") long estimateThreshold) {
+        this.counter = new SearchCounter(jdbcTemplate, cacheTtl, cacheMaxSize, estimateThreshold);
+    }
+
+    @Override
+    public <T> Page<T> searchSeries(String title, List<String> genres,
+                                    LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                    Double ratingFrom, Double ratingTo,
+                                    Double popularityFrom, Double popularityTo,
+                                    Pageable pageable, Class<T> type) {
+        Page<Long> ids = filters(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo)
+                .ids(entityManager, pageable, DEFAULT_SORT);
+        return new PageImpl<>(fetch(ids.getContent(), type), pageable, ids.getTotalElements());
+    }
+
+    @Override
+    public <T> CountedPage<T> searchSeries(String title, List<String> genres,
+                                           LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                           Double ratingFrom, Double ratingTo,
+                                           Double popularityFrom, Double popularityTo,
+                                           Pageable pageable, CountStrategy count, Class<T> type) {
+        CountedPage<Long> ids = filters(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo)
+                .counted(entityManager, pageable, DEFAULT_SORT, count, counter);
+        return ids.withContent(fetch(ids.content(), type));
+    }
+
+    @Override
+    public <T> CursorPage<T> seekSeries(String title, List<String> genres,
+                                        LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                        Double ratingFrom, Double ratingTo,
+                                        Double popularityFrom, Double popularityTo,
+                                        Keyset keyset, Object[] after, int size, Class<T> type) {
+        CursorPage<Long> ids = filters(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo)
+                .seek(entityManager, keyset, after, size);
+        return ids.withContent(fetch(ids.content(), type));
+    }
+
+    @Override
+    public List<SerieCard> findSerieCards(List<Long> ids) {
+        return SearchQuery.project(entityManager, CARD, ids, row -> new SerieCard((Long) row[0], (String) row[1],
+                (String) row[2], (String) row[3], (String) row[4], (Double) row[5], (Double) row[6],
+                SearchQuery.genres(row[7])));
+    }
+
+    private <T> List<T> fetch(List<Long> ids, Class<T> type) {
+        if (type == SerieCard.class) {
+            return findSerieCards(ids).stream().map(type::cast).toList();
+        }
+        return SearchQuery.load(entityManager, type, "Serie.card", ids);
+    }
+
+    // La fecha de las series se guarda como texto ISO (yyyy-MM-dd): se compara como texto
+    private SearchQuery filters(String title, List<String> genres,
+                                LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                Double ratingFrom, Double ratingTo,
+                                Double popularityFrom, Double popularityTo) {
+        return new SearchQuery("Serie", "serie", shapes, SORTABLE, SQL_PREDICATES)
+                .where("title", "LOWER(e.title) LIKE :title", title != null ? "%" + title.toLowerCase(Locale.ROOT) + "%" : null)
+                .where("genres", "EXISTS (SELECT 1 FROM e.genreID g WHERE LOWER(g.name) IN :genres)", MovieSearchRepositoryImpl.lower(genres))
+                .where("releaseDateFrom", "e.releaseDate >= :releaseDateFrom", releaseDateFrom != null ? releaseDateFrom.toString() : null)
+                .where("releaseDateTo", "e.releaseDate <= :releaseDateTo", releaseDateTo != null ? releaseDateTo.toString() : null)
+                .where("ratingFrom", "e.rating >= :ratingFrom", ratingFrom)
+                .where("ratingTo", "e.rating <= :ratingTo", ratingTo)
+                .where("popularityFrom", "e.popularity >= :popularityFrom", popularityFrom)
+                .where("popularityTo", "e.popularity <= :popularityTo", popularityTo);
+    }
+}
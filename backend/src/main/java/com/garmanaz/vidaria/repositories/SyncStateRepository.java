@@ -0,0 +1,9 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.entities.SyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncStateRepository extends JpaRepository<SyncState, String> {
+}
@@ -1,6 +1,7 @@
 package com.garmanaz.vidaria.repositories;
 
 import com.garmanaz.vidaria.entities.Watchlist;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +11,7 @@ import java.util.Optional;
 @Repository
 public interface WatchlistRepository extends JpaRepository<Watchlist, Long> {
 
+    @EntityGraph(attributePaths = {"movie", "serie"})
     List<Watchlist> findByUserId(Long userId);
 
     boolean existsByUserIdAndMovieId(Long userId, Long movieId);
@@ -0,0 +1,238 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.cache.HotKeyRegistry;
+import com.garmanaz.vidaria.utils.cache.HotKeyTracker;
+import com.garmanaz.vidaria.utils.cache.KnownIds;
+import com.garmanaz.vidaria.utils.cache.NearCache;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.cache.RedisBatchWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Precarga de Redis al arrancar: recorre los ids por bloques y escribe cada bloque con un único pipeline.
+// En modo "hot" solo se calientan los ids más pedidos (persistidos por HotKeyRegistry, o los más
+// populares si aún no hay historial); en modo "full" se recorre la tabla entera.
+// Además refresca periódicamente el top-K antes de que caduque (refresh-ahead) y reconstruye los filtros de ids conocidos.
+@Service
+public class CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+    private static final int KNOWN_IDS_CHUNK_SIZE = 10_000;
+
+    private final MovieRepository movieRepository;
+    private final SerieRepository serieRepository;
+    private final NearCache<Movie> movieNearCache;
+    private final RefreshAheadCache<Serie> serieRemoteCache;
+    private final HotKeyRegistry hotKeyRegistry;
+    private final KnownIds knownIds;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final Executor cacheExecutor;
+
+    @Value("${vidaria.cache.warmup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${vidaria.cache.warmup.mode:hot}")
+    private String mode;
+
+    @Value("${vidaria.cache.warmup.top-n:2000}")
+    private int topN;
+
+    public CacheWarmupService(MovieRepository movieRepository, SerieRepository serieRepository,
+                              NearCache<Movie> movieNearCache, RefreshAheadCache<Serie> serieRemoteCache,
+                              HotKeyRegistry hotKeyRegistry, KnownIds knownIds,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Qualifier("cacheExecutor") Executor cacheExecutor) {
+        this.movieRepository = movieRepository;
+        this.serieRepository = serieRepository;
+        this.movieNearCache = movieNearCache;
+        this.serieRemoteCache = serieRemoteCache;
+        this.hotKeyRegistry = hotKeyRegistry;
+        this.knownIds = knownIds;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.cacheExecutor = cacheExecutor;
+    }
+
+    public record WarmupResult(String cache, long entities, long bytes, Duration elapsed) {
+
+        public double entitiesPerSecond() {
+            return elapsed.isZero() ? entities : entities * 1000.0 / Math.max(1, elapsed.toMillis());
+        }
+    }
+
+    public CompletableFuture<List<WarmupResult>> warmUp() {
+        boolean full = "full".equalsIgnoreCase(mode);
+        CompletableFuture<WarmupResult> movies = CompletableFuture.supplyAsync(() -> warm("movie",
+                full ? movieRepository::findIdsAfter : hotIds("movie", movieRepository::findIdsByPopularity),
+                movieRepository::findByIdIn, Movie::getId, movieNearCache::key,
+                movieNearCache.getRedisTemplate(), movieNearCache::ttlFor), cacheExecutor);
+
+        CompletableFuture<WarmupResult> series = CompletableFuture.supplyAsync(() -> warm("serie",
+                full ? serieRepository::findIdsAfter : hotIds("serie", serieRepository::findIdsByPopularity),
+                serieRepository::findByIdIn, Serie::getId, SerieService::cacheKey,
+                serieRemoteCache.getRedisTemplate(), serieRemoteCache::ttlFor), cacheExecutor);
+
+        return movies.thenCombine(series, List::of);
+    }
+
+    // Reescribe el top-K con el TTL de clave caliente antes de que caduque, así las claves
+    // más pedidas no llegan a provocar un fallo de caché
+    @Scheduled(initialDelayString = "${vidaria.cache.hot-keys.refresh-interval:PT6H}",
+            fixedDelayString = "${vidaria.cache.hot-keys.refresh-interval:PT6H}")
+    public void refreshHotKeys() {
+        try {
+            warm("movie.refresh", keysetOver(movieNearCache.getHotKeys().topIds(topN)), movieRepository::findByIdIn,
+                    Movie::getId, movieNearCache::key, movieNearCache.getRedisTemplate(), movieNearCache::ttlFor);
+            warm("serie.refresh", keysetOver(serieRemoteCache.getHotKeys().topIds(topN)), serieRepository::findByIdIn,
+                    Serie::getId, SerieService::cacheKey, serieRemoteCache.getRedisTemplate(), serieRemoteCache::ttlFor);
+        } catch (Exception e) {
+            logger.warn("Hot key refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Reconstruye los filtros de ids existentes (también al arrancar, sin retardo inicial)
+    @Scheduled(fixedDelayString = "${vidaria.cache.known-ids.rebuild-interval:PT30M}")
+    public void rebuildKnownIds() {
+        rebuildKnownIds("movie", movieRepository::count, movieRepository::findIdsAfter);
+        rebuildKnownIds("serie", serieRepository::count, serieRepository::findIdsAfter);
+    }
+
+    void rebuildKnownIds(String cache, LongSupplier count, BiFunction<Long, Pageable, List<Long>> nextIds) {
+        try {
+            long start = System.nanoTime();
+            AtomicLong total = new AtomicLong();
+            knownIds.rebuild(cache, count.getAsLong(), add -> {
+                Long afterId = Long.MIN_VALUE;
+                while (afterId != null) {
+                    List<Long> ids = nextIds.apply(afterId, PageRequest.of(0, KNOWN_IDS_CHUNK_SIZE));
+                    ids.forEach(add::accept);
+                    total.addAndGet(ids.size());
+                    afterId = ids.size() < KNOWN_IDS_CHUNK_SIZE ? null : ids.get(ids.size() - 1);
+                }
+            });
+            logger.info("Rebuilt known {} ids filter with {} ids in {} ms", cache, total.get(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (Exception e) {
+            logger.warn("Cannot rebuild known {} ids filter: {}", cache, e.getMessage());
+        }
+    }
+
+    // Ids persistidos del último top-K; sin historial (primer arranque) se usan los más populares,
+    // sembrados en el tracker por orden para que reciban TTL de clave caliente
+    BiFunction<Long, Pageable, List<Long>> hotIds(String cache, Function<Pageable, List<Long>> byPopularity) {
+        List<Long> ids;
+        try {
+            ids = hotKeyRegistry.loadPersisted(cache, topN);
+        } catch (Exception e) {
+            logger.warn("Cannot read persisted hot keys for {}: {}", cache, e.getMessage());
+            ids = List.of();
+        }
+
+        if (ids.isEmpty()) {
+            ids = byPopularity.apply(PageRequest.of(0, topN));
+            HotKeyTracker tracker = hotKeyRegistry.tracker(cache);
+            for (int i = 0; i < ids.size(); i++) {
+                tracker.seed(ids.get(i), ids.size() - i);
+            }
+            logger.info("No persisted hot keys for {}, warming the {} most popular", cache, ids.size());
+        }
+        return keysetOver(ids);
+    }
+
+    // Adapta una lista fija de ids al mismo recorrido por bloques que usa el modo completo
+    static BiFunction<Long, Pageable, List<Long>> keysetOver(List<Long> ids) {
+        List<Long> sorted = ids.stream().distinct().sorted().toList();
+        return (afterId, pageable) -> {
+            int from = Collections.binarySearch(sorted, afterId);
+            from = from >= 0 ? from + 1 : -from - 1;
+            return sorted.subList(from, Math.min(sorted.size(), from + pageable.getPageSize()));
+        };
+    }
+
+    <V> WarmupResult warm(String cache,
+                          BiFunction<Long, Pageable, List<Long>> nextIds,
+                          Function<List<Long>, List<V>> loadChunk,
+                          Function<V, Long> idOf,
+                          Function<Long, String> keyOf,
+                          RedisTemplate<String, V> redisTemplate,
+                          Function<Long, Duration> ttlOf) {
+        Counter entitiesCounter = Counter.builder("cache.warmup.entities").tag("cache", cache).register(meterRegistry);
+        Counter bytesCounter = Counter.builder("cache.warmup.bytes").tag("cache", cache).baseUnit("bytes").register(meterRegistry);
+
+        long start = System.nanoTime();
+        long entities = 0;
+        long bytes = 0;
+        Long afterId = Long.MIN_VALUE;
+
+        while (afterId != null) {
+            Long cursor = afterId;
+            // Una transacción corta por bloque: el contexto de persistencia se descarta en cada vuelta
+            ChunkResult chunk = readOnlyTransaction.execute(status -> {
+                List<Long> ids = nextIds.apply(cursor, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return new ChunkResult(0, 0, null);
+                }
+
+                Map<String, V> entries = new LinkedHashMap<>(ids.size() * 2);
+                Map<String, Duration> ttls = new HashMap<>(ids.size() * 2);
+                for (V value : loadChunk.apply(ids)) {
+                    Long id = idOf.apply(value);
+                    String key = keyOf.apply(id);
+                    entries.put(key, value);
+                    ttls.put(key, ttlOf.apply(id));
+                }
+                long written = RedisBatchWriter.writeAll(redisTemplate, entries, ttls::get);
+                Long last = ids.size() < chunkSize ? null : ids.get(ids.size() - 1);
+                return new ChunkResult(entries.size(), written, last);
+            });
+
+            entities += chunk.entities();
+            bytes += chunk.bytes();
+            entitiesCounter.increment(chunk.entities());
+            bytesCounter.increment(chunk.bytes());
+            afterId = chunk.nextCursor();
+
+            if (logger.isDebugEnabled() && chunk.entities() > 0) {
+                logger.debug("Warmed {} {} entries so far ({} bytes)", entities, cache, bytes);
+            }
+        }
+
+        WarmupResult result = new WarmupResult(cache, entities, bytes, Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Warmed {} {} entries ({} KB) in {} ms ({} entities/s)", result.entities(), cache,
+                result.bytes() / 1024, result.elapsed().toMillis(), Math.round(result.entitiesPerSecond()));
+        return result;
+    }
+
+    private record ChunkResult(long entities, long bytes, Long nextCursor) {
+    }
+}
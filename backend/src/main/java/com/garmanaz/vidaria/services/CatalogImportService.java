@@ -0,0 +1,297 @@
+package com.garmanaz.vidaria.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.garmanaz.vidaria.DTO.ExportEntry;
+import com.garmanaz.vidaria.DTO.MovieResponse;
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.ImportState;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.CatalogBulkWriter;
+import com.garmanaz.vidaria.repositories.ImportStateRepository;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+// Importación offline del catálogo desde los volcados diarios de ids de TMDB
+// (movie_ids_MM_DD_YYYY.json.gz, tv_series_ids_MM_DD_YYYY.json.gz: un objeto JSON por línea).
+// El fichero se lee en streaming (gzip + parser incremental de Jackson) por bloques de chunk-size líneas,
+// así la memoria no depende del tamaño del volcado. Por cada bloque:
+// 1. se descartan adultos y vídeos
+// 2. se piden los detalles con como mucho `concurrency` peticiones a la vez (y el límite de TmdbRequestExecutor)
+// 3. en una sola transacción se escriben con CatalogBulkWriter y se guarda la línea alcanzada
+// Si el proceso se cae, la siguiente ejecución con el mismo fichero continúa tras el último bloque confirmado.
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+    static final String MOVIE = "movie";
+    static final String SERIE = "tv";
+    static final String CATEGORY = "Uncategorized";
+    private static final ObjectReader ENTRIES = new ObjectMapper().readerFor(ExportEntry.class);
+
+    private final TmdbClient tmdbClient;
+    private final ReferenceData referenceData;
+    private final CatalogBulkWriter catalogBulkWriter;
+    private final ImportStateRepository importStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int concurrency;
+    Clock clock = Clock.systemUTC();
+
+    public CatalogImportService(TmdbClient tmdbClient, ReferenceData referenceData, CatalogBulkWriter catalogBulkWriter,
+                                ImportStateRepository importStateRepository, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${vidaria.import.chunk-size:1000}") int chunkSize,
+                                @Value("${vidaria.import.concurrency:8}") int concurrency) {
+        this.tmdbClient = tmdbClient;
+        this.referenceData = referenceData;
+        this.catalogBulkWriter = catalogBulkWriter;
+        this.importStateRepository = importStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+    }
+
+    // El tipo sale del nombre del volcado: tv_series_ids_* son series, el resto películas
+    public static String typeOf(Path file) {
+        return file.getFileName().toString().startsWith("tv_") ? SERIE : MOVIE;
+    }
+
+    public ImportState importFile(Path file, String type) {
+        if (!MOVIE.equals(type) && !SERIE.equals(type)) {
+            throw new IllegalArgumentException("Unknown export type: " + type);
+        }
+        String name = file.getFileName().toString();
+        ImportState state = importStateRepository.findById(name).orElseGet(() -> new ImportState(name, type));
+        if (state.getCompletedAt() != null) {
+            logger.info("TMDB export {} already imported at {}", name, state.getCompletedAt());
+            return state;
+        }
+        state.setLastRunAt(Instant.now(clock));
+        Progress progress = new Progress(type, state.getLinesRead());
+
+        try (InputStream in = open(file);
+             MappingIterator<ExportEntry> entries = ENTRIES.readValues(in);
+             ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            // Las líneas ya importadas se parsean y descartan sin pedir nada a TMDB
+            for (long line = 0; line < state.getLinesRead() && entries.hasNextValue(); line++) {
+                entries.nextValue();
+            }
+            List<ExportEntry> chunk = new ArrayList<>(chunkSize);
+            while (entries.hasNextValue()) {
+                chunk.add(entries.nextValue());
+                if (chunk.size() == chunkSize) {
+                    importChunk(state, chunk, executor, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(state, chunk, executor, progress);
+            }
+        } catch (IOException e) {
+            fail(state, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            fail(state, e);
+            throw e;
+        }
+
+        state.setCompletedAt(Instant.now(clock));
+        state.setLastError(null);
+        importStateRepository.save(state);
+        logger.info("TMDB export {} imported: {} lines, {} titles, {} skipped", name, state.getLinesRead(),
+                state.getTitlesImported(), state.getSkipped());
+        return state;
+    }
+
+    private void importChunk(ImportState state, List<ExportEntry> chunk, ExecutorService executor, Progress progress) {
+        long start = System.nanoTime();
+        List<Long> ids = chunk.stream()
+                .filter(entry -> entry.getId() != null && !entry.isAdult() && !entry.isVideo())
+                .map(ExportEntry::getId)
+                .distinct()
+                .toList();
+        int imported = MOVIE.equals(state.getType())
+                ? importMovies(state, ids, chunk.size(), executor)
+                : importSeries(state, ids, chunk.size(), executor);
+        progress.chunk(state, chunk.size(), imported, System.nanoTime() - start);
+    }
+
+    private int importMovies(ImportState state, List<Long> ids, int lines, ExecutorService executor) {
+        Map<Long, MovieResponse.MovieDetails> details = fetchAll(ids,
+                id -> tmdbClient.movieDetails(id, TmdbClient.Append.VIDEOS, TmdbClient.Append.CREDITS), executor);
+
+        return checkpoint(state, lines, () -> {
+            Map<Long, String> names = new LinkedHashMap<>();
+            details.values().stream().filter(movie -> movie.getGenres() != null)
+                    .forEach(movie -> movie.getGenres().forEach(genre -> names.putIfAbsent(genre.getId(), genre.getName())));
+            Map<Long, Genre> genres = names.isEmpty() ? Map.of() : referenceData.genres(names);
+            Category category = referenceData.category(CATEGORY);
+            List<Movie> movies = ids.stream().map(details::get).filter(Objects::nonNull)
+                    .map(movie -> toMovie(movie, genres, category))
+                    .toList();
+            return catalogBulkWriter.upsertMovies(movies);
+        });
+    }
+
+    private int importSeries(ImportState state, List<Long> ids, int lines, ExecutorService executor) {
+        Map<Long, SerieResponse.SerieDetails> details = fetchAll(ids,
+                id -> tmdbClient.serieDetails(id, TmdbClient.Append.VIDEOS), executor);
+
+        return checkpoint(state, lines, () -> {
+            Map<Long, String> names = new LinkedHashMap<>();
+            details.values().stream().filter(serie -> serie.getGenres() != null)
+                    .forEach(serie -> serie.getGenres().forEach(genre -> names.putIfAbsent(genre.getId(), genre.getName())));
+            Map<Long, Genre> genres = names.isEmpty() ? Map.of() : referenceData.genres(names);
+            List<Serie> series = ids.stream().map(details::get).filter(Objects::nonNull)
+                    .map(serie -> SerieService.mapToSeries(serie, serie.getGenres() != null
+                            ? new ArrayList<>(serie.getGenres().stream().map(genre -> genres.get(genre.getId())).toList())
+                            : new ArrayList<>(), TmdbClient.trailerUrl(serie.getVideos())))
+                    .toList();
+            return catalogBulkWriter.upsertSeries(series);
+        });
+    }
+
+    // Títulos del bloque y avance del estado en la misma transacción: o se guardan ambos o ninguno
+    private int checkpoint(ImportState state, int lines, Supplier<Integer> write) {
+        long linesRead = state.getLinesRead();
+        long titlesImported = state.getTitlesImported();
+        long skipped = state.getSkipped();
+        try {
+            Integer imported = transactionTemplate.execute(status -> {
+                int count = write.get();
+                state.setLinesRead(linesRead + lines);
+                state.setTitlesImported(titlesImported + count);
+                state.setSkipped(skipped + lines - count);
+                importStateRepository.save(state);
+                return count;
+            });
+            return imported != null ? imported : 0;
+        } catch (RuntimeException e) {
+            // El bloque se ha deshecho: el estado en memoria vuelve al último confirmado
+            state.setLinesRead(linesRead);
+            state.setTitlesImported(titlesImported);
+            state.setSkipped(skipped);
+            throw e;
+        }
+    }
+
+    private <T> Map<Long, T> fetchAll(Collection<Long> ids, Function<Long, T> fetch, ExecutorService executor) {
+        Map<Long, T> results = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = ids.stream()
+                .map(id -> CompletableFuture.runAsync(() -> {
+                    T value = fetch.apply(id);
+                    if (value != null) {
+                        results.put(id, value);
+                    }
+                }, executor))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return results;
+    }
+
+    private static Movie toMovie(MovieResponse.MovieDetails details, Map<Long, Genre> genres, Category category) {
+        Movie movie = new Movie();
+        movie.setId(details.getId());
+        movie.setTitle(details.getTitle());
+        movie.setDescription(details.getOverview());
+        movie.setReleaseDate(details.getReleaseDate());
+        movie.setCover(details.getPosterPath());
+        movie.setBackground(details.getBackdropPath());
+        movie.setRating(details.getVoteAverage());
+        movie.setPopularity(details.getPopularity());
+        movie.setDuration(details.getRuntime());
+        movie.setTrailer(TmdbClient.trailerUrl(details.getVideos()));
+        movie.setDirector(TmdbClient.director(details.getCredits()));
+        movie.setCategory(category);
+        if (details.getGenres() != null) {
+            movie.setGenres(new ArrayList<>(details.getGenres().stream().map(genre -> genres.get(genre.getId())).toList()));
+        }
+        return movie;
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    private void fail(ImportState state, Exception e) {
+        state.setLastError(e.getMessage());
+        importStateRepository.save(state);
+        Counter.builder("catalog.import.failures").tag("type", state.getType()).register(meterRegistry).increment();
+        logger.warn("Import of TMDB export {} stopped at line {}, will resume from there: {}",
+                state.getFile(), state.getLinesRead(), e.getMessage());
+    }
+
+    // Métricas por bloque (líneas, títulos, descartes, duración) y una línea de log con el ritmo de la ejecución
+    private final class Progress {
+
+        private final Counter lines;
+        private final Counter titles;
+        private final Counter skipped;
+        private final Timer chunks;
+        private final long startLine;
+        private final long start = System.nanoTime();
+
+        private Progress(String type, long startLine) {
+            this.lines = Counter.builder("catalog.import.lines").tag("type", type).register(meterRegistry);
+            this.titles = Counter.builder("catalog.import.titles").tag("type", type).register(meterRegistry);
+            this.skipped = Counter.builder("catalog.import.skipped").tag("type", type).register(meterRegistry);
+            this.chunks = Timer.builder("catalog.import.chunk").tag("type", type).register(meterRegistry);
+            this.startLine = startLine;
+        }
+
+        void chunk(ImportState state, int chunkLines, int imported, long nanos) {
+            lines.increment(chunkLines);
+            titles.increment(imported);
+            skipped.increment(chunkLines - imported);
+            chunks.record(nanos, TimeUnit.NANOSECONDS);
+            double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+            logger.info("TMDB export {}: line {} ({} titles, {} skipped, {} lines/s)", state.getFile(), state.getLinesRead(),
+                    state.getTitlesImported(), state.getSkipped(), Math.round((state.getLinesRead() - startLine) / seconds));
+        }
+    }
+}
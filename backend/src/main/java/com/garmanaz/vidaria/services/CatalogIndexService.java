@@ -0,0 +1,137 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.search.CatalogChangedEvent;
+import com.garmanaz.vidaria.utils.search.CatalogIndex;
+import com.garmanaz.vidaria.utils.search.CatalogQuery;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Búsqueda de sugerencias (autocompletado) en memoria para películas y series.
+// Se carga entera desde la base de datos al arrancar, en segundo plano, y se mantiene al día con los
+// CatalogChangedEvent que publica CatalogIndexListener tras cada commit.
+@Service
+public class CatalogIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogIndexService.class);
+
+    private final MovieRepository movieRepository;
+    private final SerieRepository serieRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CatalogIndex movies;
+    private final CatalogIndex series;
+    private final Timer movieSuggestTimer;
+    private final Timer serieSuggestTimer;
+
+    @Value("${vidaria.search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vidaria.search.index.load-chunk-size:1000}")
+    private int loadChunkSize;
+
+    @Value("${vidaria.search.suggest.max-limit:50}")
+    private int maxLimit;
+
+    public CatalogIndexService(MovieRepository movieRepository, SerieRepository serieRepository,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               @Value("${vidaria.search.index.compact-threshold:1000}") int compactThreshold) {
+        this.movieRepository = movieRepository;
+        this.serieRepository = serieRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.movies = new CatalogIndex("movie", compactThreshold);
+        this.series = new CatalogIndex("serie", compactThreshold);
+
+        for (CatalogIndex index : List.of(movies, series)) {
+            Gauge.builder("search.index.size", index, CatalogIndex::size).tag("catalog", index.getName()).register(meterRegistry);
+        }
+        this.movieSuggestTimer = Timer.builder("search.index.suggest").tag("catalog", "movie").register(meterRegistry);
+        this.serieSuggestTimer = Timer.builder("search.index.suggest").tag("catalog", "serie").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            logger.info("In-memory catalogue index disabled.");
+            return;
+        }
+        Thread.ofVirtual().name("catalog-index-load").start(this::load);
+    }
+
+    public void load() {
+        load(movies, movieRepository::findIdsAfter, ids -> movieRepository.findByIdIn(ids).stream().map(SearchDocument::of).toList());
+        load(series, serieRepository::findIdsAfter, ids -> serieRepository.findByIdIn(ids).stream().map(SearchDocument::of).toList());
+    }
+
+    private void load(CatalogIndex index, BiFunction<Long, Pageable, List<Long>> nextIds,
+                      Function<List<Long>, List<SearchDocument>> loadChunk) {
+        try {
+            long start = System.nanoTime();
+            List<SearchDocument> documents = new ArrayList<>();
+            Long afterId = Long.MIN_VALUE;
+            while (afterId != null) {
+                Long cursor = afterId;
+                // Transacción corta por bloque, como en la precarga de caché
+                afterId = readOnlyTransaction.execute(status -> {
+                    List<Long> ids = nextIds.apply(cursor, PageRequest.of(0, loadChunkSize));
+                    if (!ids.isEmpty()) {
+                        documents.addAll(loadChunk.apply(ids));
+                    }
+                    return ids.size() < loadChunkSize ? null : ids.get(ids.size() - 1);
+                });
+            }
+            index.load(documents);
+            logger.info("Loaded {} {} documents into the search index in {} ms", index.size(), index.getName(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (Exception e) {
+            logger.error("Cannot load {} search index: {}", index.getName(), e.getMessage(), e);
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        CatalogIndex index = "movie".equals(event.catalog()) ? movies : "serie".equals(event.catalog()) ? series : null;
+        if (index == null) {
+            return;
+        }
+        index.upsert(event.upserted());
+        index.remove(event.removed());
+    }
+
+    public List<SearchDocument> suggestMovies(CatalogQuery query) {
+        return suggest(movies, movieSuggestTimer, query);
+    }
+
+    public List<SearchDocument> suggestSeries(CatalogQuery query) {
+        return suggest(series, serieSuggestTimer, query);
+    }
+
+    private List<SearchDocument> suggest(CatalogIndex index, Timer timer, CatalogQuery query) {
+        if (!index.isLoaded()) {
+            throw new IllegalStateException("The " + index.getName() + " search index is still loading");
+        }
+        CatalogQuery bounded = query.limit() > 0 && query.limit() <= maxLimit ? query : new CatalogQuery(query.text(),
+                query.genres(), query.categories(), query.releaseDateFrom(), query.releaseDateTo(), query.ratingFrom(),
+                query.ratingTo(), query.popularityFrom(), query.popularityTo(), Math.max(1, Math.min(query.limit(), maxLimit)));
+        return timer.record(() -> index.search(bounded));
+    }
+}
@@ -0,0 +1,299 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.DTO.ChangesResponse;
+import com.garmanaz.vidaria.DTO.MovieResponse;
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.entities.SyncState;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.repositories.SyncStateRepository;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Sincronización incremental con los feeds de cambios de TMDB (/movie/changes y /tv/changes).
+// Cada feed recorre ventanas de como mucho 14 días desde su marca de agua; por cada página:
+// 1. se filtran los ids que tenemos guardados (el feed incluye todo TMDB)
+// 2. se piden sus detalles fuera de transacción, en el executor de ingesta y con el límite de TmdbRequestExecutor
+// 3. en una sola transacción se actualizan las entidades y se guarda la página como completada
+// Si el proceso se cae, la siguiente ejecución continúa desde la última página confirmada.
+// Tras el commit se invalidan exactamente las claves movie:{id} / serie:{id} afectadas.
+@Service
+public class CatalogSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSyncService.class);
+    static final String MOVIE_FEED = "movie";
+    static final String SERIE_FEED = "tv";
+    static final int MAX_WINDOW_DAYS = 14;
+
+    private final TmdbClient tmdbClient;
+    private final MovieRepository movieRepository;
+    private final SerieRepository serieRepository;
+    private final SyncStateRepository syncStateRepository;
+    private final MovieCacheService movieCacheService;
+    private final RefreshAheadCache<Serie> serieRemoteCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Executor ingestionExecutor;
+    private final Map<String, SyncState> lastStates = new ConcurrentHashMap<>();
+    Clock clock = Clock.systemUTC();
+
+    @Value("${vidaria.sync.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vidaria.sync.initial-lookback:P1D}")
+    private Duration initialLookback;
+
+    public CatalogSyncService(TmdbClient tmdbClient, MovieRepository movieRepository, SerieRepository serieRepository,
+                              SyncStateRepository syncStateRepository, MovieCacheService movieCacheService,
+                              RefreshAheadCache<Serie> serieRemoteCache, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry, @Qualifier("ingestionExecutor") Executor ingestionExecutor) {
+        this.tmdbClient = tmdbClient;
+        this.movieRepository = movieRepository;
+        this.serieRepository = serieRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.movieCacheService = movieCacheService;
+        this.serieRemoteCache = serieRemoteCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.ingestionExecutor = ingestionExecutor;
+        registerLag(MOVIE_FEED);
+        registerLag(SERIE_FEED);
+    }
+
+    @Scheduled(initialDelayString = "${vidaria.sync.interval:PT1H}", fixedDelayString = "${vidaria.sync.interval:PT1H}")
+    public void scheduledSync() {
+        if (enabled) {
+            syncAll();
+        }
+    }
+
+    public void syncAll() {
+        for (String feed : List.of(MOVIE_FEED, SERIE_FEED)) {
+            try {
+                sync(feed);
+            } catch (Exception e) {
+                logger.warn("Sync of TMDB {} changes failed, will resume from the last completed page: {}", feed, e.getMessage());
+            }
+        }
+    }
+
+    public SyncState sync(String feed) {
+        SyncState state = syncStateRepository.findById(feed).orElseGet(() -> new SyncState(feed));
+        LocalDate today = LocalDate.now(clock);
+        state.setLastRunAt(Instant.now(clock));
+
+        try {
+            do {
+                if (state.getWindowStart() == null) {
+                    openWindow(state, today);
+                }
+                syncWindow(state);
+                // Ventana terminada: avanza la marca de agua. Mismo día otra vez en la próxima ejecución
+                // porque los cambios de hoy aún pueden crecer
+                state.setHighWaterMark(state.getWindowEnd());
+                state.setWindowStart(null);
+                state.setWindowEnd(null);
+                state.setLastCompletedPage(null);
+                state.setLastError(null);
+                if (!state.getHighWaterMark().isBefore(today)) {
+                    state.setLastSuccessAt(Instant.now(clock));
+                }
+                save(state);
+            } while (state.getHighWaterMark().isBefore(today));
+        } catch (RuntimeException e) {
+            state.setLastError(e.getMessage());
+            save(state);
+            Counter.builder("catalog.sync.failures").tag("feed", feed).register(meterRegistry).increment();
+            throw e;
+        }
+
+        logger.info("TMDB {} changes synced up to {} ({} titles updated so far)", feed, state.getHighWaterMark(), state.getTitlesUpdated());
+        return state;
+    }
+
+    private void openWindow(SyncState state, LocalDate today) {
+        LocalDate start = state.getHighWaterMark() != null
+                ? state.getHighWaterMark()
+                : today.minusDays(Math.max(1, initialLookback.toDays()));
+        LocalDate end = start.plusDays(MAX_WINDOW_DAYS);
+        state.setWindowStart(start);
+        state.setWindowEnd(end.isAfter(today) ? today : end);
+        state.setLastCompletedPage(0);
+        save(state);
+    }
+
+    private void syncWindow(SyncState state) {
+        int page = state.getLastCompletedPage() != null ? state.getLastCompletedPage() + 1 : 1;
+        while (true) {
+            ChangesResponse changes = tmdbClient.changes(state.getFeed(), state.getWindowStart(), state.getWindowEnd(), page);
+            if (changes == null) {
+                return;
+            }
+            List<Long> changedIds = changes.getResults() != null
+                    ? changes.getResults().stream().map(ChangesResponse.Change::getId).filter(Objects::nonNull).distinct().toList()
+                    : List.of();
+            applyPage(state, changedIds, page);
+            Counter.builder("catalog.sync.changes").tag("feed", state.getFeed()).register(meterRegistry).increment(changedIds.size());
+
+            if (changes.getTotalPages() == null || page >= changes.getTotalPages()) {
+                return;
+            }
+            page++;
+        }
+    }
+
+    private void applyPage(SyncState state, List<Long> changedIds, int page) {
+        int updated = MOVIE_FEED.equals(state.getFeed())
+                ? applyMovies(state, changedIds, page)
+                : applySeries(state, changedIds, page);
+        Counter.builder("catalog.sync.updated").tag("feed", state.getFeed()).register(meterRegistry).increment(updated);
+    }
+
+    private int applyMovies(SyncState state, List<Long> changedIds, int page) {
+        List<Long> stored = changedIds.isEmpty() ? List.of() : movieRepository.findExistingIds(changedIds);
+        Map<Long, MovieResponse.MovieDetails> details = fetchAll(stored,
+                id -> tmdbClient.movieDetails(id, TmdbClient.Append.VIDEOS, TmdbClient.Append.CREDITS));
+
+        return checkpoint(state, changedIds.size(), page, () -> {
+            List<Movie> movies = details.isEmpty() ? List.of() : movieRepository.findByIdIn(details.keySet());
+            movies.forEach(movie -> {
+                apply(movie, details.get(movie.getId()));
+                // Dentro de la transacción: NearCache espera al commit para borrar y avisar al resto de nodos
+                movieCacheService.evict(movie.getId());
+            });
+            return movies.size();
+        });
+    }
+
+    private int applySeries(SyncState state, List<Long> changedIds, int page) {
+        List<Long> stored = changedIds.isEmpty() ? List.of() : serieRepository.findExistingIds(changedIds);
+        Map<Long, SerieResponse.SerieDetails> details = fetchAll(stored,
+                id -> tmdbClient.serieDetails(id, TmdbClient.Append.VIDEOS));
+
+        int updated = checkpoint(state, changedIds.size(), page, () -> {
+            List<Serie> series = details.isEmpty() ? List.of() : serieRepository.findByIdIn(details.keySet());
+            series.forEach(serie -> apply(serie, details.get(serie.getId())));
+            return series.size();
+        });
+        if (!details.isEmpty()) {
+            try {
+                serieRemoteCache.evictAll(details.keySet().stream().map(SerieService::cacheKey).toList());
+            } catch (Exception e) {
+                logger.warn("Failed to evict synced series from Redis: {}", e.getMessage());
+            }
+        }
+        return updated;
+    }
+
+    // Cambios de la página y avance del estado en la misma transacción: o se aplican ambos o ninguno
+    private int checkpoint(SyncState state, int changes, int page, Supplier<Integer> apply) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = apply.get();
+            state.setLastCompletedPage(page);
+            state.setChangesSeen(state.getChangesSeen() + changes);
+            state.setTitlesUpdated(state.getTitlesUpdated() + count);
+            syncStateRepository.save(state);
+            return count;
+        });
+        lastStates.put(state.getFeed(), state);
+        return updated != null ? updated : 0;
+    }
+
+    private <T> Map<Long, T> fetchAll(Collection<Long> ids, Function<Long, T> fetch) {
+        Map<Long, T> results = new ConcurrentHashMap<>();
+        if (ids.isEmpty()) {
+            return results;
+        }
+        List<CompletableFuture<Void>> futures = ids.stream()
+                .map(id -> CompletableFuture.runAsync(() -> {
+                    T value = fetch.apply(id);
+                    if (value != null) {
+                        results.put(id, value);
+                    }
+                }, ingestionExecutor))
+                .toList();
+        futures.forEach(CompletableFuture::join);
+        return results;
+    }
+
+    private static void apply(Movie movie, MovieResponse.MovieDetails details) {
+        movie.setTitle(details.getTitle());
+        movie.setDescription(details.getOverview());
+        if (details.getReleaseDate() != null) {
+            movie.setReleaseDate(details.getReleaseDate());
+        }
+        movie.setDuration(details.getRuntime());
+        movie.setRating(details.getVoteAverage());
+        movie.setPopularity(details.getPopularity());
+        String trailer = TmdbClient.trailerUrl(details.getVideos());
+        if (trailer != null) {
+            movie.setTrailer(trailer);
+        }
+        String director = TmdbClient.director(details.getCredits());
+        if (director != null) {
+            movie.setDirector(director);
+        }
+    }
+
+    private static void apply(Serie serie, SerieResponse.SerieDetails details) {
+        serie.setTitle(details.getName());
+        serie.setDescription(details.getOverview());
+        serie.setPoster("https://image.tmdb.org/t/p/w500" + details.getPosterPath());
+        serie.setBackdrop("https://image.tmdb.org/t/p/w500" + details.getBackdropPath());
+        serie.setRating(details.getVoteAverage());
+        serie.setPopularity(details.getPopularity());
+        serie.setNumberOfSeasons(details.getNumberOfSeasons());
+        serie.setNumberOfEpisodes(details.getNumberOfEpisodes());
+        serie.setStatus(details.getStatus());
+        String trailer = TmdbClient.trailerUrl(details.getVideos());
+        if (trailer != null) {
+            serie.setTrailer(trailer);
+        }
+    }
+
+    private void save(SyncState state) {
+        syncStateRepository.save(state);
+        lastStates.put(state.getFeed(), state);
+    }
+
+    // Segundos desde la última vez que el feed quedó al día; NaN si nunca se completó
+    private void registerLag(String feed) {
+        Gauge.builder("catalog.sync.lag", lastStates, states -> {
+                    SyncState state = states.get(feed);
+                    if (state == null || state.getLastSuccessAt() == null) {
+                        return Double.NaN;
+                    }
+                    return Duration.between(state.getLastSuccessAt(), Instant.now(clock)).toSeconds();
+                })
+                .tag("feed", feed)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+}
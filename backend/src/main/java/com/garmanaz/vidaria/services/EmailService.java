@@ -1,23 +1,33 @@
 package com.garmanaz.vidaria.services;
 
 import jakarta.validation.constraints.Email;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     private final JavaMailSender mailSender;
+    private final Executor emailExecutor;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
 
     @Autowired
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, @Qualifier("emailExecutor") Executor emailExecutor) {
         this.mailSender = mailSender;
+        this.emailExecutor = emailExecutor;
     }
 
     public void sendResetPasswordEmail(@Email String email, String resetLink) {
@@ -33,14 +43,20 @@ public class EmailService {
         """.formatted(resetLink));
         message.setFrom(fromEmail);
 
+        // El SMTP no bloquea la petición: se envía en el executor de email
+        try {
+            emailExecutor.execute(() -> send(message, email));
+        } catch (RejectedExecutionException e) {
+            logger.error("Cannot queue reset password email to {}: {}", email, e.getMessage());
+        }
+    }
+
+    private void send(SimpleMailMessage message, String email) {
         try {
             mailSender.send(message);
-            System.out.println("Password reset email sent successfully to: " + email);
+            logger.info("Password reset email sent successfully to: {}", email);
         } catch (Exception e) {
-            System.err.println("Failed to send email: " + e.getMessage());
+            logger.error("Failed to send email to {}: {}", email, e.getMessage());
         }
     }
-
-
-
 }
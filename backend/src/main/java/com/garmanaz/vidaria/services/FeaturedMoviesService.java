@@ -0,0 +1,276 @@
+package com.garmanaz.vidaria.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garmanaz.vidaria.DTO.FeaturedMovies;
+import com.garmanaz.vidaria.DTO.MovieSnapshot;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.utils.RedisSerializerUtil;
+import com.garmanaz.vidaria.utils.search.CatalogChangedEvent;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Películas destacadas de la portada precalculadas. La selección solo cambia cuando cambia la popularidad,
+// así que no se recalcula por petición: un job periódico (y los cambios del catálogo que puedan afectarla)
+// la calcula, la guarda en Redis como un único valor versionado y la deja en memoria.
+// /movies/featured lee la copia en memoria y responde con la versión como ETag.
+@Service
+public class FeaturedMoviesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeaturedMoviesService.class);
+    static final String CACHE_KEY = "featured:movie";
+
+    private final MovieRepository movieRepository;
+    private final RedisTemplate<String, FeaturedMovies> featuredRedisTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper = RedisSerializerUtil.createObjectMapper();
+    private final Timer refreshTimer;
+    private final AtomicReference<Featured> current = new AtomicReference<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // ReentrantLock y no synchronized: dentro se lee Redis y la base de datos, y un hilo virtual
+    // bloqueado en un synchronized no libera su hilo portador
+    private final ReentrantLock lock = new ReentrantLock();
+    Clock clock = Clock.systemUTC();
+
+    @Value("${vidaria.featured.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vidaria.featured.candidates:50}")
+    private int candidates;
+
+    @Value("${vidaria.featured.count:7}")
+    private int count;
+
+    @Value("${vidaria.featured.distinct-genres:6}")
+    private int distinctGenres;
+
+    @Value("${vidaria.featured.max-per-category:0}")
+    private int maxPerCategory;
+
+    public FeaturedMoviesService(MovieRepository movieRepository,
+                                 RedisTemplate<String, FeaturedMovies> featuredRedisTemplate,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        this.featuredRedisTemplate = featuredRedisTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.refreshTimer = meterRegistry.timer("featured.refresh");
+    }
+
+    // Lo que sirve el controlador: la selección ya convertida a entidades y su ETag
+    public record Featured(String etag, Instant computedAt, Double threshold, List<Movie> movies, Set<Long> ids) {
+
+        static Featured of(FeaturedMovies value) {
+            List<Movie> movies = value.movies().stream().map(MovieSnapshot::toMovie).toList();
+            Set<Long> ids = new HashSet<>();
+            value.movies().forEach(movie -> ids.add(movie.id()));
+            return new Featured(value.version(), value.computedAt(), value.threshold(), movies, Set.copyOf(ids));
+        }
+    }
+
+    // Parámetros de la selección: cuántas, cuántas de ellas elegidas por aportar un género nuevo
+    // y cuántas como mucho de la misma categoría (0 = sin límite)
+    public record Selection(int count, int distinctGenres, int maxPerCategory) {
+    }
+
+    public Featured getFeatured() {
+        Featured featured = current.get();
+        return featured != null ? featured : load();
+    }
+
+    // Primera petición de la instancia: la selección que otra instancia ya dejó en Redis o, si no hay, calcularla
+    private Featured load() {
+        lock.lock();
+        try {
+            Featured featured = current.get();
+            if (featured != null) {
+                return featured;
+            }
+            try {
+                FeaturedMovies stored = featuredRedisTemplate.opsForValue().get(CACHE_KEY);
+                if (stored != null) {
+                    featured = Featured.of(stored);
+                    current.compareAndSet(null, featured);
+                    return current.get();
+                }
+            } catch (Exception e) {
+                logger.warn("Cannot read featured movies from Redis: {}", e.getMessage());
+            }
+            return refresh();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // También al arrancar, sin retardo inicial
+    @Scheduled(fixedDelayString = "${vidaria.featured.refresh-interval:PT15M}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            try {
+                refresh();
+            } catch (Exception e) {
+                logger.warn("Featured movies refresh failed, serving the previous selection: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Los cambios del catálogo solo marcan la selección; se recalcula una vez por intervalo aunque lleguen muchos
+    @Scheduled(fixedDelayString = "${vidaria.featured.change-debounce:PT30S}")
+    public void refreshIfChanged() {
+        if (enabled && dirty.getAndSet(false)) {
+            scheduledRefresh();
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if ("movie".equals(event.catalog()) && affects(current.get(), event)) {
+            dirty.set(true);
+        }
+    }
+
+    // Una película que ya está en la selección, o que con su popularidad podría entrar en ella
+    static boolean affects(Featured featured, CatalogChangedEvent event) {
+        if (featured == null) {
+            return true;
+        }
+        for (Long id : event.removed()) {
+            if (featured.ids().contains(id)) {
+                return true;
+            }
+        }
+        for (SearchDocument document : event.upserted()) {
+            if (featured.ids().contains(document.id())) {
+                return true;
+            }
+            if (featured.threshold() == null
+                    || (document.popularity() != null && document.popularity() >= featured.threshold())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Featured refresh() {
+        lock.lock();
+        try {
+            FeaturedMovies computed = refreshTimer.record(this::compute);
+            Featured previous = current.get();
+            if (previous != null && previous.etag().equals(computed.version())) {
+                return previous;
+            }
+            try {
+                featuredRedisTemplate.opsForValue().set(CACHE_KEY, computed);
+            } catch (Exception e) {
+                logger.warn("Cannot store featured movies in Redis: {}", e.getMessage());
+            }
+            Featured featured = Featured.of(computed);
+            current.set(featured);
+            logger.info("Featured movies refreshed: version {} with {} movies", featured.etag(), featured.movies().size());
+            return featured;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FeaturedMovies compute() {
+        // Los géneros se cargan por lotes al convertir cada película en snapshot dentro de la transacción
+        List<MovieSnapshot> pool = readOnlyTransaction.execute(status ->
+                movieRepository.findMostPopularWithGenres(PageRequest.of(0, candidates)).stream()
+                        .map(MovieSnapshot::from)
+                        .toList());
+        List<MovieSnapshot> selected = select(pool, new Selection(count, distinctGenres, maxPerCategory));
+        Double threshold = selected.stream()
+                .map(MovieSnapshot::popularity)
+                .filter(Objects::nonNull)
+                .min(Double::compare)
+                .orElse(null);
+        return new FeaturedMovies(version(selected), Instant.now(clock), threshold, selected);
+    }
+
+    // Candidatas ya ordenadas por popularidad. Primero las que aportan un género que aún no está,
+    // luego se completa por popularidad respetando el límite por categoría y, si no alcanza, sin él.
+    static List<MovieSnapshot> select(List<MovieSnapshot> candidates, Selection selection) {
+        Set<MovieSnapshot> selected = new LinkedHashSet<>();
+        Set<String> genres = new HashSet<>();
+        Map<String, Integer> perCategory = new HashMap<>();
+
+        for (MovieSnapshot movie : candidates) {
+            if (selected.size() >= Math.min(selection.distinctGenres(), selection.count())) {
+                break;
+            }
+            if (fitsCategory(movie, perCategory, selection) && addsGenre(movie, genres)) {
+                add(movie, selected, perCategory);
+            }
+        }
+        for (MovieSnapshot movie : candidates) {
+            if (selected.size() >= selection.count()) {
+                break;
+            }
+            if (!selected.contains(movie) && fitsCategory(movie, perCategory, selection)) {
+                add(movie, selected, perCategory);
+            }
+        }
+        for (MovieSnapshot movie : candidates) {
+            if (selected.size() >= selection.count()) {
+                break;
+            }
+            selected.add(movie);
+        }
+        return new ArrayList<>(selected);
+    }
+
+    // Igual que antes: cuenta el primer género nuevo de la película
+    private static boolean addsGenre(MovieSnapshot movie, Set<String> genres) {
+        return movie.genres() != null && movie.genres().stream().anyMatch(genre -> genres.add(genre.name()));
+    }
+
+    private static boolean fitsCategory(MovieSnapshot movie, Map<String, Integer> perCategory, Selection selection) {
+        return selection.maxPerCategory() <= 0
+                || perCategory.getOrDefault(movie.categoryName(), 0) < selection.maxPerCategory();
+    }
+
+    private static void add(MovieSnapshot movie, Set<MovieSnapshot> selected, Map<String, Integer> perCategory) {
+        selected.add(movie);
+        perCategory.merge(movie.categoryName(), 1, Integer::sum);
+    }
+
+    // Hash del contenido servido: misma selección con los mismos datos, misma versión en todas las instancias
+    private String version(List<MovieSnapshot> movies) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(movies));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute the featured movies version", e);
+        }
+    }
+}
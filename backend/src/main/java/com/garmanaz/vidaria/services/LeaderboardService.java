@@ -0,0 +1,428 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.DTO.MovieCard;
+import com.garmanaz.vidaria.DTO.RankedTitle;
+import com.garmanaz.vidaria.DTO.SerieCard;
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.cache.NearCache;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.search.CatalogChangedEvent;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Clasificaciones por género (y por categoría en películas) en sorted sets de Redis, una por puntuación:
+// leaderboard:{movie|serie}:{genre|category}:{id}:{rating|popularity}.
+// Los listados "mejores por género" se paginan con ZRANGE y las tarjetas salen de la caché de entidades
+// (un MGET), así que no hay JOIN por nombre de género ni ordenación de todo el género en la base de datos.
+// Se actualizan tras cada commit con el CatalogChangedEvent y un comprobador periódico las compara con
+// la base de datos y corrige las diferencias. Sin clasificación (Redis caído o aún sin construir) se usa la consulta.
+// El comprobador deja la marca leaderboard:built:{catalog} al terminar: sin ella (primer arranque, Redis reiniciado
+// o vaciado) no se sirve ni se actualiza ninguna clasificación del catálogo, para no crearlas con un solo título.
+// Puntuación negada e id con ceros a la izquierda como miembro: ZRANGE desempata por miembro ascendente,
+// así los empates salen por id ascendente, igual que en la consulta.
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+    static final String MOVIE = "movie";
+    static final String SERIE = "serie";
+    static final String PREFIX = "leaderboard:";
+    static final String BUILT = PREFIX + "built:";
+
+    public enum Dimension {
+        GENRE, CATEGORY;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum Score {
+        RATING("rating", RankedTitle::rating, SearchDocument::rating),
+        POPULARITY("popularity", RankedTitle::popularity, SearchDocument::popularity);
+
+        private final String property;
+        private final Function<RankedTitle, Double> ofRow;
+        private final Function<SearchDocument, Double> ofDocument;
+
+        Score(String property, Function<RankedTitle, Double> ofRow, Function<SearchDocument, Double> ofDocument) {
+            this.property = property;
+            this.ofRow = ofRow;
+            this.ofDocument = ofDocument;
+        }
+
+        // Solo un orden descendente por rating o popularity se puede servir desde una clasificación
+        public static Optional<Score> of(Sort sort) {
+            List<Sort.Order> orders = sort.toList();
+            if (orders.size() != 1 || !orders.get(0).isDescending()) {
+                return Optional.empty();
+            }
+            for (Score score : values()) {
+                if (score.property.equals(orders.get(0).getProperty())) {
+                    return Optional.of(score);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    public record CheckResult(String catalog, int boards, long missing, long extra, long rescored) {
+
+        public long drift() {
+            return missing + extra + rescored;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final MovieRepository movieRepository;
+    private final SerieRepository serieRepository;
+    private final ReferenceData referenceData;
+    private final NearCache<Movie> movieNearCache;
+    private final RefreshAheadCache<Serie> serieRemoteCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${vidaria.leaderboard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vidaria.leaderboard.write-chunk-size:1000}")
+    private int writeChunkSize;
+
+    public LeaderboardService(StringRedisTemplate redisTemplate, MovieRepository movieRepository,
+                              SerieRepository serieRepository, ReferenceData referenceData,
+                              NearCache<Movie> movieNearCache, RefreshAheadCache<Serie> serieRemoteCache,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.movieRepository = movieRepository;
+        this.serieRepository = serieRepository;
+        this.referenceData = referenceData;
+        this.movieNearCache = movieNearCache;
+        this.serieRemoteCache = serieRemoteCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    static String key(String catalog, Dimension dimension, Long id, Score score) {
+        return PREFIX + catalog + ":" + dimension.key() + ":" + id + ":" + score.property;
+    }
+
+    static String member(Long id) {
+        return String.format("%012d", id);
+    }
+
+    public Optional<Page<MovieCard>> bestMovies(String genre, Pageable pageable) {
+        return referenceData.genreId(genre).flatMap(id ->
+                page(MOVIE, key(MOVIE, Dimension.GENRE, id, Score.RATING), pageable, this::movieCards));
+    }
+
+    public Optional<Page<MovieCard>> moviesByCategory(String category, Pageable pageable) {
+        return Score.of(pageable.getSort()).flatMap(score -> referenceData.categoryId(category).flatMap(id ->
+                page(MOVIE, key(MOVIE, Dimension.CATEGORY, id, score), pageable, this::movieCards)));
+    }
+
+    public Optional<Page<SerieCard>> bestSeries(String genre, Pageable pageable) {
+        return referenceData.genreId(genre).flatMap(id ->
+                page(SERIE, key(SERIE, Dimension.GENRE, id, Score.RATING), pageable, this::serieCards));
+    }
+
+    // Marca, ZCARD y ZRANGE en una ida y vuelta. Sin marca o con la clasificación vacía decide la base de datos
+    @SuppressWarnings("unchecked")
+    private <T> Optional<Page<T>> page(String catalog, String key, Pageable pageable, Function<List<Long>, List<T>> cards) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            long start = pageable.getOffset();
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public Object execute(RedisOperations operations) {
+                    operations.hasKey(BUILT + catalog);
+                    operations.opsForZSet().zCard(key);
+                    operations.opsForZSet().range(key, start, start + pageable.getPageSize() - 1);
+                    return null;
+                }
+            });
+            Long total = (Long) results.get(1);
+            if (!Boolean.TRUE.equals(results.get(0)) || total == null || total == 0) {
+                return Optional.empty();
+            }
+            List<Long> ids = ((Collection<String>) results.get(2)).stream().map(Long::valueOf).toList();
+            return Optional.of(new PageImpl<>(cards.apply(ids), pageable, total));
+        } catch (DataAccessException e) {
+            logger.warn("Cannot read leaderboard {}, falling back to the database: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Las que no están cacheadas se leen de una vez con la consulta de tarjetas
+    private List<MovieCard> movieCards(List<Long> ids) {
+        Map<Long, Movie> cached = movieNearCache.getAllPresent(ids);
+        List<Long> missing = ids.stream().filter(id -> !cached.containsKey(id)).toList();
+        Map<Long, MovieCard> loaded = missing.isEmpty() ? Map.of() : movieRepository.findMovieCards(missing).stream()
+                .collect(Collectors.toMap(MovieCard::id, Function.identity()));
+        return ids.stream()
+                .map(id -> cached.containsKey(id) ? MovieCard.from(cached.get(id)) : loaded.get(id))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private List<SerieCard> serieCards(List<Long> ids) {
+        List<Serie> cached = serieRemoteCache.getAllPresent(ids.stream().map(SerieService::cacheKey).toList());
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (cached.get(i) == null) {
+                missing.add(ids.get(i));
+            }
+        }
+        Map<Long, SerieCard> loaded = missing.isEmpty() ? Map.of() : serieRepository.findSerieCards(missing).stream()
+                .collect(Collectors.toMap(SerieCard::id, Function.identity()));
+        List<SerieCard> cards = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            SerieCard card = cached.get(i) != null ? SerieCard.from(cached.get(i)) : loaded.get(ids.get(i));
+            if (card != null) {
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
+
+    // Se quitan los títulos del evento de todas las clasificaciones de su catálogo y se vuelven a añadir
+    // a las suyas: así un cambio de género o categoría no deja la entrada antigua. Un ZREM/ZADD por clasificación,
+    // con todos los títulos del evento, dentro de MULTI/EXEC para que nadie lea el título a medio mover.
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!enabled || !(MOVIE.equals(event.catalog()) || SERIE.equals(event.catalog()))) {
+            return;
+        }
+        String catalog = event.catalog();
+        Set<String> members = new HashSet<>();
+        event.upserted().forEach(document -> members.add(member(document.id())));
+        event.removed().forEach(id -> members.add(member(id)));
+        if (members.isEmpty()) {
+            return;
+        }
+
+        Map<String, Set<ZSetOperations.TypedTuple<String>>> additions = new HashMap<>();
+        for (SearchDocument document : event.upserted()) {
+            for (Long genreId : boardIds(document.genres(), referenceData::genreId)) {
+                add(additions, catalog, Dimension.GENRE, genreId, document);
+            }
+            if (MOVIE.equals(catalog) && document.category() != null) {
+                referenceData.categoryId(document.category())
+                        .ifPresent(categoryId -> add(additions, catalog, Dimension.CATEGORY, categoryId, document));
+            }
+        }
+        Set<String> boards = new LinkedHashSet<>(knownBoards(catalog));
+        boards.addAll(additions.keySet());
+
+        try {
+            // Aún sin construir (o perdidas): las construye el comprobador con todo el catálogo
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(BUILT + catalog))) {
+                return;
+            }
+            redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public List<Object> execute(RedisOperations operations) {
+                    operations.multi();
+                    Object[] removed = members.toArray();
+                    boards.forEach(board -> operations.opsForZSet().remove(board, removed));
+                    additions.forEach((board, tuples) -> operations.opsForZSet().add(board, tuples));
+                    return operations.exec();
+                }
+            });
+        } catch (DataAccessException e) {
+            // El comprobador periódico lo corrige
+            meterRegistry.counter("leaderboard.update.failures", "catalog", catalog).increment();
+            logger.warn("Cannot update {} leaderboards for {} titles: {}", catalog, members.size(), e.getMessage());
+        }
+    }
+
+    private static List<Long> boardIds(Set<String> names, Function<String, Optional<Long>> lookup) {
+        return names.stream().map(lookup).flatMap(Optional::stream).distinct().toList();
+    }
+
+    private static void add(Map<String, Set<ZSetOperations.TypedTuple<String>>> additions, String catalog,
+                            Dimension dimension, Long id, SearchDocument document) {
+        for (Score score : Score.values()) {
+            additions.computeIfAbsent(key(catalog, dimension, id, score), board -> new HashSet<>())
+                    .add(new DefaultTypedTuple<>(member(document.id()), score(score.ofDocument.apply(document))));
+        }
+    }
+
+    // Negada: la mejor primero con ZRANGE. Sin valoración o popularidad el título queda al final, como con NULLS LAST
+    // (0.0 - value y no -value, para no guardar -0.0 y verlo como puntuación distinta al comprobar)
+    static double score(Double value) {
+        return value != null ? 0.0 - value : 0.0;
+    }
+
+    private List<String> knownBoards(String catalog) {
+        List<String> boards = new ArrayList<>();
+        for (Score score : Score.values()) {
+            referenceData.knownGenres().forEach(genre -> boards.add(key(catalog, Dimension.GENRE, genre.getId(), score)));
+            if (MOVIE.equals(catalog)) {
+                referenceData.knownCategories()
+                        .forEach(category -> boards.add(key(catalog, Dimension.CATEGORY, category.getId(), score)));
+            }
+        }
+        return boards;
+    }
+
+    // También al arrancar, sin retardo inicial: la primera comprobación construye las clasificaciones
+    @Scheduled(fixedDelayString = "${vidaria.leaderboard.check-interval:PT6H}")
+    public void scheduledCheck() {
+        if (enabled) {
+            try {
+                check();
+            } catch (Exception e) {
+                logger.warn("Leaderboard consistency check failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    public List<CheckResult> check() {
+        return List.of(check(MOVIE), check(SERIE));
+    }
+
+    // Reconstruye desde la base de datos cada clasificación (una consulta por género o categoría), la compara
+    // con la de Redis y aplica solo la diferencia. Un cambio que llegue entre la lectura y la escritura de una
+    // clasificación puede quedar pisado hasta la siguiente comprobación.
+    CheckResult check(String catalog) {
+        long start = System.nanoTime();
+        Map<String, Function<Long, List<RankedTitle>>> sources = new HashMap<>();
+        if (MOVIE.equals(catalog)) {
+            for (Genre genre : referenceData.knownGenres()) {
+                sources.put(boardBase(catalog, Dimension.GENRE, genre.getId()), movieRepository::findRankedByGenre);
+            }
+            for (Category category : referenceData.knownCategories()) {
+                sources.put(boardBase(catalog, Dimension.CATEGORY, category.getId()), movieRepository::findRankedByCategory);
+            }
+        } else {
+            for (Genre genre : referenceData.knownGenres()) {
+                sources.put(boardBase(catalog, Dimension.GENRE, genre.getId()), serieRepository::findRankedByGenre);
+            }
+        }
+
+        Set<String> live = liveBoards(catalog);
+        long missing = 0;
+        long extra = 0;
+        long rescored = 0;
+        int boards = 0;
+        for (Map.Entry<String, Function<Long, List<RankedTitle>>> source : sources.entrySet()) {
+            Long id = Long.valueOf(source.getKey().substring(source.getKey().lastIndexOf(':') + 1));
+            List<RankedTitle> rows = readOnlyTransaction.execute(status -> source.getValue().apply(id));
+            for (Score score : Score.values()) {
+                String board = source.getKey() + ":" + score.property;
+                live.remove(board);
+                Map<String, Double> expected = new HashMap<>();
+                rows.forEach(row -> expected.put(member(row.id()), score(score.ofRow.apply(row))));
+                long[] diff = reconcile(board, expected);
+                missing += diff[0];
+                extra += diff[1];
+                rescored += diff[2];
+                boards++;
+            }
+        }
+        // Clasificaciones de géneros o categorías que ya no existen
+        for (String board : live) {
+            extra += reconcile(board, Map.of())[1];
+        }
+        redisTemplate.opsForValue().set(BUILT + catalog, "1");
+
+        CheckResult result = new CheckResult(catalog, boards, missing, extra, rescored);
+        meterRegistry.counter("leaderboard.drift", "catalog", catalog, "kind", "missing").increment(missing);
+        meterRegistry.counter("leaderboard.drift", "catalog", catalog, "kind", "extra").increment(extra);
+        meterRegistry.counter("leaderboard.drift", "catalog", catalog, "kind", "rescored").increment(rescored);
+        logger.info("Checked {} {} leaderboards in {} ms: {} missing, {} extra, {} rescored", boards, catalog,
+                (System.nanoTime() - start) / 1_000_000, missing, extra, rescored);
+        return result;
+    }
+
+    private static String boardBase(String catalog, Dimension dimension, Long id) {
+        return PREFIX + catalog + ":" + dimension.key() + ":" + id;
+    }
+
+    private Set<String> liveBoards(String catalog) {
+        Set<String> boards = new HashSet<>();
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(PREFIX + catalog + ":*").count(1000).build())) {
+            while (cursor.hasNext()) {
+                boards.add(cursor.next());
+            }
+        }
+        return boards;
+    }
+
+    // Devuelve {faltan, sobran, puntuación distinta} y escribe la diferencia en bloques
+    private long[] reconcile(String board, Map<String, Double> expected) {
+        Set<ZSetOperations.TypedTuple<String>> current = redisTemplate.opsForZSet().rangeWithScores(board, 0, -1);
+        Map<String, Double> stored = new HashMap<>();
+        if (current != null) {
+            current.forEach(tuple -> stored.put(tuple.getValue(), tuple.getScore()));
+        }
+
+        List<ZSetOperations.TypedTuple<String>> upserts = new ArrayList<>();
+        long missing = 0;
+        long rescored = 0;
+        for (Map.Entry<String, Double> entry : expected.entrySet()) {
+            Double score = stored.get(entry.getKey());
+            if (score == null) {
+                missing++;
+            } else if (Double.compare(score, entry.getValue()) != 0) {
+                rescored++;
+            } else {
+                continue;
+            }
+            upserts.add(new DefaultTypedTuple<>(entry.getKey(), entry.getValue()));
+        }
+        List<String> extra = stored.keySet().stream().filter(member -> !expected.containsKey(member)).toList();
+
+        for (int from = 0; from < upserts.size(); from += writeChunkSize) {
+            redisTemplate.opsForZSet().add(board, new HashSet<>(upserts.subList(from, Math.min(from + writeChunkSize, upserts.size()))));
+        }
+        for (int from = 0; from < extra.size(); from += writeChunkSize) {
+            redisTemplate.opsForZSet().remove(board, extra.subList(from, Math.min(from + writeChunkSize, extra.size())).toArray());
+        }
+        return new long[]{missing, extra.size(), rescored};
+    }
+}
@@ -1,25 +1,21 @@
 package com.garmanaz.vidaria.services;
 
-import com.garmanaz.vidaria.DTO.MovieResponse;
 import com.garmanaz.vidaria.entities.Genre;
 import com.garmanaz.vidaria.entities.Movie;
 import com.garmanaz.vidaria.repositories.GenreRepository;
 import com.garmanaz.vidaria.repositories.MovieRepository;
-import org.hibernate.Hibernate;
+import com.garmanaz.vidaria.utils.cache.KnownIds;
+import com.garmanaz.vidaria.utils.cache.NearCache;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,51 +23,49 @@ public class MovieCacheService {
 
     private final MovieRepository movieRepository;
     private final GenreRepository genreRepository;
-    private final RestTemplate restTemplate;
-    private final RedisTemplate<String, Movie> redisTemplate;
-    private static final String API_URL = "https://api.themoviedb.org/3";
-    private final String API_KEY;
+    private final TmdbClient tmdbClient;
+    private final NearCache<Movie> movieNearCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final KnownIds knownIds;
 
     @Autowired
-    public MovieCacheService(MovieRepository movieRepository, GenreRepository genreRepository, RestTemplate restTemplate,
-                             @Value("${tmdb.api.key}") String apiKey, RedisTemplate<String, Movie> redisTemplate) {
+    public MovieCacheService(MovieRepository movieRepository, GenreRepository genreRepository, TmdbClient tmdbClient,
+                             NearCache<Movie> movieNearCache,
+                             PlatformTransactionManager transactionManager, KnownIds knownIds) {
         this.movieRepository = movieRepository;
         this.genreRepository = genreRepository;
-        this.restTemplate = restTemplate;
-        this.API_KEY = apiKey;
-        this.redisTemplate = redisTemplate;
+        this.tmdbClient = tmdbClient;
+        this.movieNearCache = movieNearCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.knownIds = knownIds;
     }
 
-    @Transactional(readOnly = true)
+    // Sin @Transactional: quien espera una carga en curso no debe retener una conexión.
+    // La transacción se abre solo en la carga, que puede ejecutarse en otro hilo (refresco en segundo plano).
     public Movie getMovie(Long id) {
-
-        String cacheKey = "movie:" + id;
-        Movie movie = redisTemplate.opsForValue().get(cacheKey); // Obtener desde Redis
-
-        if (movie == null) { // Si no está en Redis
-            movie = movieRepository.findById(id).orElse(null);
-            if (movie != null) {
-                // Inicializar relaciones Lazy
-                Hibernate.initialize(movie.getGenres());
-                Hibernate.initialize(movie.getCategory());
-
-                // Guardar en Redis con serialización correcta
-                redisTemplate.opsForValue().set(cacheKey, movie, 1, TimeUnit.DAYS);
-                System.out.println("Guardado en Redis: " + cacheKey);
-            }
-        } else {
-            System.out.println("Cargado desde Redis: " + cacheKey);
+        // Ids que seguro no existen: se rechazan sin tocar caché ni base de datos
+        if (!knownIds.mightContain("movie", id)) {
+            return null;
         }
+        // L1 en memoria -> L2 Redis (con caché negativa) -> base de datos
+        return movieNearCache.get(id, movieId -> readOnlyTransaction.execute(status -> loadMovie(movieId)));
+    }
+
+    public void evict(Long id) {
+        movieNearCache.invalidate(id);
+    }
 
-        return movie;
+    private Movie loadMovie(Long id) {
+        // Categoría y géneros en una consulta con el graph de detalle
+        return movieRepository.findDetailById(id).orElse(null);
     }
 
 
-    @Cacheable("genres")
+    // Caché propia: los géneros de series tienen otros ids y nombres
+    @Cacheable("movieGenres")
     public List<Genre> getGenres() {
-        String url = API_URL + "/genre/movie/list?api_key=" + API_KEY;
-        ResponseEntity<MovieResponse.GenreResponse> response = restTemplate.exchange(url, HttpMethod.GET, null, MovieResponse.GenreResponse.class);
-        return Optional.ofNullable(response.getBody())
+        return Optional.ofNullable(tmdbClient.movieGenres())
                 .map(genreResponse -> genreResponse.getGenres().stream()
                         .map(genre -> new Genre(genre.getId(), genre.getName()))
                         .collect(Collectors.toList()))
@@ -1,167 +1,110 @@
 package com.garmanaz.vidaria.services;
 
-import com.garmanaz.vidaria.DTO.MovieResponse;
-import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.MovieCard;
 import com.garmanaz.vidaria.entities.Movie;
 import com.garmanaz.vidaria.repositories.CategoryRepository;
+import com.garmanaz.vidaria.repositories.CountStrategy;
 import com.garmanaz.vidaria.repositories.GenreRepository;
+import com.garmanaz.vidaria.repositories.Keyset;
+import com.garmanaz.vidaria.repositories.MovieFullTextSearch;
 import com.garmanaz.vidaria.repositories.MovieRepository;
-import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class MovieService {
 
-    private static final String API_URL = "https://api.themoviedb.org/3";
     private final MovieRepository movieRepository;
     private final GenreRepository genreRepository;
     private final CategoryRepository categoryRepository;
-    private final RestTemplate restTemplate;
-    private final RedisTemplate<String, Movie> movieRedisTemplate;
     private final MovieCacheService movieCacheService;
-
-
-    @Value("${tmdb.api.key}")
-    private String API_KEY;
+    private final LeaderboardService leaderboardService;
+    // Solo existe con vidaria.search.movie.mode=fulltext (PostgreSQL); si no, se usa la consulta JPQL
+    private final MovieFullTextSearch fullTextSearch;
 
     @Autowired
-    public MovieService(MovieRepository movieRepository, GenreRepository genreRepository, CategoryRepository categoryRepository, RestTemplate restTemplate, RedisTemplate<String, Movie> movieRedisTemplate, MovieCacheService movieCacheService) {
+    public MovieService(MovieRepository movieRepository, GenreRepository genreRepository, CategoryRepository categoryRepository, MovieCacheService movieCacheService, LeaderboardService leaderboardService, @Nullable MovieFullTextSearch fullTextSearch) {
         this.movieRepository = movieRepository;
         this.genreRepository = genreRepository;
         this.categoryRepository = categoryRepository;
-        this.restTemplate = restTemplate;
-        this.movieRedisTemplate = movieRedisTemplate;
         this.movieCacheService = movieCacheService;
+        this.leaderboardService = leaderboardService;
+        this.fullTextSearch = fullTextSearch;
 
     }
 
 
-    public void preCacheMovies() {
-        try {
-            List<Movie> movies = movieRepository.findAll();
-            for (Movie movie : movies) {
-                Hibernate.initialize(movie.getGenres());
-                Hibernate.initialize(movie.getCategory());
-
-                String cacheKey = "movie:" + movie.getId();
-                movieRedisTemplate.opsForValue().set(cacheKey, movie, 1, TimeUnit.DAYS); // TTL de 1 día
-                System.out.println("Saved to Redis: " + cacheKey + " -> " + movie);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to precache movies in Redis: " + e.getMessage());
-        }
-    }
-
-
-    @Cacheable("genres")
-    public List<Genre> getGenres() {
-        String url = API_URL + "/genre/movie/list?api_key=" + API_KEY;
-        ResponseEntity<MovieResponse.GenreResponse> response = restTemplate.exchange(url, HttpMethod.GET, null, MovieResponse.GenreResponse.class);
-        return Optional.ofNullable(response.getBody())
-                .map(genreResponse -> genreResponse.getGenres().stream()
-                        .map(genre -> new Genre(genre.getId(), genre.getName()))
-                        .collect(Collectors.toList()))
-                .orElse(Collections.emptyList());
-    }
-
+    // Los listados devuelven MovieCard: una fila por película con los géneros agregados en SQL.
+    // La entidad completa solo se carga en el detalle
     @Transactional(readOnly = true)
-    public List<Movie> getFeaturedMovies() {
-        Pageable pageable = PageRequest.of(0, 50); // Obtén las 50 películas más populares
-        List<Movie> allMovies = movieRepository.findAllWithUniqueGenres(pageable);
-        Set<String> uniqueGenres = new HashSet<>(); // Para almacenar géneros únicos
-        List<Movie> featuredMovies = new ArrayList<>();
-
-        for (Movie movie : allMovies) {
-            if (featuredMovies.size() >= 6) break; // Detener si ya tenemos 7 películas
-
-            // Inicializa relaciones Lazy
-            Hibernate.initialize(movie.getGenres());
-            Hibernate.initialize(movie.getCategory());
-
-            // Verifica si la película tiene un género único
-            boolean hasUniqueGenre = movie.getGenres().stream()
-                    .anyMatch(genre -> uniqueGenres.add(genre.getName())); // Agrega el género al Set
-
-            if (hasUniqueGenre) {
-                featuredMovies.add(movie);
-            }
-        }
+    public Page<MovieCard> getPaginatedMovies(Pageable pageable) {
+        return movieRepository.searchMovies(null, null, null, null, null, null, null, null, null, pageable, MovieCard.class);
+    }
 
-        // Si no hay suficientes géneros únicos, completa con las más populares
-        if (featuredMovies.size() < 7) {
-            allMovies.sort(Comparator.comparingDouble(Movie::getPopularity).reversed());
-            for (Movie movie : allMovies) {
-                if (featuredMovies.size() >= 7) break;
-                if (!featuredMovies.contains(movie)) {
-                    featuredMovies.add(movie);
-                }
-            }
+    public Page<MovieCard> searchMovies(String title, List<String> genres, List<String> categories, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, Pageable pageable) {
+        if (fullTextSearch != null) {
+            return searchMoviesFullText(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
         }
-
-        // Cacheo en Redis
-        featuredMovies.forEach(movie -> {
-            CompletableFuture.runAsync(() -> {
-                String cacheKey = "movie:" + movie.getId();
-                movieRedisTemplate.opsForValue().set(cacheKey, movie, 1, TimeUnit.DAYS);
-            });
-        });
-
-        return featuredMovies;
+        // Sin ?sort= el repositorio ordena por popularidad y valoración
+        title = title != null ? title.toLowerCase() : null;
+        return movieRepository.searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, MovieCard.class);
     }
 
-
-    @Transactional(readOnly = true)
-    public Page<Movie> getPaginatedMovies(Pageable pageable) {
-        Page<Movie> moviesPage = movieRepository.findAll(pageable);
-        moviesPage.getContent().forEach(movie -> {
-            Hibernate.initialize(movie.getGenres());
-            Hibernate.initialize(movie.getCategory());
-        });
-        return moviesPage;
+    // Con un ?count= explícito
+    public CountedPage<MovieCard> searchMovies(String title, List<String> genres, List<String> categories, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, Pageable pageable, CountStrategy count) {
+        if (fullTextSearch != null) {
+            CountedPage<Long> ids = fullTextSearch.searchIds(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, count);
+            return ids.withContent(movieRepository.findMovieCards(ids.content()));
+        }
+        return movieRepository.searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, count, MovieCard.class);
     }
 
-    public Page<Movie> searchMovies(String title, List<String> genres, List<String> categories, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, Pageable pageable) {
-        title = title != null ? title.toLowerCase() : null;
-        Sort sort = Sort.by(Sort.Order.desc("popularity"), Sort.Order.desc("rating"));
-        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
-        return movieRepository.searchMovies(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
+    // findMovieCards mantiene el orden de los ids (relevancia o el ?sort= pedido)
+    private Page<MovieCard> searchMoviesFullText(String title, List<String> genres, List<String> categories, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, Pageable pageable) {
+        Page<Long> ids = fullTextSearch.searchIds(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
+        return new PageImpl<>(movieRepository.findMovieCards(ids.getContent()), pageable, ids.getTotalElements());
     }
 
     public void deleteMovie(Long id) {
         movieRepository.deleteById(id);
+        movieCacheService.evict(id);
     }
 
 
     public Movie saveMovie(Movie movie) {
-        return movieRepository.save(movie);
+        Movie savedMovie = movieRepository.save(movie);
+        movieCacheService.evict(savedMovie.getId());
+        return savedMovie;
     }
 
 
-    public Page<Movie> getMoviesByCategory(String categoryName, Pageable pageable) {
-        return movieRepository.findMoviesByCategory(categoryName, pageable);
+    public Page<MovieCard> getMoviesByCategory(String categoryName, Pageable pageable) {
+        Optional<Page<MovieCard>> ranked = leaderboardService.moviesByCategory(categoryName, pageable);
+        if (ranked.isPresent()) {
+            return ranked.get();
+        }
+        return movieRepository.searchMovies(null, null, List.of(categoryName), null, null, null, null, null, null, pageable, MovieCard.class);
+    }
+
+    public CountedPage<MovieCard> getMoviesByCategory(String categoryName, Pageable pageable, CountStrategy count) {
+        return movieRepository.searchMovies(null, null, List.of(categoryName), null, null, null, null, null, null, pageable, count, MovieCard.class);
     }
 
     public Movie updateMovie(Long id, Movie movie) {
-        Movie existingMovie = movieRepository.findById(id).orElse(null);
+        Movie existingMovie = movieRepository.findAdminById(id).orElse(null);
         if (existingMovie != null) {
             existingMovie.setTitle(movie.getTitle());
             existingMovie.setDescription(movie.getDescription());
@@ -174,13 +117,46 @@ public class MovieService {
             existingMovie.setPopularity(movie.getPopularity());
             existingMovie.setCategory(movie.getCategory());
             existingMovie.setGenres(movie.getGenres());
-            return movieRepository.save(existingMovie);
+            Movie savedMovie = movieRepository.save(existingMovie);
+            movieCacheService.evict(id);
+            return savedMovie;
         }
         return null;
     }
 
-    public Page<Movie> getBestMoviesByGenres(String genre, Pageable pageable) {
-        return movieRepository.getBestMoviesByGenres(genre, pageable);
+    public Page<MovieCard> getBestMoviesByGenres(String genre, Pageable pageable) {
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Order.desc("rating")));
+        // Clasificación precalculada en Redis; si no está disponible, la consulta por género
+        Optional<Page<MovieCard>> ranked = leaderboardService.bestMovies(genre, pageable);
+        if (ranked.isPresent()) {
+            return ranked.get();
+        }
+        return movieRepository.searchMovies(null, List.of(genre), null, null, null, null, null, null, null, pageable, MovieCard.class);
+    }
+
+    // Variantes con paginación por cursor de los listados: el tamaño sale del Pageable y el orden, del Keyset
+    public CursorPage<MovieCard> getMoviesAfter(String cursor, Pageable pageable) {
+        Keyset keyset = Keyset.forSort(pageable.getSort(), Keyset.ID);
+        return movieRepository.seekMovies(null, null, null, null, null, null, null, null, null,
+                keyset, keyset.after(cursor), pageable.getPageSize(), MovieCard.class);
+    }
+
+    public CursorPage<MovieCard> getMoviesByCategoryAfter(String categoryName, String cursor, Pageable pageable) {
+        Keyset keyset = Keyset.forSort(pageable.getSort(), Keyset.ID);
+        return movieRepository.seekMovies(null, null, List.of(categoryName), null, null, null, null, null, null,
+                keyset, keyset.after(cursor), pageable.getPageSize(), MovieCard.class);
+    }
+
+    public CursorPage<MovieCard> getBestMoviesByGenresAfter(String genre, String cursor, Pageable pageable) {
+        return movieRepository.seekMovies(null, List.of(genre), null, null, null, null, null, null, null,
+                Keyset.RATING, Keyset.RATING.after(cursor), pageable.getPageSize(), MovieCard.class);
+    }
+
+    // El orden por relevancia del modo fulltext no sirve de cursor: aquí siempre se filtra con la consulta JPQL
+    public CursorPage<MovieCard> searchMoviesAfter(String title, List<String> genres, List<String> categories, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, String cursor, Pageable pageable) {
+        Keyset keyset = Keyset.forSort(pageable.getSort(), Keyset.POPULARITY);
+        return movieRepository.seekMovies(title, genres, categories, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, keyset, keyset.after(cursor), pageable.getPageSize(), MovieCard.class);
     }
 
 
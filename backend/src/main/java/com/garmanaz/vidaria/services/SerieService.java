@@ -1,47 +1,96 @@
 package com.garmanaz.vidaria.services;
 
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.SerieCard;
 import com.garmanaz.vidaria.DTO.SerieResponse;
 import com.garmanaz.vidaria.entities.Genre;
 import com.garmanaz.vidaria.entities.Season;
 import com.garmanaz.vidaria.entities.Serie;
-import com.garmanaz.vidaria.repositories.GenreRepository;
+import com.garmanaz.vidaria.repositories.CatalogBulkWriter;
+import com.garmanaz.vidaria.repositories.CountStrategy;
+import com.garmanaz.vidaria.repositories.Keyset;
 import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.cache.CacheInvalidationBus;
+import com.garmanaz.vidaria.utils.cache.KnownIds;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
 import lombok.Setter;
 import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @Transactional
 public class SerieService {
-    private static final String API_URL = "https://api.themoviedb.org/3";
-    private final GenreRepository genreRepository;
-    private final RestTemplate restTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(SerieService.class);
+    private final ReferenceData referenceData;
     private final SerieRepository serieRepository;
-    private final RedisTemplate<String, Serie> redisTemplate;
+    private final CatalogBulkWriter catalogBulkWriter;
+    private final RefreshAheadCache<Serie> serieRemoteCache;
+    private final TransactionTemplate transactionTemplate;
+    private final KnownIds knownIds;
+    private final CacheInvalidationBus invalidationBus;
+    private final TmdbClient tmdbClient;
+    private final LeaderboardService leaderboardService;
+    private final Executor ingestionExecutor;
 
     @Autowired
-    public SerieService(GenreRepository genreRepository, RestTemplate restTemplate, SerieRepository serieRepository, RedisTemplate<String, Serie> redisTemplate) {
-        this.genreRepository = genreRepository;
-        this.restTemplate = restTemplate;
+    public SerieService(ReferenceData referenceData, SerieRepository serieRepository,
+                        CatalogBulkWriter catalogBulkWriter, RefreshAheadCache<Serie> serieRemoteCache,
+                        PlatformTransactionManager transactionManager, KnownIds knownIds,
+                        CacheInvalidationBus invalidationBus, TmdbClient tmdbClient,
+                        LeaderboardService leaderboardService,
+                        @Qualifier("ingestionExecutor") Executor ingestionExecutor) {
+        this.referenceData = referenceData;
         this.serieRepository = serieRepository;
-        this.redisTemplate = redisTemplate;
+        this.catalogBulkWriter = catalogBulkWriter;
+        this.serieRemoteCache = serieRemoteCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.knownIds = knownIds;
+        this.invalidationBus = invalidationBus;
+        this.tmdbClient = tmdbClient;
+        this.leaderboardService = leaderboardService;
+        this.ingestionExecutor = ingestionExecutor;
+    }
+
+    public static String cacheKey(Long id) {
+        return "serie:" + id;
     }
 
 
@@ -54,25 +103,9 @@ public class SerieService {
     private String apiUrl;
 
 
-    public void preCacheSeries() {
-        try {
-            List<Serie> series = serieRepository.findAll();
-            for (Serie serie : series) {
-                String cacheKey = "serie:" + serie.getId();
-                redisTemplate.opsForValue().set(cacheKey, serie, 1, TimeUnit.DAYS); // Guarda el objeto completo
-                System.out.println("Saved to Redis: " + cacheKey + " -> " + serie);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to precache series in Redis: " + e.getMessage());
-
-        }
-    }
-
-    @Cacheable(value = "genres")
+    @Cacheable("serieGenres")
     public List<Genre> getGenres() {
-        String url = apiUrl + "/genre/tv/list?api_key=" + API_KEY;
-        ResponseEntity<SerieResponse.SerieDetails.GenreResponse> response = restTemplate.getForEntity(url, SerieResponse.SerieDetails.GenreResponse.class);
-        SerieResponse.SerieDetails.GenreResponse genreResponse = response.getBody();
+        SerieResponse.SerieDetails.GenreResponse genreResponse = tmdbClient.serieGenres();
 
         return (genreResponse != null)
                 ? genreResponse.getGenres().stream()
@@ -81,79 +114,121 @@ public class SerieService {
                 : Collections.emptyList();
     }
 
-    @Transactional(readOnly = true)
+    // Fuera de transacción: las peticiones que esperan una carga en curso no retienen conexión.
+    // La carga (base de datos o TMDB) abre su propia transacción y puede ejecutarse en segundo plano.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Serie getSerieDetails(Long id) {
-        String cacheKey = "serie:" + id;
-        Serie serie = redisTemplate.opsForValue().get(cacheKey); // Obtén el objeto desde Redis
-
-        if (serie == null) { // Si no está en Redis, búscalo en la base de datos o API
-            serie = serieRepository.findById(id).orElseGet(() -> mapToSeries(fetchSerieFromApi(id)));
-            if (serie != null) {
-                Hibernate.initialize(serie.getGenreID());
-                Hibernate.initialize(serie.getSeasons());
-                redisTemplate.opsForValue().set(cacheKey, serie, 1, TimeUnit.DAYS); // Cachea el objeto completo
-                System.out.println("Cached in Redis: " + cacheKey);
-            }
-        } else {
-            System.out.println("Loaded from Redis: " + cacheKey);
-        }
+        serieRemoteCache.getHotKeys().record(id);
+        return serieRemoteCache.get(cacheKey(id), id, serieId -> transactionTemplate.execute(status -> loadSerie(serieId)));
+    }
 
-        return serie;
+    private Serie loadSerie(Long id) {
+        // Si no está en Redis, búscalo en la base de datos o API.
+        // El filtro de ids conocidos ahorra la consulta a la base de datos cuando seguro no está;
+        // TMDB se sigue consultando y, si tampoco existe, el null queda en la caché negativa.
+        Optional<Serie> stored = knownIds.mightContain("serie", id) ? serieRepository.findDetail(id) : Optional.empty();
+        return stored.orElseGet(() -> {
+            // Detalles y vídeos en una sola petición, con el tiempo límite por llamada
+            SerieResponse.SerieDetails details = TmdbClient.await(tmdbClient.serieDetailsAsync(id, TmdbClient.Append.VIDEOS));
+            return details != null ? mapToSeries(details) : null;
+        });
+    }
+
+    // Los listados devuelven SerieCard (sin temporadas); la entidad completa solo se carga en el detalle
+    public Page<SerieCard> getMostPopularAndTopRated(Pageable pageable) {
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Order.desc("popularity"), Sort.Order.desc("rating")));
+        return serieRepository.searchSeries(null, null, null, null, null, null, null, null, pageable, SerieCard.class);
     }
 
-    private SerieResponse.SerieDetails fetchSerieFromApi(Long id) {
-        String url = API_URL + "/tv/" + id + "?api_key=" + API_KEY;
+    public Page<SerieCard> getBestSeriesByGenres(String genre, Pageable pageable) {
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Order.desc("rating")));
+        // Clasificación precalculada en Redis; si no está disponible, la consulta por género
+        Optional<Page<SerieCard>> ranked = leaderboardService.bestSeries(genre, pageable);
+        if (ranked.isPresent()) {
+            return ranked.get();
+        }
+        return serieRepository.searchSeries(null, List.of(genre), null, null, null, null, null, null, pageable, SerieCard.class);
+    }
 
-        ResponseEntity<SerieResponse.SerieDetails> response = restTemplate.getForEntity(url, SerieResponse.SerieDetails.class);
-        return response.getBody();
+    // Variantes con paginación por cursor de los listados: el tamaño sale del Pageable y el orden, del Keyset
+    public CursorPage<SerieCard> getSeriesAfter(String cursor, Pageable pageable) {
+        Keyset keyset = Keyset.forSort(pageable.getSort(), Keyset.ID);
+        return serieRepository.seekSeries(null, null, null, null, null, null, null, null,
+                keyset, keyset.after(cursor), pageable.getPageSize(), SerieCard.class);
     }
 
-    public Page<Serie> getMostPopularAndTopRated(Pageable pageable) {
-        return serieRepository.getMostPopularAndTopRated(pageable);
+    public CursorPage<SerieCard> getMostPopularAndTopRatedAfter(String cursor, Pageable pageable) {
+        return serieRepository.seekSeries(null, null, null, null, null, null, null, null,
+                Keyset.POPULARITY, Keyset.POPULARITY.after(cursor), pageable.getPageSize(), SerieCard.class);
     }
 
-    public Page<Serie> getBestSeriesByGenres(String genre, Pageable pageable) {
-        return serieRepository.getBestSeriesByGenres(genre, pageable);
+    public CursorPage<SerieCard> getBestSeriesByGenresAfter(String genre, String cursor, Pageable pageable) {
+        return serieRepository.seekSeries(null, List.of(genre), null, null, null, null, null, null,
+                Keyset.RATING, Keyset.RATING.after(cursor), pageable.getPageSize(), SerieCard.class);
     }
 
-    @Transactional
-    public Serie mapToSeriesFromResult(SerieResponse.Result result) {
+    public CursorPage<SerieCard> searchSeriesAfter(String title, List<String> genres, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, String cursor, Pageable pageable) {
+        Keyset keyset = Keyset.forSort(pageable.getSort(), Keyset.POPULARITY);
+        return serieRepository.seekSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo,
+                popularityFrom, popularityTo, keyset, keyset.after(cursor), pageable.getPageSize(), SerieCard.class);
+    }
+
+    // Detalle (caché, base de datos o TMDB) y, si falta, trailer de un resultado de /discover/tv.
+    // Sin trailer si su llamada falla o no llega a tiempo; si falla el detalle, la serie se omite (null)
+    private CompletableFuture<Serie> mapToSeriesFromResult(SerieResponse.Result result) {
         if (result == null || result.getId() == null) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
-        Serie serie = getSerieDetails(result.getId());
-        if (serie != null) {
-            serie.setTitle(result.getName());
-            serie.setDescription(result.getOverview());
-            serie.setTrailer(getTrailer(result.getId()));
-            serie.setPopularity(result.getPopularity());
-        }
-        return serie;
+        Long id = result.getId();
+        return CompletableFuture.supplyAsync(() -> getSerieDetails(id), ingestionExecutor)
+                .thenCompose(cached -> {
+                    if (cached == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    // Copia: la instancia de la caché en memoria la comparten otras peticiones
+                    Serie serie = cached.toBuilder()
+                            .title(result.getName())
+                            .description(result.getOverview())
+                            .popularity(result.getPopularity())
+                            .build();
+                    // Las series recién traídas de TMDB ya incluyen el trailer (append_to_response)
+                    if (serie.getTrailer() != null) {
+                        return CompletableFuture.completedFuture(serie);
+                    }
+                    return tmdbClient.serieVideosAsync(id).handle((videos, error) -> {
+                        if (error != null) {
+                            logger.debug("Trailer omitted for serie {}: {}", id, error.toString());
+                        } else {
+                            serie.setTrailer(TmdbClient.trailerUrl(videos));
+                        }
+                        return serie;
+                    });
+                })
+                .exceptionally(error -> {
+                    logger.warn("Serie {} omitted from genre listing: {}", id, error.toString());
+                    return null;
+                });
     }
 
     public String getTrailer(Long id) {
-        String url = API_URL + "/tv/" + id + "/videos?api_key=" + API_KEY;
-        ResponseEntity<SerieResponse.SerieDetails.SerieTrailer> response = restTemplate.getForEntity(url, SerieResponse.SerieDetails.SerieTrailer.class);
-        SerieResponse.SerieDetails.SerieTrailer serieTrailer = response.getBody();
-        if (serieTrailer != null && !serieTrailer.getResults().isEmpty()) {
-            for (SerieResponse.SerieDetails.SerieTrailerResult result : serieTrailer.getResults()) {
-                if ("Trailer".equals(result.getType())) {
-                    return "https://www.youtube.com/watch?v=" + result.getKey();
-                }
-            }
-        }
-        return null;
+        return TmdbClient.trailerUrl(tmdbClient.serieVideos(id));
     }
 
     private Serie mapToSeries(SerieResponse.SerieDetails serieDetails) {
+        Map<Long, Genre> resolved = resolveGenres(serieDetails.getGenres());
+        List<Genre> genres = serieDetails.getGenres().stream()
+                .map(genre -> resolved.get(genre.getId()))
+                .collect(Collectors.toList());
+        return mapToSeries(serieDetails, genres, TmdbClient.trailerUrl(serieDetails.getVideos()));
+    }
+
+    static Serie mapToSeries(SerieResponse.SerieDetails serieDetails, List<Genre> genres, String trailer) {
         Serie serie = Serie.builder()
                 .id(serieDetails.getId())
                 .title(serieDetails.getName())
                 .description(serieDetails.getOverview())
-                .genreID(serieDetails.getGenres().stream()
-                        .map(genre -> genreRepository.findById(genre.getId()).orElseGet(() -> genreRepository.save(new Genre(genre.getId(), genre.getName()))))
-                        .collect(Collectors.toList()))
+                .genreID(genres)
                 .creator(serieDetails.getCreatedBy() != null && !serieDetails.getCreatedBy().isEmpty() ? serieDetails.getCreatedBy().stream().findFirst().map(SerieResponse.SerieDetails.CreatedBy::getName).orElse("Unknown") : "Unknown")
                 .releaseDate(serieDetails.getFirstAirDate() != null ? serieDetails.getFirstAirDate().toString() : null)
                 .poster("https://image.tmdb.org/t/p/w500" + serieDetails.getPosterPath())
@@ -162,7 +237,7 @@ public class SerieService {
                 .popularity(serieDetails.getPopularity())
                 .numberOfSeasons(serieDetails.getNumberOfSeasons())
                 .numberOfEpisodes(serieDetails.getNumberOfEpisodes())
-                .trailer(getTrailer(serieDetails.getId()))
+                .trailer(trailer)
                 .status(serieDetails.getStatus())
                 .build();
 
@@ -182,61 +257,162 @@ public class SerieService {
         return serie;
     }
 
+    // Los resultados se resuelven en paralelo (como mucho tmdb.client.fan-out a la vez) y fuera de transacción:
+    // la página llega aunque TMDB falle en algunos títulos, sin ellos o sin su trailer
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Serie> getSeriesByGenre(String genre) {
-        String url = API_URL + "/discover/tv?api_key=" + API_KEY + "&with_genres=" + genre;
-        ResponseEntity<SerieResponse> response = restTemplate.getForEntity(url, SerieResponse.class);
-        SerieResponse serieResponse = response.getBody();
+        SerieResponse serieResponse = tmdbClient.discoverSeries(genre);
         if (serieResponse != null && serieResponse.getResults() != null) {
-            return serieResponse.getResults().stream().map(this::mapToSeriesFromResult).filter(Objects::nonNull).toList();
+            return TmdbClient.await(tmdbClient.fanOut(serieResponse.getResults(), this::mapToSeriesFromResult))
+                    .stream().filter(Objects::nonNull).toList();
         }
         return Collections.emptyList();
     }
 
-    public Page<Serie> searchSeries(String title, List<String> genres, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, Pageable pageable) {
-        return serieRepository.searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
+    public Page<SerieCard> searchSeries(String title, List<String> genres, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, Pageable pageable) {
+        return serieRepository.searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, SerieCard.class);
+    }
+
+    public CountedPage<SerieCard> searchSeries(String title, List<String> genres, LocalDate releaseDateFrom, LocalDate releaseDateTo, Double ratingFrom, Double ratingTo, Double popularityFrom, Double popularityTo, Pageable pageable, CountStrategy count) {
+        return serieRepository.searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, count, SerieCard.class);
     }
 
     public boolean existsById(Long id) {
         return serieRepository.existsById(id);
     }
 
-    public Page<Serie> getSeries(Pageable pageable) {
-        return serieRepository.findAll(pageable);
+    public Page<SerieCard> getSeries(Pageable pageable) {
+        return serieRepository.searchSeries(null, null, null, null, null, null, null, null, pageable, SerieCard.class);
     }
 
     public Serie getSeriesById(Long id) {
         System.out.println("SerieService.getSeriesById invoked");
-        return serieRepository.findById(id).orElseThrow(() -> new RuntimeException("Serie not found"));
+        return serieRepository.findDetail(id).orElseThrow(() -> new RuntimeException("Serie not found"));
     }
 
-    @Transactional
+    // Ingesta en dos fases:
+    // 1. HTTP: páginas y títulos como etapas concurrentes en el executor de ingesta. TmdbRequestExecutor
+    //    aplica el límite global de TMDB, acota las peticiones simultáneas y reintenta los fallos transitorios.
+    //    Una petición por título: detalles + vídeos (append_to_response) para las series nuevas,
+    //    solo vídeos para las que ya están en la base de datos.
+    // 2. Persistencia: una única transacción corta con las lecturas y escrituras agrupadas, sin HTTP dentro
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Serie> fetchSeries(String type, int maxPages) {
-        List<Serie> allSeries = new ArrayList<>();
-        for (int page = 1; page <= maxPages; page++) {
-            String url = gettingCategories(type, page);
-            ResponseEntity<SerieResponse> response = restTemplate.getForEntity(url, SerieResponse.class);
-            SerieResponse serieResponse = response.getBody();
-
-            if (serieResponse != null && serieResponse.getResults() != null) {
-                List<Serie> series = serieResponse.getResults().stream()
-                        .map(this::mapToSeriesFromResult)
-                        .filter(Objects::nonNull)
-                        .toList();
-                allSeries.addAll(series);
-            }
+        List<String> pageUrls = IntStream.rangeClosed(1, maxPages).mapToObj(page -> gettingCategories(type, page)).toList();
+
+        // Una serie puede aparecer en dos páginas si el ranking cambia mientras se recorren
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<List<IngestedSerie>>> pages = pageUrls.stream()
+                .map(url -> CompletableFuture.supplyAsync(() -> tmdbClient.get(url, SerieResponse.class), ingestionExecutor)
+                        .thenCompose(response -> ingestPage(response, claimed, ingestionExecutor)))
+                .toList();
+        List<IngestedSerie> ingested = pages.stream().map(SerieService::join).flatMap(List::stream).toList();
+        if (ingested.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Serie> series = transactionTemplate.execute(status -> persistIngested(ingested));
+        evictCached(series);
+        return series;
+    }
+
+    private CompletableFuture<List<IngestedSerie>> ingestPage(SerieResponse response, Set<Long> claimed, Executor executor) {
+        if (response == null || response.getResults() == null) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<SerieResponse.Result> results = response.getResults().stream()
+                .filter(result -> result != null && result.getId() != null && claimed.add(result.getId()))
+                .toList();
+        if (results.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
         }
 
-        // Inicializa todas las colecciones perezosas antes de retornarlas
-        allSeries.forEach(serie -> {
-            if (serie.getGenreID() != null) {
-                Hibernate.initialize(serie.getGenreID());
+        Set<Long> stored = new HashSet<>(serieRepository.findExistingIds(results.stream().map(SerieResponse.Result::getId).toList()));
+        List<CompletableFuture<IngestedSerie>> items = results.stream().map(result -> CompletableFuture.supplyAsync(() -> {
+            Long id = result.getId();
+            if (stored.contains(id)) {
+                return new IngestedSerie(result, null, getTrailer(id));
             }
-            if (serie.getSeasons() != null) {
-                Hibernate.initialize(serie.getSeasons());
+            SerieResponse.SerieDetails details = tmdbClient.serieDetails(id, TmdbClient.Append.VIDEOS);
+            return new IngestedSerie(result, details, details != null ? TmdbClient.trailerUrl(details.getVideos()) : null);
+        }, executor)).toList();
+
+        return CompletableFuture.allOf(items.toArray(CompletableFuture[]::new))
+                .thenApply(done -> items.stream().map(CompletableFuture::join).toList());
+    }
+
+    private List<Serie> persistIngested(List<IngestedSerie> ingested) {
+        List<Long> ids = ingested.stream().map(item -> item.result().getId()).toList();
+        Map<Long, Serie> series = new HashMap<>();
+        serieRepository.findByIdIn(ids).forEach(serie -> series.put(serie.getId(), serie));
+
+        Map<Long, Genre> genres = resolveGenres(ingested.stream()
+                .filter(item -> !series.containsKey(item.result().getId()) && item.details() != null && item.details().getGenres() != null)
+                .flatMap(item -> item.details().getGenres().stream())
+                .toList());
+
+        List<Serie> created = new ArrayList<>();
+        for (IngestedSerie item : ingested) {
+            SerieResponse.SerieDetails details = item.details();
+            if (!series.containsKey(item.result().getId()) && details != null) {
+                List<Genre> serieGenres = details.getGenres() != null
+                        ? details.getGenres().stream().map(genre -> genres.get(genre.getId())).collect(Collectors.toList())
+                        : new ArrayList<>();
+                created.add(mapToSeries(details, serieGenres, item.trailer()));
             }
-        });
+        }
+        created.forEach(serie -> series.put(serie.getId(), serie));
+
+        // Las ya guardadas se actualizan por dirty checking al confirmar la transacción
+        List<Serie> result = new ArrayList<>(ingested.size());
+        for (IngestedSerie item : ingested) {
+            Serie serie = series.get(item.result().getId());
+            if (serie == null) {
+                continue;
+            }
+            serie.setTitle(item.result().getName());
+            serie.setDescription(item.result().getOverview());
+            serie.setTrailer(item.trailer());
+            serie.setPopularity(item.result().getPopularity());
+            // Con @BatchSize la primera inicialización trae las colecciones de todo el lote, no una serie cada vez
+            Hibernate.initialize(serie.getGenreID());
+            Hibernate.initialize(serie.getSeasons());
+            result.add(serie);
+        }
+        // Las nuevas van por la ruta masiva: un INSERT ... ON CONFLICT por lote en vez de un merge (SELECT + INSERT) por serie
+        catalogBulkWriter.upsertSeries(created);
+        return result;
+    }
+
+    // Géneros desde el diccionario en memoria; solo los desconocidos van a la base de datos
+    // (una consulta, más un saveAll para los que aún no existen)
+    private Map<Long, Genre> resolveGenres(Collection<SerieResponse.SerieDetails.Genre> detailGenres) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        detailGenres.forEach(genre -> names.putIfAbsent(genre.getId(), genre.getName()));
+        return names.isEmpty() ? new HashMap<>() : referenceData.genres(names);
+    }
+
+    // Las copias en Redis de las series tocadas ya no sirven
+    private void evictCached(List<Serie> series) {
+        try {
+            serieRemoteCache.evictAll(series.stream().map(serie -> cacheKey(serie.getId())).toList());
+        } catch (Exception e) {
+            logger.warn("Failed to evict ingested series from Redis: {}", e.getMessage());
+        }
+    }
 
-        return allSeries;
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record IngestedSerie(SerieResponse.Result result, SerieResponse.SerieDetails details, String trailer) {
     }
 
 
@@ -249,10 +425,35 @@ public class SerieService {
             case "top_rated" -> "top_rated";
             default -> throw new IllegalArgumentException("Invalid category: " + category);
         };
-        return API_URL + "/tv/" + endpoint + "?api_key=" + API_KEY + "&page=" + pageNumber;
+        return apiUrl + "/tv/" + endpoint + "?api_key=" + API_KEY + "&page=" + pageNumber;
     }
 
     public void deleteSerie(Long id) {
         serieRepository.deleteById(id);
+        evictAfterCommit(id);
+    }
+
+    // Como NearCache.invalidate con las películas: tras el commit se borra la copia de Redis y se avisa al resto
+    // de nodos. El id sigue en KnownIds (un Bloom no admite bajas), pero solo cuesta una consulta que lo marca ausente
+    private void evictAfterCommit(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        } else {
+            evict(id);
+        }
+    }
+
+    private void evict(Long id) {
+        try {
+            serieRemoteCache.evict(cacheKey(id));
+        } catch (Exception e) {
+            logger.warn("Failed to delete {} from Redis: {}", cacheKey(id), e.getMessage());
+        }
+        invalidationBus.publish("serie", id);
     }
 }
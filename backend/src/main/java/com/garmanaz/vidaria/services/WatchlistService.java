@@ -6,11 +6,13 @@ import com.garmanaz.vidaria.entities.*;
 import com.garmanaz.vidaria.repositories.MovieRepository;
 import com.garmanaz.vidaria.repositories.SerieRepository;
 import com.garmanaz.vidaria.repositories.*;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -24,8 +26,8 @@ public class WatchlistService {
     private final UserRepository userRepository;
     private final MovieRepository movieRepository;
     private final SerieRepository serieRepository;
-    private final RestTemplate restTemplate;
-    private final CategoryRepository categoryRepository;
+    private final TmdbClient tmdbClient;
+    private final ReferenceData referenceData;
 
     @Autowired
     public WatchlistService(
@@ -33,15 +35,15 @@ public class WatchlistService {
             UserRepository userRepository,
             MovieRepository movieRepository,
             SerieRepository serieRepository,
-            RestTemplate restTemplate,
-            CategoryRepository categoryRepository
+            TmdbClient tmdbClient,
+            ReferenceData referenceData
     ) {
         this.watchlistRepository = watchlistRepository;
         this.userRepository = userRepository;
         this.movieRepository = movieRepository;
         this.serieRepository = serieRepository;
-        this.restTemplate = restTemplate;
-        this.categoryRepository = categoryRepository;
+        this.tmdbClient = tmdbClient;
+        this.referenceData = referenceData;
     }
 
 
@@ -64,10 +66,10 @@ public class WatchlistService {
         watchlist.setAddedAt(LocalDateTime.now());
 
         if (movieId != null) {
-            Movie movie = movieRepository.findById(movieId).orElseGet(() -> fetchAndSaveMovie(movieId));
+            Movie movie = movieRepository.findDetailById(movieId).orElseGet(() -> fetchAndSaveMovie(movieId));
             watchlist.setMovie(movie);
         } else if (serieId != null) {
-            Serie serie = serieRepository.findById(serieId).orElseGet(() -> fetchAndSaveSerie(serieId));
+            Serie serie = serieRepository.findDetail(serieId).orElseGet(() -> fetchAndSaveSerie(serieId));
             watchlist.setSerie(serie);
         }
 
@@ -75,8 +77,9 @@ public class WatchlistService {
     }
 
     public Movie fetchAndSaveMovie(Long movieId) {
-        String url = "https://api.themoviedb.org/3/movie/" + movieId + "?api_key=b519a2cc32b8654d1e683c286b4e8f4e";
-        MovieResponse.MovieDetails movieResponse = restTemplate.getForObject(url, MovieResponse.MovieDetails.class);
+        // Detalles, trailer y director en una sola petición, con el tiempo límite por llamada
+        MovieResponse.MovieDetails movieResponse = TmdbClient.await(
+                tmdbClient.movieDetailsAsync(movieId, TmdbClient.Append.VIDEOS, TmdbClient.Append.CREDITS));
         if (movieResponse != null) {
             Movie movie = new Movie();
             movie.setId(movieResponse.getId());
@@ -87,14 +90,12 @@ public class WatchlistService {
             movie.setBackground(movieResponse.getBackdropPath());
             movie.setRating(movieResponse.getVoteAverage());
             movie.setPopularity(movieResponse.getPopularity());
+            movie.setDuration(movieResponse.getRuntime());
+            movie.setTrailer(TmdbClient.trailerUrl(movieResponse.getVideos()));
+            movie.setDirector(TmdbClient.director(movieResponse.getCredits()));
 
-            // Asignar categoría predeterminada si no tiene categoría
-            Category defaultCategory = categoryRepository.findByName("Uncategorized");
-            if (defaultCategory == null) {
-                defaultCategory = new Category("Uncategorized");
-                categoryRepository.save(defaultCategory);
-            }
-            movie.setCategory(defaultCategory);
+            // Asignar categoría predeterminada (desde el diccionario en memoria; se crea si no existe)
+            movie.setCategory(referenceData.category("Uncategorized"));
 
             return movieRepository.save(movie);
         }
@@ -102,8 +103,7 @@ public class WatchlistService {
     }
 
     public Serie fetchAndSaveSerie(Long serieId) {
-        String url = "https://api.themoviedb.org/3/tv/" + serieId + "?api_key=b519a2cc32b8654d1e683c286b4e8f4e";
-        SerieResponse.SerieDetails serieResponse = restTemplate.getForObject(url, SerieResponse.SerieDetails.class);
+        SerieResponse.SerieDetails serieResponse = TmdbClient.await(tmdbClient.serieDetailsAsync(serieId, TmdbClient.Append.VIDEOS));
         if (serieResponse != null) {
             Serie serie = new Serie();
             serie.setId(serieResponse.getId());
@@ -116,6 +116,7 @@ public class WatchlistService {
             serie.setPopularity(serieResponse.getPopularity());
             serie.setNumberOfSeasons(serieResponse.getNumberOfSeasons());
             serie.setNumberOfEpisodes(serieResponse.getNumberOfEpisodes());
+            serie.setTrailer(TmdbClient.trailerUrl(serieResponse.getVideos()));
 
             return serieRepository.save(serie);
         }
@@ -123,8 +124,21 @@ public class WatchlistService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<Watchlist> getWatchlistForUser(Long userId) {
-        return watchlistRepository.findByUserId(userId);
+        List<Watchlist> watchlist = watchlistRepository.findByUserId(userId);
+        // Películas y series vienen en el join; sus colecciones se cargan por lotes (@BatchSize) antes de serializar,
+        // así la lista cuesta las mismas consultas con 5 elementos que con 50
+        for (Watchlist item : watchlist) {
+            if (item.getMovie() != null) {
+                Hibernate.initialize(item.getMovie().getGenres());
+            }
+            if (item.getSerie() != null) {
+                Hibernate.initialize(item.getSerie().getGenreID());
+                Hibernate.initialize(item.getSerie().getSeasons());
+            }
+        }
+        return watchlist;
     }
 
     public void removeFromWatchlist(Long userId, Long movieId, Long serieId) {
@@ -1,7 +1,21 @@
 package com.garmanaz.vidaria.utils;
 
+import com.garmanaz.vidaria.DTO.FeaturedMovies;
+import com.garmanaz.vidaria.DTO.GenreSnapshot;
+import com.garmanaz.vidaria.DTO.MovieSnapshot;
+import com.garmanaz.vidaria.DTO.SerieSnapshot;
+import com.garmanaz.vidaria.entities.Genre;
 import com.garmanaz.vidaria.entities.Movie;
 import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.utils.cache.CacheInvalidationBus;
+import com.garmanaz.vidaria.utils.cache.HotKeyRegistry;
+import com.garmanaz.vidaria.utils.cache.HotKeyTracker;
+import com.garmanaz.vidaria.utils.cache.NearCache;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
@@ -12,19 +26,51 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 
 @Configuration// Excluir esta configuración en el perfil de prueba
 public class RedisConfig {
+
+    private static final byte GENRES_SCHEMA_VERSION = 1;
+
+    // Codec de valores por plantilla: jdk, json o smile. Con migration=true se siguen leyendo
+    // los valores antiguos en formato JDK mientras se escriben en el formato nuevo.
+    @Value("${vidaria.cache.codec.movie:smile}")
+    private String movieCodec;
+
+    @Value("${vidaria.cache.codec.serie:smile}")
+    private String serieCodec;
+
+    @Value("${vidaria.cache.codec.genres:smile}")
+    private String genresCodec;
+
+    @Value("${vidaria.cache.codec.migration:true}")
+    private boolean readLegacyPayloads;
+
+    @Value("${vidaria.cache.stale-grace:PT10M}")
+    private Duration staleGrace;
+
+    @Value("${vidaria.cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${vidaria.cache.negative.ttl:PT5M}")
+    private Duration negativeTtl;
+
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
@@ -33,8 +79,16 @@ public class RedisConfig {
                         RedisSerializationContext.SerializationPair.fromSerializer(new JdkSerializationRedisSerializer())
                 );
 
+        RedisSerializer<List<Genre>> genresSerializer = RedisSerializerUtil.createVersionedSerializer(
+                genresCodec, GENRES_SCHEMA_VERSION, GenreSnapshot[].class,
+                GenreSnapshot::fromList, GenreSnapshot::toList, readLegacyPayloads);
+
+        RedisCacheConfiguration genres = config.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(genresSerializer));
         return RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(config)
+                .withCacheConfiguration("movieGenres", genres)
+                .withCacheConfiguration("serieGenres", genres)
                 .build();
     }
 
@@ -45,8 +99,10 @@ public class RedisConfig {
         template.setConnectionFactory(redisConnectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
 
-        // Usar el serializador nativo de Java
-        template.setValueSerializer(new org.springframework.data.redis.serializer.JdkSerializationRedisSerializer());
+        // Snapshot plano con cabecera de versión en lugar de la entidad serializada por Java
+        template.setValueSerializer(RedisSerializerUtil.createVersionedSerializer(
+                serieCodec, SerieSnapshot.SCHEMA_VERSION, SerieSnapshot.class,
+                SerieSnapshot::from, SerieSnapshot::toSerie, readLegacyPayloads));
         return template;
     }
 
@@ -56,8 +112,69 @@ public class RedisConfig {
         template.setConnectionFactory(redisConnectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
 
-        // Usar el mismo serializador nativo de Java que las series
-        template.setValueSerializer(new org.springframework.data.redis.serializer.JdkSerializationRedisSerializer());
+        template.setValueSerializer(RedisSerializerUtil.createVersionedSerializer(
+                movieCodec, MovieSnapshot.SCHEMA_VERSION, MovieSnapshot.class,
+                MovieSnapshot::from, MovieSnapshot::toMovie, readLegacyPayloads));
         return template;
     }
+
+    @Bean
+    public RedisTemplate<String, FeaturedMovies> featuredRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, FeaturedMovies> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+
+        // Valor nuevo, sin formato JDK antiguo que leer
+        template.setValueSerializer(RedisSerializerUtil.createVersionedSerializer(
+                movieCodec, FeaturedMovies.SCHEMA_VERSION, FeaturedMovies.class,
+                Function.identity(), Function.identity(), false));
+        return template;
+    }
+
+    @Bean
+    public HotKeyTracker movieHotKeys(HotKeyRegistry hotKeyRegistry) {
+        return hotKeyRegistry.tracker("movie");
+    }
+
+    @Bean
+    public HotKeyTracker serieHotKeys(HotKeyRegistry hotKeyRegistry) {
+        return hotKeyRegistry.tracker("serie");
+    }
+
+    @Bean
+    public RefreshAheadCache<Movie> movieRemoteCache(RedisTemplate<String, Movie> movieRedisTemplate,
+                                                     @Qualifier("movieHotKeys") HotKeyTracker movieHotKeys,
+                                                     @Qualifier("cacheExecutor") Executor cacheExecutor,
+                                                     MeterRegistry meterRegistry) {
+        return new RefreshAheadCache<>("movie.l2", movieRedisTemplate, movieHotKeys, staleGrace, earlyRefreshBeta,
+                negativeTtl, cacheExecutor, meterRegistry);
+    }
+
+    @Bean
+    public RefreshAheadCache<Serie> serieRemoteCache(RedisTemplate<String, Serie> serieRedisTemplate,
+                                                     @Qualifier("serieHotKeys") HotKeyTracker serieHotKeys,
+                                                     @Qualifier("cacheExecutor") Executor cacheExecutor,
+                                                     MeterRegistry meterRegistry) {
+        return new RefreshAheadCache<>("serie", serieRedisTemplate, serieHotKeys, staleGrace, earlyRefreshBeta,
+                negativeTtl, cacheExecutor, meterRegistry);
+    }
+
+    @Bean
+    public NearCache<Movie> movieNearCache(RefreshAheadCache<Movie> movieRemoteCache,
+                                           CacheInvalidationBus cacheInvalidationBus,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${vidaria.cache.movie.local.max-size:10000}") long localMaximumSize,
+                                           @Value("${vidaria.cache.movie.local.ttl:PT5M}") Duration localTtl) {
+        return new NearCache<>("movie", movieRemoteCache, cacheInvalidationBus, localMaximumSize, localTtl, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "vidaria.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                           CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
 }
@@ -1,23 +1,62 @@
 package com.garmanaz.vidaria.utils;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.garmanaz.vidaria.utils.cache.CacheCodec;
+import com.garmanaz.vidaria.utils.cache.JacksonCacheCodec;
+import com.garmanaz.vidaria.utils.cache.JdkCacheCodec;
+import com.garmanaz.vidaria.utils.cache.VersionedRedisSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 
+import java.util.List;
+import java.util.function.Function;
+
 public class RedisSerializerUtil {
 
+    public static final byte JDK_CODEC_ID = 1;
+    public static final byte JSON_CODEC_ID = 2;
+    public static final byte SMILE_CODEC_ID = 3;
+
     public static <T> Jackson2JsonRedisSerializer<T> createJacksonSerializer(Class<T> type) {
-        // Configurar el ObjectMapper
-        ObjectMapper objectMapper = new ObjectMapper()
+        return new Jackson2JsonRedisSerializer<>(createObjectMapper(), type);
+    }
+
+    public static ObjectMapper createObjectMapper() {
+        return configure(new ObjectMapper());
+    }
+
+    // Mismo ObjectMapper pero sobre el formato binario Smile (JSON binario, sin nombres repetidos)
+    public static ObjectMapper createSmileMapper() {
+        return configure(new ObjectMapper(new SmileFactory()));
+    }
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        return objectMapper
                 .registerModule(new JavaTimeModule()) // Manejo de tipos de fecha y hora
                 .registerModule(new ParameterNamesModule()) // Soporte para parámetros de constructor
-                .disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS); // Fechas en formato ISO
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // Fechas en formato ISO
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES); // Tolerar campos añadidos en versiones nuevas
+    }
 
-        // Crear el serializador pasando el ObjectMapper configurado
-        Jackson2JsonRedisSerializer<T> serializer = new Jackson2JsonRedisSerializer<>(type);
-        serializer.setObjectMapper(objectMapper); // Este método sigue siendo válido y funciona bien en la mayoría de versiones
+    public static List<CacheCodec> createCodecs() {
+        return List.of(
+                new JdkCacheCodec(JDK_CODEC_ID),
+                new JacksonCacheCodec("json", JSON_CODEC_ID, createObjectMapper()),
+                new JacksonCacheCodec("smile", SMILE_CODEC_ID, createSmileMapper())
+        );
+    }
 
-        return serializer;
+    // Serializador con cabecera de versión: escribe con el codec indicado y lee cualquiera de los registrados.
+    // Con readLegacy=true también acepta valores antiguos escritos con JdkSerializationRedisSerializer.
+    public static <T, S> VersionedRedisSerializer<T, S> createVersionedSerializer(String codecName, byte schemaVersion,
+                                                                                  Class<S> snapshotType,
+                                                                                  Function<T, S> toSnapshot,
+                                                                                  Function<S, T> fromSnapshot,
+                                                                                  boolean readLegacy) {
+        return new VersionedRedisSerializer<>(createCodecs(), codecName, schemaVersion, snapshotType, toSnapshot, fromSnapshot, readLegacy);
     }
 }
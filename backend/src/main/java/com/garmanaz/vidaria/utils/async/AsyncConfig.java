@@ -0,0 +1,57 @@
+package com.garmanaz.vidaria.utils.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+// Executors del trabajo en segundo plano, cada uno con sus límites en vidaria.async.{nombre}.*:
+// - cache: recargas de stale-while-revalidate, refresco anticipado y precarga de Redis
+// - email: envío SMTP fuera del hilo de la petición
+// - ingestion: peticiones a TMDB de la ingesta de series y de la sincronización incremental
+// - tmdb: llamadas asíncronas de TmdbClient desde las peticiones de usuario (detalles, trailers, listas)
+@Configuration
+public class AsyncConfig {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Lleno, la recarga se descarta y se sigue sirviendo el valor obsoleto
+    @Bean(destroyMethod = "close")
+    public BoundedExecutor cacheExecutor() {
+        return executor("cache", 64, 1000, BoundedExecutor.RejectionPolicy.ABORT, Duration.ofSeconds(5));
+    }
+
+    @Bean(destroyMethod = "close")
+    public BoundedExecutor emailExecutor() {
+        return executor("email", 4, 100, BoundedExecutor.RejectionPolicy.CALLER_RUNS, Duration.ofSeconds(30));
+    }
+
+    @Bean(destroyMethod = "close")
+    public BoundedExecutor ingestionExecutor() {
+        return executor("ingestion", 32, 2000, BoundedExecutor.RejectionPolicy.CALLER_RUNS, Duration.ofSeconds(30));
+    }
+
+    @Bean(destroyMethod = "close")
+    public BoundedExecutor tmdbExecutor() {
+        return executor("tmdb", 64, 1000, BoundedExecutor.RejectionPolicy.CALLER_RUNS, Duration.ofSeconds(5));
+    }
+
+    private BoundedExecutor executor(String name, int concurrency, int queueCapacity,
+                                     BoundedExecutor.RejectionPolicy policy, Duration drainTimeout) {
+        String prefix = "vidaria.async." + name + ".";
+        return new BoundedExecutor(name,
+                environment.getProperty(prefix + "concurrency", Integer.class, concurrency),
+                environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity),
+                environment.getProperty(prefix + "policy", BoundedExecutor.RejectionPolicy.class, policy),
+                environment.getProperty(prefix + "drain-timeout", Duration.class, drainTimeout),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,149 @@
+package com.garmanaz.vidaria.utils.async;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executor con nombre para trabajo en segundo plano: cada tarea va en su propio hilo virtual,
+// pero como mucho `concurrency` se ejecutan a la vez y otras `queueCapacity` esperan turno.
+// Lo que no cabe se resuelve con la política de rechazo. Al cerrar deja terminar lo pendiente
+// durante `drainTimeout` y después interrumpe lo que quede.
+public class BoundedExecutor implements Executor, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedExecutor.class);
+
+    public enum RejectionPolicy {
+        // RejectedExecutionException para quien envía la tarea
+        ABORT,
+        // La ejecuta el hilo que la envía: frena al productor en lugar de perder trabajo
+        CALLER_RUNS,
+        // Se descarta sin avisar: solo para tareas cuyo resultado nadie espera
+        DISCARD
+    }
+
+    private final String name;
+    private final int capacity;
+    private final RejectionPolicy policy;
+    private final Duration drainTimeout;
+    private final ExecutorService threads;
+    private final Semaphore running;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Timer durationTimer;
+    private final Counter rejected;
+    private final Counter failures;
+
+    public BoundedExecutor(String name, int concurrency, int queueCapacity, RejectionPolicy policy,
+                           Duration drainTimeout, MeterRegistry meterRegistry) {
+        if (concurrency < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid bounds for executor " + name + ": concurrency "
+                    + concurrency + ", queue capacity " + queueCapacity);
+        }
+        this.name = name;
+        this.capacity = concurrency + queueCapacity;
+        this.policy = policy;
+        this.drainTimeout = drainTimeout;
+        this.threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.running = new Semaphore(concurrency);
+        Gauge.builder("executor.queued", this, BoundedExecutor::queued).tag("name", name).register(meterRegistry);
+        Gauge.builder("executor.active", this, BoundedExecutor::active).tag("name", name).register(meterRegistry);
+        this.waitTimer = Timer.builder("executor.wait").tag("name", name).register(meterRegistry);
+        this.durationTimer = Timer.builder("executor.duration").tag("name", name).register(meterRegistry);
+        this.rejected = Counter.builder("executor.rejected").tag("name", name).register(meterRegistry);
+        this.failures = Counter.builder("executor.failures").tag("name", name).register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (threads.isShutdown()) {
+            throw new RejectedExecutionException("Executor " + name + " is shut down");
+        }
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            reject(task);
+            return;
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            threads.execute(() -> run(task, queuedAt));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task, long queuedAt) {
+        try {
+            running.acquire();
+        } catch (InterruptedException e) {
+            // Cierre sin tiempo para llegar a ejecutarla
+            pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        waitTimer.record(start - queuedAt, TimeUnit.NANOSECONDS);
+        try {
+            task.run();
+        } catch (Throwable t) {
+            failures.increment();
+            logger.warn("Task failed in executor {}: {}", name, t.getMessage(), t);
+        } finally {
+            durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            active.decrementAndGet();
+            running.release();
+            pending.decrementAndGet();
+        }
+    }
+
+    private void reject(Runnable task) {
+        rejected.increment();
+        switch (policy) {
+            case CALLER_RUNS -> task.run();
+            case DISCARD -> logger.debug("Executor {} is full, task discarded", name);
+            case ABORT -> throw new RejectedExecutionException("Executor " + name + " is full ("
+                    + capacity + " tasks pending)");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Tareas aceptadas que aún esperan un hueco
+    public int queued() {
+        return Math.max(0, pending.get() - active.get());
+    }
+
+    public int active() {
+        return active.get();
+    }
+
+    @Override
+    public void close() {
+        threads.shutdown();
+        try {
+            if (!threads.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Executor {} did not drain in {}, interrupting {} pending tasks", name, drainTimeout, pending.get());
+                threads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            threads.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
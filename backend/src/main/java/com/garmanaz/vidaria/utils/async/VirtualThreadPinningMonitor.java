@@ -0,0 +1,111 @@
+package com.garmanaz.vidaria.utils.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Detecta hilos virtuales que bloquean su hilo portador (synchronized alrededor de E/S, código nativo...)
+// con el evento de JFR jdk.VirtualThreadPinned. Cada punto de bloqueo se identifica por el primer frame
+// fuera del JDK (el driver, Hibernate o nuestro código) y queda en el timer jvm.threads.virtual.pinned;
+// la primera vez que aparece se registra con su pila.
+@Component
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @Value("${vidaria.threads.pinning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vidaria.threads.pinning.threshold:PT0.02S}")
+    private Duration threshold;
+
+    @Value("${vidaria.threads.pinning.stack-depth:12}")
+    private int stackDepth;
+
+    @Value("${vidaria.threads.pinning.max-sites:100}")
+    private int maxSites;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(EVENT, this::onPinned);
+            recording.startAsync();
+            stream = recording;
+            logger.info("Reporting virtual threads pinned for more than {}", threshold);
+        } catch (Exception e) {
+            // JFR no disponible en esta JVM: la aplicación funciona igual, solo sin el diagnóstico
+            logger.warn("Cannot start virtual thread pinning monitor: {}", e.getMessage());
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        record(site(frames), event.getDuration(), frames.stream().limit(stackDepth).map(VirtualThreadPinningMonitor::describe).toList());
+    }
+
+    // Los eventos llegan de uno en uno desde el hilo de JFR
+    void record(String site, Duration duration, List<String> stack) {
+        String tag = sites.containsKey(site) || sites.size() < maxSites ? site : OTHER;
+        Timer timer = sites.get(tag);
+        if (timer == null) {
+            timer = Timer.builder("jvm.threads.virtual.pinned").tag("site", tag).register(meterRegistry);
+            sites.put(tag, timer);
+            logger.warn("Virtual thread pinned its carrier for {} ms at {}:\n\t{}", duration.toMillis(), site,
+                    String.join("\n\t", stack));
+        }
+        timer.record(duration);
+    }
+
+    // Primer frame que no es del JDK: ahí está el synchronized (o la llamada nativa) que hay que revisar
+    static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return frames.isEmpty() ? "unknown" : describe(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Formato de los valores guardados en Redis. Cada codec tiene un id de un byte que se
+// escribe en la cabecera para poder leer valores de cualquier codec registrado.
+public interface CacheCodec {
+
+    String name();
+
+    byte id();
+
+    void encode(Object value, OutputStream out) throws IOException;
+
+    <S> S decode(byte[] bytes, int offset, int length, Class<S> type) throws IOException;
+}
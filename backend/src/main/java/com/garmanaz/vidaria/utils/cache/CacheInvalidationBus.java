@@ -0,0 +1,81 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Propaga invalidaciones de las NearCache entre nodos por un canal pub/sub de Redis.
+// Formato del mensaje: "<cache>:<id>" o "<cache>:*" para vaciar el L1 entero.
+// Un id invalidado existe (o existió): se añade también al filtro de ids conocidos de este nodo.
+@Component
+public class CacheInvalidationBus implements MessageListener {
+
+    public static final String CHANNEL = "vidaria:cache:invalidate";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final KnownIds knownIds;
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+    private final Counter published;
+    private final Counter received;
+
+    public CacheInvalidationBus(StringRedisTemplate stringRedisTemplate, KnownIds knownIds, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.knownIds = knownIds;
+        this.published = Counter.builder("cache.invalidations").tag("direction", "published").register(meterRegistry);
+        this.received = Counter.builder("cache.invalidations").tag("direction", "received").register(meterRegistry);
+    }
+
+    void register(NearCache<?> cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    public void publish(String cacheName, Long id) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, cacheName + ":" + id);
+            published.increment();
+        } catch (Exception e) {
+            logger.warn("Failed to publish invalidation for {}:{}: {}", cacheName, id, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            logger.warn("Ignoring malformed invalidation message: {}", body);
+            return;
+        }
+
+        String cacheName = body.substring(0, separator);
+        NearCache<?> cache = caches.get(cacheName);
+        received.increment();
+        String id = body.substring(separator + 1);
+        if ("*".equals(id)) {
+            if (cache != null) {
+                cache.invalidateAllLocal();
+            }
+            return;
+        }
+        try {
+            long parsed = Long.parseLong(id);
+            knownIds.add(cacheName, parsed);
+            if (cache != null) {
+                cache.invalidateLocal(parsed);
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed invalidation message: {}", body);
+        }
+    }
+}
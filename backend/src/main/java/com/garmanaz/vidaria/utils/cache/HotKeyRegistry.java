@@ -0,0 +1,151 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Un HotKeyTracker por caché. El top-K se guarda periódicamente en Redis (sorted set "hot:<cache>", con los
+// recuentos de todas las instancias sumados) para que tras un reinicio la precarga sepa qué ids calentar.
+@Component
+public class HotKeyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyRegistry.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<String, HotKeyTracker> trackers = new ConcurrentHashMap<>();
+
+    // Identifica a esta instancia entre las que comparten Redis
+    String node = UUID.randomUUID().toString();
+
+    @Value("${vidaria.cache.hot-keys.top-k:2000}")
+    private int topK;
+
+    @Value("${vidaria.cache.hot-keys.hot-ttl:P1D}")
+    private Duration hotTtl;
+
+    @Value("${vidaria.cache.hot-keys.cold-ttl:PT1H}")
+    private Duration coldTtl;
+
+    @Value("${vidaria.cache.hot-keys.retention:P7D}")
+    private Duration retention;
+
+    public HotKeyRegistry(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    public HotKeyTracker tracker(String cache) {
+        return trackers.computeIfAbsent(cache, name -> new HotKeyTracker(name, topK, hotTtl, coldTtl));
+    }
+
+    public static String key(String cache) {
+        return "hot:" + cache;
+    }
+
+    @Scheduled(initialDelayString = "${vidaria.cache.hot-keys.persist-interval:PT5M}",
+            fixedDelayString = "${vidaria.cache.hot-keys.persist-interval:PT5M}")
+    public void persistAndDecay() {
+        trackers.values().forEach(tracker -> {
+            try {
+                persist(tracker);
+            } catch (Exception e) {
+                logger.warn("Failed to persist hot keys for {}: {}", tracker.getName(), e.getMessage());
+            }
+            tracker.decay();
+        });
+    }
+
+    // Cada nodo reescribe solo su propio top-K ("hot:<cache>:node:<id>") y se apunta en "hot:<cache>:nodes" con la
+    // hora de escritura. "hot:<cache>" es la suma (ZUNIONSTORE) de los nodos vivos: si todos escribieran directamente
+    // el conjunto compartido, el último en persistir borraría lo que han visto los demás
+    // Lo sembrado desde "hot:<cache>" al arrancar ya está en la suma: se persiste solo lo observado por este nodo
+    void persist(HotKeyTracker tracker) {
+        List<Map.Entry<Long, Integer>> entries = tracker.observedEntries();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Set<ZSetOperations.TypedTuple<String>> tuples = new LinkedHashSet<>(entries.size() * 2);
+        entries.forEach(entry -> tuples.add(new DefaultTypedTuple<>(entry.getKey().toString(), entry.getValue().doubleValue())));
+
+        String key = key(tracker.getName());
+        String nodes = nodesKey(tracker.getName());
+        String own = nodeKey(tracker.getName(), node);
+        long now = System.currentTimeMillis();
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                operations.delete(own);
+                operations.opsForZSet().add(own, tuples);
+                operations.expire(own, retention);
+                // Los nodos que llevan más de retention sin escribir ya no cuentan (sus claves han caducado)
+                operations.opsForZSet().add(nodes, node, now);
+                operations.opsForZSet().removeRangeByScore(nodes, 0, now - retention.toMillis());
+                operations.expire(nodes, retention);
+                operations.opsForZSet().range(nodes, 0, -1);
+                return null;
+            }
+        });
+
+        List<String> others = new ArrayList<>();
+        if (results.get(results.size() - 1) instanceof Set<?> members) {
+            members.stream().map(String::valueOf).filter(member -> !member.equals(node))
+                    .forEach(member -> others.add(nodeKey(tracker.getName(), member)));
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                operations.opsForZSet().unionAndStore(own, others, key);
+                operations.expire(key, retention);
+                return null;
+            }
+        });
+    }
+
+    static String nodesKey(String cache) {
+        return key(cache) + ":nodes";
+    }
+
+    static String nodeKey(String cache, String node) {
+        return key(cache) + ":node:" + node;
+    }
+
+    // Devuelve los ids más accedidos guardados en Redis y los vuelve a sembrar en el tracker
+    public List<Long> loadPersisted(String cache, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                stringRedisTemplate.opsForZSet().reverseRangeWithScores(key(cache), 0, limit - 1L);
+        List<Long> ids = new ArrayList<>();
+        if (tuples == null) {
+            return ids;
+        }
+
+        HotKeyTracker tracker = tracker(cache);
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            try {
+                long id = Long.parseLong(tuple.getValue());
+                ids.add(id);
+                tracker.seed(id, tuple.getScore() != null ? tuple.getScore().intValue() : 1);
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed hot key {} in {}", tuple.getValue(), key(cache));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,170 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Frecuencia de acceso aproximada por id: count-min sketch (4 filas) para estimar cualquier id
+// y un top-K con los más pedidos. decay() divide los contadores a la mitad para que pese lo reciente.
+public class HotKeyTracker {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final String name;
+    private final int topK;
+    private final Duration hotTtl;
+    private final Duration coldTtl;
+    private final int widthMask;
+    private final AtomicIntegerArray counters;
+    private final Map<Long, Integer> top = new ConcurrentHashMap<>();
+    // Lo sembrado al arrancar: cuenta para isHot/ttlFor pero no es tráfico de este nodo y no se vuelve a persistir
+    private final Map<Long, Integer> seeded = new ConcurrentHashMap<>();
+    private final Object topLock = new Object();
+    private volatile int threshold;
+
+    public HotKeyTracker(String name, int topK, Duration hotTtl, Duration coldTtl) {
+        this(name, topK, hotTtl, coldTtl, 1 << 14);
+    }
+
+    public HotKeyTracker(String name, int topK, Duration hotTtl, Duration coldTtl, int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two: " + width);
+        }
+        this.name = name;
+        this.topK = topK;
+        this.hotTtl = hotTtl;
+        this.coldTtl = coldTtl;
+        this.widthMask = width - 1;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long id) {
+        add(id, 1);
+    }
+
+    // Usado al restaurar el conjunto persistido tras un reinicio
+    public void seed(long id, int count) {
+        add(id, count);
+        seeded.merge(id, count, Integer::sum);
+    }
+
+    private void add(long id, int count) {
+        // Conservative update: solo se incrementan las filas que tienen el mínimo
+        int estimate = estimate(id);
+        int target = estimate + count;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(id, row);
+            int current;
+            while ((current = counters.get(index)) < target) {
+                if (counters.compareAndSet(index, current, target)) {
+                    break;
+                }
+            }
+        }
+        offer(id, target);
+    }
+
+    public int estimate(long id) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters.get(index(id, row)));
+        }
+        return min;
+    }
+
+    private void offer(long id, int estimate) {
+        // Camino rápido sin bloqueo para los ids que ya están en el top
+        if (top.replace(id, estimate) != null) {
+            return;
+        }
+        if (top.size() < topK || estimate > threshold) {
+            synchronized (topLock) {
+                top.put(id, estimate);
+                if (top.size() > topK) {
+                    Map.Entry<Long, Integer> coldest = top.entrySet().stream()
+                            .min(Map.Entry.comparingByValue())
+                            .orElseThrow();
+                    top.remove(coldest.getKey());
+                }
+                if (top.size() >= topK) {
+                    threshold = top.values().stream().min(Integer::compare).orElse(0);
+                }
+            }
+        }
+    }
+
+    public boolean isHot(long id) {
+        return top.containsKey(id);
+    }
+
+    // Los ids del top-K viven hotTtl; el resto entre coldTtl y hotTtl según lo cerca que estén del umbral
+    public Duration ttlFor(long id) {
+        if (isHot(id)) {
+            return hotTtl;
+        }
+        int limit = Math.max(1, threshold);
+        double ratio = Math.min(1.0, estimate(id) / (double) limit);
+        long seconds = coldTtl.toSeconds() + Math.round((hotTtl.toSeconds() - coldTtl.toSeconds()) * ratio * ratio);
+        return Duration.ofSeconds(seconds);
+    }
+
+    public Duration getHotTtl() {
+        return hotTtl;
+    }
+
+    public List<Long> topIds(int limit) {
+        return topEntries().stream().limit(limit).map(Map.Entry::getKey).toList();
+    }
+
+    public List<Map.Entry<Long, Integer>> topEntries() {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(top.entrySet());
+        entries.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder()));
+        return entries;
+    }
+
+    // El top-K sin lo sembrado: solo los accesos vistos por este nodo
+    public List<Map.Entry<Long, Integer>> observedEntries() {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(top.size());
+        top.forEach((id, count) -> {
+            int observed = count - seeded.getOrDefault(id, 0);
+            if (observed > 0) {
+                entries.add(Map.entry(id, observed));
+            }
+        });
+        entries.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder()));
+        return entries;
+    }
+
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            int current;
+            do {
+                current = counters.get(i);
+            } while (current != 0 && !counters.compareAndSet(i, current, current >>> 1));
+        }
+        synchronized (topLock) {
+            top.replaceAll((id, count) -> count >>> 1);
+            top.values().removeIf(count -> count == 0);
+            seeded.replaceAll((id, count) -> count >>> 1);
+            seeded.values().removeIf(count -> count == 0);
+            threshold = threshold >>> 1;
+        }
+    }
+
+    private int index(long id, int row) {
+        long hash = (id ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+        hash *= 0x94D049BB133111EBL;
+        hash ^= hash >>> 29;
+        return row * (widthMask + 1) + (int) (hash & widthMask);
+    }
+}
@@ -0,0 +1,39 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class JacksonCacheCodec implements CacheCodec {
+
+    private final String name;
+    private final byte id;
+    private final ObjectMapper objectMapper;
+
+    public JacksonCacheCodec(String name, byte id, ObjectMapper objectMapper) {
+        this.name = name;
+        this.id = id;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte id() {
+        return id;
+    }
+
+    @Override
+    public void encode(Object value, OutputStream out) throws IOException {
+        objectMapper.writeValue(out, value);
+    }
+
+    @Override
+    public <S> S decode(byte[] bytes, int offset, int length, Class<S> type) throws IOException {
+        return objectMapper.readValue(bytes, offset, length, type);
+    }
+}
@@ -0,0 +1,42 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+public class JdkCacheCodec implements CacheCodec {
+
+    private final byte id;
+
+    public JdkCacheCodec(byte id) {
+        this.id = id;
+    }
+
+    @Override
+    public String name() {
+        return "jdk";
+    }
+
+    @Override
+    public byte id() {
+        return id;
+    }
+
+    @Override
+    public void encode(Object value, OutputStream out) throws IOException {
+        ObjectOutputStream objectOut = new ObjectOutputStream(out);
+        objectOut.writeObject(value);
+        objectOut.flush();
+    }
+
+    @Override
+    public <S> S decode(byte[] bytes, int offset, int length, Class<S> type) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            return type.cast(in.readObject());
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+}
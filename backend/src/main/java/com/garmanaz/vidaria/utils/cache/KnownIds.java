@@ -0,0 +1,98 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Filtro de Bloom por tabla con los ids existentes. Se reconstruye periódicamente desde la base de datos
+// y se amplía con cada alta (KnownIdsListener) o aviso de otro nodo (CacheInvalidationBus).
+// Mientras no se ha construido, mightContain devuelve true para no rechazar nada por error.
+@Component
+public class KnownIds {
+
+    private final Map<String, Holder> filters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${vidaria.cache.known-ids.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${vidaria.cache.known-ids.minimum-capacity:10000}")
+    private long minimumCapacity;
+
+    public KnownIds(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean mightContain(String cache, Long id) {
+        Holder holder = holder(cache);
+        IdBloomFilter filter = holder.current;
+        if (filter == null || filter.mightContain(id)) {
+            return true;
+        }
+        holder.rejections.increment();
+        return false;
+    }
+
+    public void add(String cache, Long id) {
+        if (id == null) {
+            return;
+        }
+        Holder holder = holder(cache);
+        synchronized (holder) {
+            if (holder.current != null) {
+                holder.current.add(id);
+            }
+            holder.building.forEach(filter -> filter.add(id));
+        }
+    }
+
+    // El recorrido se hace fuera del bloqueo; las altas que llegan mientras tanto se añaden al filtro en uso y a
+    // todos los que se están construyendo. Cada reconstrucción quita solo el suyo: si se solapan dos (la del
+    // arranque y la programada), la que acaba primero no deja a la otra sin las altas del resto de su recorrido
+    public void rebuild(String cache, long expectedIds, Consumer<LongConsumer> scan) {
+        Holder holder = holder(cache);
+        // Margen para las altas hasta la siguiente reconstrucción
+        IdBloomFilter next = IdBloomFilter.create(Math.max(minimumCapacity, expectedIds * 3 / 2), falsePositiveRate);
+        synchronized (holder) {
+            holder.building.add(next);
+        }
+        try {
+            scan.accept(next::add);
+            synchronized (holder) {
+                holder.current = next;
+            }
+        } finally {
+            synchronized (holder) {
+                holder.building.remove(next);
+            }
+        }
+    }
+
+    public boolean isReady(String cache) {
+        return holder(cache).current != null;
+    }
+
+    private Holder holder(String cache) {
+        return filters.computeIfAbsent(cache, name -> new Holder(
+                Counter.builder("cache.known_ids.rejections").tag("cache", name).register(meterRegistry)));
+    }
+
+    private static final class Holder {
+        private final Counter rejections;
+        private volatile IdBloomFilter current;
+        // Solo se toca con el Holder bloqueado
+        private final List<IdBloomFilter> building = new ArrayList<>(2);
+
+        private Holder(Counter rejections) {
+            this.rejections = rejections;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Listener JPA de Movie y Serie: cada alta entra en el filtro de ids de este nodo y, tras el commit,
+// se avisa al resto por el bus para que lo añadan y olviden cualquier entrada negativa de ese id.
+// Hibernate lo instancia a través de Spring; ObjectProvider porque en tests de JPA no hay beans de caché.
+public class KnownIdsListener {
+
+    private final ObjectProvider<KnownIds> knownIds;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+    public KnownIdsListener(ObjectProvider<KnownIds> knownIds, ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        this.knownIds = knownIds;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof Movie movie) {
+            registered("movie", movie.getId());
+        } else if (entity instanceof Serie serie) {
+            registered("serie", serie.getId());
+        }
+    }
+
+    private void registered(String cache, Long id) {
+        knownIds.ifAvailable(ids -> ids.add(cache, id));
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bus.publish(cache, id);
+                }
+            });
+        } else {
+            bus.publish(cache, id);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Cache de dos niveles: L1 en memoria (Caffeine) delante de L2 en Redis.
+// Los fallos de L1 pasan por RefreshAheadCache (single-flight, refresco anticipado y stale-while-revalidate).
+// Las invalidaciones se propagan al resto de nodos a través de CacheInvalidationBus.
+public class NearCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCache.class);
+
+    private final String name;
+    private final Cache<Long, V> local;
+    private final RefreshAheadCache<V> remote;
+    private final CacheInvalidationBus invalidationBus;
+
+    public NearCache(String name, RefreshAheadCache<V> remote, CacheInvalidationBus invalidationBus,
+                     long localMaximumSize, Duration localTtl, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name + ".l1");
+
+        invalidationBus.register(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String key(Long id) {
+        return name + ":" + id;
+    }
+
+    public V get(Long id, Function<Long, V> loader) {
+        remote.getHotKeys().record(id);
+
+        V value = local.getIfPresent(id);
+        if (value != null) {
+            return value;
+        }
+
+        value = remote.get(key(id), id, loader);
+        if (value != null) {
+            local.put(id, value);
+        }
+        return value;
+    }
+
+    // Lectura por lotes de los que ya están cacheados (L1 y, para el resto, un MGET a L2); los que faltan no aparecen
+    public Map<Long, V> getAllPresent(Collection<Long> ids) {
+        Map<Long, V> found = new HashMap<>(local.getAllPresent(ids));
+        List<Long> remaining = ids.stream().filter(id -> !found.containsKey(id)).distinct().toList();
+        if (!remaining.isEmpty()) {
+            List<V> values = remote.getAllPresent(remaining.stream().map(this::key).toList());
+            for (int i = 0; i < remaining.size(); i++) {
+                V value = values.get(i);
+                if (value != null) {
+                    local.put(remaining.get(i), value);
+                    found.put(remaining.get(i), value);
+                }
+            }
+        }
+        return found;
+    }
+
+    public HotKeyTracker getHotKeys() {
+        return remote.getHotKeys();
+    }
+
+    public RedisTemplate<String, V> getRedisTemplate() {
+        return remote.getRedisTemplate();
+    }
+
+    public Duration ttlFor(Long id) {
+        return remote.ttlFor(id);
+    }
+
+    public void put(Long id, V value) {
+        remote.put(key(id), id, value);
+        local.put(id, value);
+    }
+
+    // Borra la entrada en ambos niveles y avisa al resto de nodos. Si hay una transacción
+    // activa se espera al commit para que nadie vuelva a cachear la versión anterior.
+    public void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(id);
+                }
+            });
+        } else {
+            doInvalidate(id);
+        }
+    }
+
+    private void doInvalidate(Long id) {
+        local.invalidate(id);
+        try {
+            remote.evict(key(id));
+        } catch (Exception e) {
+            logger.warn("Failed to delete {} from Redis: {}", key(id), e.getMessage());
+        }
+        invalidationBus.publish(name, id);
+    }
+
+    // Llamado desde el bus cuando otro nodo modifica la entrada
+    void invalidateLocal(Long id) {
+        local.invalidate(id);
+        remote.evictLocal(key(id));
+    }
+
+    void invalidateAllLocal() {
+        local.invalidateAll();
+        remote.evictAllLocal();
+    }
+}
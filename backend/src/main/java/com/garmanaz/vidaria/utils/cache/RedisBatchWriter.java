@@ -0,0 +1,62 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Escribe un lote de claves en una sola ida y vuelta (pipeline de SET ... EX) y devuelve los bytes enviados
+public final class RedisBatchWriter {
+
+    private RedisBatchWriter() {
+    }
+
+    public static <V> long writeAll(RedisTemplate<String, V> redisTemplate, Map<String, V> entries, Duration ttl) {
+        Expiration expiration = Expiration.from(ttl);
+        return write(redisTemplate, entries, key -> expiration);
+    }
+
+    // Variante con TTL por clave (TTL adaptativo según la popularidad)
+    public static <V> long writeAll(RedisTemplate<String, V> redisTemplate, Map<String, V> entries,
+                                    Function<String, Duration> ttlOf) {
+        return write(redisTemplate, entries, key -> Expiration.from(ttlOf.apply(key)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> long write(RedisTemplate<String, V> redisTemplate, Map<String, V> entries,
+                                  Function<String, Expiration> expirationOf) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        RedisSerializer<V> valueSerializer = (RedisSerializer<V>) redisTemplate.getValueSerializer();
+
+        // Serializar antes de abrir el pipeline para no retener la conexión durante el trabajo de CPU
+        List<Encoded> encoded = new ArrayList<>(entries.size());
+        long bytes = 0;
+        for (Map.Entry<String, V> entry : entries.entrySet()) {
+            byte[] key = keySerializer.serialize(entry.getKey());
+            byte[] value = valueSerializer.serialize(entry.getValue());
+            encoded.add(new Encoded(key, value, expirationOf.apply(entry.getKey())));
+            bytes += key.length + value.length;
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            encoded.forEach(entry -> connection.stringCommands()
+                    .set(entry.key(), entry.value(), entry.expiration(), RedisStringCommands.SetOption.upsert()));
+            return null;
+        });
+        return bytes;
+    }
+
+    private record Encoded(byte[] key, byte[] value, Expiration expiration) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.repositories.CategoryRepository;
+import com.garmanaz.vidaria.repositories.GenreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Diccionario en memoria de géneros (por id) y categorías (por nombre), cargado al arrancar.
+// Evita una consulta por género en cada serie ingerida; lo que no está se busca en la base de datos
+// (caché de segundo nivel) y, si tampoco existe, se crea. Las escrituras lo actualizan tras el commit
+// (ReferenceDataListener). Las instancias están desacopladas: al guardar una película o serie que las
+// referencia, Hibernate las resuelve por id desde la caché de segundo nivel sin ir a la base de datos.
+@Component
+public class ReferenceData {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceData.class);
+
+    private final GenreRepository genreRepository;
+    private final CategoryRepository categoryRepository;
+    private final Map<Long, Genre> genres = new ConcurrentHashMap<>();
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+
+    public ReferenceData(GenreRepository genreRepository, CategoryRepository categoryRepository) {
+        this.genreRepository = genreRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        long start = System.nanoTime();
+        genreRepository.findAll().forEach(this::put);
+        categoryRepository.findAll().forEach(this::put);
+        logger.info("Reference data loaded: {} genres, {} categories in {} ms",
+                genres.size(), categories.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public Genre genre(Long id, String name) {
+        Map<Long, String> names = new HashMap<>();
+        names.put(id, name);
+        return genres(names).get(id);
+    }
+
+    // Los que faltan en el diccionario se leen con una consulta y los que no existen se crean con un saveAll
+    public Map<Long, Genre> genres(Map<Long, String> names) {
+        Map<Long, Genre> resolved = new HashMap<>();
+        names.keySet().forEach(id -> {
+            Genre genre = genres.get(id);
+            if (genre != null) {
+                resolved.put(id, genre);
+            }
+        });
+        if (resolved.size() == names.size()) {
+            return resolved;
+        }
+
+        List<Long> unknown = names.keySet().stream().filter(id -> !resolved.containsKey(id)).toList();
+        genreRepository.findAllById(unknown).forEach(genre -> {
+            put(genre);
+            resolved.put(genre.getId(), genre);
+        });
+        List<Genre> missing = unknown.stream()
+                .filter(id -> !resolved.containsKey(id))
+                .map(id -> new Genre(id, names.get(id)))
+                .toList();
+        if (!missing.isEmpty()) {
+            genreRepository.saveAll(missing).forEach(genre -> resolved.put(genre.getId(), genre));
+        }
+        return resolved;
+    }
+
+    public Category category(String name) {
+        Category category = categories.get(name);
+        if (category != null) {
+            return category;
+        }
+        category = categoryRepository.findByName(name);
+        if (category != null) {
+            put(category);
+            return category;
+        }
+        return categoryRepository.save(new Category(name));
+    }
+
+    public Collection<Genre> knownGenres() {
+        return genres.values();
+    }
+
+    public Collection<Category> knownCategories() {
+        return categories.values();
+    }
+
+    // Búsquedas por nombre sin distinguir mayúsculas (las rutas y el índice de búsqueda usan nombres);
+    // con dos géneros del mismo nombre gana el id menor, igual en lecturas y escrituras
+    public Optional<Long> genreId(String name) {
+        return genres.values().stream()
+                .filter(genre -> genre.getName() != null && genre.getName().equalsIgnoreCase(name))
+                .map(Genre::getId)
+                .min(Long::compare);
+    }
+
+    public Optional<Long> categoryId(String name) {
+        return categories.values().stream()
+                .filter(category -> category.getName().equalsIgnoreCase(name))
+                .map(Category::getId)
+                .min(Long::compare);
+    }
+
+    void put(Genre genre) {
+        genres.put(genre.getId(), genre);
+    }
+
+    void put(Category category) {
+        // Un cambio de nombre deja la entrada antigua: se quita por id antes de añadir la nueva
+        categories.values().removeIf(existing -> existing.getId().equals(category.getId()));
+        categories.put(category.getName(), category);
+    }
+
+    void remove(Genre genre) {
+        genres.remove(genre.getId());
+    }
+
+    void remove(Category category) {
+        categories.values().removeIf(existing -> existing.getId().equals(category.getId()));
+    }
+}
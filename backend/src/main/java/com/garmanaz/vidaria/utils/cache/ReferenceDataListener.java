@@ -0,0 +1,63 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+// Listener JPA de Genre y Category: mantiene el diccionario de ReferenceData al día con cada escritura.
+// Se aplica tras el commit para no publicar un género o categoría que luego se deshace con un rollback.
+public class ReferenceDataListener {
+
+    private final ObjectProvider<ReferenceData> referenceData;
+
+    public ReferenceDataListener(ObjectProvider<ReferenceData> referenceData) {
+        this.referenceData = referenceData;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Object entity) {
+        afterCommit(data -> {
+            if (entity instanceof Genre genre) {
+                data.put(genre);
+            } else if (entity instanceof Category category) {
+                data.put(category);
+            }
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        afterCommit(data -> {
+            if (entity instanceof Genre genre) {
+                data.remove(genre);
+            } else if (entity instanceof Category category) {
+                data.remove(category);
+            }
+        });
+    }
+
+    private void afterCommit(Consumer<ReferenceData> change) {
+        ReferenceData data = referenceData.getIfAvailable();
+        if (data == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.accept(data);
+                }
+            });
+        } else {
+            change.accept(data);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Lecturas de Redis protegidas contra estampidas:
+// - single-flight: una sola carga por clave, el resto de peticiones espera el mismo future
+// - refresco anticipado probabilístico (XFetch): cuanto más cerca de caducar, más probable recargar en segundo plano
+// - stale-while-revalidate: la clave vive staleGrace más que su TTL lógico; en ese margen se sirve
+//   el valor antiguo y se recarga en segundo plano en vez de bloquear a todos contra la base de datos
+// - caché negativa: los ids que no existen se recuerdan negativeTtl (en memoria y con una marca "miss:<clave>"
+//   en Redis) para no repetir la consulta a la base de datos o a TMDB
+public class RefreshAheadCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCache.class);
+    private static final byte[] ABSENT_MARKER = {1};
+
+    private final RedisTemplate<String, V> redisTemplate;
+    private final HotKeyTracker hotKeys;
+    private final Duration staleGrace;
+    private final double beta;
+    private final Duration negativeTtl;
+    private final Executor refreshExecutor;
+    private final Map<String, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> absent;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter negativeHits;
+    private final Counter puts;
+    private final Counter coalesced;
+    private final Counter earlyRefreshes;
+    private final Counter staleRefreshes;
+    // Media móvil del tiempo de carga, es el "delta" de XFetch
+    private volatile double loadMillis = 100;
+
+    public RefreshAheadCache(String name, RedisTemplate<String, V> redisTemplate, HotKeyTracker hotKeys,
+                             Duration staleGrace, double beta, Duration negativeTtl, Executor refreshExecutor,
+                             MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.hotKeys = hotKeys;
+        this.staleGrace = staleGrace;
+        this.beta = beta;
+        this.negativeTtl = negativeTtl;
+        this.refreshExecutor = refreshExecutor;
+        this.absent = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.negativeHits = Counter.builder("cache.gets").tag("cache", name).tag("result", "negative").register(meterRegistry);
+        this.puts = Counter.builder("cache.puts").tag("cache", name).register(meterRegistry);
+        this.coalesced = Counter.builder("cache.loads.coalesced").tag("cache", name).register(meterRegistry);
+        this.earlyRefreshes = Counter.builder("cache.refreshes").tag("cache", name).tag("reason", "early").register(meterRegistry);
+        this.staleRefreshes = Counter.builder("cache.refreshes").tag("cache", name).tag("reason", "stale").register(meterRegistry);
+    }
+
+    public RedisTemplate<String, V> getRedisTemplate() {
+        return redisTemplate;
+    }
+
+    public HotKeyTracker getHotKeys() {
+        return hotKeys;
+    }
+
+    // TTL físico en Redis: el TTL adaptativo más el margen en el que se sirve el valor caducado
+    public Duration ttlFor(Long id) {
+        return hotKeys.ttlFor(id).plus(staleGrace);
+    }
+
+    public static String absentKey(String key) {
+        return "miss:" + key;
+    }
+
+    public V get(String key, Long id, Function<Long, V> loader) {
+        if (absent.getIfPresent(key) != null) {
+            negativeHits.increment();
+            return null;
+        }
+
+        RemoteEntry<V> entry = read(key);
+        if (entry.value() == null && entry.absent()) {
+            negativeHits.increment();
+            absent.put(key, Boolean.TRUE);
+            return null;
+        }
+        if (entry.value() == null) {
+            misses.increment();
+            return load(key, id, loader);
+        }
+
+        hits.increment();
+        // PTTL negativo: clave sin expiración (escrita a mano o por una versión anterior)
+        if (entry.ttlMillis() >= 0) {
+            long freshMillis = entry.ttlMillis() - staleGrace.toMillis();
+            if (freshMillis <= 0) {
+                staleRefreshes.increment();
+                refreshAsync(key, id, loader);
+            } else if (shouldRefreshEarly(freshMillis)) {
+                earlyRefreshes.increment();
+                refreshAsync(key, id, loader);
+            }
+        }
+        return entry.value();
+    }
+
+    // Solo lo que ya está en Redis, en un único MGET: sin cargas ni refrescos. null en las posiciones que faltan
+    public List<V> getAllPresent(List<String> keys) {
+        List<V> values = null;
+        try {
+            values = redisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            logger.warn("Cannot read {} keys from Redis: {}", keys.size(), e.getMessage());
+        }
+        if (values == null) {
+            values = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                values.add(null);
+            }
+        }
+        long found = values.stream().filter(Objects::nonNull).count();
+        hits.increment(found);
+        misses.increment(keys.size() - found);
+        return values;
+    }
+
+    public void put(String key, Long id, V value) {
+        redisTemplate.opsForValue().set(key, value, ttlFor(id));
+        puts.increment();
+    }
+
+    // Borra valor y marca negativa: el id acaba de cambiar o de crearse
+    public void evict(String key) {
+        absent.invalidate(key);
+        redisTemplate.delete(List.of(key, absentKey(key)));
+    }
+
+    public void evictAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> rawKeys = new ArrayList<>(keys.size() * 2);
+        keys.forEach(key -> {
+            absent.invalidate(key);
+            rawKeys.add(key);
+            rawKeys.add(absentKey(key));
+        });
+        redisTemplate.delete(rawKeys);
+    }
+
+    public void evictLocal(String key) {
+        absent.invalidate(key);
+    }
+
+    public void evictAllLocal() {
+        absent.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void markAbsent(String key) {
+        absent.put(key, Boolean.TRUE);
+        byte[] rawKey = ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(absentKey(key));
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.stringCommands()
+                .set(rawKey, ABSENT_MARKER, Expiration.from(negativeTtl), RedisStringCommands.SetOption.upsert()));
+    }
+
+    // XFetch: recargar si -delta * beta * ln(rand) >= tiempo restante
+    boolean shouldRefreshEarly(long freshMillis) {
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -loadMillis * beta * Math.log(random) >= freshMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RemoteEntry<V> read(String key) {
+        try {
+            // GET + PTTL + EXISTS de la marca negativa en una sola ida y vuelta
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public Object execute(RedisOperations operations) {
+                    operations.opsForValue().get(key);
+                    operations.getExpire(key, TimeUnit.MILLISECONDS);
+                    operations.hasKey(absentKey(key));
+                    return null;
+                }
+            });
+            if (results == null || results.size() < 2) {
+                return new RemoteEntry<>(null, -2, false);
+            }
+            Long ttl = (Long) results.get(1);
+            boolean markedAbsent = results.size() > 2 && Boolean.TRUE.equals(results.get(2));
+            return new RemoteEntry<>((V) results.get(0), ttl != null ? ttl : -2, markedAbsent);
+        } catch (Exception e) {
+            logger.warn("Cannot read {} from Redis, loading from source: {}", key, e.getMessage());
+            return new RemoteEntry<>(null, -2, false);
+        }
+    }
+
+    private V load(String key, Long id, Function<Long, V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loads.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+        // Otra carga pudo terminar entre nuestra lectura y el putIfAbsent: volver a mirar antes de ir a la fuente
+        RemoteEntry<V> recheck = read(key);
+        V current = recheck.value();
+        if (current != null || recheck.absent()) {
+            loads.remove(key, future);
+            future.complete(current);
+            return current;
+        }
+        runLoad(key, id, loader, future);
+        return join(future);
+    }
+
+    private void refreshAsync(String key, Long id, Function<Long, V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> runLoad(key, id, loader, future));
+        } catch (RejectedExecutionException e) {
+            // Executor saturado: se sigue sirviendo el valor actual y lo intentará la próxima lectura
+            loads.remove(key, future);
+            future.completeExceptionally(e);
+            logger.debug("Refresh of {} skipped: {}", key, e.getMessage());
+        } catch (Exception e) {
+            loads.remove(key, future);
+            future.completeExceptionally(e);
+            logger.warn("Cannot schedule refresh of {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void runLoad(String key, Long id, Function<Long, V> loader, CompletableFuture<V> future) {
+        try {
+            long start = System.nanoTime();
+            V value = loader.apply(id);
+            loadMillis = loadMillis * 0.8 + (System.nanoTime() - start) / 1_000_000.0 * 0.2;
+            try {
+                if (value != null) {
+                    put(key, id, value);
+                } else {
+                    markAbsent(key);
+                }
+            } catch (Exception e) {
+                logger.warn("Cannot write {} to Redis: {}", key, e.getMessage());
+            }
+            future.complete(value);
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record RemoteEntry<V>(V value, long ttlMillis, boolean absent) {
+    }
+}
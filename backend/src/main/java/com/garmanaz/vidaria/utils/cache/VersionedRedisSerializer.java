@@ -0,0 +1,116 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Serializa entidades como snapshots planos con una cabecera de 3 bytes:
+// [MAGIC][id del codec][versión del esquema].
+// Un valor con otra versión de esquema o ilegible se trata como fallo de caché (null),
+// así un cambio en las entidades no rompe las lecturas: la entrada se recarga y reescribe.
+public class VersionedRedisSerializer<T, S> implements RedisSerializer<T> {
+
+    public static final byte MAGIC = 0x56;
+    public static final int HEADER_LENGTH = 3;
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionedRedisSerializer.class);
+
+    private final Map<Byte, CacheCodec> codecsById = new HashMap<>();
+    private final CacheCodec writer;
+    private final byte schemaVersion;
+    private final Class<S> snapshotType;
+    private final Function<T, S> toSnapshot;
+    private final Function<S, T> fromSnapshot;
+    private final boolean readLegacy;
+    private final JdkSerializationRedisSerializer legacySerializer = new JdkSerializationRedisSerializer();
+
+    public VersionedRedisSerializer(List<CacheCodec> codecs, String writerCodec, byte schemaVersion, Class<S> snapshotType,
+                                    Function<T, S> toSnapshot, Function<S, T> fromSnapshot, boolean readLegacy) {
+        CacheCodec selected = null;
+        for (CacheCodec codec : codecs) {
+            codecsById.put(codec.id(), codec);
+            if (codec.name().equalsIgnoreCase(writerCodec)) {
+                selected = codec;
+            }
+        }
+        if (selected == null) {
+            throw new IllegalArgumentException("Unknown cache codec: " + writerCodec);
+        }
+        this.writer = selected;
+        this.schemaVersion = schemaVersion;
+        this.snapshotType = snapshotType;
+        this.toSnapshot = toSnapshot;
+        this.fromSnapshot = fromSnapshot;
+        this.readLegacy = readLegacy;
+    }
+
+    public String getCodecName() {
+        return writer.name();
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+            out.write(MAGIC);
+            out.write(writer.id());
+            out.write(schemaVersion);
+            writer.encode(toSnapshot.apply(value), out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize value with codec " + writer.name(), e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (isLegacyPayload(bytes)) {
+            if (!readLegacy) {
+                return null;
+            }
+            try {
+                return (T) legacySerializer.deserialize(bytes);
+            } catch (Exception e) {
+                logger.debug("Discarding unreadable legacy cache value: {}", e.getMessage());
+                return null;
+            }
+        }
+
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC || bytes[2] != schemaVersion) {
+            return null;
+        }
+        CacheCodec codec = codecsById.get(bytes[1]);
+        if (codec == null) {
+            return null;
+        }
+        try {
+            S snapshot = codec.decode(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, snapshotType);
+            return snapshot != null ? fromSnapshot.apply(snapshot) : null;
+        } catch (Exception e) {
+            logger.debug("Discarding unreadable cache value ({}): {}", codec.name(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Los streams de ObjectOutputStream empiezan por 0xACED
+    private static boolean isLegacyPayload(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED;
+    }
+}
@@ -0,0 +1,198 @@
+package com.garmanaz.vidaria.utils.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Caché HTTP de salida para los GET: respuestas frescas (Cache-Control: max-age) se sirven sin red y
+// las caducadas se revalidan con If-None-Match / If-Modified-Since; un 304 reutiliza el cuerpo guardado.
+// La clave es la URL sin api_key, así cambiar la clave no vacía la caché ni la guarda en disco.
+public class ConditionalCacheInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)=(\\d+)");
+
+    private final HttpResponseCache cache;
+    private final Counter hits;
+    private final Counter revalidated;
+    private final Counter misses;
+    private final Counter bytesSaved;
+
+    public ConditionalCacheInterceptor(HttpResponseCache cache, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.hits = Counter.builder("http.client.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.revalidated = Counter.builder("http.client.cache.requests").tag("result", "revalidated").register(meterRegistry);
+        this.misses = Counter.builder("http.client.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.bytesSaved = Counter.builder("http.client.cache.bytes_saved").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("http.client.cache.hit_ratio", this, ConditionalCacheInterceptor::hitRatio).register(meterRegistry);
+        Gauge.builder("http.client.cache.size", cache, HttpResponseCache::totalBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+
+        String key = HttpResponseCache.keyOf(normalize(request.getURI()));
+        HttpResponseCache.Entry entry = cache.lookup(key);
+        long now = System.currentTimeMillis();
+
+        // El cuerpo se lee antes de la petición: si otro hilo lo ha expulsado no se envían validadores,
+        // porque un 304 sin cuerpo llegaría a RestTemplate como respuesta vacía (null, "no existe")
+        byte[] cached = entry != null ? cache.body(entry) : null;
+        if (cached == null) {
+            entry = null;
+        }
+
+        if (entry != null && entry.isFresh(now)) {
+            hits.increment();
+            bytesSaved.increment(cached.length);
+            return new CachedResponse(cached, entry.contentType());
+        }
+
+        if (entry != null) {
+            if (entry.etag() != null) {
+                request.getHeaders().set(HttpHeaders.IF_NONE_MATCH, entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified());
+            }
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        HttpHeaders headers = response.getHeaders();
+
+        if (entry != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            revalidated.increment();
+            bytesSaved.increment(cached.length);
+            cache.revalidated(entry, headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), expiresAt(headers, now));
+            return new CachedResponse(cached, entry.contentType());
+        }
+
+        misses.increment();
+        if (response.getStatusCode().value() != HttpStatus.OK.value() || !isStorable(headers)) {
+            return response;
+        }
+
+        byte[] payload;
+        try (InputStream in = response.getBody()) {
+            payload = in.readAllBytes();
+        }
+        String contentType = headers.getContentType() != null ? headers.getContentType().toString() : null;
+        cache.store(key, headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), contentType, expiresAt(headers, now), payload);
+        response.close();
+        return new CachedResponse(payload, contentType);
+    }
+
+    // Para quien limita las peticiones de red: una respuesta fresca se sirve sin salir de la aplicación
+    public boolean isFresh(String url) {
+        try {
+            HttpResponseCache.Entry entry = cache.lookup(HttpResponseCache.keyOf(normalize(URI.create(url))));
+            return entry != null && entry.isFresh(System.currentTimeMillis());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static String normalize(URI uri) {
+        return UriComponentsBuilder.fromUri(uri).replaceQueryParam("api_key").build().toUriString();
+    }
+
+    // Se guarda si hay algo con lo que ahorrar: una caducidad o un validador
+    private static boolean isStorable(HttpHeaders headers) {
+        String cacheControl = cacheControl(headers);
+        if (cacheControl.contains("no-store") || cacheControl.contains("private")) {
+            return false;
+        }
+        return MAX_AGE.matcher(cacheControl).find() || headers.getETag() != null || headers.getFirst(HttpHeaders.LAST_MODIFIED) != null;
+    }
+
+    private static long expiresAt(HttpHeaders headers, long now) {
+        String cacheControl = cacheControl(headers);
+        if (cacheControl.contains("no-cache")) {
+            return now;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        long maxAgeSeconds = 0;
+        while (matcher.find()) {
+            maxAgeSeconds = Math.max(maxAgeSeconds, Long.parseLong(matcher.group(1)));
+        }
+        long age = parseLong(headers.getFirst(HttpHeaders.AGE));
+        return now + Math.max(0, maxAgeSeconds - age) * 1000;
+    }
+
+    private static String cacheControl(HttpHeaders headers) {
+        String value = headers.getCacheControl();
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value != null ? Long.parseLong(value.trim()) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + revalidated.count();
+        double total = served + misses.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    private static class CachedResponse implements ClientHttpResponse {
+
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        CachedResponse(byte[] body, String contentType) {
+            this.body = body;
+            if (contentType != null) {
+                headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+            }
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
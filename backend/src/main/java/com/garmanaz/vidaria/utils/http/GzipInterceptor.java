@@ -0,0 +1,86 @@
+package com.garmanaz.vidaria.utils.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+// El cliente HTTP del JDK no negocia compresión: se pide gzip y se descomprime aquí,
+// antes de que la caché o los conversores de Jackson vean el cuerpo
+public class GzipInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Counter bytesSaved;
+
+    public GzipInterceptor(MeterRegistry meterRegistry) {
+        this.bytesSaved = Counter.builder("http.client.gzip.bytes_saved").baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ClientHttpResponse response = execution.execute(request, body);
+        if (!"gzip".equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return response;
+        }
+
+        byte[] compressed;
+        try (InputStream in = response.getBody()) {
+            compressed = in.readAllBytes();
+        }
+        byte[] plain;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            plain = in.readAllBytes();
+        }
+        bytesSaved.increment(Math.max(0, plain.length - compressed.length));
+        return new DecodedResponse(response, plain);
+    }
+
+    private static class DecodedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        DecodedResponse(ClientHttpResponse delegate, byte[] body) {
+            this.delegate = delegate;
+            this.body = body;
+            headers.putAll(delegate.getHeaders());
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
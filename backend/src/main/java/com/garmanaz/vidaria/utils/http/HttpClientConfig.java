@@ -0,0 +1,67 @@
+package com.garmanaz.vidaria.utils.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// RestTemplate de salida (TMDB): cliente HTTP del JDK, que reutiliza las conexiones keep-alive
+// (y HTTP/2 cuando el servidor lo ofrece), respuestas gzip y caché condicional en disco
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${vidaria.http.connect-timeout:PT5S}")
+    private Duration connectTimeout;
+
+    @Value("${vidaria.http.read-timeout:PT15S}")
+    private Duration readTimeout;
+
+    @Value("${vidaria.http.cache.directory:${java.io.tmpdir}/vidaria-http-cache}")
+    private Path cacheDirectory;
+
+    @Value("${vidaria.http.cache.max-size:256MB}")
+    private DataSize cacheMaxSize;
+
+    @Bean
+    @Profile("!test")
+    @ConditionalOnProperty(name = "vidaria.http.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public ConditionalCacheInterceptor conditionalCacheInterceptor(MeterRegistry meterRegistry) {
+        return new ConditionalCacheInterceptor(new HttpResponseCache(cacheDirectory, cacheMaxSize.toBytes()), meterRegistry);
+    }
+
+    @Bean
+    @Profile("!test")
+    public RestTemplate restTemplate(RestTemplateBuilder builder, MeterRegistry meterRegistry,
+                                     Optional<ConditionalCacheInterceptor> cacheInterceptor) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        // La caché va por fuera para guardar el cuerpo ya descomprimido
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+        cacheInterceptor.ifPresent(interceptors::add);
+        interceptors.add(new GzipInterceptor(meterRegistry));
+
+        return builder
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(interceptors)
+                .build();
+    }
+}
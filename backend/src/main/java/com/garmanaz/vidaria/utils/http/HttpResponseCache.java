@@ -0,0 +1,204 @@
+package com.garmanaz.vidaria.utils.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Respuestas HTTP guardadas en disco, un fichero por URL (sha-256 de la URL normalizada).
+// En memoria solo se guarda un índice con los validadores y la caducidad; el cuerpo se lee de disco.
+// Cuando se supera maxBytes se borran las entradas usadas hace más tiempo.
+public class HttpResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpResponseCache.class);
+    private static final int FORMAT_VERSION = 1;
+
+    public record Entry(String key, String etag, String lastModified, String contentType, long expiresAt,
+                        long size, long lastAccess) {
+
+        public boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+
+        Entry touched(long now) {
+            return new Entry(key, etag, lastModified, contentType, expiresAt, size, now);
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    public HttpResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create HTTP cache directory " + directory, e);
+        }
+        loadIndex();
+    }
+
+    public Entry lookup(String key) {
+        return index.computeIfPresent(key, (k, entry) -> entry.touched(System.currentTimeMillis()));
+    }
+
+    public byte[] body(Entry entry) {
+        try {
+            return read(file(entry.key())).body();
+        } catch (IOException e) {
+            logger.debug("Dropping unreadable HTTP cache entry {}: {}", entry.key(), e.getMessage());
+            remove(entry.key());
+            return null;
+        }
+    }
+
+    public void store(String key, String etag, String lastModified, String contentType, long expiresAt, byte[] body) {
+        Entry entry = new Entry(key, etag, lastModified, contentType, expiresAt, body.length, System.currentTimeMillis());
+        try {
+            Path target = file(key);
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            Files.write(temp, encode(entry, body));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Cannot write HTTP cache entry: {}", e.getMessage());
+            return;
+        }
+        Entry previous = index.put(key, entry);
+        totalBytes.addAndGet(body.length - (previous != null ? previous.size() : 0));
+        evictIfNeeded();
+    }
+
+    // Tras un 304: mismo cuerpo, nueva caducidad (y validadores si el servidor los cambió)
+    public void revalidated(Entry entry, String etag, String lastModified, long expiresAt) {
+        byte[] body = body(entry);
+        if (body != null) {
+            store(entry.key(), etag != null ? etag : entry.etag(), lastModified != null ? lastModified : entry.lastModified(),
+                    entry.contentType(), expiresAt, body);
+        }
+    }
+
+    public void remove(String key) {
+        Entry removed = index.remove(key);
+        if (removed != null) {
+            totalBytes.addAndGet(-removed.size());
+        }
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            logger.debug("Cannot delete HTTP cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long totalBytes() {
+        return totalBytes.get();
+    }
+
+    public static String keyOf(String normalizedUrl) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalizedUrl.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        index.values().stream()
+                .sorted(Comparator.comparingLong(Entry::lastAccess))
+                .takeWhile(entry -> totalBytes.get() > maxBytes)
+                .forEach(entry -> remove(entry.key()));
+    }
+
+    private void loadIndex() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(".entry")).forEach(path -> {
+                try {
+                    Entry entry = read(path).entry();
+                    index.put(entry.key(), entry);
+                    totalBytes.addAndGet(entry.size());
+                } catch (IOException e) {
+                    logger.debug("Ignoring corrupt HTTP cache file {}", path.getFileName());
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Cannot list HTTP cache directory {}: {}", directory, e.getMessage());
+        }
+        if (!index.isEmpty()) {
+            logger.info("Loaded {} HTTP cache entries ({} KB) from {}", index.size(), totalBytes.get() / 1024, directory);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + ".entry");
+    }
+
+    private static byte[] encode(Entry entry, byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(entry.key());
+            out.writeUTF(nullToEmpty(entry.etag()));
+            out.writeUTF(nullToEmpty(entry.lastModified()));
+            out.writeUTF(nullToEmpty(entry.contentType()));
+            out.writeLong(entry.expiresAt());
+            out.writeInt(body.length);
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Stored read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown HTTP cache format");
+            }
+            String key = in.readUTF();
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            String contentType = emptyToNull(in.readUTF());
+            long expiresAt = in.readLong();
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Stored(new Entry(key, etag, lastModified, contentType, expiresAt, body.length,
+                    Files.getLastModifiedTime(path).toMillis()), body);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private record Stored(Entry entry, byte[] body) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.garmanaz.vidaria.utils.search;
+
+import java.util.Collection;
+
+// Películas o series ("movie" / "serie") escritas o borradas en una transacción ya confirmada
+public record CatalogChangedEvent(String catalog, Collection<SearchDocument> upserted, Collection<Long> removed) {
+}
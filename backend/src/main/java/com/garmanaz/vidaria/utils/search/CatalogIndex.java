@@ -0,0 +1,157 @@
+package com.garmanaz.vidaria.utils.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Índice de búsqueda en memoria de un catálogo (películas o series).
+// Las lecturas no bloquean: trabajan sobre un estado inmutable (índice base + cambios pendientes).
+// Cada alta, modificación o borrado crea un estado nuevo que enmascara el docId antiguo y guarda el documento
+// nuevo aparte; cuando hay más de compactThreshold cambios pendientes se reconstruye el índice base con ellos.
+public class CatalogIndex {
+
+    private final String name;
+    private final int compactThreshold;
+    private final Object writeLock = new Object();
+    private volatile State state = new State(InvertedIndex.build(List.of()), Map.of(), Set.of(), new BitSet());
+    private volatile boolean loaded;
+
+    private record State(InvertedIndex base, Map<Long, SearchDocument> upserts, Set<Long> removed, BitSet masked) {
+
+        int pending() {
+            return upserts.size() + removed.size();
+        }
+    }
+
+    public CatalogIndex(String name, int compactThreshold) {
+        this.name = name;
+        this.compactThreshold = compactThreshold;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        State current = state;
+        return current.base().size() - current.masked().cardinality() + current.upserts().size();
+    }
+
+    // Carga completa desde la base de datos. Los cambios llegados mientras tanto se aplican encima:
+    // vienen de transacciones confirmadas, así que son al menos tan recientes como lo leído
+    public void load(Collection<SearchDocument> documents) {
+        synchronized (writeLock) {
+            Map<Long, SearchDocument> merged = new LinkedHashMap<>(documents.size() * 2);
+            documents.forEach(doc -> merged.put(doc.id(), doc));
+            State current = state;
+            merged.putAll(current.upserts());
+            current.removed().forEach(merged::remove);
+            state = new State(InvertedIndex.build(merged.values()), Map.of(), Set.of(), new BitSet());
+            loaded = true;
+        }
+    }
+
+    public void upsert(Collection<SearchDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            State current = state;
+            Map<Long, SearchDocument> upserts = new HashMap<>(current.upserts());
+            Set<Long> removed = new HashSet<>(current.removed());
+            BitSet masked = (BitSet) current.masked().clone();
+            for (SearchDocument doc : documents) {
+                upserts.put(doc.id(), doc);
+                removed.remove(doc.id());
+                mask(current.base(), masked, doc.id());
+            }
+            publish(new State(current.base(), upserts, removed, masked));
+        }
+    }
+
+    public void remove(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            State current = state;
+            Map<Long, SearchDocument> upserts = new HashMap<>(current.upserts());
+            Set<Long> removed = new HashSet<>(current.removed());
+            BitSet masked = (BitSet) current.masked().clone();
+            for (Long id : ids) {
+                upserts.remove(id);
+                removed.add(id);
+                mask(current.base(), masked, id);
+            }
+            publish(new State(current.base(), upserts, removed, masked));
+        }
+    }
+
+    public List<SearchDocument> search(CatalogQuery query) {
+        State current = state;
+        List<String> tokens = InvertedIndex.tokens(query.text());
+
+        BitSet candidates = current.base().match(tokens, query);
+        candidates.andNot(current.masked());
+
+        List<SearchDocument> pending = current.upserts().isEmpty() ? List.of() : current.upserts().values().stream()
+                .filter(doc -> InvertedIndex.matches(doc, tokens, query))
+                .sorted(SearchDocument.BY_POPULARITY)
+                .toList();
+
+        // Mezcla de dos listas ya ordenadas: los docIds del índice base siguen el orden de popularidad
+        List<SearchDocument> results = new ArrayList<>(Math.min(query.limit(), 64));
+        int docId = candidates.nextSetBit(0);
+        int next = 0;
+        while (docId >= 0 && !current.base().inRanges(docId, query)) {
+            docId = candidates.nextSetBit(docId + 1);
+        }
+        while (results.size() < query.limit() && (docId >= 0 || next < pending.size())) {
+            SearchDocument fromBase = docId >= 0 ? current.base().doc(docId) : null;
+            SearchDocument fromPending = next < pending.size() ? pending.get(next) : null;
+            if (fromPending == null || (fromBase != null && SearchDocument.BY_POPULARITY.compare(fromBase, fromPending) <= 0)) {
+                results.add(fromBase);
+                do {
+                    docId = candidates.nextSetBit(docId + 1);
+                } while (docId >= 0 && !current.base().inRanges(docId, query));
+            } else {
+                results.add(fromPending);
+                next++;
+            }
+        }
+        return results;
+    }
+
+    // Sin compactar hasta la carga completa: load() necesita los cambios pendientes para aplicarlos encima de lo leído
+    private void publish(State next) {
+        if (!loaded || next.pending() <= compactThreshold) {
+            state = next;
+            return;
+        }
+        List<SearchDocument> documents = new ArrayList<>(next.base().size() + next.upserts().size());
+        for (int docId = 0; docId < next.base().size(); docId++) {
+            if (!next.masked().get(docId)) {
+                documents.add(next.base().doc(docId));
+            }
+        }
+        documents.addAll(next.upserts().values());
+        state = new State(InvertedIndex.build(documents), Map.of(), Set.of(), new BitSet());
+    }
+
+    private static void mask(InvertedIndex base, BitSet masked, long id) {
+        Integer docId = base.docId(id);
+        if (docId != null) {
+            masked.set(docId);
+        }
+    }
+}
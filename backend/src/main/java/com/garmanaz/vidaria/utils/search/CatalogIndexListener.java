@@ -0,0 +1,114 @@
+package com.garmanaz.vidaria.utils.search;
+
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Listener JPA de Movie y Serie: acumula los cambios de la transacción (el documento tal y como queda
+// tras el flush, o el id si se borra) y tras el commit publica un CatalogChangedEvent por catálogo.
+// Así el índice en memoria se entera de cualquier escritura: servicios, ingesta o sincronización con TMDB.
+public class CatalogIndexListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatalogIndexListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Object entity) {
+        if (entity instanceof Movie movie) {
+            changes().upsert("movie", SearchDocument.of(movie));
+        } else if (entity instanceof Serie serie) {
+            changes().upsert("serie", SearchDocument.of(serie));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Movie movie) {
+            changes().remove("movie", movie.getId());
+        } else if (entity instanceof Serie serie) {
+            changes().remove("serie", serie.getId());
+        }
+    }
+
+    private Changes changes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Changes(true);
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Changes pending = new Changes(false);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.publish();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogIndexListener.this);
+                }
+            });
+            changes = pending;
+        }
+        return changes;
+    }
+
+    private final class Changes {
+
+        private final boolean immediate;
+        private final Map<String, Map<Long, SearchDocument>> upserts = new LinkedHashMap<>();
+        private final Map<String, Set<Long>> removed = new LinkedHashMap<>();
+
+        private Changes(boolean immediate) {
+            this.immediate = immediate;
+        }
+
+        void upsert(String catalog, SearchDocument doc) {
+            Set<Long> removedIds = removed.get(catalog);
+            if (removedIds != null) {
+                removedIds.remove(doc.id());
+            }
+            upserts.computeIfAbsent(catalog, key -> new LinkedHashMap<>()).put(doc.id(), doc);
+            if (immediate) {
+                publish();
+            }
+        }
+
+        void remove(String catalog, Long id) {
+            Map<Long, SearchDocument> upserted = upserts.get(catalog);
+            if (upserted != null) {
+                upserted.remove(id);
+            }
+            removed.computeIfAbsent(catalog, key -> new HashSet<>()).add(id);
+            if (immediate) {
+                publish();
+            }
+        }
+
+        void publish() {
+            Set<String> catalogs = new HashSet<>(upserts.keySet());
+            catalogs.addAll(removed.keySet());
+            for (String catalog : catalogs) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(catalog,
+                        List.copyOf(upserts.getOrDefault(catalog, Map.of()).values()),
+                        List.copyOf(removed.getOrDefault(catalog, Set.of()))));
+            }
+        }
+    }
+}
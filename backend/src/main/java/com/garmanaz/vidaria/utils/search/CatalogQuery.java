@@ -0,0 +1,30 @@
+package com.garmanaz.vidaria.utils.search;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Los mismos filtros que searchMovies/searchSeries; los nulos no filtran
+public record CatalogQuery(String text, Set<String> genres, Set<String> categories,
+                           LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                           Double ratingFrom, Double ratingTo,
+                           Double popularityFrom, Double popularityTo,
+                           int limit) {
+
+    public static CatalogQuery of(String text, Collection<String> genres, Collection<String> categories,
+                                  LocalDate releaseDateFrom, LocalDate releaseDateTo,
+                                  Double ratingFrom, Double ratingTo,
+                                  Double popularityFrom, Double popularityTo, int limit) {
+        return new CatalogQuery(text, lower(genres), lower(categories), releaseDateFrom, releaseDateTo,
+                ratingFrom, ratingTo, popularityFrom, popularityTo, limit);
+    }
+
+    private static Set<String> lower(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream().map(value -> value.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,377 @@
+package com.garmanaz.vidaria.utils.search;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Índice inmutable sobre un conjunto de documentos. Los docId internos se asignan por orden de popularidad,
+// así que recorrer el bitset de candidatos de menor a mayor ya devuelve los resultados ordenados y basta
+// con parar al llegar al límite.
+// - Términos: diccionario ordenado con su lista de docIds (int[] ordenados); un prefijo de 4 o más
+//   caracteres es un rango contiguo del diccionario.
+// - Prefijos cortos (1 a 3 caracteres), los de más fan-out, tienen su propia lista precalculada.
+// - Géneros y categorías: un bitset por valor.
+// - Valoración, popularidad y fecha: arrays ordenados por valor; un rango es una búsqueda binaria.
+// Las listas de prefijos muy frecuentes se guardan directamente como bitset.
+final class InvertedIndex {
+
+    static final int SHORT_PREFIX = 3;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final SearchDocument[] docs;
+    private final Map<Long, Integer> docIds;
+    private final String[] terms;
+    private final int[][] termPostings;
+    private final Map<String, int[]> prefixPostings;
+    private final Map<String, BitSet> densePrefixes;
+    private final Map<String, BitSet> genres;
+    private final Map<String, BitSet> categories;
+    private final SortedColumn ratings;
+    private final SortedColumn popularities;
+    private final SortedColumn releaseDates;
+
+    private InvertedIndex(SearchDocument[] docs) {
+        this.docs = docs;
+        this.docIds = new HashMap<>(docs.length * 2);
+
+        Map<String, IntArrayBuilder> termBuilders = new HashMap<>();
+        Map<String, IntArrayBuilder> prefixBuilders = new HashMap<>();
+        Map<String, BitSet> genreSets = new HashMap<>();
+        Map<String, BitSet> categorySets = new HashMap<>();
+
+        for (int docId = 0; docId < docs.length; docId++) {
+            SearchDocument doc = docs[docId];
+            docIds.put(doc.id(), docId);
+
+            Set<String> prefixes = new LinkedHashSet<>();
+            for (String token : tokens(doc.title())) {
+                IntArrayBuilder postings = termBuilders.computeIfAbsent(token, key -> new IntArrayBuilder());
+                // Un título puede repetir palabra: la lista ya termina en este docId
+                postings.addIfLast(docId);
+                for (int length = 1; length <= Math.min(SHORT_PREFIX, token.length()); length++) {
+                    prefixes.add(token.substring(0, length));
+                }
+            }
+            for (String prefix : prefixes) {
+                prefixBuilders.computeIfAbsent(prefix, key -> new IntArrayBuilder()).add(docId);
+            }
+            for (String genre : doc.genres()) {
+                genreSets.computeIfAbsent(genre, key -> new BitSet(docs.length)).set(docId);
+            }
+            if (doc.category() != null) {
+                categorySets.computeIfAbsent(doc.category(), key -> new BitSet(docs.length)).set(docId);
+            }
+        }
+
+        this.terms = termBuilders.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        this.termPostings = new int[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            termPostings[i] = termBuilders.get(terms[i]).toArray();
+        }
+        // Una lista con más de 1/32 de los documentos ocupa menos como bitset y se intersecta sin copiarla elemento a elemento
+        this.prefixPostings = new HashMap<>();
+        this.densePrefixes = new HashMap<>();
+        prefixBuilders.forEach((prefix, postings) -> {
+            if (postings.size() * 32L > docs.length) {
+                densePrefixes.put(prefix, postings.toBitSet());
+            } else {
+                prefixPostings.put(prefix, postings.toArray());
+            }
+        });
+        this.genres = genreSets;
+        this.categories = categorySets;
+        this.ratings = SortedColumn.of(docs, SearchDocument::rating);
+        this.popularities = SortedColumn.of(docs, SearchDocument::popularity);
+        this.releaseDates = SortedColumn.of(docs, doc -> doc.releaseDate() != null ? (double) doc.releaseDate().toEpochDay() : null);
+    }
+
+    static InvertedIndex build(Collection<SearchDocument> documents) {
+        SearchDocument[] sorted = documents.toArray(SearchDocument[]::new);
+        Arrays.sort(sorted, SearchDocument.BY_POPULARITY);
+        return new InvertedIndex(sorted);
+    }
+
+    int size() {
+        return docs.length;
+    }
+
+    Integer docId(long id) {
+        return docIds.get(id);
+    }
+
+    SearchDocument doc(int docId) {
+        return docs[docId];
+    }
+
+    // Candidatos que cumplen texto, géneros, categorías y los rangos selectivos, como bitset de docIds.
+    // Un rango que deja pasar a muchos documentos no compensa convertirlo en bitset: lo comprueba
+    // inRanges sobre cada candidato mientras se recorren en orden, y el recorrido se corta en el límite.
+    BitSet match(List<String> queryTokens, CatalogQuery query) {
+        BitSet result = null;
+        for (String token : queryTokens) {
+            result = and(result, postings(token));
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+        if (query.genres() != null) {
+            result = and(result, union(genres, query.genres()));
+        }
+        if (query.categories() != null) {
+            result = and(result, union(categories, query.categories()));
+        }
+        result = and(result, ratings.selectiveRange(query.ratingFrom(), query.ratingTo()));
+        result = and(result, popularities.selectiveRange(query.popularityFrom(), query.popularityTo()));
+        result = and(result, releaseDates.selectiveRange(epochDay(query.releaseDateFrom()), epochDay(query.releaseDateTo())));
+        if (result == null) {
+            result = new BitSet(docs.length);
+            result.set(0, docs.length);
+        }
+        return result;
+    }
+
+    boolean inRanges(int docId, CatalogQuery query) {
+        SearchDocument doc = docs[docId];
+        return inRange(doc.rating(), query.ratingFrom(), query.ratingTo())
+                && inRange(doc.popularity(), query.popularityFrom(), query.popularityTo())
+                && inRange(doc.releaseDate() != null ? (double) doc.releaseDate().toEpochDay() : null,
+                epochDay(query.releaseDateFrom()), epochDay(query.releaseDateTo()));
+    }
+
+    // Documentos cuyo título tiene alguna palabra que empieza por token
+    private BitSet postings(String token) {
+        if (token.length() <= SHORT_PREFIX && densePrefixes.containsKey(token)) {
+            return (BitSet) densePrefixes.get(token).clone();
+        }
+        BitSet set = new BitSet(docs.length);
+        if (token.length() <= SHORT_PREFIX) {
+            int[] postings = prefixPostings.get(token);
+            if (postings != null) {
+                for (int docId : postings) {
+                    set.set(docId);
+                }
+            }
+            return set;
+        }
+        int from = lowerBound(terms, token);
+        for (int i = from; i < terms.length && terms[i].startsWith(token); i++) {
+            for (int docId : termPostings[i]) {
+                set.set(docId);
+            }
+        }
+        return set;
+    }
+
+    // Comprobación directa sobre un documento, para los cambios que aún no están en el índice
+    static boolean matches(SearchDocument doc, List<String> queryTokens, CatalogQuery query) {
+        if (!queryTokens.isEmpty()) {
+            List<String> docTokens = tokens(doc.title());
+            for (String token : queryTokens) {
+                if (docTokens.stream().noneMatch(docToken -> docToken.startsWith(token))) {
+                    return false;
+                }
+            }
+        }
+        if (query.genres() != null && query.genres().stream().noneMatch(doc.genres()::contains)) {
+            return false;
+        }
+        if (query.categories() != null && (doc.category() == null || !query.categories().contains(doc.category()))) {
+            return false;
+        }
+        return inRange(doc.rating(), query.ratingFrom(), query.ratingTo())
+                && inRange(doc.popularity(), query.popularityFrom(), query.popularityTo())
+                && inRange(doc.releaseDate() != null ? (double) doc.releaseDate().toEpochDay() : null,
+                epochDay(query.releaseDateFrom()), epochDay(query.releaseDateTo()));
+    }
+
+    // Minúsculas, sin tildes y partido por cualquier carácter que no sea letra o dígito.
+    // Se recorre a mano: es lo más caro de construir el índice y casi todos los títulos son ASCII
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        List<String> tokens = new ArrayList<>(4);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static BitSet union(Map<String, BitSet> sets, Set<String> values) {
+        BitSet union = new BitSet();
+        for (String value : values) {
+            BitSet set = sets.get(value);
+            if (set != null) {
+                union.or(set);
+            }
+        }
+        return union;
+    }
+
+    // null equivale a "todos los documentos"
+    private static BitSet and(BitSet result, BitSet filter) {
+        if (filter == null) {
+            return result;
+        }
+        if (result == null) {
+            return filter;
+        }
+        result.and(filter);
+        return result;
+    }
+
+    private static boolean inRange(Double value, Double from, Double to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return value != null && (from == null || value >= from) && (to == null || value <= to);
+    }
+
+    private static Double epochDay(LocalDate date) {
+        return date != null ? (double) date.toEpochDay() : null;
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // Valores no nulos de una columna ordenados, con el docId de cada uno al lado
+    private record SortedColumn(double[] values, int[] docIds) {
+
+        static SortedColumn of(SearchDocument[] docs, Function<SearchDocument, Double> column) {
+            double[] all = new double[docs.length];
+            int present = 0;
+            for (int docId = 0; docId < docs.length; docId++) {
+                Double value = column.apply(docs[docId]);
+                all[docId] = value != null ? value : Double.NaN;
+                if (value != null) {
+                    present++;
+                }
+            }
+            int[] docIds = IntStream.range(0, docs.length)
+                    .filter(docId -> !Double.isNaN(all[docId]))
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(docId -> all[docId]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            double[] values = new double[present];
+            for (int i = 0; i < present; i++) {
+                values[i] = all[docIds[i]];
+            }
+            return new SortedColumn(values, docIds);
+        }
+
+        // Bitset del rango solo si es selectivo (menos de 1/16 del total); si no, null y se comprueba por documento.
+        // Los documentos sin valor quedan fuera de cualquier rango, como en SQL
+        BitSet selectiveRange(Double from, Double to) {
+            if (from == null && to == null) {
+                return null;
+            }
+            int lo = from != null ? firstAtLeast(from) : 0;
+            int hi = to != null ? firstAbove(to) : values.length;
+            if (hi - lo > values.length / 16) {
+                return null;
+            }
+            BitSet set = new BitSet();
+            for (int i = lo; i < hi; i++) {
+                set.set(docIds[i]);
+            }
+            return set;
+        }
+
+        private int firstAtLeast(double value) {
+            int lo = 0;
+            int hi = values.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int firstAbove(double value) {
+            int lo = 0;
+            int hi = values.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private static final class IntArrayBuilder {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addIfLast(int value) {
+            if (size == 0 || values[size - 1] != value) {
+                add(value);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        BitSet toBitSet() {
+            BitSet set = new BitSet();
+            for (int i = 0; i < size; i++) {
+                set.set(values[i]);
+            }
+            return set;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.garmanaz.vidaria.utils.search;
+
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Lo que el índice en memoria guarda de cada película o serie: solo los campos que se filtran
+// o se devuelven en las sugerencias. Géneros y categoría ya normalizados a minúsculas.
+public record SearchDocument(long id, String title, String image, LocalDate releaseDate,
+                             Double rating, Double popularity, Set<String> genres, String category) {
+
+    // Mismo orden que las búsquedas en base de datos: más populares primero, la valoración desempata
+    static final Comparator<SearchDocument> BY_POPULARITY = Comparator
+            .comparing(SearchDocument::popularity, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(SearchDocument::rating, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparingLong(SearchDocument::id);
+
+    public static SearchDocument of(Movie movie) {
+        Category category = movie.getCategory();
+        return new SearchDocument(movie.getId(), movie.getTitle(), movie.getCover(), movie.getReleaseDate(),
+                movie.getRating(), movie.getPopularity(), genreNames(movie.getGenres()),
+                category != null && category.getName() != null ? category.getName().toLowerCase(Locale.ROOT) : null);
+    }
+
+    public static SearchDocument of(Serie serie) {
+        return new SearchDocument(serie.getId(), serie.getTitle(), serie.getPoster(), parseDate(serie.getReleaseDate()),
+                serie.getRating(), serie.getPopularity(), genreNames(serie.getGenreID()), null);
+    }
+
+    private static Set<String> genreNames(List<Genre> genres) {
+        if (genres == null) {
+            return Set.of();
+        }
+        return genres.stream()
+                .map(Genre::getName)
+                .filter(Objects::nonNull)
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    // Las series guardan la fecha de TMDB como texto (yyyy-MM-dd, a veces vacía)
+    private static LocalDate parseDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
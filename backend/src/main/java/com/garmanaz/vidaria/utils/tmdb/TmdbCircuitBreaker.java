@@ -0,0 +1,151 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Circuito hacia TMDB: tras failureThreshold fallos seguidos (ya agotados los reintentos) se abre y durante
+// openDuration las llamadas fallan al instante con TmdbUnavailableException. Pasado ese tiempo deja pasar
+// una sola llamada de prueba: si sale bien se cierra y si falla vuelve a abrirse.
+@Component
+public class TmdbCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TmdbCircuitBreaker.class);
+
+    enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Counter shortCircuited;
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openUntil = Instant.MIN;
+    private boolean trialInFlight;
+
+    Clock clock = Clock.systemUTC();
+
+    public TmdbCircuitBreaker(MeterRegistry meterRegistry,
+                              @Value("${tmdb.client.circuit.failure-threshold:5}") int failureThreshold,
+                              @Value("${tmdb.client.circuit.open-duration:PT30S}") Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.shortCircuited = Counter.builder("tmdb.requests").tag("outcome", "short_circuited").register(meterRegistry);
+        Gauge.builder("tmdb.circuit.state", this, breaker -> breaker.state().ordinal()).register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> request) {
+        boolean trial = acquire();
+        boolean settled = false;
+        try {
+            T result = request.get();
+            onSuccess();
+            settled = true;
+            return result;
+        } catch (RuntimeException e) {
+            // Los 4xx (salvo 429) son respuestas de TMDB: el servicio está disponible
+            if (isOutage(e)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            settled = true;
+            throw e;
+        } finally {
+            // Un Error o una interrupción no deciden nada, pero la prueba deja de estar en curso:
+            // si no, el circuito se quedaría medio abierto rechazando todas las siguientes
+            if (trial && !settled) {
+                releaseTrial();
+            }
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // true si esta llamada es la prueba del estado medio abierto
+    private boolean acquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && !clock.instant().isBefore(openUntil)) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == State.OPEN || (state == State.HALF_OPEN && trialInFlight)) {
+                shortCircuited.increment();
+                throw new TmdbUnavailableException("TMDB circuit is open");
+            }
+            if (state == State.HALF_OPEN) {
+                trialInFlight = true;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseTrial() {
+        lock.lock();
+        try {
+            trialInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess() {
+        lock.lock();
+        try {
+            if (state != State.CLOSED) {
+                logger.info("TMDB circuit closed");
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure() {
+        lock.lock();
+        try {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                if (state != State.OPEN) {
+                    logger.warn("TMDB circuit opened for {} after {} consecutive failures", openDuration, consecutiveFailures);
+                }
+                state = State.OPEN;
+                openUntil = clock.instant().plus(openDuration);
+                trialInFlight = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof HttpServerErrorException || e instanceof ResourceAccessException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+}
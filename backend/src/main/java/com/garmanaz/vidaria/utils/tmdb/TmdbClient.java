@@ -0,0 +1,213 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+import com.garmanaz.vidaria.DTO.ChangesResponse;
+import com.garmanaz.vidaria.DTO.MovieResponse;
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Punto único de acceso a TMDB para los detalles de películas y series.
+// Con append_to_response los vídeos (y opcionalmente los créditos) llegan en la misma respuesta
+// que los detalles: una sola petición por título en vez de una por recurso.
+// Todas las llamadas pasan por el circuito de TMDB. Las variantes *Async se ejecutan en el executor de TMDB
+// (hilos virtuales acotados) y fallan si no terminan en callTimeout; fanOut las lanza en paralelo con un tope.
+@Component
+public class TmdbClient {
+
+    public enum Append {
+        VIDEOS("videos"),
+        CREDITS("credits");
+
+        private final String value;
+
+        Append(String value) {
+            this.value = value;
+        }
+    }
+
+    private final TmdbRequestExecutor requestExecutor;
+    private final String apiUrl;
+    private final String apiKey;
+    private final TmdbCircuitBreaker circuitBreaker;
+    private final Executor tmdbExecutor;
+    private final Duration callTimeout;
+    private final int fanOut;
+
+    public TmdbClient(TmdbRequestExecutor requestExecutor,
+                      @Value("${tmdb.api.url}") String apiUrl,
+                      @Value("${tmdb.api.key}") String apiKey,
+                      TmdbCircuitBreaker circuitBreaker,
+                      @Qualifier("tmdbExecutor") Executor tmdbExecutor,
+                      @Value("${tmdb.client.call-timeout:PT5S}") Duration callTimeout,
+                      @Value("${tmdb.client.fan-out:8}") int fanOut) {
+        this.requestExecutor = requestExecutor;
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.circuitBreaker = circuitBreaker;
+        this.tmdbExecutor = tmdbExecutor;
+        this.callTimeout = callTimeout;
+        this.fanOut = fanOut;
+    }
+
+    // Devuelve null si la serie no existe en TMDB
+    public SerieResponse.SerieDetails serieDetails(Long id, Append... append) {
+        return get(url("/tv/" + id, append), SerieResponse.SerieDetails.class);
+    }
+
+    public CompletableFuture<SerieResponse.SerieDetails> serieDetailsAsync(Long id, Append... append) {
+        return getAsync(url("/tv/" + id, append), SerieResponse.SerieDetails.class);
+    }
+
+    public SerieResponse.SerieDetails.SerieTrailer serieVideos(Long id) {
+        return get(url("/tv/" + id + "/videos"), SerieResponse.SerieDetails.SerieTrailer.class);
+    }
+
+    public CompletableFuture<SerieResponse.SerieDetails.SerieTrailer> serieVideosAsync(Long id) {
+        return getAsync(url("/tv/" + id + "/videos"), SerieResponse.SerieDetails.SerieTrailer.class);
+    }
+
+    // Devuelve null si la película no existe en TMDB
+    public MovieResponse.MovieDetails movieDetails(Long id, Append... append) {
+        return get(url("/movie/" + id, append), MovieResponse.MovieDetails.class);
+    }
+
+    public CompletableFuture<MovieResponse.MovieDetails> movieDetailsAsync(Long id, Append... append) {
+        return getAsync(url("/movie/" + id, append), MovieResponse.MovieDetails.class);
+    }
+
+    public SerieResponse discoverSeries(String genre) {
+        return get(url("/discover/tv") + "&with_genres=" + genre, SerieResponse.class);
+    }
+
+    public MovieResponse.GenreResponse movieGenres() {
+        return get(url("/genre/movie/list"), MovieResponse.GenreResponse.class);
+    }
+
+    public SerieResponse.SerieDetails.GenreResponse serieGenres() {
+        return get(url("/genre/tv/list"), SerieResponse.SerieDetails.GenreResponse.class);
+    }
+
+    // Ids de películas ("movie") o series ("tv") modificados entre start y end (máximo 14 días)
+    public ChangesResponse changes(String type, LocalDate start, LocalDate end, int page) {
+        return get(url("/" + type + "/changes") + "&start_date=" + start + "&end_date=" + end + "&page=" + page,
+                ChangesResponse.class);
+    }
+
+    // Para URLs ya construidas (listados por categoría); pasan por el mismo límite de peticiones y el mismo circuito
+    public <T> T get(String url, Class<T> responseType) {
+        return circuitBreaker.call(() -> requestExecutor.get(url, responseType));
+    }
+
+    // El tiempo límite solo libera a quien espera: la petición sigue hasta su propio timeout de lectura
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return CompletableFuture.supplyAsync(() -> get(url, responseType), tmdbExecutor)
+                .orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Aplica call a cada elemento con como mucho fanOut llamadas a la vez y devuelve los resultados en orden.
+    // Si una llamada falla, falla el conjunto: quien quiera degradar debe recuperarse en cada elemento.
+    public <T, R> CompletableFuture<List<R>> fanOut(List<T> items, Function<T, CompletableFuture<R>> call) {
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(items.size());
+        AtomicInteger next = new AtomicInteger();
+        CompletableFuture<?>[] lanes = IntStream.range(0, Math.min(fanOut, items.size()))
+                .mapToObj(lane -> lane(items, call, next, results))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(lanes)
+                .thenApply(done -> IntStream.range(0, items.size()).mapToObj(results::get).toList());
+    }
+
+    // Cada carril toma el siguiente elemento libre en cuanto termina el anterior
+    private static <T, R> CompletableFuture<Void> lane(List<T> items, Function<T, CompletableFuture<R>> call,
+                                                       AtomicInteger next, AtomicReferenceArray<R> results) {
+        int index = next.getAndIncrement();
+        if (index >= items.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<R> result;
+        try {
+            result = call.apply(items.get(index));
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.thenCompose(value -> {
+            results.set(index, value);
+            return lane(items, call, next, results);
+        });
+    }
+
+    // Espera el resultado de una llamada asíncrona; un tiempo límite agotado se trata como TMDB no disponible
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new TmdbUnavailableException("TMDB call timed out");
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    String url(String path, Append... append) {
+        String url = apiUrl + path + "?api_key=" + apiKey;
+        if (append.length > 0) {
+            url += "&append_to_response=" + Arrays.stream(append).map(a -> a.value).distinct().collect(Collectors.joining(","));
+        }
+        return url;
+    }
+
+    public static String trailerUrl(SerieResponse.SerieDetails.SerieTrailer videos) {
+        if (videos == null || videos.getResults() == null) {
+            return null;
+        }
+        return videos.getResults().stream()
+                .filter(video -> "Trailer".equals(video.getType()))
+                .map(video -> youtubeUrl(video.getKey()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public static String trailerUrl(MovieResponse.MovieVideosResponse videos) {
+        if (videos == null || videos.getResults() == null) {
+            return null;
+        }
+        return videos.getResults().stream()
+                .filter(video -> "Trailer".equals(video.getType()))
+                .map(video -> youtubeUrl(video.getKey()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public static String director(MovieResponse.Credits credits) {
+        if (credits == null || credits.getCrew() == null) {
+            return null;
+        }
+        return credits.getCrew().stream()
+                .filter(member -> "Director".equals(member.getJob()))
+                .map(MovieResponse.Credits.CrewMember::getName)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String youtubeUrl(String key) {
+        return "https://www.youtube.com/watch?v=" + key;
+    }
+}
@@ -0,0 +1,148 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+import com.garmanaz.vidaria.utils.http.ConditionalCacheInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Todas las llamadas salientes a TMDB pasan por aquí:
+// - token bucket global con el límite de peticiones por segundo de TMDB
+// - como mucho maxInFlight peticiones abiertas a la vez
+// - reintentos con backoff exponencial y jitter completo ante 429, 5xx o errores de red (respeta Retry-After)
+// Las respuestas frescas de la caché HTTP no salen a la red: no esperan turno ni ocupan plaza
+@Component
+public class TmdbRequestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TmdbRequestExecutor.class);
+
+    private final RestTemplate restTemplate;
+    private final ConditionalCacheInterceptor responseCache;
+    private final TokenBucket tokenBucket;
+    private final Semaphore inFlight;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Counter successes;
+    private final Counter notFound;
+    private final Counter retries;
+    private final Counter failures;
+
+    public TmdbRequestExecutor(RestTemplate restTemplate, MeterRegistry meterRegistry,
+                               @Value("${tmdb.client.requests-per-second:40}") double requestsPerSecond,
+                               @Value("${tmdb.client.burst:20}") int burst,
+                               @Value("${tmdb.client.max-in-flight:16}") int maxInFlight,
+                               @Value("${tmdb.client.retry.max-attempts:4}") int maxAttempts,
+                               @Value("${tmdb.client.retry.base-delay:PT0.25S}") Duration baseDelay,
+                               @Value("${tmdb.client.retry.max-delay:PT5S}") Duration maxDelay,
+                               Optional<ConditionalCacheInterceptor> responseCache) {
+        this.restTemplate = restTemplate;
+        this.responseCache = responseCache.orElse(null);
+        this.tokenBucket = new TokenBucket(burst, requestsPerSecond);
+        this.inFlight = new Semaphore(maxInFlight, true);
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.successes = Counter.builder("tmdb.requests").tag("outcome", "success").register(meterRegistry);
+        this.notFound = Counter.builder("tmdb.requests").tag("outcome", "not_found").register(meterRegistry);
+        this.retries = Counter.builder("tmdb.requests").tag("outcome", "retry").register(meterRegistry);
+        this.failures = Counter.builder("tmdb.requests").tag("outcome", "failure").register(meterRegistry);
+    }
+
+    // Devuelve null si TMDB responde 404
+    public <T> T get(String url, Class<T> responseType) {
+        for (int attempt = 1; ; attempt++) {
+            Duration retryAfter;
+            try {
+                T body = execute(url, responseType);
+                successes.increment();
+                return body;
+            } catch (HttpClientErrorException.NotFound e) {
+                notFound.increment();
+                return null;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                retryAfter = retryAfter(e.getResponseHeaders());
+                if (attempt >= maxAttempts) {
+                    failures.increment();
+                    throw e;
+                }
+            } catch (HttpServerErrorException | ResourceAccessException e) {
+                retryAfter = Duration.ZERO;
+                if (attempt >= maxAttempts) {
+                    failures.increment();
+                    throw e;
+                }
+            }
+
+            retries.increment();
+            Duration delay = backoff(attempt);
+            if (retryAfter.compareTo(delay) > 0) {
+                delay = retryAfter;
+            }
+            logger.debug("Retrying TMDB request {} in {} ms (attempt {})", stripApiKey(url), delay.toMillis(), attempt + 1);
+            sleep(delay);
+        }
+    }
+
+    private <T> T execute(String url, Class<T> responseType) {
+        // Si caduca justo entre la comprobación y la llamada, esa única petición sale sin turno
+        if (responseCache != null && responseCache.isFresh(url)) {
+            return restTemplate.getForObject(url, responseType);
+        }
+        try {
+            tokenBucket.acquire();
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a TMDB request slot", e);
+        }
+        try {
+            return restTemplate.getForObject(url, responseType);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    // Jitter completo: aleatorio entre 0 y min(maxDelay, baseDelay * 2^(intento-1))
+    Duration backoff(int attempt) {
+        long ceiling = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static Duration retryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a TMDB request", e);
+        }
+    }
+
+    private static String stripApiKey(String url) {
+        return url.replaceAll("api_key=[^&]*", "api_key=***");
+    }
+}
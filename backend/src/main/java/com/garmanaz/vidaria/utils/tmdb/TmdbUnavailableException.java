@@ -0,0 +1,9 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+// El circuito hacia TMDB está abierto: la llamada se rechaza sin salir de la aplicación
+public class TmdbUnavailableException extends RuntimeException {
+
+    public TmdbUnavailableException(String message) {
+        super(message);
+    }
+}
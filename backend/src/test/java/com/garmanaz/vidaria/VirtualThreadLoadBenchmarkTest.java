@@ -0,0 +1,193 @@
+package com.garmanaz.vidaria;
+
+import com.garmanaz.vidaria.services.CacheWarmupService;
+import com.garmanaz.vidaria.utils.tmdb.TmdbStubServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Máximo de peticiones por segundo sostenibles con hilos de plataforma (Tomcat, 200 hilos) y con hilos virtuales
+// en /movies/{id} y /series/type/{type}. Arranca la aplicación entera una vez por modo, con H2, el Redis indicado
+// y un TMDB simulado con latencia, y sube la concurrencia por escalones hasta que el p99 supera el objetivo:
+// mvn test -Pbenchmark -Dvidaria.benchmark.redis.host=localhost [-Dvidaria.benchmark.redis.port=6379]
+//     [-Dvidaria.benchmark.slo=PT0.5S] [-Dvidaria.benchmark.step=PT10S] [-Dvidaria.benchmark.tmdb-latency=PT0.05S]
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "vidaria.benchmark.redis.host", matches = ".+")
+public class VirtualThreadLoadBenchmarkTest {
+
+    private static final int MOVIES = 20_000;
+    private static final int[] CONCURRENCY = {50, 100, 200, 400, 800, 1600};
+    private static final Duration SLO = Duration.parse(System.getProperty("vidaria.benchmark.slo", "PT0.5S"));
+    private static final Duration STEP = Duration.parse(System.getProperty("vidaria.benchmark.step", "PT10S"));
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+
+    private static TmdbStubServer tmdb;
+    private static HttpClient httpClient;
+    private static ExecutorService clients;
+
+    @BeforeAll
+    static void startTmdb() {
+        tmdb = TmdbStubServer.start()
+                .stub("/tv/popular\\?page=1", "tv-popular-1.json")
+                .stub("/tv/\\d+/videos", "tv-videos.json")
+                .stub("/tv/66732", "tv-66732.json")
+                .stub("/tv/1396", "tv-1396.json")
+                .stub("/tv/94605", "tv-94605.json")
+                .latency(Duration.parse(System.getProperty("vidaria.benchmark.tmdb-latency", "PT0.05S")));
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder().executor(clients).connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @AfterAll
+    static void stopTmdb() {
+        tmdb.close();
+        clients.shutdownNow();
+    }
+
+    record Step(int concurrency, double rps, long p99Millis, long errors) {
+
+        boolean sustainable() {
+            return errors == 0 && p99Millis <= SLO.toMillis();
+        }
+    }
+
+    @Test
+    public void comparePlatformWithVirtualThreads() {
+        Map<String, Double> platform = run(false);
+        Map<String, Double> virtual = run(true);
+
+        System.out.printf("%n%-22s %16s %16s%n", "endpoint", "platform rps", "virtual rps");
+        platform.forEach((endpoint, rps) -> System.out.printf("%-22s %16.0f %16.0f%n", endpoint, rps, virtual.get(endpoint)));
+
+        // La ingesta espera a TMDB en casi todo su tiempo: con hilos virtuales no debe sostener menos carga
+        assertTrue(virtual.get("/series/type/popular") >= platform.get("/series/type/popular") * 0.9);
+    }
+
+    private Map<String, Double> run(boolean virtualThreads) {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VidariaApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "spring.data.redis.host=" + System.getProperty("vidaria.benchmark.redis.host"),
+                        "spring.data.redis.port=" + System.getProperty("vidaria.benchmark.redis.port", "6379"),
+                        "tmdb.api.url=" + tmdb.baseUrl(),
+                        "vidaria.cache.warmup.enabled=false",
+                        // L1 pequeña: la mayoría de lecturas de /movies/{id} llegan a Redis
+                        "vidaria.cache.movie.local.max-size=100",
+                        "vidaria.threads.pinning.enabled=" + virtualThreads,
+                        "logging.level.com.garmanaz.vidaria=WARN")
+                .run()) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port;
+
+            Map<String, Double> results = new LinkedHashMap<>();
+            results.put("/movies/{id}", maxSustainable(mode, "/movies/{id}",
+                    () -> URI.create(base + "/movies/" + ThreadLocalRandom.current().nextInt(1, MOVIES + 1))));
+            results.put("/series/type/popular", maxSustainable(mode, "/series/type/popular",
+                    () -> URI.create(base + "/series/type/popular?maxPages=1")));
+
+            Timer pinned = context.getBean(MeterRegistry.class).find("jvm.threads.virtual.pinned").timer();
+            if (virtualThreads) {
+                System.out.printf("%s: virtual threads pinned %d times (see the log for the stack of each site)%n",
+                        mode, pinned != null ? pinned.count() : 0);
+            }
+            return results;
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO category (id, name) VALUES (1, 'popular')");
+        List<Object[]> rows = new ArrayList<>(MOVIES);
+        for (int id = 1; id <= MOVIES; id++) {
+            rows.add(new Object[]{id, "Movie " + id, (id % 100) / 10.0, (id * 7919 % 100000) / 100.0});
+        }
+        jdbc.batchUpdate("INSERT INTO movie (id, title, rating, popularity, category_id) VALUES (?, ?, ?, ?, 1)", rows);
+        // El filtro de ids conocidos se construyó al arrancar, con la base de datos vacía
+        context.getBean(CacheWarmupService.class).rebuildKnownIds();
+    }
+
+    private double maxSustainable(String mode, String endpoint, Supplier<URI> uris) {
+        load(50, WARMUP, uris);
+        double best = 0;
+        for (int concurrency : CONCURRENCY) {
+            Step step = load(concurrency, STEP, uris);
+            System.out.printf("%-8s %-22s c=%-5d %8.0f rps  p99 %5d ms  errors %d%n", mode, endpoint,
+                    step.concurrency(), step.rps(), step.p99Millis(), step.errors());
+            if (!step.sustainable()) {
+                break;
+            }
+            best = Math.max(best, step.rps());
+        }
+        return best;
+    }
+
+    // Carga en bucle cerrado: cada cliente lanza la siguiente petición al recibir la respuesta
+    private static Step load(int concurrency, Duration duration, Supplier<URI> uris) {
+        long end = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<List<Long>> latencies = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            List<Long> samples = new ArrayList<>();
+            latencies.add(samples);
+            workers.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uris.get())
+                                .timeout(Duration.ofSeconds(30)).GET().build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    samples.add(System.nanoTime() - start);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long[] all = latencies.stream().flatMap(List::stream).mapToLong(Long::longValue).sorted().toArray();
+        double rps = all.length / (duration.toNanos() / 1e9);
+        long p99 = all.length == 0 ? Long.MAX_VALUE : TimeUnit.NANOSECONDS.toMillis(all[(int) (all.length * 0.99)]);
+        return new Step(concurrency, rps, p99, errors.get());
+    }
+}
@@ -1,12 +1,21 @@
 package com.garmanaz.vidaria.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.GenreSnapshot;
+import com.garmanaz.vidaria.DTO.MovieCard;
 import com.garmanaz.vidaria.entities.Category;
 import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.repositories.CountStrategy;
+import com.garmanaz.vidaria.services.CatalogIndexService;
+import com.garmanaz.vidaria.services.FeaturedMoviesService;
 import com.garmanaz.vidaria.services.MovieCacheService;
 import com.garmanaz.vidaria.services.MovieService;
 import com.garmanaz.vidaria.services.SerieService;
 import com.garmanaz.vidaria.utils.JWT.JwtTokenUtil;
+import com.garmanaz.vidaria.utils.search.CatalogQuery;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,11 +30,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -49,6 +62,12 @@ public class MovieControllerTest {
     @MockBean
     private MovieCacheService movieCacheService;
 
+    @MockBean
+    private CatalogIndexService catalogIndexService;
+
+    @MockBean
+    private FeaturedMoviesService featuredMoviesService;
+
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
 
@@ -63,21 +82,13 @@ public class MovieControllerTest {
         String title = "Terminator";
         Pageable pageable = PageRequest.of(0, 20);
 
-        Movie terminator = Movie.builder()
-                .id(1L)
-                .title("Terminator")
-                .category(Category.builder().name("Action").build())
-                .build();
+        MovieCard terminator = card(1L, "Terminator", "Action");
 
-        Movie forrestGump = Movie.builder()
-                .id(2L)
-                .title("Forrest Gump")
-                .category(Category.builder().name("Drama").build())
-                .build();
+        MovieCard forrestGump = card(2L, "Forrest Gump", "Drama");
 
-        List<Movie> movies = List.of(terminator, forrestGump);
+        List<MovieCard> movies = List.of(terminator, forrestGump);
 
-        Page<Movie> myMoviePage = new PageImpl<>(movies, pageable, movies.size());
+        Page<MovieCard> myMoviePage = new PageImpl<>(movies, pageable, movies.size());
 
         when(movieService.searchMovies(title, null, null, null, null, null, null, null, null, pageable)).thenReturn(myMoviePage);
 
@@ -85,33 +96,44 @@ public class MovieControllerTest {
                         .param("title", title)
                         .param("page", "0")
                         .param("size", "20"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                // La cabecera de la home pinta la descripción y abre el tráiler de estos resultados
+                .andExpect(jsonPath("$.content[0].description").value("Terminator description"))
+                .andExpect(jsonPath("$.content[0].trailer").value("https://www.youtube.com/watch?v=1"));
 
         verify(movieService, times(1)).searchMovies(title, null, null, null, null, null, null, null, null, pageable);
 
     }
 
+    @Test
+    void suggestMoviesTest() throws Exception {
+        SearchDocument inception = new SearchDocument(27205L, "Inception", "/cover.jpg", null, 8.4, 90.0, Set.of("action"), "popular");
+        CatalogQuery query = CatalogQuery.of("incep", List.of("Action"), null, null, null, null, null, null, null, 5);
+        when(catalogIndexService.suggestMovies(query)).thenReturn(List.of(inception));
+
+        mockMvc.perform(get("/movies/suggest").param("q", "incep").param("genres", "Action").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(27205))
+                .andExpect(jsonPath("$[0].title").value("Inception"));
+
+        when(catalogIndexService.suggestMovies(any())).thenThrow(new IllegalStateException("loading"));
+        mockMvc.perform(get("/movies/suggest").param("q", "incep"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void getBestMoviesByGenreTest() throws Exception {
         String genre = "Action";
         Pageable pageable = PageRequest.of(0, 20);
 
-        Movie terminator = Movie.builder()
-                .id(1L)
-                .title("Terminator")
-                .category(Category.builder().name("Action").build())
-                .build();
+        MovieCard terminator = card(1L, "Terminator", "Action");
 
-        Movie forrestGump = Movie.builder()
-                .id(2L)
-                .title("Forrest Gump")
-                .category(Category.builder().name("Drama").build())
-                .build();
+        MovieCard forrestGump = card(2L, "Forrest Gump", "Drama");
 
 
-        List<Movie> movies = List.of(terminator, forrestGump);
+        List<MovieCard> movies = List.of(terminator, forrestGump);
 
-        Page<Movie> myMoviePage = new PageImpl<>(movies, pageable, movies.size());
+        Page<MovieCard> myMoviePage = new PageImpl<>(movies, pageable, movies.size());
 
         when(movieService.getBestMoviesByGenres(genre, pageable)).thenReturn(myMoviePage);
 
@@ -129,20 +151,12 @@ public class MovieControllerTest {
     void getMoviesTest() throws Exception {
         Pageable pageable = PageRequest.of(0, 10);
 
-        Movie terminator = Movie.builder()
-                .id(1L)
-                .title("Terminator")
-                .category(Category.builder().name("Action").build())
-                .build();
+        MovieCard terminator = card(1L, "Terminator", "Action");
 
-        Movie forrestGump = Movie.builder()
-                .id(2L)
-                .title("Forrest Gump")
-                .category(Category.builder().name("Drama").build())
-                .build();
+        MovieCard forrestGump = card(2L, "Forrest Gump", "Drama");
 
 
-        Page<Movie> myMoviePage = new PageImpl<>(List.of(terminator, forrestGump), pageable, 2);
+        Page<MovieCard> myMoviePage = new PageImpl<>(List.of(terminator, forrestGump), pageable, 2);
 
         when(movieService.getPaginatedMovies(pageable)).thenReturn(myMoviePage);
 
@@ -150,11 +164,57 @@ public class MovieControllerTest {
         mockMvc.perform(get("/movies").with(csrf())
                         .param("page", "0")
                         .param("size", "10"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].category.name").value("Action"))
+                .andExpect(jsonPath("$.content[0].genres[0].name").value("Action"))
+                .andExpect(jsonPath("$.content[0].description").value("Terminator description"))
+                .andExpect(jsonPath("$.content[0].trailer").exists());
 
         verify(movieService, times(1)).getPaginatedMovies(pageable);
     }
 
+    @Test
+    void getMoviesWithCursorTest() throws Exception {
+        Pageable pageable = PageRequest.of(0, 10);
+        MovieCard terminator = card(1L, "Terminator", "Action");
+
+        when(movieService.getMoviesAfter("", pageable)).thenReturn(CursorPage.of(List.of(terminator), 10, "next"));
+        when(movieService.getMoviesAfter("broken", pageable)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/movies").param("cursor", "").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Terminator"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        mockMvc.perform(get("/movies").param("cursor", "broken").param("size", "10"))
+                .andExpect(status().isBadRequest());
+
+        verify(movieService, never()).getPaginatedMovies(any());
+    }
+
+    @Test
+    void getMoviesByCategoryWithCountStrategyTest() throws Exception {
+        Pageable pageable = PageRequest.of(0, 10);
+        MovieCard terminator = card(1L, "Terminator", "Action");
+
+        when(movieService.getMoviesByCategory("popular", pageable, CountStrategy.NONE))
+                .thenReturn(CountedPage.of(List.of(terminator), pageable, null, true, "none", false));
+
+        mockMvc.perform(get("/movies/category/popular").param("count", "none").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Terminator"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.count").value("none"))
+                .andExpect(jsonPath("$.exact").value(false));
+
+        mockMvc.perform(get("/movies/category/popular").param("count", "approx").param("size", "10"))
+                .andExpect(status().isBadRequest());
+
+        verify(movieService, never()).getMoviesByCategory(any(), any());
+    }
+
 
     @Test
     void getMovieByIdTest() throws Exception {
@@ -177,6 +237,23 @@ public class MovieControllerTest {
 
     }
 
+    @Test
+    void getFeaturedMoviesTest() throws Exception {
+        Movie inception = Movie.builder().id(27205L).title("Inception").build();
+        when(featuredMoviesService.getFeatured()).thenReturn(new FeaturedMoviesService.Featured(
+                "abc", Instant.now(), 90.0, List.of(inception), Set.of(27205L)));
+
+        mockMvc.perform(get("/movies/featured"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(jsonPath("$[0].title").value("Inception"));
+
+        // El cliente ya tiene esta versión: 304 sin cuerpo
+        mockMvc.perform(get("/movies/featured").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void deleteMovieByIdTest() throws Exception {
         Long filmId = 1L;
@@ -190,4 +267,10 @@ public class MovieControllerTest {
     }
 
 
+
+    private static MovieCard card(Long id, String title, String genre) {
+        return new MovieCard(id, title, title + " description", "/cover.jpg", null, null, 8.0, 50.0,
+                "https://www.youtube.com/watch?v=" + id, new MovieCard.CategoryRef(1L, genre),
+                List.of(new GenreSnapshot(28L, genre)));
+    }
 }
@@ -1,7 +1,10 @@
 package com.garmanaz.vidaria.controllers;
 
+import com.garmanaz.vidaria.DTO.GenreSnapshot;
+import com.garmanaz.vidaria.DTO.SerieCard;
 import com.garmanaz.vidaria.entities.Genre;
 import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.services.CatalogIndexService;
 import com.garmanaz.vidaria.services.SerieService;
 import com.garmanaz.vidaria.utils.JWT.JwtTokenUtil;
 import org.junit.jupiter.api.Test;
@@ -36,6 +39,9 @@ public class SerieControllerTest {
     @MockBean
     private SerieService serieService;
 
+    @MockBean
+    private CatalogIndexService catalogIndexService;
+
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
 
@@ -106,9 +112,9 @@ public class SerieControllerTest {
     @Test
     void searchSerieTest() throws Exception {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Serie> seriesPage = new PageImpl<>(List.of(
-                Serie.builder().id(1L).title("Serie 1").build(),
-                Serie.builder().id(2L).title("Serie 2").build()
+        Page<SerieCard> seriesPage = new PageImpl<>(List.of(
+                card(1L, "Serie 1"),
+                card(2L, "Serie 2")
         ));
 
         // Ajusta todos los argumentos como matchers
@@ -156,9 +162,9 @@ public class SerieControllerTest {
     void getBestSeriesByGenresTest() throws Exception {
         Pageable pageable = PageRequest.of(0, 10);
         String genre = "Action";
-        Page<Serie> seriesPage = new PageImpl<>(List.of(
-                Serie.builder().id(1L).title("Serie 1").build(),
-                Serie.builder().id(2L).title("Serie 2").build()
+        Page<SerieCard> seriesPage = new PageImpl<>(List.of(
+                card(1L, "Serie 1"),
+                card(2L, "Serie 2")
         ));
 
         when(serieService.getBestSeriesByGenres(eq(genre), eq(pageable))).thenReturn(seriesPage);
@@ -177,9 +183,9 @@ public class SerieControllerTest {
     @Test
     void getSeriesTest() throws Exception {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Serie> seriesPage = new PageImpl<>(List.of(
-                Serie.builder().id(1L).title("Serie 1").build(),
-                Serie.builder().id(2L).title("Serie 2").build()
+        Page<SerieCard> seriesPage = new PageImpl<>(List.of(
+                card(1L, "Serie 1"),
+                card(2L, "Serie 2")
         ));
 
         when(serieService.getSeries(eq(pageable))).thenReturn(seriesPage);
@@ -190,7 +196,10 @@ public class SerieControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].title").value("Serie 1"))
-                .andExpect(jsonPath("$.content[1].title").value("Serie 2"));
+                .andExpect(jsonPath("$.content[1].title").value("Serie 2"))
+                .andExpect(jsonPath("$.content[0].release_date").value("2008-01-20"))
+                .andExpect(jsonPath("$.content[0].genre_id[0].name").value("Drama"))
+                .andExpect(jsonPath("$.content[0].seasons").doesNotExist());
 
         verify(serieService, times(1)).getSeries(eq(pageable));
     }
@@ -198,9 +207,9 @@ public class SerieControllerTest {
     @Test
     void getMostPopularAndTopRatedTest() throws Exception {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Serie> seriesPage = new PageImpl<>(List.of(
-                Serie.builder().id(1L).title("Serie 1").build(),
-                Serie.builder().id(2L).title("Serie 2").build()
+        Page<SerieCard> seriesPage = new PageImpl<>(List.of(
+                card(1L, "Serie 1"),
+                card(2L, "Serie 2")
         ));
 
         when(serieService.getMostPopularAndTopRated(eq(pageable))).thenReturn(seriesPage);
@@ -215,4 +224,8 @@ public class SerieControllerTest {
 
         verify(serieService, times(1)).getMostPopularAndTopRated(eq(pageable));
     }
-}
\ No newline at end of file
+
+    private static SerieCard card(Long id, String title) {
+        return new SerieCard(id, title, "/poster.jpg", null, "2008-01-20", 8.5, 90.0, List.of(new GenreSnapshot(18L, "Drama")));
+    }
+}
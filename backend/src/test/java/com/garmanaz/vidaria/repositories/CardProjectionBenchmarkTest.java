@@ -0,0 +1,127 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garmanaz.vidaria.DTO.MovieCard;
+import com.garmanaz.vidaria.DTO.SerieCard;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Una página de listado (20) cargando entidades frente a la vista de tarjeta, incluida la serialización JSON:
+// mvn test -Pbenchmark -Dtest=CardProjectionBenchmarkTest
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class CardProjectionBenchmarkTest {
+
+    private static final int TITLES = 2_000;
+    private static final int SEASONS = 8;
+    private static final int ITERATIONS = 300;
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SerieRepository serieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private record Result(long statements, long loaded, long allocated, int bytes) {
+    }
+
+    @Test
+    public void compareEntitiesWithCards() throws Exception {
+        seed();
+
+        Result movies = measure(() -> movieRepository.searchMovies(null, null, null, null, null, null, null, null, null, PAGE, Movie.class));
+        Result movieCards = measure(() -> movieRepository.searchMovies(null, null, null, null, null, null, null, null, null, PAGE, MovieCard.class));
+        Result series = measure(() -> serieRepository.searchSeries(null, null, null, null, null, null, null, null, PAGE, Serie.class));
+        Result serieCards = measure(() -> serieRepository.searchSeries(null, null, null, null, null, null, null, null, PAGE, SerieCard.class));
+
+        System.out.printf("%-12s %10s %16s %14s %14s%n", "listing", "queries", "entities+colls", "heap bytes", "json bytes");
+        print("Movie", movies);
+        print("MovieCard", movieCards);
+        print("Serie", series);
+        print("SerieCard", serieCards);
+
+        assertTrue(movieCards.loaded() < movies.loaded() && movieCards.bytes() < movies.bytes());
+        assertTrue(serieCards.loaded() < series.loaded() && serieCards.bytes() < series.bytes());
+        assertTrue(serieCards.allocated() < series.allocated());
+    }
+
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular')");
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (1, 'Drama'), (2, 'Crime'), (3, 'Comedy'), (4, 'Action')");
+        List<Object[]> titles = new ArrayList<>();
+        List<Object[]> genres = new ArrayList<>();
+        List<Object[]> seasons = new ArrayList<>();
+        String overview = "Overview ".repeat(60);
+        for (long id = 1; id <= TITLES; id++) {
+            titles.add(new Object[]{id, "Title " + id, overview, "/poster" + id + ".jpg", "/backdrop" + id + ".jpg", (id % 100) / 10.0, (double) id});
+            for (long genre = 1; genre <= 3; genre++) {
+                genres.add(new Object[]{id, 1 + (id + genre) % 4});
+            }
+            for (long season = 1; season <= SEASONS; season++) {
+                seasons.add(new Object[]{id * 100 + season, "Season " + season, season, "/season" + season + ".jpg", id});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO movie (id, title, description, cover, background, rating, popularity, category_id) VALUES (?, ?, ?, ?, ?, ?, ?, 1)", titles);
+        jdbcTemplate.batchUpdate("INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, ?)", genres);
+        jdbcTemplate.batchUpdate("INSERT INTO serie (id, title, description, poster, backdrop, rating, popularity) VALUES (?, ?, ?, ?, ?, ?, ?)", titles);
+        jdbcTemplate.batchUpdate("INSERT INTO serie_genre (serie_id, genre_id) VALUES (?, ?)", genres);
+        jdbcTemplate.batchUpdate("INSERT INTO season (id, name, season_number, poster, serie_id) VALUES (?, ?, ?, ?, ?)", seasons);
+    }
+
+    // Cada muestra con el contexto de persistencia vacío, como una petición nueva; la memoria incluye el JSON
+    private Result measure(Supplier<Object> listing) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        int bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManager.clear();
+            bytes = JSON.writeValueAsBytes(listing.get()).length;
+        }
+        statistics.clear();
+        long allocated = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManager.clear();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            JSON.writeValueAsBytes(listing.get());
+            allocated += threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        return new Result(statistics.getPrepareStatementCount() / ITERATIONS,
+                (statistics.getEntityLoadCount() + statistics.getCollectionLoadCount()) / ITERATIONS,
+                allocated / ITERATIONS, bytes);
+    }
+
+    private static void print(String listing, Result result) {
+        System.out.printf("%-12s %10d %16d %14d %14d%n", listing, result.statements(), result.loaded(), result.allocated(), result.bytes());
+    }
+}
@@ -0,0 +1,114 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.GenreSnapshot;
+import com.garmanaz.vidaria.DTO.MovieCard;
+import com.garmanaz.vidaria.DTO.SerieCard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class CardProjectionTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SerieRepository serieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular')");
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (18, 'Drama'), (80, 'Crime'), (10765, 'Sci-Fi & Fantasy')");
+        jdbcTemplate.update("INSERT INTO movie (id, title, description, cover, background, release_date, rating, popularity, category_id) VALUES "
+                + "(278, 'The Shawshank Redemption', 'Two imprisoned men', '/shawshank.jpg', '/shawshank-bg.jpg', DATE '1994-09-23', 8.7, 90.0, 1), "
+                + "(13, 'Forrest Gump', 'Life is like a box', '/gump.jpg', null, DATE '1994-07-06', 8.5, 80.0, 1), "
+                + "(99, 'Untitled', null, null, null, null, null, 1.0, 1)");
+        jdbcTemplate.update("UPDATE movie SET trailer = 'https://www.youtube.com/watch?v=6hB3S9bIaco' WHERE id = 278");
+        jdbcTemplate.update("INSERT INTO movie_genre (movie_id, genre_id) VALUES (278, 18), (278, 80), (13, 18)");
+        jdbcTemplate.update("INSERT INTO serie (id, title, description, poster, backdrop, release_date, rating, popularity) VALUES "
+                + "(1396, 'Breaking Bad', 'A chemistry teacher', '/bb.jpg', '/bb-bg.jpg', '2008-01-20', 8.9, 300.0)");
+        jdbcTemplate.update("INSERT INTO serie_genre (serie_id, genre_id) VALUES (1396, 18), (1396, 80), (1396, 10765)");
+        jdbcTemplate.update("INSERT INTO season (id, name, season_number, serie_id) VALUES (1, 'Season 1', 1, 1396), (2, 'Season 2', 2, 1396)");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testMovieCardsKeepRequestedOrderAndAggregateGenres() {
+        List<MovieCard> cards = movieRepository.findMovieCards(List.of(13L, 99L, 278L, 404L));
+
+        assertEquals(List.of(13L, 99L, 278L), cards.stream().map(MovieCard::id).toList());
+        MovieCard shawshank = cards.get(2);
+        assertEquals("The Shawshank Redemption", shawshank.title());
+        assertEquals("Two imprisoned men", shawshank.description());
+        assertEquals("https://www.youtube.com/watch?v=6hB3S9bIaco", shawshank.trailer());
+        assertEquals("/shawshank.jpg", shawshank.cover());
+        assertEquals("/shawshank-bg.jpg", shawshank.background());
+        assertEquals(LocalDate.of(1994, 9, 23), shawshank.releaseDate());
+        assertEquals(new MovieCard.CategoryRef(1L, "popular"), shawshank.category());
+        assertEquals(List.of(new GenreSnapshot(80L, "Crime"), new GenreSnapshot(18L, "Drama")), shawshank.genres());
+        assertEquals(List.of(), cards.get(1).genres());
+
+        // Una sola consulta y ninguna entidad ni colección cargada
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    public void testSerieCardsSkipSeasons() {
+        Page<SerieCard> page = serieRepository.searchSeries(null, List.of("drama"), null, null, null, null, null, null,
+                PageRequest.of(0, 10), SerieCard.class);
+
+        SerieCard breakingBad = page.getContent().get(0);
+        assertEquals("2008-01-20", breakingBad.releaseDate());
+        assertEquals("/bb.jpg", breakingBad.poster());
+        assertEquals(List.of("Crime", "Drama", "Sci-Fi & Fantasy"), breakingBad.genres().stream().map(GenreSnapshot::name).toList());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    public void testSearchAndSeekReturnCardsInTheSameOrderAsEntities() {
+        Page<MovieCard> cards = movieRepository.searchMovies(null, null, List.of("popular"), null, null, null, null, null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Order.desc("rating"))), MovieCard.class);
+        CursorPage<MovieCard> seek = movieRepository.seekMovies(null, List.of("Drama"), null, null, null, null, null, null, null,
+                Keyset.POPULARITY, null, 10, MovieCard.class);
+        entityManager.clear();
+        List<Long> entities = movieRepository.searchMovies(null, null, List.of("popular"), null, null, null, null, null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Order.desc("rating")))).getContent().stream().map(movie -> movie.getId()).toList();
+
+        assertEquals(entities, cards.getContent().stream().map(MovieCard::id).toList());
+        assertEquals(3, cards.getTotalElements());
+        assertEquals(List.of(278L, 13L), seek.content().stream().map(MovieCard::id).toList());
+    }
+}
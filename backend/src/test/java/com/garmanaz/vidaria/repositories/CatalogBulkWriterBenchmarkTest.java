@@ -0,0 +1,162 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garmanaz.vidaria.DTO.MovieResponse;
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Importación de un volcado local de TMDB (una película por línea, JSON de /movie/{id}) en filas por segundo:
+// saveAll (merge: SELECT + INSERT por película) frente a la ruta masiva con JDBC.
+// mvn test -Pbenchmark -Dtest=CatalogBulkWriterBenchmarkTest
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(CatalogBulkWriter.class)
+public class CatalogBulkWriterBenchmarkTest {
+
+    private static final int TITLES = 100_000;
+    private static final int JPA_SAMPLE = 10_000;
+    private static final int CHUNK = 1_000;
+    private static final int GENRES_PER_TITLE = 3;
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Autowired
+    private CatalogBulkWriter catalogBulkWriter;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void importTmdbDump() throws Exception {
+        Path dump = writeDump(dir.resolve("movies.json"));
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'Uncategorized')");
+        for (long id = 1; id <= 19; id++) {
+            jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (?, ?)", id, "Genre " + id);
+        }
+        Category category = entityManager.find(Category.class, 1L);
+
+        double jpa = rowsPerSecond(dump, JPA_SAMPLE, chunk -> {
+            movieRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+        }, category);
+        jdbcTemplate.update("DELETE FROM movie_genre");
+        jdbcTemplate.update("DELETE FROM movie");
+
+        double inserted = rowsPerSecond(dump, TITLES, catalogBulkWriter::upsertMovies, category);
+        assertEquals(TITLES, jdbcTemplate.queryForObject("SELECT count(*) FROM movie", Integer.class));
+        // Segunda pasada sobre el mismo volcado: todo son conflictos que actualizan la fila
+        double updated = rowsPerSecond(dump, TITLES, catalogBulkWriter::upsertMovies, category);
+        assertEquals(TITLES * GENRES_PER_TITLE, jdbcTemplate.queryForObject("SELECT count(*) FROM movie_genre", Integer.class));
+
+        System.out.printf("%-22s %10s %14s%n", "path", "titles", "rows/sec");
+        System.out.printf("%-22s %10d %14.0f%n", "saveAll (merge)", JPA_SAMPLE, jpa);
+        System.out.printf("%-22s %10d %14.0f%n", "bulk upsert (insert)", TITLES, inserted);
+        System.out.printf("%-22s %10d %14.0f%n", "bulk upsert (update)", TITLES, updated);
+
+        assertTrue(inserted > jpa, "bulk " + inserted + " rows/sec vs saveAll " + jpa);
+    }
+
+    // Filas escritas (película + géneros) por segundo, leyendo el volcado en bloques de CHUNK
+    private double rowsPerSecond(Path dump, int titles, Consumer<List<Movie>> write, Category category) throws IOException {
+        long start = System.nanoTime();
+        int read = 0;
+        try (BufferedReader reader = Files.newBufferedReader(dump)) {
+            List<Movie> chunk = new ArrayList<>(CHUNK);
+            String line;
+            while (read < titles && (line = reader.readLine()) != null) {
+                chunk.add(toMovie(JSON.readValue(line, MovieResponse.MovieDetails.class), category));
+                read++;
+                if (chunk.size() == CHUNK) {
+                    write.accept(chunk);
+                    chunk = new ArrayList<>(CHUNK);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write.accept(chunk);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return read * (1 + GENRES_PER_TITLE) / seconds;
+    }
+
+    private static Movie toMovie(MovieResponse.MovieDetails details, Category category) {
+        Movie movie = new Movie();
+        movie.setId(details.getId());
+        movie.setTitle(details.getTitle());
+        movie.setDescription(details.getOverview());
+        movie.setReleaseDate(details.getReleaseDate());
+        movie.setCover(details.getPosterPath());
+        movie.setBackground(details.getBackdropPath());
+        movie.setRating(details.getVoteAverage());
+        movie.setPopularity(details.getPopularity());
+        movie.setDuration(details.getRuntime());
+        movie.setCategory(category);
+        movie.setGenres(new ArrayList<>(details.getGenres().stream()
+                .map(genre -> new Genre(genre.getId(), genre.getName()))
+                .toList()));
+        return movie;
+    }
+
+    private static Path writeDump(Path dump) throws IOException {
+        String overview = "Overview ".repeat(30);
+        try (BufferedWriter writer = Files.newBufferedWriter(dump)) {
+            for (long id = 1; id <= TITLES; id++) {
+                Map<String, Object> movie = new LinkedHashMap<>();
+                movie.put("id", id);
+                movie.put("title", "Title " + id);
+                movie.put("overview", overview);
+                movie.put("release_date", LocalDate.of(1990, 1, 1).plusDays(id % 12_000).toString());
+                movie.put("poster_path", "/poster" + id + ".jpg");
+                movie.put("backdrop_path", "/backdrop" + id + ".jpg");
+                movie.put("vote_average", (id % 100) / 10.0);
+                movie.put("popularity", (double) (id % 5_000));
+                movie.put("runtime", 90 + id % 60);
+                movie.put("genres", List.of(genre(1 + id % 19), genre(1 + (id + 5) % 19), genre(1 + (id + 11) % 19)));
+                writer.write(JSON.writeValueAsString(movie));
+                writer.newLine();
+            }
+        }
+        return dump;
+    }
+
+    private static Map<String, Object> genre(long id) {
+        return Map.of("id", id, "name", "Genre " + id);
+    }
+}
@@ -0,0 +1,161 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Season;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.utils.search.CatalogChangedEvent;
+import com.garmanaz.vidaria.utils.search.CatalogIndexListener;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest(properties = "vidaria.ingest.batch-size=2")
+@ActiveProfiles("test")
+@Import(CatalogBulkWriter.class)
+@RecordApplicationEvents
+public class CatalogBulkWriterTest {
+
+    @Autowired
+    private CatalogBulkWriter catalogBulkWriter;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private final List<String> batches = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular')");
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (18, 'Drama'), (80, 'Crime'), (35, 'Comedy')");
+        // Un elemento por executeBatch: verbo y tabla de la sentencia
+        doAnswer(invocation -> {
+            int[][] result = (int[][]) invocation.callRealMethod();
+            String[] sql = invocation.<String>getArgument(0).split(" ");
+            for (int i = 0; i < result.length; i++) {
+                batches.add(sql[0] + " " + sql[2]);
+            }
+            return result;
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    public void testSeriesAreInsertedThenUpdatedWithSeasonsAndGenres() {
+        catalogBulkWriter.upsertSeries(List.of(
+                serie(1396L, "Breaking Bad", List.of(18L, 80L), 2),
+                serie(66732L, "Stranger Things", List.of(18L), 1)));
+
+        assertEquals(2, count("SELECT count(*) FROM serie"));
+        assertEquals(3, count("SELECT count(*) FROM season"));
+        assertEquals(3, count("SELECT count(*) FROM serie_genre"));
+
+        // Segunda ingesta del mismo título: se actualiza la fila, sus géneros se reemplazan y las temporadas nuevas se añaden
+        catalogBulkWriter.upsertSeries(List.of(serie(1396L, "Breaking Bad (2008)", List.of(35L), 3)));
+
+        assertEquals(2, count("SELECT count(*) FROM serie"));
+        assertEquals("Breaking Bad (2008)", jdbcTemplate.queryForObject("SELECT title FROM serie WHERE id = 1396", String.class));
+        assertEquals(List.of(35L), jdbcTemplate.queryForList("SELECT genre_id FROM serie_genre WHERE serie_id = 1396", Long.class));
+        assertEquals(3, count("SELECT count(*) FROM season WHERE serie_id = 1396"));
+        assertEquals(1, count("SELECT count(*) FROM serie_genre WHERE serie_id = 66732"));
+    }
+
+    @Test
+    public void testRowsAreSentInBatchesOfTheConfiguredSize() {
+        List<Movie> movies = LongStream.rangeClosed(1, 5).mapToObj(id -> movie(id, "Movie " + id, List.of(18L, 80L))).toList();
+
+        assertEquals(5, catalogBulkWriter.upsertMovies(movies));
+
+        // 5 películas y 10 filas de géneros en lotes de 2: ningún SELECT previo ni sentencias sueltas
+        assertEquals(3, batches.stream().filter(batch -> batch.endsWith(" movie")).count());
+        assertEquals(3, batches.stream().filter("DELETE movie_genre"::equals).count());
+        assertEquals(5, batches.stream().filter("INSERT movie_genre"::equals).count());
+        assertEquals(5, count("SELECT count(*) FROM movie"));
+        assertEquals(10, count("SELECT count(*) FROM movie_genre"));
+    }
+
+    @Test
+    public void testPendingJpaWritesAreFlushedBeforeRowsThatReferenceThem() {
+        Genre created = new Genre(99L, "Documentary");
+        entityManager.persist(created);
+
+        catalogBulkWriter.upsertMovies(List.of(movie(27205L, "Inception", List.of(18L, 99L))));
+
+        assertEquals(List.of(18L, 99L), jdbcTemplate.queryForList(
+                "SELECT genre_id FROM movie_genre WHERE movie_id = 27205 ORDER BY genre_id", Long.class));
+    }
+
+    @Test
+    public void testSearchIndexIsNotifiedOnlyAfterCommit() {
+        catalogBulkWriter.upsertMovies(List.of(movie(1L, "Inception", List.of(18L)), movie(2L, "Heat", List.of(80L))));
+        assertEquals(0, events.stream(CatalogChangedEvent.class).count());
+
+        commit();
+        List<CatalogChangedEvent> changed = events.stream(CatalogChangedEvent.class).toList();
+        assertEquals(1, changed.size());
+        assertEquals("movie", changed.get(0).catalog());
+        assertEquals(List.of("Inception", "Heat"), changed.get(0).upserted().stream().map(SearchDocument::title).toList());
+    }
+
+    // Ejecuta los afterCommit del listener del índice sin confirmar la transacción del test
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> synchronization.getClass().getEnclosingClass() == CatalogIndexListener.class)
+                .forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private static Movie movie(Long id, String title, List<Long> genres) {
+        return Movie.builder()
+                .id(id)
+                .title(title)
+                .popularity(10.0)
+                .category(new Category(1L, "popular", null))
+                .genres(genres.stream().map(genre -> new Genre(genre, null)).toList())
+                .build();
+    }
+
+    private static Serie serie(Long id, String title, List<Long> genres, int seasons) {
+        Serie serie = Serie.builder()
+                .id(id)
+                .title(title)
+                .releaseDate("2008-01-20")
+                .genreID(genres.stream().map(genre -> new Genre(genre, null)).toList())
+                .build();
+        serie.setSeasons(LongStream.rangeClosed(1, seasons)
+                .mapToObj(number -> Season.builder().id(id * 100 + number).name("Season " + number).seasonNumber(number).build())
+                .toList());
+        return serie;
+    }
+}
@@ -0,0 +1,177 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.entities.Watchlist;
+import com.garmanaz.vidaria.services.WatchlistService;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Las consultas de cada caso de uso no deben depender del tamaño de la página: con colecciones LAZY,
+// @BatchSize y entity graphs, 5 elementos y 40 cuestan lo mismo
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({WatchlistService.class, ReferenceData.class})
+public class EntityGraphStatementCountTest {
+
+    private static final int ITEMS = 60;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SerieRepository serieRepository;
+
+    @Autowired
+    private WatchlistService watchlistService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private TmdbClient tmdbClient;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular'), (2, 'top_rated'), (3, 'upcoming')");
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (18, 'Drama'), (80, 'Crime'), (35, 'Comedy')");
+        jdbcTemplate.update("INSERT INTO app_user (id, username, email, password) VALUES "
+                + "(1, 'few', 'few@vidaria.com', 'x'), (2, 'many', 'many@vidaria.com', 'x')");
+        for (long id = 1; id <= ITEMS; id++) {
+            jdbcTemplate.update("INSERT INTO movie (id, title, popularity, category_id) VALUES (?, ?, ?, ?)",
+                    id, "Movie " + id, (double) id, 1 + id % 3);
+            jdbcTemplate.update("INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, 18), (?, ?)",
+                    id, id, id % 2 == 0 ? 80 : 35);
+            jdbcTemplate.update("INSERT INTO serie (id, title, popularity) VALUES (?, ?, ?)", id, "Serie " + id, (double) id);
+            jdbcTemplate.update("INSERT INTO serie_genre (serie_id, genre_id) VALUES (?, 18), (?, 80)", id, id);
+            jdbcTemplate.update("INSERT INTO season (id, name, season_number, serie_id) VALUES (?, 'Season 1', 1, ?), (?, 'Season 2', 2, ?)",
+                    id * 10 + 1, id, id * 10 + 2, id);
+        }
+        // Una lista de 5 elementos (usuario 1) y otra de 40 (usuario 2), mitad películas y mitad series
+        long watchlistId = 1;
+        for (int[] user : new int[][]{{1, 5}, {2, 40}}) {
+            for (long item = 1; item <= user[1]; item++) {
+                boolean movie = item % 2 == 1;
+                jdbcTemplate.update("INSERT INTO watchlist (id, user_id, movie_id, serie_id) VALUES (?, ?, ?, ?)",
+                        watchlistId++, user[0], movie ? item : null, movie ? null : item);
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testCollectionsAreLazyByDefault() {
+        Serie serie = serieRepository.findById(1L).orElseThrow();
+        Movie movie = movieRepository.findById(1L).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(serie.getGenreID()));
+        assertFalse(Hibernate.isInitialized(serie.getSeasons()));
+        assertFalse(Hibernate.isInitialized(movie.getGenres()));
+        assertTrue(Hibernate.isInitialized(movie.getCategory()));
+    }
+
+    @Test
+    public void testDetailGraphsLoadEverythingTheDetailShows() {
+        Movie movie = movieRepository.findDetailById(2L).orElseThrow();
+        assertTrue(Hibernate.isInitialized(movie.getGenres()));
+        assertEquals(2, movie.getGenres().size());
+
+        entityManager.clear();
+        statistics.clear();
+        Serie serie = serieRepository.findDetail(2L).orElseThrow();
+        // Géneros con el graph y temporadas en una segunda consulta, sin producto cartesiano entre ambas
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, serie.getGenreID().size());
+        assertEquals(2, serie.getSeasons().size());
+    }
+
+    @Test
+    public void testMovieSearchPageStatementsDoNotGrowWithPageSize() {
+        assertConstant(size -> movieRepository.searchMovies(null, null, null, null, null, null, null, null, null,
+                PageRequest.of(0, size)).forEach(movie -> {
+            movie.getGenres().size();
+            movie.getCategory().getName();
+        }));
+    }
+
+    @Test
+    public void testSerieSearchPageStatementsDoNotGrowWithPageSize() {
+        assertConstant(size -> serieRepository.searchSeries(null, null, null, null, null, null, null, null,
+                PageRequest.of(0, size)).forEach(serie -> {
+            serie.getGenreID().size();
+            serie.getSeasons().size();
+        }));
+    }
+
+    @Test
+    public void testFindByIdInStatementsDoNotGrowWithBatchSize() {
+        assertConstant(size -> movieRepository.findByIdIn(ids(size)).forEach(movie -> movie.getGenres().size()));
+        // Ruta de la precarga de Redis: el snapshot de la serie recorre también las temporadas
+        assertConstant(size -> serieRepository.findByIdIn(ids(size)).forEach(serie -> serie.getSeasons().size()));
+    }
+
+    @Test
+    public void testFeaturedCandidatesStatementsDoNotGrowWithPageSize() {
+        assertConstant(size -> movieRepository.findMostPopularWithGenres(PageRequest.of(0, size)).forEach(movie -> {
+            movie.getGenres().size();
+            movie.getCategory().getName();
+        }));
+    }
+
+    @Test
+    public void testWatchlistStatementsDoNotGrowWithListSize() {
+        long few = statements(() -> watchlistService.getWatchlistForUser(1L));
+        long many = statements(() -> watchlistService.getWatchlistForUser(2L));
+        assertEquals(few, many);
+
+        List<Watchlist> watchlist = watchlistService.getWatchlistForUser(2L);
+        assertEquals(40, watchlist.size());
+        assertTrue(watchlist.stream().filter(item -> item.getSerie() != null)
+                .allMatch(item -> Hibernate.isInitialized(item.getSerie().getSeasons())));
+    }
+
+    private void assertConstant(IntConsumer work) {
+        long small = statements(() -> work.accept(5));
+        long large = statements(() -> work.accept(40));
+        assertEquals(small, large, "statement count grew with the page size");
+    }
+
+    private long statements(Runnable work) {
+        entityManager.clear();
+        statistics.clear();
+        work.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static List<Long> ids(int size) {
+        return LongStream.rangeClosed(1, size).boxed().toList();
+    }
+}
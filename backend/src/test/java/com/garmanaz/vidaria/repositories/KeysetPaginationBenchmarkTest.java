@@ -0,0 +1,105 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.entities.Movie;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Página 1 frente a página 5.000 (20 por página) con OFFSET + COUNT y con cursor, sobre 100k películas en H2:
+// mvn test -Pbenchmark -Dtest=KeysetPaginationBenchmarkTest
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+public class KeysetPaginationBenchmarkTest {
+
+    private static final int MOVIES = 100_100;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 5_000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void compareOffsetWithKeysetPagination() {
+        seed();
+
+        // Cursor de la última fila de la página 4.999, como lo habría devuelto la página anterior
+        Object[] previous = entityManager.createQuery(
+                        "SELECT m.id, m.popularity, m.rating FROM Movie m ORDER BY m.popularity DESC, m.rating DESC NULLS LAST, m.id", Object[].class)
+                .setFirstResult((DEEP_PAGE - 1) * PAGE_SIZE - 1)
+                .setMaxResults(1)
+                .getSingleResult();
+        String deepCursor = Keyset.POPULARITY.encode(previous);
+
+        long offsetFirst = median(() -> movieRepository.searchMovies(null, null, null, null, null, null, null, null, null,
+                PageRequest.of(0, PAGE_SIZE)).getContent());
+        long offsetDeep = median(() -> movieRepository.searchMovies(null, null, null, null, null, null, null, null, null,
+                PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE)).getContent());
+        long keysetFirst = median(() -> movieRepository.seekMovies(null, null, null, null, null, null, null, null, null,
+                Keyset.POPULARITY, null, PAGE_SIZE).content());
+        long keysetDeep = median(() -> movieRepository.seekMovies(null, null, null, null, null, null, null, null, null,
+                Keyset.POPULARITY, Keyset.POPULARITY.after(deepCursor), PAGE_SIZE).content());
+
+        System.out.printf("%-8s %12s %12s%n", "mode", "page 1 us", "page " + DEEP_PAGE + " us");
+        System.out.printf("%-8s %12d %12d%n", "offset", offsetFirst / 1000, offsetDeep / 1000);
+        System.out.printf("%-8s %12d %12d%n", "keyset", keysetFirst / 1000, keysetDeep / 1000);
+
+        // Misma página por los dos caminos
+        List<Long> byOffset = movieRepository.searchMovies(null, null, null, null, null, null, null, null, null,
+                PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE)).getContent().stream().map(Movie::getId).toList();
+        List<Long> byKeyset = movieRepository.seekMovies(null, null, null, null, null, null, null, null, null,
+                Keyset.POPULARITY, Keyset.POPULARITY.after(deepCursor), PAGE_SIZE).content().stream().map(Movie::getId).toList();
+        assertEquals(byOffset, byKeyset);
+        assertTrue(keysetDeep < offsetDeep);
+    }
+
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular')");
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (long id = 1; id <= MOVIES; id++) {
+            // Popularidad con muchos empates para que el desempate por valoración e id cuente
+            batch.add(new Object[]{id, "Movie " + id, (id * 7919 % 1000) / 10.0, (id * 104729 % 100_000) / 100.0});
+            if (batch.size() == 10_000 || id == MOVIES) {
+                jdbcTemplate.batchUpdate("INSERT INTO movie (id, title, rating, popularity, category_id) VALUES (?, ?, ?, ?, 1)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Contexto de persistencia vacío en cada muestra, como en una petición nueva
+    private long median(Supplier<List<Movie>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            query.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
@@ -0,0 +1,139 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class KeysetPaginationTest {
+
+    private static final int MOVIES = 47;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SerieRepository serieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular'), (2, 'top_rated')");
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (1, 'drama'), (2, 'comedy')");
+        // Muchos empates y nulos en popularidad y valoración para pasar por todas las ramas del cursor
+        for (long id = 1; id <= MOVIES; id++) {
+            Double popularity = id % 7 == 0 ? null : (double) (id % 5);
+            Double rating = id % 4 == 0 ? null : (double) (id % 3);
+            jdbcTemplate.update("INSERT INTO movie (id, title, rating, popularity, category_id) VALUES (?, ?, ?, ?, ?)",
+                    id, "Movie " + id, rating, popularity, 1 + id % 2);
+            jdbcTemplate.update("INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, ?)", id, 1 + id % 2);
+            jdbcTemplate.update("INSERT INTO serie (id, title, rating, popularity) VALUES (?, ?, ?, ?)",
+                    id, "Serie " + id, rating, popularity);
+        }
+    }
+
+    @Test
+    public void testPopularityKeysetWalksEveryMovieOnceInOrder() {
+        List<Movie> walked = walk(cursor -> movieRepository.seekMovies(null, null, null, null, null, null, null, null, null,
+                Keyset.POPULARITY, Keyset.POPULARITY.after(cursor), 5));
+
+        List<Movie> expected = movieRepository.findAll().stream().sorted(
+                Comparator.comparing(Movie::getPopularity, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(Movie::getRating, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(Movie::getId)).toList();
+        assertEquals(expected.stream().map(Movie::getId).toList(), walked.stream().map(Movie::getId).toList());
+    }
+
+    @Test
+    public void testRatingKeysetWithGenreFilter() {
+        List<Movie> walked = walk(cursor -> movieRepository.seekMovies(null, List.of("Drama"), null, null, null, null, null, null, null,
+                Keyset.RATING, Keyset.RATING.after(cursor), 4));
+
+        List<Long> expected = movieRepository.findAll().stream()
+                .filter(movie -> movie.getId() % 2 == 0)
+                .sorted(Comparator.comparing(Movie::getRating, Comparator.nullsLast(Comparator.reverseOrder())).thenComparing(Movie::getId))
+                .map(Movie::getId).toList();
+        assertEquals(expected, walked.stream().map(Movie::getId).toList());
+        assertFalse(walked.get(0).getGenres().isEmpty());
+    }
+
+    @Test
+    public void testIdKeysetOnSeries() {
+        List<Serie> walked = walk(cursor -> serieRepository.seekSeries(null, null, null, null, null, null, null, null,
+                Keyset.ID, Keyset.ID.after(cursor), 10));
+
+        assertEquals(MOVIES, walked.size());
+        for (int i = 0; i < walked.size(); i++) {
+            assertEquals(i + 1L, walked.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testLastPageHasNoNextCursor() {
+        CursorPage<Movie> page = movieRepository.seekMovies(null, null, List.of("top_rated"), null, null, 2.0, null, null, null,
+                Keyset.POPULARITY, null, 50);
+
+        assertFalse(page.hasNext());
+        assertNull(page.nextCursor());
+        assertTrue(page.content().stream().allMatch(movie -> movie.getRating() >= 2.0 && movie.getId() % 2 == 1));
+    }
+
+    @Test
+    public void testRejectsForeignOrMalformedCursors() {
+        String cursor = movieRepository.seekMovies(null, null, null, null, null, null, null, null, null,
+                Keyset.POPULARITY, null, 5).nextCursor();
+
+        assertNotNull(Keyset.POPULARITY.after(cursor));
+        assertNull(Keyset.POPULARITY.after(""));
+        assertThrows(IllegalArgumentException.class, () -> Keyset.RATING.after(cursor));
+        assertThrows(IllegalArgumentException.class, () -> Keyset.POPULARITY.after("not a cursor"));
+    }
+
+    @Test
+    public void testKeysetForSort() {
+        assertEquals(Keyset.ID, Keyset.forSort(Sort.unsorted(), Keyset.ID));
+        assertEquals(Keyset.POPULARITY, Keyset.forSort(Sort.by(Sort.Order.desc("popularity")), Keyset.ID));
+        assertEquals(Keyset.RATING, Keyset.forSort(Sort.by(Sort.Order.desc("rating")), Keyset.ID));
+        assertEquals(Keyset.ID, Keyset.forSort(Sort.by("id"), Keyset.POPULARITY));
+        assertThrows(IllegalArgumentException.class, () -> Keyset.forSort(Sort.by("title"), Keyset.ID));
+        assertThrows(IllegalArgumentException.class, () -> Keyset.forSort(Sort.by(Sort.Order.asc("rating")), Keyset.ID));
+
+        // Las órdenes secundarias solo valen si son las del propio keyset
+        assertEquals(Keyset.POPULARITY, Keyset.forSort(Sort.by(Sort.Order.desc("popularity"), Sort.Order.desc("rating")), Keyset.ID));
+        assertEquals(Keyset.RATING, Keyset.forSort(Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("id")), Keyset.ID));
+        assertThrows(IllegalArgumentException.class,
+                () -> Keyset.forSort(Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("releaseDate")), Keyset.ID));
+        assertThrows(IllegalArgumentException.class,
+                () -> Keyset.forSort(Sort.by(Sort.Order.desc("popularity"), Sort.Order.asc("rating")), Keyset.ID));
+        assertThrows(IllegalArgumentException.class,
+                () -> Keyset.forSort(Sort.by(Sort.Order.asc("id"), Sort.Order.desc("rating")), Keyset.ID));
+    }
+
+    private static <T> List<T> walk(Function<String, CursorPage<T>> next) {
+        List<T> walked = new ArrayList<>();
+        String cursor = "";
+        do {
+            CursorPage<T> page = next.apply(cursor);
+            walked.addAll(page.content());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return walked;
+    }
+}
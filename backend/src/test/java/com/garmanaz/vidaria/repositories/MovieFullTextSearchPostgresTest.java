@@ -0,0 +1,180 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Comportamiento de MovieFullTextSearch sobre un PostgreSQL real (tsvector, pg_trgm, EXISTS, rangos y totales).
+// H2 no tiene esas funciones, así que solo se ejecuta si se indica la base de datos:
+// mvn test -Dvidaria.test.postgres.url=jdbc:postgresql://localhost:5432/vidaria
+//     -Dvidaria.test.postgres.user=... -Dvidaria.test.postgres.password=...
+// Trabaja en su propio esquema (fulltext_search_test), que se borra al terminar.
+@EnabledIfSystemProperty(named = "vidaria.test.postgres.url", matches = ".+")
+public class MovieFullTextSearchPostgresTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    private static SingleConnectionDataSource dataSource;
+    private static MovieFullTextSearch fullTextSearch;
+
+    @BeforeAll
+    static void seed() {
+        dataSource = new SingleConnectionDataSource(System.getProperty("vidaria.test.postgres.url"),
+                System.getProperty("vidaria.test.postgres.user", "postgres"),
+                System.getProperty("vidaria.test.postgres.password", "postgres"), true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP SCHEMA IF EXISTS fulltext_search_test CASCADE");
+        jdbc.execute("CREATE SCHEMA fulltext_search_test");
+        jdbc.execute("SET search_path TO fulltext_search_test, public");
+        jdbc.execute("CREATE TABLE category (id bigint PRIMARY KEY, name varchar(255) NOT NULL UNIQUE)");
+        jdbc.execute("CREATE TABLE genre (id bigint PRIMARY KEY, name varchar(255) NOT NULL UNIQUE)");
+        jdbc.execute("CREATE TABLE movie (id bigint PRIMARY KEY, title varchar(1000), description varchar(1000), "
+                + "release_date date, rating float8, popularity float8, category_id bigint NOT NULL REFERENCES category)");
+        jdbc.execute("CREATE TABLE movie_genre (movie_id bigint NOT NULL REFERENCES movie, genre_id bigint NOT NULL REFERENCES genre)");
+
+        jdbc.execute("INSERT INTO category VALUES (1, 'popular'), (2, 'top_rated')");
+        jdbc.execute("INSERT INTO genre VALUES (18, 'Drama'), (80, 'Crime'), (28, 'Action')");
+        jdbc.execute("INSERT INTO movie VALUES "
+                + "(278, 'The Shawshank Redemption', 'Two imprisoned men bond over a number of years', DATE '1994-09-23', 8.7, 90, 2), "
+                + "(238, 'The Godfather', 'The aging patriarch of an organized crime dynasty', DATE '1972-03-14', 8.7, 100, 2), "
+                + "(240, 'The Godfather Part II', 'The early life and career of Vito Corleone', DATE '1974-12-20', 8.6, 60, 2), "
+                + "(155, 'The Dark Knight', 'Batman raises the stakes in his war on crime', DATE '2008-07-16', 8.5, 120, 1), "
+                + "(13, 'Forrest Gump', 'Life is like a box of chocolates', DATE '1994-07-06', 8.5, 80, 1), "
+                + "(550, 'Fight Club', 'An insomniac office worker', DATE '1999-10-15', 8.4, 70, 1), "
+                + "(999, 'Untitled', null, null, null, null, 1)");
+        jdbc.execute("INSERT INTO movie_genre VALUES (278, 18), (278, 80), (238, 18), (238, 80), (240, 18), (240, 80), "
+                + "(155, 28), (155, 80), (13, 18), (550, 18)");
+
+        // Umbral de estimación 1: cualquier búsqueda cuenta como amplia y el total sale del plan
+        fullTextSearch = new MovieFullTextSearch(new NamedParameterJdbcTemplate(dataSource), Duration.ofSeconds(30), 100, 1);
+        fullTextSearch.ensureSchema();
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS fulltext_search_test CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    private static List<Long> search(String title, Pageable pageable) {
+        return fullTextSearch.searchIds(title, null, null, null, null, null, null, null, null, pageable).getContent();
+    }
+
+    @Test
+    public void testTitleWordsMatchTheSearchVector() {
+        assertEquals(Set.of(238L, 240L), Set.copyOf(search("godfather", FIRST_PAGE)));
+        // websearch_to_tsquery: frase entre comillas sobre la descripción (peso B)
+        assertEquals(List.of(238L), search("\"crime dynasty\"", FIRST_PAGE));
+        // Negación: "crime" está en las descripciones de 238 y 155, pero la de 155 también dice "batman"
+        assertEquals(List.of(238L), search("crime -batman", FIRST_PAGE));
+    }
+
+    @Test
+    public void testSubstringsAndTyposFallBackToLikeAndTrigrams() {
+        // "ump" no es una palabra: solo lo encuentra el LIKE sobre lower(title)
+        assertEquals(List.of(13L), search("ump", FIRST_PAGE));
+        // Sin ninguna palabra exacta: lo encuentra el operador % de pg_trgm
+        assertEquals(List.of(278L), search("shawshenk redemtion", FIRST_PAGE));
+        // Los comodines del usuario se escapan
+        assertEquals(List.of(), search("%", FIRST_PAGE));
+    }
+
+    @Test
+    public void testGenreAndCategoryFiltersDoNotMultiplyRows() {
+        List<Long> dramaOrAction = fullTextSearch.searchIds(null, List.of("Drama", "ACTION"), null, null, null, null, null,
+                null, null, FIRST_PAGE).getContent();
+        assertEquals(List.of(155L, 238L, 278L, 13L, 550L, 240L), dramaOrAction);
+
+        assertEquals(List.of(155L), fullTextSearch.searchIds(null, List.of("crime"), List.of("Popular"), null, null,
+                null, null, null, null, FIRST_PAGE).getContent());
+        assertEquals(List.of(238L, 278L, 240L), fullTextSearch.searchIds(null, null, List.of("top_rated"), null, null,
+                null, null, null, null, FIRST_PAGE).getContent());
+    }
+
+    @Test
+    public void testRangesAreInclusive() {
+        assertEquals(List.of(278L, 13L), fullTextSearch.searchIds(null, null, null, LocalDate.of(1994, 1, 1),
+                LocalDate.of(1994, 12, 31), null, null, null, null, FIRST_PAGE).getContent());
+        assertEquals(List.of(238L, 278L, 240L), fullTextSearch.searchIds(null, null, null, null, null, 8.6, 8.7,
+                null, null, FIRST_PAGE).getContent());
+        assertEquals(List.of(155L, 238L), fullTextSearch.searchIds(null, null, null, null, null, null, null,
+                100.0, null, FIRST_PAGE).getContent());
+        assertEquals(List.of(550L, 240L), fullTextSearch.searchIds(null, null, null, null, null, null, null,
+                null, 70.0, FIRST_PAGE).getContent());
+    }
+
+    @Test
+    public void testClientSortReplacesTheDefaultOrder() {
+        // Sin orden: popularidad con los nulos al final
+        assertEquals(List.of(155L, 238L, 278L, 13L, 550L, 240L, 999L), search(null, FIRST_PAGE));
+        assertEquals(List.of(238L, 240L), search("godfather", PageRequest.of(0, 20, Sort.by(Sort.Order.desc("rating")))));
+        assertEquals(List.of(240L, 238L), search("godfather", PageRequest.of(0, 20, Sort.by(Sort.Order.asc("popularity")))));
+        // Empate en rating: desempata el id
+        assertEquals(List.of(238L, 278L, 240L), fullTextSearch.searchIds(null, null, List.of("top_rated"), null, null,
+                null, null, null, null, PageRequest.of(0, 20, Sort.by(Sort.Order.desc("rating")))).getContent());
+    }
+
+    @Test
+    public void testPageTotals() {
+        Page<Long> second = fullTextSearch.searchIds(null, null, null, null, null, null, null, null, null, PageRequest.of(1, 2));
+        assertEquals(List.of(278L, 13L), second.getContent());
+        assertEquals(7, second.getTotalElements());
+
+        Page<Long> single = fullTextSearch.searchIds("godfather", null, null, null, null, null, null, null, null, FIRST_PAGE);
+        assertEquals(2, single.getTotalElements());
+    }
+
+    @Test
+    public void testCountStrategies() {
+        Pageable firstTwo = PageRequest.of(0, 2);
+
+        CountedPage<Long> exact = counted(firstTwo, CountStrategy.EXACT);
+        assertEquals(List.of(155L, 238L), exact.content());
+        assertEquals(7L, exact.totalElements());
+        assertEquals(4, exact.totalPages());
+        assertTrue(exact.hasNext());
+        assertTrue(exact.exact());
+
+        assertEquals(7L, counted(firstTwo, CountStrategy.CACHED).totalElements());
+
+        CountedPage<Long> none = counted(firstTwo, CountStrategy.NONE);
+        assertNull(none.totalElements());
+        assertTrue(none.hasNext());
+        assertEquals("none", none.count());
+
+        // La estimación del plan nunca baja de lo que ya se ha visto (dos filas y la siguiente)
+        CountedPage<Long> estimate = counted(firstTwo, CountStrategy.ESTIMATE);
+        assertFalse(estimate.exact());
+        assertTrue(estimate.totalElements() >= 3);
+
+        // La última página da el total exacto sin contar, con cualquier estrategia
+        CountedPage<Long> last = counted(PageRequest.of(3, 2), CountStrategy.NONE);
+        assertEquals(List.of(999L), last.content());
+        assertEquals(7L, last.totalElements());
+        assertFalse(last.hasNext());
+        assertTrue(last.exact());
+    }
+
+    private static CountedPage<Long> counted(Pageable pageable, CountStrategy strategy) {
+        return fullTextSearch.searchIds(null, null, null, null, null, null, null, null, null, pageable, strategy);
+    }
+}
@@ -0,0 +1,29 @@
+package com.garmanaz.vidaria.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovieFullTextSearchTest {
+
+    @Test
+    public void testRelevanceOnlyOrdersUnsortedTitleSearches() {
+        assertTrue(MovieFullTextSearch.orderBy(Sort.unsorted(), true).startsWith("(ts_rank_cd("));
+        assertEquals("m.popularity DESC NULLS LAST, m.rating DESC NULLS LAST, m.id",
+                MovieFullTextSearch.orderBy(Sort.unsorted(), false));
+    }
+
+    @Test
+    public void testClientSortReplacesRelevance() {
+        Sort sort = Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("releaseDate"));
+
+        assertEquals("m.rating DESC, m.release_date ASC, m.id", MovieFullTextSearch.orderBy(sort, true));
+    }
+
+    @Test
+    public void testUnknownSortIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MovieFullTextSearch.orderBy(Sort.by("description; DROP TABLE movie"), true));
+    }
+}
@@ -1,5 +1,6 @@
 package com.garmanaz.vidaria.repositories;
 
+import com.garmanaz.vidaria.DTO.RankedTitle;
 import com.garmanaz.vidaria.entities.Category;
 import com.garmanaz.vidaria.entities.Genre;
 import com.garmanaz.vidaria.entities.Movie;
@@ -102,4 +103,13 @@ public class MovieRepositoryTest {
         assertEquals(2, movies.getTotalElements());
     }
 
+    @Test
+    public void testFindRankedByGenreAndCategory() {
+        List<RankedTitle> action = movieRepository.findRankedByGenre(3L);
+        assertEquals(List.of(new RankedTitle(2L, 8.8, 9.0)), action);
+
+        Long popular = categoryRepository.findByName("Popular").getId();
+        assertEquals(2, movieRepository.findRankedByCategory(popular).size());
+    }
+
 }
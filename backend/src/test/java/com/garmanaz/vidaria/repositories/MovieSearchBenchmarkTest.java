@@ -0,0 +1,146 @@
+package com.garmanaz.vidaria.repositories;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compara la consulta LIKE actual con MovieFullTextSearch sobre 500k películas en un PostgreSQL local:
+// mvn test -Pbenchmark -Dvidaria.benchmark.postgres.url=jdbc:postgresql://localhost:5432/vidaria
+//     -Dvidaria.benchmark.postgres.user=... -Dvidaria.benchmark.postgres.password=...
+// Trabaja en su propio esquema (search_benchmark), que se borra al terminar.
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "vidaria.benchmark.postgres.url", matches = ".+")
+public class MovieSearchBenchmarkTest {
+
+    private static final int MOVIES = 500_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    // Equivalente SQL de MovieRepository.searchMovies con el orden que aplica MovieService
+    private static final String LIKE_QUERY = "SELECT m.id FROM movie m "
+            + "LEFT JOIN movie_genre mg ON mg.movie_id = m.id LEFT JOIN genre g ON g.id = mg.genre_id "
+            + "LEFT JOIN category c ON c.id = m.category_id "
+            + "WHERE lower(m.title) LIKE :like "
+            + "ORDER BY m.popularity DESC, m.rating DESC LIMIT 20";
+
+    private static final String LIKE_COUNT = "SELECT count(m.id) FROM movie m "
+            + "LEFT JOIN movie_genre mg ON mg.movie_id = m.id LEFT JOIN genre g ON g.id = mg.genre_id "
+            + "LEFT JOIN category c ON c.id = m.category_id "
+            + "WHERE lower(m.title) LIKE :like";
+
+    private static SingleConnectionDataSource dataSource;
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+    private static MovieFullTextSearch fullTextSearch;
+
+    @BeforeAll
+    static void seed() {
+        dataSource = new SingleConnectionDataSource(System.getProperty("vidaria.benchmark.postgres.url"),
+                System.getProperty("vidaria.benchmark.postgres.user", "postgres"),
+                System.getProperty("vidaria.benchmark.postgres.password", "postgres"), true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+        jdbc.execute("CREATE SCHEMA search_benchmark");
+        jdbc.execute("SET search_path TO search_benchmark, public");
+        jdbc.execute("CREATE TABLE category (id bigint PRIMARY KEY, name varchar(255) NOT NULL UNIQUE)");
+        jdbc.execute("CREATE TABLE genre (id bigint PRIMARY KEY, name varchar(255) NOT NULL UNIQUE)");
+        jdbc.execute("CREATE TABLE movie (id bigint PRIMARY KEY, title varchar(1000), description varchar(1000), "
+                + "release_date date, rating float8, popularity float8, category_id bigint NOT NULL REFERENCES category)");
+        jdbc.execute("CREATE TABLE movie_genre (movie_id bigint NOT NULL REFERENCES movie, genre_id bigint NOT NULL REFERENCES genre)");
+
+        jdbc.execute("INSERT INTO category VALUES (1, 'popular'), (2, 'top_rated'), (3, 'upcoming')");
+        jdbc.execute("INSERT INTO genre SELECT i, 'genre' || i FROM generate_series(1, 19) i");
+        // Títulos sintéticos de tres palabras; el 278 es el único con "shawshank"
+        jdbc.execute("INSERT INTO movie SELECT i, "
+                + "CASE WHEN i = 278 THEN 'The Shawshank Redemption' ELSE "
+                + "(ARRAY['dark','night','star','lost','city','river','silent','golden','broken','last'])[1 + i % 10] || ' ' || "
+                + "(ARRAY['empire','dream','road','kingdom','shadow','storm','garden','island','game','heart','war','code'])[1 + (i / 10) % 12] || ' ' || "
+                + "(ARRAY['rising','returns','legacy','origins','forever','chronicles','reborn'])[1 + (i / 120) % 7] || ' ' || i END, "
+                + "'A story about ' || (ARRAY['love','revenge','family','survival','friendship','power'])[1 + i % 6] || ' and ' || "
+                + "(ARRAY['betrayal','hope','time','music','space','memory'])[1 + (i / 6) % 6], "
+                + "date '1950-01-01' + (i % 27000), (i % 100) / 10.0, (i * 7919 % 100000) / 100.0, 1 + i % 3 "
+                + "FROM generate_series(1, " + MOVIES + ") i");
+        jdbc.execute("INSERT INTO movie_genre SELECT i, 1 + i % 19 FROM generate_series(1, " + MOVIES + ") i");
+        jdbc.execute("INSERT INTO movie_genre SELECT i, 1 + (i / 19) % 19 FROM generate_series(1, " + MOVIES + ") i WHERE i % 19 <> (i / 19) % 19");
+
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        fullTextSearch = new MovieFullTextSearch(jdbcTemplate, Duration.ofSeconds(30), 10_000, 10_000);
+        fullTextSearch.ensureSchema();
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    public void compareLikeWithFullTextSearch() {
+        Map<String, Long> likeMedians = new LinkedHashMap<>();
+        Map<String, Long> fullTextMedians = new LinkedHashMap<>();
+
+        System.out.printf("%-22s %12s %12s %10s %10s%n", "query", "like us", "fulltext us", "like hits", "ft hits");
+        for (String query : List.of("shawshank", "star empire", "kingdom", "shawshnk redemption")) {
+            MapSqlParameterSource params = new MapSqlParameterSource("like", "%" + query + "%");
+            long[] likeHits = new long[1];
+            long likeMedian = median(() -> {
+                jdbcTemplate.queryForList(LIKE_QUERY, params, Long.class);
+                likeHits[0] = jdbcTemplate.queryForObject(LIKE_COUNT, params, Long.class);
+                return likeHits[0];
+            });
+
+            Page<?>[] page = new Page<?>[1];
+            long fullTextMedian = median(() -> {
+                page[0] = fullTextSearch.searchIds(query, null, null, null, null, null, null, null, null, PageRequest.of(0, 20));
+                return page[0].getTotalElements();
+            });
+
+            likeMedians.put(query, likeMedian);
+            fullTextMedians.put(query, fullTextMedian);
+            System.out.printf("%-22s %12d %12d %10d %10d%n", query, likeMedian / 1000, fullTextMedian / 1000,
+                    likeHits[0], page[0].getTotalElements());
+        }
+
+        Page<Long> exact = fullTextSearch.searchIds("shawshank", null, null, null, null, null, null, null, null, PageRequest.of(0, 20));
+        assertEquals(278L, exact.getContent().get(0));
+        // Con un error de escritura LIKE no encuentra nada; el trigrama sí
+        Page<Long> typo = fullTextSearch.searchIds("shawshnk redemption", null, null, null, null, null, null, null, null, PageRequest.of(0, 20));
+        assertEquals(278L, typo.getContent().get(0));
+        // Selectiva: índice GIN frente a recorrido secuencial de 500k filas
+        assertTrue(fullTextMedians.get("shawshank") < likeMedians.get("shawshank"));
+    }
+
+    private static long median(Supplier<Long> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
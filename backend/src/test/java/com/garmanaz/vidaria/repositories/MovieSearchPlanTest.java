@@ -0,0 +1,169 @@
+package com.garmanaz.vidaria.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Comprueba con EXPLAIN (H2) que cada combinación de filtros genera solo sus predicados
+// y que el plan usa el índice de la columna filtrada en vez de recorrer la tabla
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.garmanaz.vidaria.repositories.MovieSearchPlanTest$CapturedStatements",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+public class MovieSearchPlanTest {
+
+    private static final int MOVIES = 2_000;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SerieRepository serieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public static class CapturedStatements implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular'), (2, 'top_rated'), (3, 'upcoming')");
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (1, 'drama'), (2, 'comedy'), (3, 'action'), (4, 'horror')");
+        List<Object[]> movies = new ArrayList<>();
+        List<Object[]> genres = new ArrayList<>();
+        List<Object[]> series = new ArrayList<>();
+        for (int i = 1; i <= MOVIES; i++) {
+            movies.add(new Object[]{(long) i, "Movie " + i, LocalDate.of(1950, 1, 1).plusDays(i * 13L), (i % 100) / 10.0, i / 20.0, 1 + i % 3});
+            genres.add(new Object[]{(long) i, 1 + i % 4});
+            series.add(new Object[]{(long) i, "Serie " + i, LocalDate.of(1950, 1, 1).plusDays(i * 13L).toString(), (i % 100) / 10.0, i / 20.0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO movie (id, title, release_date, rating, popularity, category_id) VALUES (?, ?, ?, ?, ?, ?)", movies);
+        jdbcTemplate.batchUpdate("INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, ?)", genres);
+        jdbcTemplate.batchUpdate("INSERT INTO serie (id, title, release_date, rating, popularity) VALUES (?, ?, ?, ?, ?)", series);
+        jdbcTemplate.batchUpdate("INSERT INTO serie_genre (serie_id, genre_id) VALUES (?, ?)", genres);
+        CapturedStatements.SQL.clear();
+    }
+
+    @Test
+    public void testNoFiltersEmitsNoPredicates() {
+        assertEquals(MOVIES, movieRepository.searchMovies(null, null, null, null, null, null, null, null, null, PageRequest.of(0, 20)).getTotalElements());
+        String sql = idQuery("movie");
+        assertFalse(sql.contains(" where "), sql);
+    }
+
+    @Test
+    public void testRatingRangeUsesRatingIndex() {
+        movieRepository.searchMovies(null, null, null, null, null, 9.8, null, null, null, PageRequest.of(0, 20));
+        String sql = idQuery("movie");
+        // Un único predicado en el WHERE; el resto de parámetros son la paginación
+        assertEquals(1, count(sql.substring(0, sql.indexOf(" order by ")), "?"), sql);
+        assertTrue(explain(sql).contains("IDX_MOVIE_RATING"), explain(sql));
+    }
+
+    @Test
+    public void testPopularityRangeUsesPopularityIndex() {
+        movieRepository.searchMovies(null, null, null, null, null, null, null, 10.0, 12.0, PageRequest.of(0, 20));
+        String plan = explain(idQuery("movie"));
+        assertTrue(plan.contains("IDX_MOVIE_POPULARITY"), plan);
+    }
+
+    @Test
+    public void testReleaseDateRangeUsesReleaseDateIndex() {
+        movieRepository.searchMovies(null, null, null, LocalDate.of(2000, 1, 1), LocalDate.of(2001, 1, 1), null, null, null, null, PageRequest.of(0, 20));
+        String plan = explain(idQuery("movie"));
+        assertTrue(plan.contains("IDX_MOVIE_RELEASE_DATE"), plan);
+    }
+
+    @Test
+    public void testGenreFilterIsCorrelatedExistsOnJoinTableIndex() {
+        var page = movieRepository.searchMovies(null, List.of("Drama"), null, null, null, 9.8, null, null, null, PageRequest.of(0, 5));
+        // Sin joins que multipliquen filas: el total coincide con las películas distintas
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movie m WHERE m.rating >= 9.8 AND EXISTS "
+                + "(SELECT 1 FROM movie_genre mg WHERE mg.movie_id = m.id AND mg.genre_id = 1)", Long.class), page.getTotalElements());
+
+        String sql = idQuery("movie");
+        assertTrue(sql.contains("exists"), sql);
+        assertFalse(sql.substring(0, sql.indexOf("where")).contains("join"), sql);
+        String plan = explain(sql);
+        assertTrue(plan.contains("IDX_MOVIE_GENRE_MOVIE"), plan);
+        assertTrue(plan.contains("IDX_MOVIE_RATING"), plan);
+    }
+
+    @Test
+    public void testCategoryFilterIsExistsOnCategoryKey() {
+        movieRepository.searchMovies(null, null, List.of("Top_Rated"), null, null, null, null, 90.0, null, PageRequest.of(0, 20));
+        String sql = idQuery("movie");
+        assertTrue(sql.contains("exists"), sql);
+        String plan = explain(sql);
+        assertTrue(plan.contains("IDX_MOVIE_POPULARITY"), plan);
+        assertTrue(plan.contains("PRIMARY_KEY"), plan);
+    }
+
+    @Test
+    public void testSerieFiltersUseSerieIndexes() {
+        serieRepository.searchSeries(null, List.of("comedy"), LocalDate.of(2000, 1, 1), LocalDate.of(2000, 6, 1), null, null, null, null, PageRequest.of(0, 20));
+        String plan = explain(idQuery("serie"));
+        assertTrue(plan.contains("IDX_SERIE_RELEASE_DATE"), plan);
+        assertTrue(plan.contains("IDX_SERIE_GENRE_SERIE"), plan);
+    }
+
+    @Test
+    public void testSameShapeReusesCompiledQuery() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        movieRepository.searchMovies(null, null, null, null, null, 5.0, null, 20.0, null, PageRequest.of(0, 20));
+        long hits = statistics.getQueryPlanCacheHitCount();
+
+        movieRepository.searchMovies(null, null, null, null, null, 7.0, null, 50.0, null, PageRequest.of(0, 20));
+
+        assertTrue(statistics.getQueryPlanCacheHitCount() > hits);
+        List<String> idQueries = CapturedStatements.SQL.stream().filter(sql -> sql.startsWith("select m1_0.id from movie")).toList();
+        assertEquals(2, idQueries.size());
+        assertEquals(idQueries.get(0), idQueries.get(1));
+    }
+
+    private static String idQuery(String table) {
+        return CapturedStatements.SQL.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).matches("select \\w+\\.id from " + table + " .*"))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("No id query captured: " + CapturedStatements.SQL));
+    }
+
+    // H2 prepara el EXPLAIN con los parámetros sin valor: el plan no depende de ellos
+    private String explain(String sql) {
+        Object[] parameters = new Object[count(sql, "?")];
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    private static int count(String text, String token) {
+        return text.split(java.util.regex.Pattern.quote(token), -1).length - 1;
+    }
+}
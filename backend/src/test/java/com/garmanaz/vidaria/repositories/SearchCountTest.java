@@ -0,0 +1,142 @@
+package com.garmanaz.vidaria.repositories;
+
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class SearchCountTest {
+
+    private static final int MOVIES = 60;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("popularity")));
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SerieRepository serieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'popular'), (2, 'top_rated')");
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (1, 'drama'), (2, 'comedy'), (3, 'horror')");
+        for (long id = 1; id <= MOVIES; id++) {
+            jdbcTemplate.update("INSERT INTO movie (id, title, rating, popularity, category_id) VALUES (?, ?, ?, ?, ?)",
+                    id, "Movie " + id, (double) (id % 10), (double) id, 1 + id % 2);
+            jdbcTemplate.update("INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, ?)", id, 1 + id % 3);
+            jdbcTemplate.update("INSERT INTO serie (id, title, rating, popularity) VALUES (?, ?, ?, ?)",
+                    id, "Serie " + id, (double) (id % 10), (double) id);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testExactCountsEveryRequest() {
+        CountedPage<Movie> page = search(List.of("Drama", "Comedy"), CountStrategy.EXACT);
+        search(List.of("Drama", "Comedy"), CountStrategy.EXACT);
+
+        assertEquals(40L, page.totalElements());
+        assertEquals(4, page.totalPages());
+        assertTrue(page.hasNext());
+        assertTrue(page.exact());
+        assertEquals("exact", page.count());
+        assertEquals(2, countQueries());
+    }
+
+    @Test
+    public void testCachedCountIsSharedByEquivalentFilters() {
+        CountedPage<Movie> first = search(List.of("Drama", "Comedy"), CountStrategy.CACHED);
+        CountedPage<Movie> reordered = search(List.of("COMEDY", "drama", "Drama"), CountStrategy.CACHED);
+        CountedPage<Movie> other = search(List.of("Horror"), CountStrategy.CACHED);
+
+        assertEquals(40L, first.totalElements());
+        assertEquals(40L, reordered.totalElements());
+        assertEquals(20L, other.totalElements());
+        assertEquals("cached", reordered.count());
+        assertEquals(2, countQueries());
+    }
+
+    @Test
+    public void testNoneSkipsTheCount() {
+        CountedPage<Movie> page = search(null, CountStrategy.NONE);
+
+        assertEquals(10, page.content().size());
+        assertNull(page.totalElements());
+        assertNull(page.totalPages());
+        assertTrue(page.hasNext());
+        assertFalse(page.exact());
+        assertEquals(0, countQueries());
+    }
+
+    @Test
+    public void testEstimateFallsBackToCachedExactCountWithoutPlanner() {
+        CountedPage<Serie> page = serieRepository.searchSeries(null, null, null, null, 5.0, null, null, null,
+                FIRST_PAGE, CountStrategy.ESTIMATE);
+        serieRepository.searchSeries(null, null, null, null, 5.0, null, null, null, FIRST_PAGE.next(), CountStrategy.ESTIMATE);
+
+        assertEquals(30L, page.totalElements());
+        assertTrue(page.exact());
+        assertEquals("estimate", page.count());
+        assertEquals(1, countQueries());
+    }
+
+    @Test
+    public void testLastPageNeedsNoCount() {
+        CountedPage<Movie> last = movieRepository.searchMovies(null, null, List.of("popular"), null, null, null, null, null, null,
+                PageRequest.of(2, 10, Sort.by(Sort.Order.desc("popularity"))), CountStrategy.NONE);
+        CountedPage<Movie> single = movieRepository.searchMovies("Movie 1", null, null, null, null, null, null, null, null,
+                PageRequest.of(0, 20), CountStrategy.EXACT);
+
+        assertEquals(10, last.content().size());
+        assertFalse(last.hasNext());
+        assertEquals(30L, last.totalElements());
+        assertEquals(11L, single.totalElements());
+        assertEquals(0, countQueries());
+    }
+
+    @Test
+    public void testCountStrategyOf() {
+        assertEquals(CountStrategy.EXACT, CountStrategy.of(null));
+        assertEquals(CountStrategy.EXACT, CountStrategy.of(" "));
+        assertEquals(CountStrategy.NONE, CountStrategy.of("None"));
+        assertThrows(IllegalArgumentException.class, () -> CountStrategy.of("approx"));
+    }
+
+    private CountedPage<Movie> search(List<String> genres, CountStrategy count) {
+        return movieRepository.searchMovies(null, genres, null, null, null, null, null, null, null, FIRST_PAGE, count);
+    }
+
+    private long countQueries() {
+        return Arrays.stream(statistics.getQueries())
+                .filter(query -> query.startsWith("SELECT COUNT("))
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+                .sum();
+    }
+}
@@ -0,0 +1,143 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.cache.HotKeyRegistry;
+import com.garmanaz.vidaria.utils.cache.HotKeyTracker;
+import com.garmanaz.vidaria.utils.cache.KnownIds;
+import com.garmanaz.vidaria.utils.cache.NearCache;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheWarmupServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private SerieRepository serieRepository;
+
+    @Mock
+    private NearCache<Movie> movieNearCache;
+
+    @Mock
+    private RefreshAheadCache<Serie> serieRemoteCache;
+
+    @Mock
+    private RedisTemplate<String, Movie> movieRedisTemplate;
+
+    @Mock
+    private HotKeyRegistry hotKeyRegistry;
+
+    @Mock
+    private KnownIds knownIds;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheWarmupService cacheWarmupService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheWarmupService = new CacheWarmupService(movieRepository, serieRepository, movieNearCache,
+                serieRemoteCache, hotKeyRegistry, knownIds, transactionManager, meterRegistry, Runnable::run);
+        ReflectionTestUtils.setField(cacheWarmupService, "topN", 3);
+        ReflectionTestUtils.setField(cacheWarmupService, "chunkSize", 500);
+
+        RedisSerializer<Movie> valueSerializer = new RedisSerializer<>() {
+            @Override
+            public byte[] serialize(Movie movie) {
+                return movie.getTitle().getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public Movie deserialize(byte[] bytes) {
+                return null;
+            }
+        };
+        lenient().doReturn(new StringRedisSerializer()).when(movieRedisTemplate).getKeySerializer();
+        lenient().doReturn(valueSerializer).when(movieRedisTemplate).getValueSerializer();
+    }
+
+    @Test
+    public void testWarm_WritesOnePipelinePerChunk() {
+        List<Long> allIds = LongStream.rangeClosed(1, 1_100).boxed().toList();
+        when(movieRepository.findIdsAfter(any(Long.class), any(Pageable.class))).thenAnswer(invocation -> {
+            Long afterId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return allIds.stream().filter(id -> id > afterId).limit(pageable.getPageSize()).toList();
+        });
+        when(movieRepository.findByIdIn(any())).thenAnswer(invocation -> {
+            List<Movie> movies = new ArrayList<>();
+            for (Long id : invocation.<List<Long>>getArgument(0)) {
+                movies.add(Movie.builder().id(id).title("m" + id).build());
+            }
+            return movies;
+        });
+
+        CacheWarmupService.WarmupResult result = cacheWarmupService.warm("movie",
+                movieRepository::findIdsAfter, movieRepository::findByIdIn, Movie::getId,
+                id -> "movie:" + id, movieRedisTemplate, id -> Duration.ofDays(1));
+
+        assertEquals(1_100, result.entities());
+        verify(movieRedisTemplate, times(3)).executePipelined(any(RedisCallback.class));
+        verify(movieRepository, times(3)).findByIdIn(any());
+        assertEquals(1_100.0, meterRegistry.get("cache.warmup.entities").tag("cache", "movie").counter().count());
+        assertEquals(result.bytes(), (long) meterRegistry.get("cache.warmup.bytes").tag("cache", "movie").counter().count());
+    }
+
+    @Test
+    public void testHotIds_FallsBackToPopularityWhenNothingPersisted() {
+        HotKeyTracker tracker = new HotKeyTracker("movie", 10, Duration.ofDays(1), Duration.ofHours(1));
+        when(hotKeyRegistry.loadPersisted("movie", 3)).thenReturn(List.of());
+        when(hotKeyRegistry.tracker("movie")).thenReturn(tracker);
+        when(movieRepository.findIdsByPopularity(any(Pageable.class))).thenReturn(List.of(30L, 10L, 20L));
+
+        BiFunction<Long, Pageable, List<Long>> ids = cacheWarmupService.hotIds("movie", movieRepository::findIdsByPopularity);
+
+        assertEquals(List.of(10L, 20L), ids.apply(Long.MIN_VALUE, PageRequest.of(0, 2)));
+        assertEquals(List.of(30L), ids.apply(20L, PageRequest.of(0, 2)));
+        assertEquals(List.of(), ids.apply(30L, PageRequest.of(0, 2)));
+        assertEquals(List.of(30L, 10L, 20L), tracker.topIds(3));
+        assertEquals(Duration.ofDays(1), tracker.ttlFor(30L));
+    }
+
+    @Test
+    public void testHotIds_UsesPersistedHotSet() {
+        when(hotKeyRegistry.loadPersisted("movie", 3)).thenReturn(List.of(7L, 3L));
+
+        BiFunction<Long, Pageable, List<Long>> ids = cacheWarmupService.hotIds("movie", movieRepository::findIdsByPopularity);
+
+        assertEquals(List.of(3L, 7L), ids.apply(Long.MIN_VALUE, PageRequest.of(0, 10)));
+        verify(movieRepository, never()).findIdsByPopularity(any());
+    }
+}
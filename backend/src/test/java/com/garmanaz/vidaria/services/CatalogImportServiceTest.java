@@ -0,0 +1,250 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.DTO.MovieResponse;
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.ImportState;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.CatalogBulkWriter;
+import com.garmanaz.vidaria.repositories.ImportStateRepository;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogImportServiceTest {
+
+    private static final int CHUNK = 3;
+    private static final int CONCURRENCY = 2;
+
+    // Formato de los volcados diarios: una línea JSON por título. 3 es adulto y 5 un vídeo; 6 ya no existe en TMDB
+    private static final List<String> MOVIE_EXPORT = List.of(
+            "{\"adult\":false,\"id\":1,\"original_title\":\"One\",\"popularity\":9.1,\"video\":false}",
+            "{\"adult\":false,\"id\":2,\"original_title\":\"Two\",\"popularity\":3.0,\"video\":false}",
+            "{\"adult\":true,\"id\":3,\"original_title\":\"Three\",\"popularity\":1.2,\"video\":false}",
+            "{\"adult\":false,\"id\":4,\"original_title\":\"Four\",\"popularity\":0.6,\"video\":false}",
+            "{\"adult\":false,\"id\":5,\"original_title\":\"Five\",\"popularity\":0.6,\"video\":true}",
+            "{\"adult\":false,\"id\":6,\"original_title\":\"Six\",\"popularity\":0.6,\"video\":false}",
+            "{\"adult\":false,\"id\":7,\"original_title\":\"Seven\",\"popularity\":0.6,\"video\":false}");
+
+    @Mock
+    private TmdbClient tmdbClient;
+
+    @Mock
+    private ReferenceData referenceData;
+
+    @Mock
+    private CatalogBulkWriter catalogBulkWriter;
+
+    @Mock
+    private ImportStateRepository importStateRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path dir;
+
+    private CatalogImportService importService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        importService = new CatalogImportService(tmdbClient, referenceData, catalogBulkWriter, importStateRepository,
+                transactionManager, meterRegistry, CHUNK, CONCURRENCY);
+        lenient().when(importStateRepository.save(any(ImportState.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(referenceData.genres(anyMap())).thenAnswer(invocation -> ((Map<Long, String>) invocation.getArgument(0))
+                .entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> new Genre(entry.getKey(), entry.getValue()))));
+        lenient().when(referenceData.category(CatalogImportService.CATEGORY)).thenReturn(new Category(1L, CatalogImportService.CATEGORY, null));
+        lenient().when(catalogBulkWriter.upsertMovies(anyCollection())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        lenient().when(catalogBulkWriter.upsertSeries(anyCollection())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamsGzippedExportInChunksWithBoundedConcurrency() throws Exception {
+        Path export = export("movie_ids_05_15_2024.json.gz", MOVIE_EXPORT);
+        when(importStateRepository.findById("movie_ids_05_15_2024.json.gz")).thenReturn(Optional.empty());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(tmdbClient.movieDetails(anyLong(), any(TmdbClient.Append[].class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            long id = invocation.getArgument(0);
+            return id == 6 ? null : movieDetails(id);
+        });
+
+        ImportState state = importService.importFile(export, CatalogImportService.typeOf(export));
+
+        assertEquals(7, state.getLinesRead());
+        assertEquals(4, state.getTitlesImported());
+        assertEquals(3, state.getSkipped());
+        assertNotNull(state.getCompletedAt());
+        assertNull(state.getLastError());
+        // Adultos y vídeos no llegan a pedirse a TMDB
+        verify(tmdbClient, never()).movieDetails(eq(3L), any(TmdbClient.Append[].class));
+        verify(tmdbClient, never()).movieDetails(eq(5L), any(TmdbClient.Append[].class));
+        assertTrue(maxInFlight.get() > 1, "detail requests were not concurrent");
+        assertTrue(maxInFlight.get() <= CONCURRENCY, "max in flight was " + maxInFlight.get());
+
+        // Una escritura masiva y una transacción (con su checkpoint) por bloque de 3 líneas
+        ArgumentCaptor<Collection<Movie>> written = ArgumentCaptor.forClass(Collection.class);
+        verify(catalogBulkWriter, times(3)).upsertMovies(written.capture());
+        assertEquals(List.of(List.of(1L, 2L), List.of(4L), List.of(7L)), written.getAllValues().stream()
+                .map(movies -> movies.stream().map(Movie::getId).toList()).toList());
+        Movie first = written.getAllValues().get(0).iterator().next();
+        assertEquals("Movie 1", first.getTitle());
+        assertEquals(CatalogImportService.CATEGORY, first.getCategory().getName());
+        assertEquals(List.of("Drama"), first.getGenres().stream().map(Genre::getName).toList());
+        verify(transactionManager, times(3)).getTransaction(any());
+
+        assertEquals(7.0, meterRegistry.get("catalog.import.lines").tag("type", "movie").counter().count());
+        assertEquals(4.0, meterRegistry.get("catalog.import.titles").tag("type", "movie").counter().count());
+        assertEquals(3, meterRegistry.get("catalog.import.chunk").tag("type", "movie").timer().count());
+    }
+
+    @Test
+    public void testResumesAfterLastCommittedChunk() throws Exception {
+        Path export = export("movie_ids_05_15_2024.json.gz", MOVIE_EXPORT);
+        ImportState interrupted = ImportState.builder()
+                .file("movie_ids_05_15_2024.json.gz")
+                .type("movie")
+                .linesRead(3)
+                .titlesImported(2)
+                .skipped(1)
+                .lastError("connection reset")
+                .build();
+        when(importStateRepository.findById("movie_ids_05_15_2024.json.gz")).thenReturn(Optional.of(interrupted));
+        when(tmdbClient.movieDetails(anyLong(), any(TmdbClient.Append[].class)))
+                .thenAnswer(invocation -> movieDetails(invocation.getArgument(0)));
+
+        ImportState state = importService.importFile(export, "movie");
+
+        verify(tmdbClient, never()).movieDetails(longThat(id -> id <= 3), any(TmdbClient.Append[].class));
+        assertEquals(7, state.getLinesRead());
+        assertEquals(2 + 3, state.getTitlesImported());
+        assertNull(state.getLastError());
+
+        // Un fichero terminado no se vuelve a procesar
+        clearInvocations(tmdbClient);
+        importService.importFile(export, "movie");
+        verifyNoInteractions(tmdbClient);
+    }
+
+    @Test
+    public void testFailureKeepsCheckpointOfCommittedChunks() throws Exception {
+        Path export = export("movie_ids_05_15_2024.json.gz", MOVIE_EXPORT);
+        when(importStateRepository.findById("movie_ids_05_15_2024.json.gz")).thenReturn(Optional.empty());
+        when(tmdbClient.movieDetails(anyLong(), any(TmdbClient.Append[].class))).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            if (id == 4) {
+                throw new IllegalStateException("TMDB unavailable");
+            }
+            return movieDetails(id);
+        });
+
+        assertThrows(IllegalStateException.class, () -> importService.importFile(export, "movie"));
+
+        ArgumentCaptor<ImportState> saved = ArgumentCaptor.forClass(ImportState.class);
+        verify(importStateRepository, atLeastOnce()).save(saved.capture());
+        ImportState state = saved.getValue();
+        assertEquals(3, state.getLinesRead());
+        assertEquals(2, state.getTitlesImported());
+        assertNull(state.getCompletedAt());
+        assertEquals("TMDB unavailable", state.getLastError());
+        verify(catalogBulkWriter, times(1)).upsertMovies(anyCollection());
+        assertEquals(1.0, meterRegistry.get("catalog.import.failures").tag("type", "movie").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSeriesExportIsDetectedByFileNameAndMappedWithSeasons() throws Exception {
+        Path export = export("tv_series_ids_05_15_2024.json", List.of(
+                "{\"id\":1396,\"original_name\":\"Breaking Bad\",\"popularity\":300.1}",
+                "{\"id\":66732,\"original_name\":\"Stranger Things\",\"popularity\":250.3}"));
+        when(importStateRepository.findById("tv_series_ids_05_15_2024.json")).thenReturn(Optional.empty());
+        when(tmdbClient.serieDetails(anyLong(), eq(TmdbClient.Append.VIDEOS)))
+                .thenAnswer(invocation -> serieDetails(invocation.getArgument(0)));
+
+        assertEquals("tv", CatalogImportService.typeOf(export));
+        ImportState state = importService.importFile(export, CatalogImportService.typeOf(export));
+
+        assertEquals(2, state.getTitlesImported());
+        ArgumentCaptor<Collection<Serie>> written = ArgumentCaptor.forClass(Collection.class);
+        verify(catalogBulkWriter, times(1)).upsertSeries(written.capture());
+        Serie breakingBad = written.getValue().iterator().next();
+        assertEquals("Serie 1396", breakingBad.getTitle());
+        assertEquals(List.of("Drama"), breakingBad.getGenreID().stream().map(Genre::getName).toList());
+        assertEquals(1, breakingBad.getSeasons().size());
+        verify(catalogBulkWriter, never()).upsertMovies(anyCollection());
+    }
+
+    private Path export(String name, List<String> lines) throws IOException {
+        Path file = dir.resolve(name);
+        OutputStream out = Files.newOutputStream(file);
+        if (name.endsWith(".gz")) {
+            out = new GZIPOutputStream(out);
+        }
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(String.join("\n", lines) + "\n");
+        }
+        return file;
+    }
+
+    private static MovieResponse.MovieDetails movieDetails(long id) {
+        MovieResponse.MovieDetails details = new MovieResponse.MovieDetails();
+        details.setId(id);
+        details.setTitle("Movie " + id);
+        details.setPopularity(10.0);
+        details.setGenres(List.of(new MovieResponse.Genre(18, "Drama")));
+        return details;
+    }
+
+    private static SerieResponse.SerieDetails serieDetails(long id) {
+        SerieResponse.SerieDetails details = new SerieResponse.SerieDetails();
+        details.setId(id);
+        details.setName("Serie " + id);
+        SerieResponse.SerieDetails.Genre drama = new SerieResponse.SerieDetails.Genre();
+        drama.setId(18L);
+        drama.setName("Drama");
+        details.setGenres(new ArrayList<>(List.of(drama)));
+        SerieResponse.SerieDetails.Season season = new SerieResponse.SerieDetails.Season();
+        season.setId(id * 10);
+        season.setSeasonNumber(1L);
+        details.setSeasons(List.of(season));
+        return details;
+    }
+}
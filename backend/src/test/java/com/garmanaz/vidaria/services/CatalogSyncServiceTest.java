@@ -0,0 +1,200 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.DTO.ChangesResponse;
+import com.garmanaz.vidaria.DTO.MovieResponse;
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.entities.SyncState;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.repositories.SyncStateRepository;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSyncServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 10);
+
+    @Mock
+    private TmdbClient tmdbClient;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private SerieRepository serieRepository;
+
+    @Mock
+    private SyncStateRepository syncStateRepository;
+
+    @Mock
+    private MovieCacheService movieCacheService;
+
+    @Mock
+    private RefreshAheadCache<Serie> serieRemoteCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogSyncService syncService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        syncService = new CatalogSyncService(tmdbClient, movieRepository, serieRepository, syncStateRepository,
+                movieCacheService, serieRemoteCache, transactionManager, meterRegistry, Runnable::run);
+        syncService.clock = Clock.fixed(TODAY.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ReflectionTestUtils.setField(syncService, "initialLookback", Duration.ofDays(1));
+        lenient().when(syncStateRepository.save(any(SyncState.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testFirstRunUpdatesOnlyStoredMoviesAndAdvancesHighWaterMark() {
+        when(syncStateRepository.findById("movie")).thenReturn(Optional.empty());
+        LocalDate start = TODAY.minusDays(1);
+        when(tmdbClient.changes("movie", start, TODAY, 1)).thenReturn(changes(2, 550L, 999L));
+        when(tmdbClient.changes("movie", start, TODAY, 2)).thenReturn(changes(2, 603L));
+        when(movieRepository.findExistingIds(List.of(550L, 999L))).thenReturn(List.of(550L));
+        when(movieRepository.findExistingIds(List.of(603L))).thenReturn(List.of());
+        when(tmdbClient.movieDetails(550L, TmdbClient.Append.VIDEOS, TmdbClient.Append.CREDITS)).thenReturn(movieDetails(550L, "Fight Club"));
+        Movie stored = Movie.builder().id(550L).title("Old title").build();
+        when(movieRepository.findByIdIn(anyCollection())).thenReturn(List.of(stored));
+
+        SyncState state = syncService.sync("movie");
+
+        // Solo se piden detalles de las películas guardadas
+        verify(tmdbClient, times(1)).movieDetails(anyLong(), any(TmdbClient.Append[].class));
+        assertEquals("Fight Club", stored.getTitle());
+        assertEquals("David Fincher", stored.getDirector());
+        assertEquals("https://www.youtube.com/watch?v=trailer-550", stored.getTrailer());
+        verify(movieCacheService, times(1)).evict(550L);
+        verify(movieCacheService, never()).evict(999L);
+
+        assertEquals(TODAY, state.getHighWaterMark());
+        assertNull(state.getWindowStart());
+        assertNull(state.getLastError());
+        assertEquals(3, state.getChangesSeen());
+        assertEquals(1, state.getTitlesUpdated());
+        assertNotNull(state.getLastSuccessAt());
+        assertEquals(0.0, meterRegistry.get("catalog.sync.lag").tag("feed", "movie").gauge().value());
+        // Una transacción por página: cambios y avance del estado juntos
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    public void testResumesFromLastCompletedPageAfterCrash() {
+        SyncState interrupted = SyncState.builder()
+                .feed("tv")
+                .highWaterMark(TODAY.minusDays(3))
+                .windowStart(TODAY.minusDays(3))
+                .windowEnd(TODAY)
+                .lastCompletedPage(4)
+                .build();
+        when(syncStateRepository.findById("tv")).thenReturn(Optional.of(interrupted));
+        when(tmdbClient.changes("tv", TODAY.minusDays(3), TODAY, 5)).thenReturn(changes(5, 1396L));
+        when(serieRepository.findExistingIds(List.of(1396L))).thenReturn(List.of(1396L));
+        SerieResponse.SerieDetails details = new SerieResponse.SerieDetails();
+        details.setId(1396L);
+        details.setName("Breaking Bad");
+        details.setNumberOfSeasons(5L);
+        when(tmdbClient.serieDetails(1396L, TmdbClient.Append.VIDEOS)).thenReturn(details);
+        Serie stored = Serie.builder().id(1396L).title("Old").numberOfSeasons(4L).build();
+        when(serieRepository.findByIdIn(anyCollection())).thenReturn(List.of(stored));
+
+        SyncState state = syncService.sync("tv");
+
+        verify(tmdbClient, never()).changes(eq("tv"), any(), any(), intThat(page -> page < 5));
+        assertEquals("Breaking Bad", stored.getTitle());
+        assertEquals(5L, stored.getNumberOfSeasons());
+        verify(serieRemoteCache, times(1)).evictAll(List.of("serie:1396"));
+        assertEquals(TODAY, state.getHighWaterMark());
+    }
+
+    @Test
+    public void testFailureKeepsCheckpointOfCompletedPages() {
+        when(syncStateRepository.findById("movie")).thenReturn(Optional.of(SyncState.builder()
+                .feed("movie").highWaterMark(TODAY.minusDays(2)).build()));
+        when(tmdbClient.changes("movie", TODAY.minusDays(2), TODAY, 1)).thenReturn(changes(3, 1L));
+        when(movieRepository.findExistingIds(List.of(1L))).thenReturn(List.of());
+        when(tmdbClient.changes("movie", TODAY.minusDays(2), TODAY, 2)).thenThrow(new ResourceAccessException("TMDB down"));
+
+        assertThrows(ResourceAccessException.class, () -> syncService.sync("movie"));
+
+        verify(syncStateRepository, atLeastOnce()).save(argThat(state ->
+                Integer.valueOf(1).equals(state.getLastCompletedPage())
+                        && TODAY.minusDays(2).equals(state.getWindowStart())
+                        && "TMDB down".equals(state.getLastError())
+                        && TODAY.minusDays(2).equals(state.getHighWaterMark())));
+        assertEquals(1, meterRegistry.counter("catalog.sync.failures", "feed", "movie").count());
+    }
+
+    @Test
+    public void testLongGapIsSplitInFourteenDayWindows() {
+        LocalDate hwm = TODAY.minusDays(20);
+        when(syncStateRepository.findById("movie")).thenReturn(Optional.of(SyncState.builder().feed("movie").highWaterMark(hwm).build()));
+        when(tmdbClient.changes(eq("movie"), any(), any(), eq(1))).thenReturn(changes(1));
+
+        SyncState state = syncService.sync("movie");
+
+        verify(tmdbClient).changes("movie", hwm, hwm.plusDays(14), 1);
+        verify(tmdbClient).changes("movie", hwm.plusDays(14), TODAY, 1);
+        assertEquals(TODAY, state.getHighWaterMark());
+        assertTrue(state.getLastSuccessAt().isBefore(Instant.now().plusSeconds(1)));
+    }
+
+    private static ChangesResponse changes(long totalPages, Long... ids) {
+        ChangesResponse response = new ChangesResponse();
+        response.setTotalPages(totalPages);
+        response.setResults(Arrays.stream(ids).map(id -> {
+            ChangesResponse.Change change = new ChangesResponse.Change();
+            change.setId(id);
+            return change;
+        }).toList());
+        return response;
+    }
+
+    private static MovieResponse.MovieDetails movieDetails(long id, String title) {
+        MovieResponse.MovieDetails details = new MovieResponse.MovieDetails();
+        details.setId(id);
+        details.setTitle(title);
+        details.setPopularity(10.0);
+        MovieResponse.MovieVideosResponse videos = new MovieResponse.MovieVideosResponse();
+        MovieResponse.MovieVideosResponse.Video trailer = new MovieResponse.MovieVideosResponse.Video();
+        trailer.setType("Trailer");
+        trailer.setKey("trailer-" + id);
+        videos.setResults(List.of(trailer));
+        details.setVideos(videos);
+        MovieResponse.Credits credits = new MovieResponse.Credits();
+        MovieResponse.Credits.CrewMember director = new MovieResponse.Credits.CrewMember();
+        director.setJob("Director");
+        director.setName("David Fincher");
+        credits.setCrew(List.of(director));
+        details.setCredits(credits);
+        return details;
+    }
+}
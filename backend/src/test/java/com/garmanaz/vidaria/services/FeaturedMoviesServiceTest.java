@@ -0,0 +1,158 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.DTO.FeaturedMovies;
+import com.garmanaz.vidaria.DTO.GenreSnapshot;
+import com.garmanaz.vidaria.DTO.MovieSnapshot;
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.utils.search.CatalogChangedEvent;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FeaturedMoviesServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private RedisTemplate<String, FeaturedMovies> featuredRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, FeaturedMovies> valueOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FeaturedMoviesService featuredMoviesService;
+
+    @BeforeEach
+    public void setUp() {
+        featuredMoviesService = new FeaturedMoviesService(movieRepository, featuredRedisTemplate, transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(featuredMoviesService, "candidates", 50);
+        ReflectionTestUtils.setField(featuredMoviesService, "count", 3);
+        ReflectionTestUtils.setField(featuredMoviesService, "distinctGenres", 2);
+        lenient().when(featuredRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    public void testSelectPicksGenreDiverseTitlesThenFillsByPopularity() {
+        List<MovieSnapshot> candidates = List.of(
+                snapshot(1L, 90.0, "popular", "Action"),
+                snapshot(2L, 80.0, "popular", "Action"),
+                snapshot(3L, 70.0, "popular", "Drama"),
+                snapshot(4L, 60.0, "popular", "Comedy"),
+                snapshot(5L, 50.0, "popular", "Horror"));
+
+        List<MovieSnapshot> selected = FeaturedMoviesService.select(candidates, new FeaturedMoviesService.Selection(4, 2, 0));
+
+        // 1 y 3 por aportar un género nuevo; el resto por popularidad
+        assertEquals(List.of(1L, 3L, 2L, 4L), selected.stream().map(MovieSnapshot::id).toList());
+    }
+
+    @Test
+    public void testSelectCapsTitlesPerCategoryUnlessTheCountCannotBeReached() {
+        List<MovieSnapshot> candidates = List.of(
+                snapshot(1L, 90.0, "popular", "Action"),
+                snapshot(2L, 80.0, "popular", "Drama"),
+                snapshot(3L, 70.0, "popular", "Comedy"),
+                snapshot(4L, 60.0, "top_rated", "Drama"),
+                snapshot(5L, 50.0, "upcoming", "Action"));
+
+        List<MovieSnapshot> mixed = FeaturedMoviesService.select(candidates, new FeaturedMoviesService.Selection(4, 4, 2));
+        assertEquals(List.of(1L, 2L, 4L, 5L), mixed.stream().map(MovieSnapshot::id).toList());
+
+        List<MovieSnapshot> filled = FeaturedMoviesService.select(candidates.subList(0, 4), new FeaturedMoviesService.Selection(4, 4, 1));
+        assertEquals(Set.of(1L, 2L, 3L, 4L), Set.copyOf(filled.stream().map(MovieSnapshot::id).toList()));
+    }
+
+    @Test
+    public void testRefreshStoresOneValueAndKeepsTheVersionWhileTheSelectionIsUnchanged() {
+        when(movieRepository.findMostPopularWithGenres(any(Pageable.class)))
+                .thenAnswer(invocation -> List.of(movie(1L, 90.0, "Action"), movie(2L, 80.0, "Drama"), movie(3L, 70.0, "Comedy")))
+                .thenAnswer(invocation -> List.of(movie(1L, 90.0, "Action"), movie(2L, 80.0, "Drama"), movie(3L, 70.0, "Comedy")))
+                .thenAnswer(invocation -> List.of(movie(1L, 95.0, "Action"), movie(2L, 80.0, "Drama"), movie(3L, 70.0, "Comedy")));
+
+        FeaturedMoviesService.Featured first = featuredMoviesService.refresh();
+        FeaturedMoviesService.Featured unchanged = featuredMoviesService.refresh();
+        FeaturedMoviesService.Featured changed = featuredMoviesService.refresh();
+
+        assertSame(first, unchanged);
+        assertNotEquals(first.etag(), changed.etag());
+        assertEquals(70.0, first.threshold());
+        assertEquals(List.of(1L, 2L, 3L), changed.movies().stream().map(Movie::getId).toList());
+
+        ArgumentCaptor<FeaturedMovies> stored = ArgumentCaptor.forClass(FeaturedMovies.class);
+        verify(valueOperations, times(2)).set(eq(FeaturedMoviesService.CACHE_KEY), stored.capture());
+        assertEquals(changed.etag(), stored.getValue().version());
+        assertSame(changed, featuredMoviesService.getFeatured());
+    }
+
+    @Test
+    public void testFirstRequestUsesTheSelectionAlreadyInRedis() {
+        FeaturedMovies stored = new FeaturedMovies("abc", Instant.now(), 80.0, List.of(snapshot(1L, 80.0, "popular", "Action")));
+        when(valueOperations.get(FeaturedMoviesService.CACHE_KEY)).thenReturn(stored);
+
+        FeaturedMoviesService.Featured featured = featuredMoviesService.getFeatured();
+
+        assertEquals("abc", featured.etag());
+        assertEquals("Movie 1", featured.movies().get(0).getTitle());
+        verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    public void testOnlyChangesThatCanAlterTheSelectionTriggerARefresh() {
+        FeaturedMoviesService.Featured featured = FeaturedMoviesService.Featured.of(
+                new FeaturedMovies("abc", Instant.now(), 70.0, List.of(snapshot(1L, 90.0, "popular", "Action"))));
+
+        assertFalse(FeaturedMoviesService.affects(featured, event(List.of(document(9L, 10.0)), List.of(8L))));
+        assertTrue(FeaturedMoviesService.affects(featured, event(List.of(document(1L, 10.0)), List.of())));
+        assertTrue(FeaturedMoviesService.affects(featured, event(List.of(document(9L, 75.0)), List.of())));
+        assertTrue(FeaturedMoviesService.affects(featured, event(List.of(), List.of(1L))));
+    }
+
+    private static CatalogChangedEvent event(List<SearchDocument> upserted, List<Long> removed) {
+        return new CatalogChangedEvent("movie", upserted, removed);
+    }
+
+    private static SearchDocument document(long id, double popularity) {
+        return new SearchDocument(id, "Movie " + id, null, null, null, popularity, Set.of(), null);
+    }
+
+    private static MovieSnapshot snapshot(Long id, double popularity, String category, String genre) {
+        return new MovieSnapshot(id, "Movie " + id, null, null, null, null, null, null, null, popularity,
+                null, category, List.of(new GenreSnapshot((long) genre.hashCode(), genre)), null);
+    }
+
+    private static Movie movie(Long id, double popularity, String genre) {
+        return Movie.builder()
+                .id(id)
+                .title("Movie " + id)
+                .popularity(popularity)
+                .category(new Category(1L, "popular", null))
+                .genres(List.of(new Genre((long) genre.hashCode(), genre)))
+                .build();
+    }
+}
@@ -0,0 +1,221 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.DTO.MovieCard;
+import com.garmanaz.vidaria.DTO.RankedTitle;
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.CategoryRepository;
+import com.garmanaz.vidaria.repositories.GenreRepository;
+import com.garmanaz.vidaria.repositories.MovieRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.cache.NearCache;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.search.CatalogChangedEvent;
+import com.garmanaz.vidaria.utils.search.SearchDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LeaderboardServiceTest {
+
+    private static final String DRAMA_RATING = "leaderboard:movie:genre:18:rating";
+    private static final String DRAMA_POPULARITY = "leaderboard:movie:genre:18:popularity";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisOperations<String, String> operations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private SerieRepository serieRepository;
+
+    @Mock
+    private GenreRepository genreRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private NearCache<Movie> movieNearCache;
+
+    @Mock
+    private RefreshAheadCache<Serie> serieRemoteCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    public void setUp() {
+        when(genreRepository.findAll()).thenReturn(List.of(new Genre(18L, "Drama")));
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(1L, "popular", null)));
+        ReferenceData referenceData = new ReferenceData(genreRepository, categoryRepository);
+        referenceData.preload();
+
+        leaderboardService = new LeaderboardService(redisTemplate, movieRepository, serieRepository, referenceData,
+                movieNearCache, serieRemoteCache, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(leaderboardService, "enabled", true);
+        ReflectionTestUtils.setField(leaderboardService, "writeChunkSize", 1000);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(operations.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWritesMoveTitlesBetweenBoardsAtomically() {
+        when(redisTemplate.hasKey("leaderboard:built:movie")).thenReturn(true);
+        when(redisTemplate.execute(any(SessionCallback.class)))
+                .thenAnswer(invocation -> invocation.<SessionCallback<?>>getArgument(0).execute(operations));
+
+        leaderboardService.onCatalogChanged(new CatalogChangedEvent("movie",
+                List.of(new SearchDocument(27205L, "Inception", null, null, 8.4, 90.0, Set.of("drama"), "popular")),
+                List.of()));
+
+        // Se quita de todas las clasificaciones del catálogo y se añade a las suyas, entre MULTI y EXEC
+        verify(operations).multi();
+        verify(zSetOperations).remove(DRAMA_RATING, "000000027205");
+        verify(zSetOperations).remove("leaderboard:movie:category:1:popularity", "000000027205");
+        verify(zSetOperations).add(DRAMA_RATING, Set.of(new DefaultTypedTuple<>("000000027205", -8.4)));
+        verify(zSetOperations).add(DRAMA_POPULARITY, Set.of(new DefaultTypedTuple<>("000000027205", -90.0)));
+        verify(zSetOperations).add("leaderboard:movie:category:1:rating", Set.of(new DefaultTypedTuple<>("000000027205", -8.4)));
+        verify(operations).exec();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUnbuiltBoardsAreNotUpdatedIncrementally() {
+        when(redisTemplate.hasKey("leaderboard:built:movie")).thenReturn(false);
+
+        leaderboardService.onCatalogChanged(new CatalogChangedEvent("movie",
+                List.of(new SearchDocument(27205L, "Inception", null, null, 8.4, 90.0, Set.of("drama"), "popular")),
+                List.of()));
+
+        // Redis perdió las clasificaciones: una con un solo título se serviría como si fuera el género entero
+        verify(redisTemplate, never()).execute(any(SessionCallback.class));
+    }
+
+    @Test
+    public void testTiesAreOrderedByIdLikeTheDatabase() {
+        // ZRANGE: puntuación ascendente y, a igual puntuación, miembro ascendente
+        assertTrue(LeaderboardService.score(8.5) < LeaderboardService.score(7.0));
+        assertTrue(LeaderboardService.score(0.1) < LeaderboardService.score(null));
+        assertEquals(0, Double.compare(0.0, LeaderboardService.score(0.0)));
+        assertTrue(LeaderboardService.member(9L).compareTo(LeaderboardService.member(10L)) < 0);
+        assertTrue(LeaderboardService.member(999L).compareTo(LeaderboardService.member(27205L)) < 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPagesComeFromTheBoardAndTheEntityCache() {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by(Sort.Order.desc("rating")));
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(true, 5L, new LinkedHashSet<>(List.of("000000000278", "000000000013"))));
+        when(movieNearCache.getAllPresent(List.of(278L, 13L)))
+                .thenReturn(Map.of(278L, Movie.builder().id(278L).title("The Shawshank Redemption").rating(8.7).build()));
+        when(movieRepository.findMovieCards(List.of(13L)))
+                .thenReturn(List.of(new MovieCard(13L, "Forrest Gump", null, null, null, null, 8.5, 60.0, null, null, List.of())));
+
+        Page<MovieCard> page = leaderboardService.bestMovies("Drama", pageable).orElseThrow();
+
+        assertEquals(List.of("The Shawshank Redemption", "Forrest Gump"), page.getContent().stream().map(MovieCard::title).toList());
+        assertEquals(5, page.getTotalElements());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMissingBoardsOrRedisErrorsFallBackToTheDatabase() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(true, 0L, Set.of()))
+                // Sin marca de construida: la clasificación puede estar a medias aunque tenga miembros
+                .thenReturn(List.of(false, 1L, Set.of("000000000278")))
+                .thenThrow(new QueryTimeoutException("Redis down"));
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Order.desc("rating")));
+
+        assertEquals(Optional.empty(), leaderboardService.bestMovies("Drama", pageable));
+        assertEquals(Optional.empty(), leaderboardService.bestMovies("Drama", pageable));
+        assertEquals(Optional.empty(), leaderboardService.bestMovies("Drama", pageable));
+        // Género desconocido u orden que ninguna clasificación sirve: ni siquiera se consulta Redis
+        assertEquals(Optional.empty(), leaderboardService.bestMovies("Western", pageable));
+        assertEquals(Optional.empty(), leaderboardService.moviesByCategory("popular", PageRequest.of(0, 20, Sort.by("title"))));
+        verify(redisTemplate, times(3)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCheckRepairsOnlyTheDifferenceWithTheDatabase() {
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn(DRAMA_RATING, "leaderboard:movie:genre:99:rating");
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(movieRepository.findRankedByGenre(18L))
+                .thenReturn(List.of(new RankedTitle(278L, 8.7, 90.0), new RankedTitle(13L, 8.5, 60.0)));
+        when(movieRepository.findRankedByCategory(1L)).thenReturn(List.of(new RankedTitle(278L, 8.7, 90.0)));
+        // El resto de clasificaciones no existe en Redis
+        lenient().when(zSetOperations.rangeWithScores(any(), anyLong(), anyLong())).thenReturn(Set.of());
+        when(zSetOperations.rangeWithScores(DRAMA_RATING, 0, -1)).thenReturn(Set.of(
+                new DefaultTypedTuple<>("000000000278", -8.7), new DefaultTypedTuple<>("000000000013", -8.0),
+                new DefaultTypedTuple<>("000000000680", -9.0)));
+        when(zSetOperations.rangeWithScores("leaderboard:movie:genre:99:rating", 0, -1))
+                .thenReturn(Set.of(new DefaultTypedTuple<>("000000000005", -7.0)));
+
+        LeaderboardService.CheckResult result = leaderboardService.check("movie");
+
+        // Drama por popularidad y las dos de la categoría estaban sin construir; 680 ya no es drama y el género 99 no existe
+        assertEquals(4, result.boards());
+        assertEquals(4, result.missing());
+        assertEquals(2, result.extra());
+        assertEquals(1, result.rescored());
+        verify(zSetOperations).add(DRAMA_RATING, Set.of(new DefaultTypedTuple<>("000000000013", -8.5)));
+        verify(zSetOperations).remove(DRAMA_RATING, "000000000680");
+        verify(zSetOperations).remove("leaderboard:movie:genre:99:rating", "000000000005");
+        verify(zSetOperations).add(DRAMA_POPULARITY, Set.of(new DefaultTypedTuple<>("000000000278", -90.0),
+                new DefaultTypedTuple<>("000000000013", -60.0)));
+        // Construidas: a partir de ahora se sirven y se actualizan con cada cambio
+        verify(valueOperations).set("leaderboard:built:movie", "1");
+    }
+}
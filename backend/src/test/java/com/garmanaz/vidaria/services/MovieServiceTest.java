@@ -1,10 +1,14 @@
 package com.garmanaz.vidaria.services;
 
-import com.garmanaz.vidaria.DTO.MovieResponse;
-import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.DTO.CountedPage;
+import com.garmanaz.vidaria.DTO.CursorPage;
+import com.garmanaz.vidaria.DTO.MovieCard;
 import com.garmanaz.vidaria.entities.Movie;
 import com.garmanaz.vidaria.repositories.CategoryRepository;
+import com.garmanaz.vidaria.repositories.CountStrategy;
 import com.garmanaz.vidaria.repositories.GenreRepository;
+import com.garmanaz.vidaria.repositories.Keyset;
+import com.garmanaz.vidaria.repositories.MovieFullTextSearch;
 import com.garmanaz.vidaria.repositories.MovieRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,15 +17,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +30,9 @@ import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,7 +55,7 @@ public class MovieServiceTest {
     RedisTemplate<String, String> redisTemplate;
 
     @Mock
-    private RestTemplate restTemplate;
+    private LeaderboardService leaderboardService;
 
     @InjectMocks
     private MovieService movieService;
@@ -59,16 +63,18 @@ public class MovieServiceTest {
 
     @Test
     public void getMoviesByCategoryTest() {
-        Page<Movie> page = mock(Page.class);
-        when(movieRepository.findMoviesByCategory("popular", null)).thenReturn(page);
-        movieService.getMoviesByCategory("popular", null);
-        verify(movieRepository).findMoviesByCategory("popular", null);
+        Page<MovieCard> page = mock(Page.class);
+        Pageable pageable = PageRequest.of(0, 20);
+        when(movieRepository.searchMovies(null, null, List.of("popular"), null, null, null, null, null, null, pageable, MovieCard.class))
+                .thenReturn(page);
+        movieService.getMoviesByCategory("popular", pageable);
+        verify(movieRepository).searchMovies(null, null, List.of("popular"), null, null, null, null, null, null, pageable, MovieCard.class);
     }
 
 
     @Test
     public void searchMoviesTest() {
-        Page<Movie> page = mock(Page.class);
+        Page<MovieCard> page = mock(Page.class);
         Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("popularity"), Sort.Order.desc("rating")));
 
         when(movieRepository.searchMovies(
@@ -76,7 +82,7 @@ public class MovieServiceTest {
                 List.of("Action"),
                 List.of("top_rated"),
                 null, null, null, null, null, null,
-                pageable)
+                pageable, MovieCard.class)
         ).thenReturn(page);
 
 
@@ -88,45 +94,105 @@ public class MovieServiceTest {
                 pageable);
     }
 
+    @Test
+    public void searchMoviesFullTextKeepsRelevanceOrderTest() {
+        MovieFullTextSearch fullTextSearch = mock(MovieFullTextSearch.class);
+        MovieService fullTextService = new MovieService(movieRepository, genreRepository, categoryRepository,
+                movieCacheService, leaderboardService, fullTextSearch);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(fullTextSearch.searchIds("shawshank", null, null, null, null, null, null, null, null, pageable))
+                .thenReturn(new PageImpl<>(List.of(278L, 13L), pageable, 12));
+        when(movieRepository.findMovieCards(List.of(278L, 13L)))
+                .thenReturn(List.of(card(278L), card(13L)));
+
+        Page<MovieCard> result = fullTextService.searchMovies("shawshank", null, null, null, null, null, null, null, null, pageable);
+
+        assertEquals(List.of(278L, 13L), result.getContent().stream().map(MovieCard::id).toList());
+        assertEquals(12, result.getTotalElements());
+        verify(movieRepository, never()).searchMovies(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(Pageable.class), any(Class.class));
+    }
+
+    @Test
+    public void searchMoviesKeepsClientSortTest() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("rating")));
+        when(movieRepository.searchMovies("terminator", null, null, null, null, null, null, null, null, pageable, MovieCard.class))
+                .thenReturn(Page.empty(pageable));
+
+        movieService.searchMovies("Terminator", null, null, null, null, null, null, null, null, pageable);
+
+        verify(movieRepository).searchMovies("terminator", null, null, null, null, null, null, null, null, pageable, MovieCard.class);
+    }
+
+    @Test
+    public void searchMoviesFullTextHonoursCountStrategyTest() {
+        MovieFullTextSearch fullTextSearch = mock(MovieFullTextSearch.class);
+        MovieService fullTextService = new MovieService(movieRepository, genreRepository, categoryRepository,
+                movieCacheService, leaderboardService, fullTextSearch);
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("rating")));
+        when(fullTextSearch.searchIds("shawshank", null, null, null, null, null, null, null, null, pageable, CountStrategy.NONE))
+                .thenReturn(CountedPage.of(List.of(278L, 13L), pageable, null, true, "none", false));
+        when(movieRepository.findMovieCards(List.of(278L, 13L)))
+                .thenReturn(List.of(card(278L), card(13L)));
+
+        CountedPage<MovieCard> result = fullTextService.searchMovies("shawshank", null, null, null, null, null, null, null, null,
+                pageable, CountStrategy.NONE);
+
+        assertEquals(List.of(278L, 13L), result.content().stream().map(MovieCard::id).toList());
+        assertEquals("none", result.count());
+        assertNull(result.totalElements());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    public void searchMoviesAfterFollowsTheRequestedSortTest() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("rating")));
+        CursorPage<MovieCard> page = CursorPage.of(List.of(), 10, null);
+        when(movieRepository.seekMovies(null, List.of("Drama"), null, null, null, null, null, null, null,
+                Keyset.RATING, null, 10, MovieCard.class)).thenReturn(page);
+
+        assertEquals(page, movieService.searchMoviesAfter(null, List.of("Drama"), null, null, null, null, null, null, null, "", pageable));
+        // Un orden sin índice para el cursor es un 400, no otro orden distinto del pedido
+        assertThrows(IllegalArgumentException.class, () -> movieService.searchMoviesAfter(null, null, null, null, null,
+                null, null, null, null, "", PageRequest.of(0, 10, Sort.by("title"))));
+    }
+
     @Test
     public void getBestMoviesByGenresTest() {
-        Page<Movie> page = mock(Page.class);
-        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("popularity"), Sort.Order.desc("rating")));
+        Page<MovieCard> page = mock(Page.class);
+        Pageable pageable = PageRequest.of(1, 10);
 
-        when(movieRepository.getBestMoviesByGenres("Action", pageable)).thenReturn(page);
+        when(movieRepository.searchMovies(null, List.of("Action"), null, null, null, null, null, null, null,
+                PageRequest.of(1, 10, Sort.by(Sort.Order.desc("rating"))), MovieCard.class)).thenReturn(page);
 
-        movieService.getBestMoviesByGenres("Action", pageable);
+        assertEquals(page, movieService.getBestMoviesByGenres("Action", pageable));
+    }
+
+    @Test
+    public void getBestMoviesByGenresFromLeaderboardTest() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("rating")));
+        Page<MovieCard> ranked = new PageImpl<>(List.of(card(278L)), pageable, 1);
+        when(leaderboardService.bestMovies("Drama", pageable)).thenReturn(Optional.of(ranked));
+
+        assertEquals(ranked, movieService.getBestMoviesByGenres("Drama", PageRequest.of(0, 10)));
+        verifyNoInteractions(movieRepository);
     }
 
     @Test
     public void getPaginatedMoviesTest() {
-        Page<Movie> page = mock(Page.class);
+        Page<MovieCard> page = mock(Page.class);
         Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("popularity"), Sort.Order.desc("rating")));
 
-        when(movieRepository.findAll(pageable)).thenReturn(page);
+        when(movieRepository.searchMovies(null, null, null, null, null, null, null, null, null, pageable, MovieCard.class)).thenReturn(page);
 
         movieService.getPaginatedMovies(pageable);
+        verify(movieRepository, never()).findAll(pageable);
     }
 
-
-    @Test
-    public void getGenresTest() {
-        MovieResponse.GenreResponse genreResponse = new MovieResponse.GenreResponse();
-        genreResponse.setGenres(List.of(
-                new MovieResponse.Genre(1L, "Action"),
-                new MovieResponse.Genre(2L, "Comedy")
-        ));
-        ResponseEntity<MovieResponse.GenreResponse> responseEntity = new ResponseEntity<>(genreResponse, HttpStatus.OK);
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(MovieResponse.GenreResponse.class)))
-                .thenReturn(responseEntity);
-
-        List<Genre> genres = movieService.getGenres();
-
-        assertNotNull(genres);
-        assertEquals(2, genres.size());
-        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(MovieResponse.GenreResponse.class));
+    private static MovieCard card(Long id) {
+        return new MovieCard(id, "Movie " + id, null, null, null, null, null, null, null, null, List.of());
     }
 
+
     @Test
     public void saveMovieTest() {
         Movie movie = new Movie();
@@ -146,7 +212,7 @@ public class MovieServiceTest {
         Movie existingMovie = new Movie();
         existingMovie.setId(movieId);
         existingMovie.setTitle("Old Title");
-        when(movieRepository.findById(movieId)).thenReturn(Optional.of(existingMovie));
+        when(movieRepository.findAdminById(movieId)).thenReturn(Optional.of(existingMovie));
 
         Movie updatedMovieData = new Movie();
         updatedMovieData.setTitle("Updated Title");
@@ -0,0 +1,167 @@
+package com.garmanaz.vidaria.services;
+
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.CatalogBulkWriter;
+import com.garmanaz.vidaria.repositories.CategoryRepository;
+import com.garmanaz.vidaria.repositories.GenreRepository;
+import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.async.BoundedExecutor;
+import com.garmanaz.vidaria.utils.cache.CacheInvalidationBus;
+import com.garmanaz.vidaria.utils.cache.HotKeyTracker;
+import com.garmanaz.vidaria.utils.cache.KnownIds;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.tmdb.TmdbCircuitBreaker;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
+import com.garmanaz.vidaria.utils.tmdb.TmdbRequestExecutor;
+import com.garmanaz.vidaria.utils.tmdb.TmdbStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// fetchSeries contra un servidor HTTP local que devuelve JSON de TMDB grabado
+@ExtendWith(MockitoExtension.class)
+public class SerieIngestionTest {
+
+    @Mock
+    private SerieRepository serieRepository;
+
+    @Mock
+    private GenreRepository genreRepository;
+
+    @Mock
+    private CatalogBulkWriter catalogBulkWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RedisTemplate<String, Serie> redisTemplate;
+
+    private TmdbStubServer tmdb;
+    private SerieService serieService;
+
+    @BeforeEach
+    public void setUp() {
+        tmdb = TmdbStubServer.start()
+                .stub("/tv/popular\\?page=1", "tv-popular-1.json")
+                .stub("/tv/popular\\?page=2", "tv-popular-2.json")
+                .stub("/tv/\\d+/videos", "tv-videos.json")
+                .stub("/tv/66732", "tv-66732.json")
+                .stub("/tv/1396", "tv-1396.json")
+                .stub("/tv/94605", "tv-94605.json")
+                .latency(Duration.ofMillis(20));
+
+        RestTemplate restTemplate = new RestTemplate();
+        TmdbRequestExecutor tmdbRequestExecutor = new TmdbRequestExecutor(restTemplate, new SimpleMeterRegistry(),
+                1000, 100, 4, 3, Duration.ofMillis(10), Duration.ofMillis(50), Optional.empty());
+        RefreshAheadCache<Serie> serieRemoteCache = new RefreshAheadCache<>("serie", redisTemplate,
+                new HotKeyTracker("serie", 100, Duration.ofDays(1), Duration.ofHours(1)), Duration.ofMinutes(10), 1.0,
+                Duration.ofMinutes(5), Runnable::run, new SimpleMeterRegistry());
+        serieService = new SerieService(new ReferenceData(genreRepository, mock(CategoryRepository.class)), serieRepository,
+                catalogBulkWriter, serieRemoteCache, transactionManager,
+                new KnownIds(new SimpleMeterRegistry()), mock(CacheInvalidationBus.class), new TmdbClient(tmdbRequestExecutor, tmdb.baseUrl(), "test_api_key",
+                        new TmdbCircuitBreaker(new SimpleMeterRegistry(), 5, Duration.ofSeconds(30)), Runnable::run,
+                        Duration.ofSeconds(5), 8),
+                mock(LeaderboardService.class), new BoundedExecutor("ingestion", 8, 100,
+                        BoundedExecutor.RejectionPolicy.CALLER_RUNS, Duration.ofSeconds(5), new SimpleMeterRegistry()));
+        serieService.setAPI_KEY("test_api_key");
+        serieService.setApiUrl(tmdb.baseUrl());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tmdb.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFetchSeriesRunsHttpConcurrentlyAndPersistsInOneBatch() {
+        Serie stored = Serie.builder().id(1399L).title("Old title").genreID(new ArrayList<>()).build();
+        when(serieRepository.findExistingIds(anyCollection())).thenAnswer(invocation ->
+                ((java.util.Collection<Long>) invocation.getArgument(0)).stream().filter(id -> id == 1399L).toList());
+        when(serieRepository.findByIdIn(anyCollection())).thenReturn(List.of(stored));
+        when(genreRepository.findAllById(anyIterable())).thenReturn(List.of(new Genre(18L, "Drama")));
+        when(genreRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Serie> series = serieService.fetchSeries("popular", 1);
+
+        assertEquals(List.of(1399L, 66732L, 1396L), series.stream().map(Serie::getId).toList());
+        // Ya guardada: se actualiza con los datos del listado, sin pedir sus detalles
+        assertEquals("Game of Thrones", series.get(0).getTitle());
+        assertEquals(369.6, series.get(0).getPopularity());
+        assertEquals("https://www.youtube.com/watch?v=trailer-key", series.get(0).getTrailer());
+        // Una petición por título: solo vídeos para la guardada, detalles + vídeos juntos para las nuevas
+        assertEquals(0, tmdb.calls("/tv/1399"));
+        assertEquals(1, tmdb.calls("/tv/1399/videos"));
+        assertEquals(1, tmdb.calls("/tv/66732"));
+        assertEquals(1, tmdb.calls("/tv/1396"));
+        assertEquals(0, tmdb.calls("/tv/66732/videos") + tmdb.calls("/tv/1396/videos"));
+        assertTrue(tmdb.lastQuery("/tv/66732").contains("append_to_response=videos"));
+        assertEquals(1 + 3, tmdb.totalCalls());
+        assertTrue(tmdb.maxInFlight() > 1, "detail and trailer requests were not concurrent");
+        assertTrue(tmdb.maxInFlight() <= 4, "max in flight was " + tmdb.maxInFlight());
+
+        // Nuevas: una sola escritura masiva (sin merge), con géneros resueltos en bloque
+        ArgumentCaptor<List<Serie>> created = ArgumentCaptor.forClass(List.class);
+        verify(catalogBulkWriter, times(1)).upsertSeries(created.capture());
+        verify(serieRepository, never()).saveAll(anyList());
+        assertEquals(List.of(66732L, 1396L), created.getValue().stream().map(Serie::getId).toList());
+        Serie strangerThings = created.getValue().get(0);
+        assertEquals("Ross Duffer", strangerThings.getCreator());
+        assertEquals("https://www.youtube.com/watch?v=trailer-66732", strangerThings.getTrailer());
+        assertEquals(List.of("Drama", "Mystery"), strangerThings.getGenreID().stream().map(Genre::getName).toList());
+        assertEquals(1, strangerThings.getSeasons().size());
+        verify(genreRepository, times(1)).findAllById(anyIterable());
+        ArgumentCaptor<List<Genre>> missingGenres = ArgumentCaptor.forClass(List.class);
+        verify(genreRepository, times(1)).saveAll(missingGenres.capture());
+        assertEquals(List.of(9648L, 80L), missingGenres.getValue().stream().map(Genre::getId).toList());
+        verify(genreRepository, never()).findById(anyLong());
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    public void testFetchSeriesDeduplicatesAcrossPagesAndRetriesTransientFailures() {
+        // Breaking Bad aparece al final de la página 1 y al principio de la 2
+        tmdb.failNext("/tv/popular", 429).failNext("/tv/66732", 503);
+        when(serieRepository.findExistingIds(anyCollection())).thenReturn(List.of());
+        when(serieRepository.findByIdIn(anyCollection())).thenReturn(List.of());
+        when(genreRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(genreRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Serie> series = serieService.fetchSeries("popular", 2);
+
+        // Game of Thrones no tiene detalles en el stub (404) y, al no estar guardada, se omite
+        assertEquals(List.of(66732L, 1396L, 94605L), series.stream().map(Serie::getId).toList());
+        assertEquals(1, tmdb.calls("/tv/1399"));
+        assertEquals(3, tmdb.calls("/tv/popular"));
+        assertEquals(2, tmdb.calls("/tv/66732"));
+        assertEquals(1, tmdb.calls("/tv/1396"));
+        assertEquals(0, tmdb.calls("/tv/1396/videos"));
+        verify(catalogBulkWriter, times(1)).upsertSeries(anyList());
+    }
+
+    @Test
+    public void testFetchSeriesRejectsUnknownCategoryBeforeAnyRequest() {
+        assertThrows(IllegalArgumentException.class, () -> serieService.fetchSeries("unknown", 1));
+        assertEquals(0, tmdb.totalCalls());
+    }
+}
@@ -1,13 +1,25 @@
 package com.garmanaz.vidaria.services;
 
+import com.garmanaz.vidaria.DTO.SerieCard;
 import com.garmanaz.vidaria.DTO.SerieResponse;
 import com.garmanaz.vidaria.entities.Genre;
 import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.repositories.CatalogBulkWriter;
+import com.garmanaz.vidaria.repositories.CategoryRepository;
+import com.garmanaz.vidaria.repositories.GenreRepository;
 import com.garmanaz.vidaria.repositories.SerieRepository;
+import com.garmanaz.vidaria.utils.cache.CacheInvalidationBus;
+import com.garmanaz.vidaria.utils.cache.HotKeyTracker;
+import com.garmanaz.vidaria.utils.cache.KnownIds;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.cache.RefreshAheadCache;
+import com.garmanaz.vidaria.utils.tmdb.TmdbCircuitBreaker;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
+import com.garmanaz.vidaria.utils.tmdb.TmdbRequestExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,15 +30,23 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,9 +56,17 @@ import static org.mockito.Mockito.*;
 @EnableCaching
 public class SerieServiceTest {
 
+    private static final Duration STALE_GRACE = Duration.ofMinutes(10);
+
     @Mock
     private SerieRepository serieRepository;
 
+    @Mock
+    private GenreRepository genreRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Mock
     private RestTemplate res;
 
@@ -51,9 +79,13 @@ public class SerieServiceTest {
     @Mock
     private CacheManager cacheManager;
 
-    @InjectMocks
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
     private SerieService serieService;
 
+    private KnownIds knownIds;
+
     @Value("${tmdb.api.key}")
     private String apiKey;
 
@@ -66,6 +98,20 @@ public class SerieServiceTest {
     public void setUp() {
 
         lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // Recargas en segundo plano ejecutadas en el mismo hilo para poder verificarlas
+        RefreshAheadCache<Serie> serieRemoteCache = new RefreshAheadCache<>("serie", redisTemplate,
+                new HotKeyTracker("serie", 100, Duration.ofDays(1), Duration.ofHours(1)), STALE_GRACE, 1.0,
+                Duration.ofMinutes(5), Runnable::run, new SimpleMeterRegistry());
+        knownIds = new KnownIds(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(knownIds, "falsePositiveRate", 0.01);
+        TmdbRequestExecutor tmdbRequestExecutor = new TmdbRequestExecutor(res, new SimpleMeterRegistry(), 1000, 1000, 10, 1,
+                Duration.ZERO, Duration.ZERO, Optional.empty());
+        TmdbClient tmdbClient = new TmdbClient(tmdbRequestExecutor, "https://api.themoviedb.org/3", apiKey,
+                new TmdbCircuitBreaker(new SimpleMeterRegistry(), 5, Duration.ofSeconds(30)), Runnable::run,
+                Duration.ofSeconds(5), 8);
+        serieService = new SerieService(new ReferenceData(genreRepository, mock(CategoryRepository.class)), serieRepository,
+                mock(CatalogBulkWriter.class), serieRemoteCache, transactionManager, knownIds,
+                invalidationBus, tmdbClient, mock(LeaderboardService.class), Runnable::run);
         serieService.setAPI_KEY(apiKey);
         serieService.setApiUrl(apiUrl);
         pageable = PageRequest.of(0, 10);
@@ -85,11 +131,10 @@ public class SerieServiceTest {
         genreResponse.setGenres(List.of(genre1, genre2));
 
         // URL completa con la API_KEY y el endpoint de géneros
-        String url = apiUrl + "/genre/tv/list?api_key=" + apiKey;
+        String url = "https://api.themoviedb.org/3/genre/tv/list?api_key=" + apiKey;
 
         // Configuración de la respuesta simulada en RestTemplate
-        when(res.getForEntity(url, SerieResponse.SerieDetails.GenreResponse.class))
-                .thenReturn(ResponseEntity.ok(genreResponse));
+        when(res.getForObject(url, SerieResponse.SerieDetails.GenreResponse.class)).thenReturn(genreResponse);
 
         // Llama al método getGenres y verifica el resultado
         List<Genre> genres = serieService.getGenres();
@@ -100,7 +145,56 @@ public class SerieServiceTest {
         assertEquals("Drama", genres.get(1).getName());
 
         // Verificación de la llamada en RestTemplate
-        verify(res, times(1)).getForEntity(url, SerieResponse.SerieDetails.GenreResponse.class);
+        verify(res, times(1)).getForObject(url, SerieResponse.SerieDetails.GenreResponse.class);
+    }
+
+    @Test
+    public void testGetSeriesByGenre_OmitsTrailerOrSerieWhenTmdbFails() {
+        knownIds.rebuild("serie", 2, add -> {
+            add.accept(10L);
+            add.accept(30L);
+        });
+        stubRedis(null, -2L);
+        SerieResponse discover = new SerieResponse();
+        discover.setResults(List.of(result(10L, "Without trailer"), result(20L, "Unavailable"), result(30L, "With trailer")));
+        when(res.getForObject("https://api.themoviedb.org/3/discover/tv?api_key=" + apiKey + "&with_genres=18", SerieResponse.class))
+                .thenReturn(discover);
+        Serie stored = Serie.builder().id(10L).title("Stored title").build();
+        when(serieRepository.findDetail(10L)).thenReturn(Optional.of(stored));
+        when(serieRepository.findDetail(30L)).thenReturn(Optional.of(Serie.builder().id(30L).trailer("https://www.youtube.com/watch?v=30").build()));
+        HttpServerErrorException unavailable = HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null);
+        when(res.getForObject("https://api.themoviedb.org/3/tv/10/videos?api_key=" + apiKey, SerieResponse.SerieDetails.SerieTrailer.class))
+                .thenThrow(unavailable);
+        when(res.getForObject("https://api.themoviedb.org/3/tv/20?api_key=" + apiKey + "&append_to_response=videos", SerieResponse.SerieDetails.class))
+                .thenThrow(unavailable);
+
+        List<Serie> series = serieService.getSeriesByGenre("18");
+
+        // La serie sin detalle se omite; la que no consigue el trailer sale sin él
+        assertEquals(List.of(10L, 30L), series.stream().map(Serie::getId).toList());
+        assertEquals("Without trailer", series.get(0).getTitle());
+        assertNull(series.get(0).getTrailer());
+        assertEquals("https://www.youtube.com/watch?v=30", series.get(1).getTrailer());
+        verify(res, never()).getForObject("https://api.themoviedb.org/3/tv/30/videos?api_key=" + apiKey, SerieResponse.SerieDetails.SerieTrailer.class);
+        // El listado trabaja sobre una copia: la serie cacheada no cambia
+        assertEquals("Stored title", stored.getTitle());
+        assertNotSame(stored, series.get(0));
+    }
+
+    @Test
+    public void testDeleteSerie_EvictsRedisCopyAndNotifiesOtherNodes() {
+        serieService.deleteSerie(1396L);
+
+        verify(serieRepository).deleteById(1396L);
+        verify(redisTemplate).delete(List.of("serie:1396", RefreshAheadCache.absentKey("serie:1396")));
+        verify(invalidationBus).publish("serie", 1396L);
+    }
+
+    private static SerieResponse.Result result(Long id, String name) {
+        SerieResponse.Result result = new SerieResponse.Result();
+        result.setId(id);
+        result.setName(name);
+        return result;
     }
 
     @Test
@@ -110,8 +204,8 @@ public class SerieServiceTest {
 
         Serie cachedSerie = Serie.builder().id(id).poster("cached_image_url").build();
 
-        // Configura el mock para devolver el objeto desde Redis
-        when(valueOperations.get(cacheKey)).thenReturn(cachedSerie);
+        // Configura el mock para devolver el objeto desde Redis, lejos de caducar
+        stubRedis(cachedSerie, Duration.ofDays(1).toMillis());
 
         // Llama al método
         Serie result = serieService.getSerieDetails(id);
@@ -119,9 +213,9 @@ public class SerieServiceTest {
         // Verificaciones
         assertNotNull(result);
         assertEquals(cachedSerie, result);
-        verify(valueOperations, times(1)).get(cacheKey);
-        verify(serieRepository, never()).findById(anyLong());
-        verify(valueOperations, never()).set(anyString(), any(Serie.class), anyLong(), any(TimeUnit.class));
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(serieRepository, never()).findDetail(anyLong());
+        verify(valueOperations, never()).set(anyString(), any(Serie.class), any(Duration.class));
     }
 
     @Test
@@ -132,9 +226,9 @@ public class SerieServiceTest {
         Serie dbSerie = Serie.builder().id(id).poster("db_image_url").build();
 
         // Configura el mock para devolver null desde Redis
-        when(valueOperations.get(cacheKey)).thenReturn(null);
+        stubRedis(null, -2L);
         // Configura el mock para devolver el objeto desde la base de datos
-        when(serieRepository.findById(id)).thenReturn(Optional.of(dbSerie));
+        when(serieRepository.findDetail(id)).thenReturn(Optional.of(dbSerie));
 
         // Llama al método
         Serie result = serieService.getSerieDetails(id);
@@ -142,9 +236,52 @@ public class SerieServiceTest {
         // Verificaciones
         assertNotNull(result);
         assertEquals(dbSerie, result);
-        verify(valueOperations, times(1)).get(cacheKey);
-        verify(serieRepository, times(1)).findById(id);
-        verify(valueOperations, times(1)).set(eq(cacheKey), eq(dbSerie), eq(1L), eq(TimeUnit.DAYS));
+        verify(serieRepository, times(1)).findDetail(id);
+        verify(valueOperations, times(1)).set(eq(cacheKey), eq(dbSerie), eq(Duration.ofDays(1).plus(STALE_GRACE)));
+    }
+
+    @Test
+    public void testGetSerieDetails_ServesStaleAndRevalidates() {
+        Long id = 1L;
+        String cacheKey = "serie:" + id;
+
+        Serie staleSerie = Serie.builder().id(id).poster("old_image_url").build();
+        Serie dbSerie = Serie.builder().id(id).poster("db_image_url").build();
+
+        // Quedan 5 segundos de vida física: ya pasó su TTL lógico y está en el margen de gracia
+        stubRedis(staleSerie, 5_000L);
+        when(serieRepository.findDetail(id)).thenReturn(Optional.of(dbSerie));
+
+        Serie result = serieService.getSerieDetails(id);
+
+        // Se devuelve el valor antiguo sin esperar y se recarga en segundo plano
+        assertEquals(staleSerie, result);
+        verify(serieRepository, times(1)).findDetail(id);
+        verify(valueOperations, times(1)).set(eq(cacheKey), eq(dbSerie), any(Duration.class));
+    }
+
+    @Test
+    public void testGetSerieDetails_UnknownIdSkipsDatabaseAndIsCachedAsAbsent() {
+        Long id = 404L;
+        // Filtro construido sin el id: seguro que no está en la base de datos
+        knownIds.rebuild("serie", 1, add -> add.accept(1L));
+        stubRedis(null, -2L);
+        when(redisTemplate.getKeySerializer()).thenAnswer(invocation -> RedisSerializer.string());
+        String url = "https://api.themoviedb.org/3/tv/" + id + "?api_key=" + apiKey + "&append_to_response=videos";
+        when(res.getForObject(url, SerieResponse.SerieDetails.class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertNull(serieService.getSerieDetails(id));
+        assertNull(serieService.getSerieDetails(id));
+
+        // Una sola llamada a TMDB: la segunda petición sale de la caché negativa en memoria
+        verify(serieRepository, never()).findDetail(anyLong());
+        verify(res, times(1)).getForObject(url, SerieResponse.SerieDetails.class);
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+    }
+
+    private void stubRedis(Serie value, long ttlMillis) {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(value, ttlMillis));
     }
 
     @Test
@@ -160,32 +297,25 @@ public class SerieServiceTest {
         Double popularityTo = 100.0;
 
 
-        Serie serie1 = new Serie();
-        serie1.setId(1L);
-        serie1.setTitle("Example Title 1");
-        serie1.setRating(8.5);
-
-        Serie serie2 = new Serie();
-        serie2.setId(2L);
-        serie2.setTitle("Example Title 2");
-        serie2.setRating(8.0);
+        SerieCard serie1 = new SerieCard(1L, "Example Title 1", null, null, null, 8.5, null, List.of());
+        SerieCard serie2 = new SerieCard(2L, "Example Title 2", null, null, null, 8.0, null, List.of());
 
 
-        Page<Serie> expectedPage = new PageImpl<>(List.of(serie1, serie2), pageable, 2);
+        Page<SerieCard> expectedPage = new PageImpl<>(List.of(serie1, serie2), pageable, 2);
 
 
-        when(serieRepository.searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable))
+        when(serieRepository.searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, SerieCard.class))
                 .thenReturn(expectedPage);
 
 
-        Page<Serie> resultPage = serieService.searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
+        Page<SerieCard> resultPage = serieService.searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
 
 
         assertEquals(2, resultPage.getTotalElements());
-        assertEquals("Example Title 1", resultPage.getContent().get(0).getTitle());
-        assertEquals("Example Title 2", resultPage.getContent().get(1).getTitle());
+        assertEquals("Example Title 1", resultPage.getContent().get(0).title());
+        assertEquals("Example Title 2", resultPage.getContent().get(1).title());
 
 
-        verify(serieRepository, times(1)).searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable);
+        verify(serieRepository, times(1)).searchSeries(title, genres, releaseDateFrom, releaseDateTo, ratingFrom, ratingTo, popularityFrom, popularityTo, pageable, SerieCard.class);
     }
 }
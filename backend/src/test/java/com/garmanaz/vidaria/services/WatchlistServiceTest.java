@@ -9,16 +9,18 @@ import com.garmanaz.vidaria.entities.Watchlist;
 import com.garmanaz.vidaria.repositories.MovieRepository;
 import com.garmanaz.vidaria.repositories.SerieRepository;
 import com.garmanaz.vidaria.repositories.*;
+import com.garmanaz.vidaria.utils.cache.ReferenceData;
+import com.garmanaz.vidaria.utils.tmdb.TmdbClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -40,10 +42,10 @@ public class WatchlistServiceTest {
     private SerieRepository serieRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private TmdbClient tmdbClient;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private ReferenceData referenceData;
 
     @InjectMocks
     private WatchlistService watchlistService;
@@ -89,7 +91,7 @@ public class WatchlistServiceTest {
     @Test
     public void testAddToWatchlist_withMovieId() {
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(movieRepository.findById(movie.getId())).thenReturn(Optional.of(movie));
+        when(movieRepository.findDetailById(movie.getId())).thenReturn(Optional.of(movie));
 
         Watchlist watchlist = new Watchlist();
         watchlist.setUser(user);
@@ -108,7 +110,7 @@ public class WatchlistServiceTest {
     @Test
     public void testAddToWatchlist_withSerieId() {
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(serieRepository.findById(serie.getId())).thenReturn(Optional.of(serie));
+        when(serieRepository.findDetail(serie.getId())).thenReturn(Optional.of(serie));
 
         Watchlist watchlist = new Watchlist();
         watchlist.setUser(user);
@@ -130,7 +132,8 @@ public class WatchlistServiceTest {
         movieDetails.setId(movie.getId());
         movieDetails.setTitle("Test Movie");
 
-        when(restTemplate.getForObject(anyString(), eq(MovieResponse.MovieDetails.class))).thenReturn(movieDetails);
+        when(tmdbClient.movieDetailsAsync(movie.getId(), TmdbClient.Append.VIDEOS, TmdbClient.Append.CREDITS))
+                .thenReturn(CompletableFuture.completedFuture(movieDetails));
         when(movieRepository.save(any(Movie.class))).thenReturn(movie);
 
         Movie fetchedMovie = watchlistService.fetchAndSaveMovie(movie.getId());
@@ -146,7 +149,8 @@ public class WatchlistServiceTest {
         serieDetails.setId(serie.getId());
         serieDetails.setName("Test Serie");
 
-        when(restTemplate.getForObject(anyString(), eq(SerieResponse.SerieDetails.class))).thenReturn(serieDetails);
+        when(tmdbClient.serieDetailsAsync(serie.getId(), TmdbClient.Append.VIDEOS))
+                .thenReturn(CompletableFuture.completedFuture(serieDetails));
         when(serieRepository.save(any(Serie.class))).thenReturn(serie);
 
         Serie fetchedSerie = watchlistService.fetchAndSaveSerie(serie.getId());
@@ -0,0 +1,152 @@
+package com.garmanaz.vidaria.utils.async;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private BoundedExecutor executor(int concurrency, int queueCapacity, BoundedExecutor.RejectionPolicy policy,
+                                     Duration drainTimeout) {
+        return new BoundedExecutor("test", concurrency, queueCapacity, policy, drainTimeout, meterRegistry);
+    }
+
+    @Test
+    public void testRunsAtMostConcurrencyTasksAndQueuesTheRest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(6);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (BoundedExecutor executor = executor(2, 10, BoundedExecutor.RejectionPolicy.ABORT, Duration.ofSeconds(5))) {
+            for (int i = 0; i < 6; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            awaitUntil(() -> executor.active() == 2 && executor.queued() == 4);
+            assertEquals(4.0, meterRegistry.get("executor.queued").tag("name", "test").gauge().value());
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, maxRunning.get());
+        assertEquals(6, meterRegistry.get("executor.duration").tag("name", "test").timer().count());
+        assertEquals(6, meterRegistry.get("executor.wait").tag("name", "test").timer().count());
+    }
+
+    @Test
+    public void testRejectionPolicies() throws InterruptedException {
+        for (BoundedExecutor.RejectionPolicy policy : BoundedExecutor.RejectionPolicy.values()) {
+            meterRegistry = new SimpleMeterRegistry();
+            CountDownLatch release = new CountDownLatch(1);
+            try (BoundedExecutor executor = executor(1, 1, policy, Duration.ofSeconds(5))) {
+                executor.execute(() -> awaitQuietly(release));
+                executor.execute(() -> awaitQuietly(release));
+
+                AtomicReference<Thread> ranOn = new AtomicReference<>();
+                Runnable overflow = () -> ranOn.set(Thread.currentThread());
+                switch (policy) {
+                    case ABORT -> assertThrows(RejectedExecutionException.class, () -> executor.execute(overflow));
+                    case CALLER_RUNS -> {
+                        executor.execute(overflow);
+                        assertSame(Thread.currentThread(), ranOn.get());
+                    }
+                    case DISCARD -> {
+                        executor.execute(overflow);
+                        assertNull(ranOn.get());
+                    }
+                }
+                assertEquals(1, meterRegistry.get("executor.rejected").tag("name", "test").counter().count());
+                release.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void testCloseDrainsPendingTasksAndRejectsNewOnes() {
+        AtomicInteger completed = new AtomicInteger();
+        BoundedExecutor executor = executor(1, 10, BoundedExecutor.RejectionPolicy.CALLER_RUNS, Duration.ofSeconds(5));
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                sleepQuietly(20);
+                completed.incrementAndGet();
+            });
+        }
+
+        executor.close();
+
+        assertEquals(5, completed.get());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(completed::incrementAndGet));
+    }
+
+    @Test
+    public void testCloseInterruptsWhatDoesNotDrainInTime() {
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+        BoundedExecutor executor = executor(1, 10, BoundedExecutor.RejectionPolicy.ABORT, Duration.ofMillis(100));
+        executor.execute(() -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+        });
+        awaitUntil(() -> executor.active() == 1);
+
+        long start = System.nanoTime();
+        executor.close();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        awaitUntil(() -> interrupted.get() == 1);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            sleepQuietly(5);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
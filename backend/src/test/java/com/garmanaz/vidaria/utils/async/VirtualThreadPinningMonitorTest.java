@@ -0,0 +1,80 @@
+package com.garmanaz.vidaria.utils.async;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry);
+        ReflectionTestUtils.setField(monitor, "enabled", true);
+        ReflectionTestUtils.setField(monitor, "threshold", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(monitor, "stackDepth", 12);
+        ReflectionTestUtils.setField(monitor, "maxSites", 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    public void testReportsSleepInsideSynchronizedOnAVirtualThread() throws InterruptedException {
+        monitor.start();
+        Object lock = new Object();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                sleepQuietly(50);
+            }
+        }).join();
+
+        // JFR entrega los eventos por lotes, aproximadamente una vez por segundo
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Timer pinned = null;
+        while (pinned == null && System.nanoTime() < deadline) {
+            pinned = meterRegistry.find("jvm.threads.virtual.pinned").timer();
+            sleepQuietly(100);
+        }
+        assertNotNull(pinned, "Pinning was not reported");
+        assertTrue(pinned.getId().getTag("site").startsWith(VirtualThreadPinningMonitorTest.class.getName()));
+        assertTrue(pinned.totalTime(TimeUnit.MILLISECONDS) >= 40);
+    }
+
+    @Test
+    public void testSitesBeyondTheLimitShareOneTag() {
+        monitor.record("org.postgresql.core.v3.QueryExecutorImpl.execute", Duration.ofMillis(30), List.of());
+        monitor.record("org.hibernate.collection.spi.AbstractPersistentCollection.initialize", Duration.ofMillis(30), List.of());
+        monitor.record("com.example.Other.run", Duration.ofMillis(30), List.of());
+        monitor.record("org.postgresql.core.v3.QueryExecutorImpl.execute", Duration.ofMillis(30), List.of());
+
+        assertEquals(2, meterRegistry.get("jvm.threads.virtual.pinned")
+                .tag("site", "org.postgresql.core.v3.QueryExecutorImpl.execute").timer().count());
+        assertEquals(1, meterRegistry.get("jvm.threads.virtual.pinned")
+                .tag("site", VirtualThreadPinningMonitor.OTHER).timer().count());
+        assertEquals(3, meterRegistry.get("jvm.threads.virtual.pinned").timers().size());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HotKeyRegistryTest {
+
+    private static final Duration RETENTION = Duration.ofDays(7);
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisOperations<String, String> operations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private HotKeyRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new HotKeyRegistry(stringRedisTemplate);
+        ReflectionTestUtils.setField(registry, "topK", 10);
+        ReflectionTestUtils.setField(registry, "hotTtl", Duration.ofDays(1));
+        ReflectionTestUtils.setField(registry, "coldTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(registry, "retention", RETENTION);
+        registry.node = "a";
+        lenient().when(operations.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pipelinesReturn(Set<String> nodes) {
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<SessionCallback<Object>>getArgument(0).execute(operations);
+                    return List.of(true, 1L, true, true, 0L, true, nodes);
+                })
+                .thenAnswer(invocation -> {
+                    invocation.<SessionCallback<Object>>getArgument(0).execute(operations);
+                    return List.of(2L, true);
+                });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEachNodeWritesItsOwnKeyAndTheSharedOneIsTheirSum() {
+        HotKeyTracker tracker = registry.tracker("movie");
+        tracker.record(278L);
+        tracker.record(278L);
+        tracker.record(13L);
+        pipelinesReturn(new LinkedHashSet<>(List.of("a", "b", "c")));
+
+        registry.persist(tracker);
+
+        // Solo se reescribe la clave del nodo; el conjunto compartido nunca se borra
+        verify(operations).delete("hot:movie:node:a");
+        verify(operations, never()).delete("hot:movie");
+        verify(zSetOperations).add(eq("hot:movie:node:a"), argThat((Set<ZSetOperations.TypedTuple<String>> tuples) ->
+                tuples.stream().anyMatch(tuple -> "278".equals(tuple.getValue()) && tuple.getScore() == 2.0)));
+        verify(zSetOperations).add(eq("hot:movie:nodes"), eq("a"), anyDouble());
+        verify(zSetOperations).removeRangeByScore(eq("hot:movie:nodes"), eq(0.0), anyDouble());
+        verify(zSetOperations).unionAndStore("hot:movie:node:a", List.of("hot:movie:node:b", "hot:movie:node:c"), "hot:movie");
+        verify(operations).expire("hot:movie", RETENTION);
+        verify(operations).expire("hot:movie:node:a", RETENTION);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNothingIsWrittenWithoutAccesses() {
+        registry.persist(registry.tracker("movie"));
+        // Sembrado desde el conjunto ya sumado: volver a escribirlo lo contaría dos veces en cada reinicio
+        registry.tracker("movie").seed(278L, 50);
+        registry.persist(registry.tracker("movie"));
+
+        verify(stringRedisTemplate, never()).executePipelined(any(SessionCallback.class));
+    }
+}
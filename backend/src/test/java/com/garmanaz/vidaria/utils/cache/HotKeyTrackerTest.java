@@ -0,0 +1,89 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotKeyTrackerTest {
+
+    private static final Duration HOT_TTL = Duration.ofDays(1);
+    private static final Duration COLD_TTL = Duration.ofHours(1);
+
+    @Test
+    public void testTopK_KeepsMostRequestedIds() {
+        HotKeyTracker tracker = new HotKeyTracker("movie", 3, HOT_TTL, COLD_TTL);
+
+        // Distribución sesgada: el id i se pide (50 - i) veces
+        for (long id = 1; id <= 40; id++) {
+            for (int i = 0; i < 50 - id; i++) {
+                tracker.record(id);
+            }
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), tracker.topIds(3));
+        assertTrue(tracker.isHot(1L));
+        assertFalse(tracker.isHot(30L));
+        assertTrue(tracker.estimate(1L) >= 49);
+    }
+
+    @Test
+    public void testEstimate_NeverUnderCounts() {
+        HotKeyTracker tracker = new HotKeyTracker("movie", 10, HOT_TTL, COLD_TTL, 64);
+
+        IntStream.rangeClosed(1, 1_000).forEach(id -> tracker.record(id));
+        tracker.record(5L);
+
+        assertTrue(tracker.estimate(5L) >= 2);
+    }
+
+    @Test
+    public void testTtlFor_ScalesWithPopularity() {
+        HotKeyTracker tracker = new HotKeyTracker("movie", 1, HOT_TTL, COLD_TTL);
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1L);
+        }
+        for (int i = 0; i < 50; i++) {
+            tracker.record(2L);
+        }
+
+        assertEquals(HOT_TTL, tracker.ttlFor(1L));
+        assertEquals(COLD_TTL, tracker.ttlFor(99L));
+        Duration warm = tracker.ttlFor(2L);
+        assertTrue(warm.compareTo(COLD_TTL) > 0 && warm.compareTo(HOT_TTL) < 0);
+    }
+
+    @Test
+    public void testDecay_HalvesCounters() {
+        HotKeyTracker tracker = new HotKeyTracker("movie", 10, HOT_TTL, COLD_TTL);
+        tracker.seed(1L, 8);
+        tracker.seed(2L, 1);
+
+        tracker.decay();
+
+        assertEquals(4, tracker.estimate(1L));
+        assertEquals(0, tracker.estimate(2L));
+        assertEquals(List.of(1L), tracker.topIds(10));
+    }
+
+    @Test
+    public void testObservedEntries_LeaveOutSeededCounts() {
+        HotKeyTracker tracker = new HotKeyTracker("movie", 10, HOT_TTL, COLD_TTL);
+        tracker.seed(278L, 40);
+        tracker.seed(13L, 20);
+        tracker.record(278L);
+        tracker.record(278L);
+        tracker.record(550L);
+
+        // Lo sembrado sigue contando como caliente, pero no es tráfico de este nodo
+        assertTrue(tracker.isHot(13L));
+        assertEquals(List.of(Map.entry(278L, 2), Map.entry(550L, 1)), tracker.observedEntries());
+
+        tracker.decay();
+        assertEquals(List.of(Map.entry(278L, 1)), tracker.observedEntries());
+    }
+}
@@ -0,0 +1,87 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdBloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        IdBloomFilter filter = IdBloomFilter.create(50_000, 0.01);
+        for (long id = 0; id < 50_000; id++) {
+            filter.add(id * 7 + 3);
+        }
+
+        for (long id = 0; id < 50_000; id++) {
+            assertTrue(filter.mightContain(id * 7 + 3));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateCloseToTarget() {
+        IdBloomFilter filter = IdBloomFilter.create(50_000, 0.01);
+        for (long id = 1; id <= 50_000; id++) {
+            filter.add(id);
+        }
+
+        int falsePositives = 0;
+        for (long id = 1_000_000; id < 1_100_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+
+        // 1% objetivo sobre 100.000 ids ausentes, con margen
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+    }
+
+    @Test
+    public void testKnownIds_AcceptsEverythingUntilBuiltAndKeepsIdsAddedDuringRebuild() {
+        KnownIds knownIds = new KnownIds(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(knownIds, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(knownIds, "minimumCapacity", 1_000L);
+
+        assertTrue(knownIds.mightContain("movie", 42L));
+
+        knownIds.rebuild("movie", 2, add -> {
+            add.accept(1L);
+            // Alta concurrente mientras se recorre la tabla
+            knownIds.add("movie", 99L);
+            add.accept(2L);
+        });
+
+        assertTrue(knownIds.isReady("movie"));
+        assertTrue(knownIds.mightContain("movie", 1L));
+        assertTrue(knownIds.mightContain("movie", 99L));
+        assertFalse(knownIds.mightContain("movie", 42L));
+
+        knownIds.add("movie", 42L);
+        assertTrue(knownIds.mightContain("movie", 42L));
+    }
+
+    @Test
+    public void testOverlappingRebuildsKeepTheAddsOfBoth() {
+        KnownIds knownIds = new KnownIds(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(knownIds, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(knownIds, "minimumCapacity", 1_000L);
+
+        knownIds.rebuild("movie", 2, outer -> {
+            outer.accept(1L);
+            // Otra reconstrucción empieza y acaba mientras la primera sigue recorriendo la tabla
+            knownIds.rebuild("movie", 2, inner -> {
+                inner.accept(1L);
+                knownIds.add("movie", 50L);
+            });
+            knownIds.add("movie", 99L);
+            outer.accept(2L);
+        });
+
+        assertTrue(knownIds.mightContain("movie", 1L));
+        assertTrue(knownIds.mightContain("movie", 2L));
+        assertTrue(knownIds.mightContain("movie", 50L));
+        assertTrue(knownIds.mightContain("movie", 99L));
+    }
+}
@@ -0,0 +1,123 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.entities.Movie;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NearCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Movie> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Movie> valueOperations;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private MeterRegistry meterRegistry;
+    private CacheInvalidationBus invalidationBus;
+    private NearCache<Movie> nearCache;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        invalidationBus = new CacheInvalidationBus(stringRedisTemplate, new KnownIds(meterRegistry), meterRegistry);
+        RefreshAheadCache<Movie> remote = new RefreshAheadCache<>("movie.l2", redisTemplate,
+                new HotKeyTracker("movie", 100, Duration.ofDays(1), Duration.ofHours(1)), Duration.ofMinutes(10), 1.0,
+                Duration.ofMinutes(5), Runnable::run, meterRegistry);
+        nearCache = new NearCache<>("movie", remote, invalidationBus, 100, Duration.ofMinutes(5), meterRegistry);
+    }
+
+    @Test
+    public void testGet_LoadsFromDatabaseOnceAndServesFromLocalTier() {
+        Movie movie = Movie.builder().id(1L).title("Inception").build();
+        AtomicInteger loads = new AtomicInteger();
+
+        stubRedis(null);
+
+        Movie first = nearCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return movie;
+        });
+        Movie second = nearCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return movie;
+        });
+
+        assertSame(movie, first);
+        assertSame(movie, second);
+        assertEquals(1, loads.get());
+        // Lectura inicial + comprobación antes de cargar
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(valueOperations, times(1)).set("movie:1", movie, Duration.ofDays(1).plusMinutes(10));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "movie.l1").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "movie.l2").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    public void testGet_RemoteHitPopulatesLocalTier() {
+        Movie movie = Movie.builder().id(2L).title("Titanic").build();
+        stubRedis(movie);
+
+        nearCache.get(2L, id -> fail("Loader must not be called on a Redis hit"));
+        nearCache.get(2L, id -> fail("Loader must not be called on a local hit"));
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "movie.l2").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    public void testInvalidate_DeletesBothTiersAndPublishes() {
+        Movie movie = Movie.builder().id(3L).build();
+        stubRedis(movie);
+        nearCache.get(3L, id -> null);
+
+        nearCache.invalidate(3L);
+        nearCache.get(3L, id -> null);
+
+        verify(redisTemplate).delete(List.of("movie:3", "miss:movie:3"));
+        verify(stringRedisTemplate).convertAndSend(CacheInvalidationBus.CHANNEL, "movie:3");
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    public void testRemoteInvalidationMessage_EvictsLocalTierOnly() {
+        Movie movie = Movie.builder().id(4L).build();
+        stubRedis(movie);
+        nearCache.get(4L, id -> null);
+
+        invalidationBus.onMessage(new DefaultMessage(CacheInvalidationBus.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "movie:4".getBytes(StandardCharsets.UTF_8)), null);
+        nearCache.get(4L, id -> null);
+
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate, never()).delete(anyCollection());
+    }
+
+    private void stubRedis(Movie value) {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(Arrays.asList(value, value != null ? Duration.ofDays(1).toMillis() : -2L));
+    }
+}
@@ -0,0 +1,65 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.DTO.SerieSnapshot;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.utils.RedisSerializerUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn test -Pbenchmark
+@Tag("benchmark")
+public class RedisCodecBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    @Test
+    public void compareCodecsForSerieWithSeasons() {
+        Serie serie = VersionedRedisSerializerTest.serie(8);
+
+        Map<String, RedisSerializer<Serie>> serializers = new LinkedHashMap<>();
+        serializers.put("legacy-jdk-entity", legacySerializer());
+        for (String codec : new String[]{"jdk", "json", "smile"}) {
+            serializers.put(codec, RedisSerializerUtil.createVersionedSerializer(
+                    codec, SerieSnapshot.SCHEMA_VERSION, SerieSnapshot.class, SerieSnapshot::from, SerieSnapshot::toSerie, false));
+        }
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        System.out.printf("%-18s %10s %12s %12s%n", "codec", "bytes", "encode ns", "decode ns");
+        serializers.forEach((name, serializer) -> {
+            byte[] bytes = serializer.serialize(serie);
+            for (int i = 0; i < WARMUP; i++) {
+                serializer.deserialize(serializer.serialize(serie));
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                bytes = serializer.serialize(serie);
+            }
+            long encodeNs = (System.nanoTime() - start) / ITERATIONS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                serializer.deserialize(bytes);
+            }
+            long decodeNs = (System.nanoTime() - start) / ITERATIONS;
+
+            sizes.put(name, bytes.length);
+            System.out.printf("%-18s %10d %12d %12d%n", name, bytes.length, encodeNs, decodeNs);
+        });
+
+        assertTrue(sizes.get("smile") < sizes.get("legacy-jdk-entity"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisSerializer<Serie> legacySerializer() {
+        return (RedisSerializer<Serie>) (RedisSerializer<?>) new JdkSerializationRedisSerializer();
+    }
+}
@@ -0,0 +1,182 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.repositories.CategoryRepository;
+import com.garmanaz.vidaria.repositories.GenreRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Una página de ingesta son 20 series con 3 géneros cada una: 60 búsquedas de género
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"})
+@ActiveProfiles("test")
+@Import(ReferenceData.class)
+public class ReferenceDataTest {
+
+    private static final int SERIES = 20;
+    private static final int GENRES_PER_SERIE = 3;
+
+    @Autowired
+    private ReferenceData referenceData;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private Statistics statistics;
+    private final Set<TransactionSynchronization> committed = new HashSet<>();
+
+    @BeforeEach
+    public void setUp() {
+        for (long id = 1; id <= 10; id++) {
+            jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (?, ?)", id, "Genre " + id);
+        }
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (1, 'Uncategorized'), (2, 'popular')");
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testIngestionPageGenreLookupsDropFromOneQueryPerGenreToZero() {
+        // Antes: un findById por género de cada serie, cada serie en su propia transacción
+        long before = statements(() -> forEachSerie(genres -> genres.keySet().forEach(id -> {
+            entityManagerFactory.getCache().evict(Genre.class);
+            entityManager.clear();
+            genreRepository.findById(id).orElseThrow();
+        })));
+        assertEquals(SERIES * GENRES_PER_SERIE, before);
+
+        referenceData.preload();
+        long after = statements(() -> forEachSerie(genres -> {
+            Map<Long, Genre> resolved = referenceData.genres(genres);
+            assertEquals(genres.keySet(), resolved.keySet());
+            resolved.forEach((id, genre) -> assertEquals("Genre " + id, genre.getName()));
+        }));
+        assertEquals(0, after);
+    }
+
+    @Test
+    public void testGenresLoadedByIdGoToTheSecondLevelCache() {
+        assertFalse(entityManagerFactory.getCache().contains(Genre.class, 1L));
+        genreRepository.findAllById(List.of(1L, 2L, 3L));
+
+        // Las lecturas de la misma transacción no lo usan (READ_WRITE); las siguientes peticiones sí
+        assertTrue(entityManagerFactory.getCache().contains(Genre.class, 1L));
+        assertEquals(3, statistics.getSecondLevelCachePutCount());
+    }
+
+    @Test
+    public void testCategoryByNameComesFromDictionaryOrQueryCache() {
+        referenceData.preload();
+        assertEquals(0, statements(() -> assertEquals(1L, referenceData.category("Uncategorized").getId())));
+
+        statements(() -> categoryRepository.findByName("popular"));
+        assertEquals(0, statements(() -> assertEquals(2L, categoryRepository.findByName("popular").getId())));
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void testUnknownGenresAreReadOnceAndMissingOnesCreated() {
+        referenceData.preload();
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (11, 'Added elsewhere')");
+
+        Map<Long, String> names = new LinkedHashMap<>();
+        names.put(1L, "Genre 1");
+        names.put(11L, "Added elsewhere");
+        names.put(99L, "Brand new");
+        Map<Long, Genre> resolved = referenceData.genres(names);
+        entityManager.flush();
+
+        assertEquals("Added elsewhere", resolved.get(11L).getName());
+        assertEquals("Brand new", resolved.get(99L).getName());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM genre WHERE id = 99", Integer.class));
+        // El que estaba en la base de datos queda en el diccionario; el nuevo entra tras el commit
+        assertEquals(0, statements(() -> referenceData.genres(Map.of(11L, "Added elsewhere"))));
+    }
+
+    @Test
+    public void testListenerRefreshesDictionaryOnlyAfterCommit() {
+        referenceData.preload();
+        ReferenceDataListener listener = new ReferenceDataListener(applicationContext.getBeanProvider(ReferenceData.class));
+        Category renamed = new Category(1L, "Renamed", null);
+        listener.onWrite(renamed);
+        listener.onWrite(new Genre(50L, "Written"));
+
+        // Hasta el commit el diccionario no cambia: un rollback no deja entradas que no existen
+        assertEquals("Uncategorized", referenceData.category("Uncategorized").getName());
+        commit();
+        assertEquals(0, statements(() -> {
+            assertSame(renamed, referenceData.category("Renamed"));
+            assertEquals("Written", referenceData.genre(50L, "ignored").getName());
+        }));
+
+        listener.onRemove(new Genre(2L, "Genre 2"));
+        commit();
+        assertEquals(1, statements(() -> assertEquals("Genre 2", referenceData.genre(2L, "Genre 2").getName())));
+    }
+
+    // Ejecuta los afterCommit que ha dejado el listener sin confirmar la transacción del test
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> synchronization.getClass().getEnclosingClass() == ReferenceDataListener.class)
+                .filter(committed::add)
+                .forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private void forEachSerie(Consumer<Map<Long, String>> serie) {
+        for (int i = 0; i < SERIES; i++) {
+            Map<Long, String> genres = new LinkedHashMap<>();
+            for (int j = 0; j < GENRES_PER_SERIE; j++) {
+                long id = 1 + (i + j) % 10;
+                genres.put(id, "Genre " + id);
+            }
+            serie.accept(genres);
+        }
+    }
+
+    private long statements(Runnable work) {
+        entityManager.clear();
+        statistics.clear();
+        work.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
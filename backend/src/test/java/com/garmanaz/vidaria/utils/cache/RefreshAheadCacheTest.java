@@ -0,0 +1,223 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.entities.Movie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshAheadCacheTest {
+
+    private static final int CONCURRENT_REQUESTS = 1_000;
+    private static final Duration STALE_GRACE = Duration.ofMinutes(10);
+    private static final Duration NEGATIVE_TTL = Duration.ofMinutes(5);
+
+    @Mock
+    private RedisTemplate<String, Movie> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Movie> valueOperations;
+
+    // Redis simulado: un único valor, su PTTL y la marca negativa
+    private final AtomicReference<Movie> stored = new AtomicReference<>();
+    private final AtomicLong storedTtl = new AtomicLong(-2);
+    private final AtomicBoolean markedAbsent = new AtomicBoolean();
+    private final AtomicInteger databaseQueries = new AtomicInteger();
+    private ExecutorService refreshExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshAheadCache<Movie> cache;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenAnswer(invocation -> Arrays.asList(stored.get(), storedTtl.get(), markedAbsent.get()));
+        lenient().when(redisTemplate.getKeySerializer()).thenAnswer(invocation -> RedisSerializer.string());
+        lenient().when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation -> {
+            markedAbsent.set(true);
+            return null;
+        });
+        lenient().doAnswer(invocation -> {
+            stored.set(invocation.getArgument(1));
+            storedTtl.set(invocation.<Duration>getArgument(2).toMillis());
+            return null;
+        }).when(valueOperations).set(anyString(), any(Movie.class), any(Duration.class));
+
+        refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RefreshAheadCache<>("movie.l2", redisTemplate,
+                new HotKeyTracker("movie", 100, Duration.ofDays(1), Duration.ofHours(1)), STALE_GRACE, 1.0,
+                NEGATIVE_TTL, refreshExecutor, meterRegistry);
+    }
+
+    @Test
+    public void testExpiredKey_ThousandConcurrentRequestsQueryDatabaseOnce() throws Exception {
+        // La clave acaba de caducar: Redis no tiene nada
+        List<Movie> results = getConcurrently(this::loadFromDatabase);
+
+        assertEquals(1, databaseQueries.get());
+        assertEquals(CONCURRENT_REQUESTS, results.size());
+        results.forEach(movie -> assertEquals("fresh", movie.getTitle()));
+        verify(valueOperations, times(1)).set(eq("movie:1"), any(Movie.class), any(Duration.class));
+    }
+
+    @Test
+    public void testStaleKey_ServesStaleToEveryoneAndRefreshesOnce() throws Exception {
+        stored.set(Movie.builder().id(1L).title("stale").build());
+        storedTtl.set(STALE_GRACE.toMillis() / 2);
+
+        // La recarga no termina hasta que se han servido todas las peticiones
+        CountDownLatch release = new CountDownLatch(1);
+        List<Movie> results = getConcurrently(id -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loadFromDatabase(id);
+        });
+        release.countDown();
+        refreshExecutor.shutdown();
+        refreshExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Nadie espera a la base de datos: todos reciben el valor antiguo y hay una única recarga
+        results.forEach(movie -> assertEquals("stale", movie.getTitle()));
+        assertEquals(1, databaseQueries.get());
+        assertEquals("fresh", stored.get().getTitle());
+        assertEquals(cache.ttlFor(1L).toMillis(), storedTtl.get());
+    }
+
+    @Test
+    public void testFreshKey_DoesNotReload() {
+        stored.set(Movie.builder().id(1L).title("cached").build());
+        storedTtl.set(Duration.ofDays(1).toMillis());
+
+        Movie movie = cache.get("movie:1", 1L, this::loadFromDatabase);
+
+        assertEquals("cached", movie.getTitle());
+        assertEquals(0, databaseQueries.get());
+    }
+
+    @Test
+    public void testShouldRefreshEarly_MoreLikelyCloseToExpiry() {
+        int nearExpiry = 0;
+        int farFromExpiry = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (cache.shouldRefreshEarly(50)) {
+                nearExpiry++;
+            }
+            if (cache.shouldRefreshEarly(Duration.ofHours(1).toMillis())) {
+                farFromExpiry++;
+            }
+        }
+
+        assertTrue(nearExpiry > 5_000);
+        assertEquals(0, farFromExpiry);
+    }
+
+    @Test
+    public void testLoaderFailure_PropagatesToAllWaiters() {
+        RuntimeException failure = new IllegalStateException("database down");
+
+        RuntimeException thrown = assertThrows(IllegalStateException.class,
+                () -> cache.get("movie:1", 1L, id -> { throw failure; }));
+
+        assertSame(failure, thrown);
+        assertNull(stored.get());
+    }
+
+    @Test
+    public void testUnknownId_ThousandConcurrentRequestsQueryDatabaseOnceAndCacheTheMiss() throws Exception {
+        List<Movie> results = getConcurrently(id -> {
+            databaseQueries.incrementAndGet();
+            return null;
+        });
+
+        results.forEach(Assertions::assertNull);
+        assertEquals(1, databaseQueries.get());
+        assertTrue(markedAbsent.get());
+
+        // Más tarde, otra petición por el mismo id ni siquiera va a Redis
+        assertNull(cache.get("movie:1", 1L, this::loadFromDatabase));
+        assertEquals(1, databaseQueries.get());
+        assertTrue(meterRegistry.get("cache.gets").tag("result", "negative").counter().count() > 0);
+    }
+
+    @Test
+    public void testAbsentMarkerInRedis_SkipsLoaderOnOtherNodes() {
+        markedAbsent.set(true);
+
+        assertNull(cache.get("movie:1", 1L, this::loadFromDatabase));
+
+        assertEquals(0, databaseQueries.get());
+    }
+
+    @Test
+    public void testEvict_ForgetsNegativeEntry() {
+        cache.get("movie:1", 1L, id -> null);
+        markedAbsent.set(false);
+
+        cache.evict("movie:1");
+        Movie movie = cache.get("movie:1", 1L, this::loadFromDatabase);
+
+        assertEquals("fresh", movie.getTitle());
+        verify(redisTemplate).delete(List.of("movie:1", "miss:movie:1"));
+    }
+
+    private List<Movie> getConcurrently(Function<Long, Movie> loader) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Movie>> futures = new ArrayList<>();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                futures.add(requests.submit(() -> {
+                    start.await();
+                    return cache.get("movie:1", 1L, loader);
+                }));
+            }
+            start.countDown();
+        }
+
+        List<Movie> results = new ArrayList<>();
+        for (Future<Movie> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private Movie loadFromDatabase(Long id) {
+        databaseQueries.incrementAndGet();
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Movie.builder().id(id).title("fresh").build();
+    }
+}
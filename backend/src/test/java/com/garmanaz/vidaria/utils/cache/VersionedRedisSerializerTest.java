@@ -0,0 +1,144 @@
+package com.garmanaz.vidaria.utils.cache;
+
+import com.garmanaz.vidaria.DTO.MovieSnapshot;
+import com.garmanaz.vidaria.DTO.SerieSnapshot;
+import com.garmanaz.vidaria.entities.Category;
+import com.garmanaz.vidaria.entities.Genre;
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Season;
+import com.garmanaz.vidaria.entities.Serie;
+import com.garmanaz.vidaria.utils.RedisSerializerUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedRedisSerializerTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jdk", "json", "smile"})
+    public void testMovieRoundTrip(String codec) {
+        VersionedRedisSerializer<Movie, MovieSnapshot> serializer = movieSerializer(codec, true);
+
+        byte[] bytes = serializer.serialize(movie());
+        Movie result = serializer.deserialize(bytes);
+
+        assertEquals(VersionedRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(MovieSnapshot.SCHEMA_VERSION, bytes[2]);
+        assertEquals("Inception", result.getTitle());
+        assertEquals(LocalDate.of(2010, 7, 16), result.getReleaseDate());
+        assertEquals("Popular", result.getCategory().getName());
+        assertEquals(List.of("Action", "Drama"), result.getGenres().stream().map(Genre::getName).toList());
+    }
+
+    @Test
+    public void testSerieRoundTripKeepsSeasons() {
+        VersionedRedisSerializer<Serie, SerieSnapshot> serializer = RedisSerializerUtil.createVersionedSerializer(
+                "smile", SerieSnapshot.SCHEMA_VERSION, SerieSnapshot.class, SerieSnapshot::from, SerieSnapshot::toSerie, true);
+
+        Serie result = serializer.deserialize(serializer.serialize(serie()));
+
+        assertEquals("Breaking Bad", result.getTitle());
+        assertEquals(2, result.getSeasons().size());
+        assertSame(result, result.getSeasons().get(0).getSerie());
+        assertEquals(1, result.getGenreID().size());
+    }
+
+    @Test
+    public void testReadsValuesWrittenWithAnotherCodec() {
+        byte[] json = movieSerializer("json", true).serialize(movie());
+
+        Movie result = movieSerializer("smile", true).deserialize(json);
+
+        assertEquals("Inception", result.getTitle());
+    }
+
+    @Test
+    public void testLegacyJdkPayload_ReadOnlyInMigrationMode() {
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(movie());
+
+        assertEquals("Inception", movieSerializer("smile", true).deserialize(legacy).getTitle());
+        assertNull(movieSerializer("smile", false).deserialize(legacy));
+    }
+
+    @Test
+    public void testSchemaVersionMismatchIsTreatedAsMiss() {
+        byte[] bytes = movieSerializer("smile", true).serialize(movie());
+        bytes[2] = (byte) (MovieSnapshot.SCHEMA_VERSION + 1);
+
+        assertNull(movieSerializer("smile", true).deserialize(bytes));
+    }
+
+    @Test
+    public void testUnknownCodecIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> movieSerializer("xml", true));
+    }
+
+    private VersionedRedisSerializer<Movie, MovieSnapshot> movieSerializer(String codec, boolean readLegacy) {
+        return RedisSerializerUtil.createVersionedSerializer(
+                codec, MovieSnapshot.SCHEMA_VERSION, MovieSnapshot.class, MovieSnapshot::from, MovieSnapshot::toMovie, readLegacy);
+    }
+
+    static Movie movie() {
+        Category category = new Category("Popular");
+        category.setId(1L);
+        return Movie.builder()
+                .id(27205L)
+                .title("Inception")
+                .description("A thief who steals corporate secrets through the use of dream-sharing technology.")
+                .releaseDate(LocalDate.of(2010, 7, 16))
+                .cover("https://image.tmdb.org/t/p/w500/cover.jpg")
+                .background("https://image.tmdb.org/t/p/w500/background.jpg")
+                .director("Christopher Nolan")
+                .duration(148L)
+                .rating(8.8)
+                .popularity(91.2)
+                .category(category)
+                .genres(new ArrayList<>(List.of(new Genre(28L, "Action"), new Genre(18L, "Drama"))))
+                .trailer("https://www.youtube.com/watch?v=YoHD9XEInc0")
+                .build();
+    }
+
+    static Serie serie() {
+        return serie(2);
+    }
+
+    static Serie serie(int seasonCount) {
+        Serie serie = Serie.builder()
+                .id(1396L)
+                .title("Breaking Bad")
+                .description("A high school chemistry teacher diagnosed with inoperable lung cancer turns to manufacturing methamphetamine.")
+                .genreID(new ArrayList<>(List.of(new Genre(18L, "Drama"))))
+                .creator("Vince Gilligan")
+                .releaseDate("2008-01-20")
+                .poster("https://image.tmdb.org/t/p/w500/poster.jpg")
+                .backdrop("https://image.tmdb.org/t/p/w500/backdrop.jpg")
+                .rating(8.9)
+                .popularity(310.4)
+                .numberOfSeasons((long) seasonCount)
+                .numberOfEpisodes(62L)
+                .trailer("https://www.youtube.com/watch?v=HhesaQXLuRY")
+                .status("Ended")
+                .build();
+        List<Season> seasons = new ArrayList<>();
+        for (int i = 1; i <= seasonCount; i++) {
+            seasons.add(Season.builder()
+                    .id(3570L + i)
+                    .name("Season " + i)
+                    .releaseDate("2008-01-20")
+                    .episodeCount(13L)
+                    .poster("https://image.tmdb.org/t/p/w500/season" + i + ".jpg")
+                    .seasonNumber((long) i)
+                    .serie(serie)
+                    .build());
+        }
+        serie.setSeasons(seasons);
+        return serie;
+    }
+}
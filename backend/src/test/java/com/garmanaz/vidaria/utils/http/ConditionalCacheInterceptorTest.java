@@ -0,0 +1,146 @@
+package com.garmanaz.vidaria.utils.http;
+
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import com.garmanaz.vidaria.utils.tmdb.TmdbStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConditionalCacheInterceptorTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    private TmdbStubServer tmdb;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        tmdb = TmdbStubServer.start().stub("/tv/66732", "tv-66732.json");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tmdb.close();
+    }
+
+    private RestTemplate restTemplate(HttpResponseCache cache) {
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory(HttpClient.newHttpClient()));
+        restTemplate.setInterceptors(List.of(new ConditionalCacheInterceptor(cache, meterRegistry), new GzipInterceptor(meterRegistry)));
+        return restTemplate;
+    }
+
+    private SerieResponse.SerieDetails get(RestTemplate restTemplate, String apiKey) {
+        return restTemplate.getForObject(tmdb.baseUrl() + "/tv/66732?api_key=" + apiKey, SerieResponse.SerieDetails.class);
+    }
+
+    @Test
+    public void testFreshResponseIsServedWithoutNetwork() {
+        tmdb.cacheControl("public, max-age=60");
+        RestTemplate restTemplate = restTemplate(new HttpResponseCache(cacheDirectory, 1 << 20));
+
+        assertEquals("Stranger Things", get(restTemplate, "a").getName());
+        // Otra api_key: misma entrada, la clave no forma parte de la URL cacheada
+        assertEquals("Stranger Things", get(restTemplate, "b").getName());
+
+        assertEquals(1, tmdb.calls("/tv/66732"));
+        assertEquals(1, meterRegistry.counter("http.client.cache.requests", "result", "hit").count());
+        assertTrue(meterRegistry.counter("http.client.cache.bytes_saved").count() > 0);
+        assertEquals(0.5, meterRegistry.get("http.client.cache.hit_ratio").gauge().value());
+    }
+
+    @Test
+    public void testStaleResponseIsRevalidatedWithETag() {
+        tmdb.cacheControl("public, max-age=0");
+        RestTemplate restTemplate = restTemplate(new HttpResponseCache(cacheDirectory, 1 << 20));
+
+        get(restTemplate, "a");
+        SerieResponse.SerieDetails revalidated = get(restTemplate, "a");
+
+        assertEquals("Stranger Things", revalidated.getName());
+        assertEquals(2, tmdb.calls("/tv/66732"));
+        assertEquals(1, tmdb.notModified());
+        assertEquals(1, meterRegistry.counter("http.client.cache.requests", "result", "revalidated").count());
+    }
+
+    @Test
+    public void testStaleEntryWithoutBodyIsFetchedAgainWithoutValidators() throws IOException {
+        tmdb.cacheControl("public, max-age=0");
+        RestTemplate restTemplate = restTemplate(new HttpResponseCache(cacheDirectory, 1 << 20));
+        get(restTemplate, "a");
+        // Otro hilo expulsa el fichero después de que la entrada siga en el índice
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+
+        SerieResponse.SerieDetails refetched = get(restTemplate, "a");
+
+        assertNotNull(refetched);
+        assertEquals("Stranger Things", refetched.getName());
+        assertEquals(2, tmdb.calls("/tv/66732"));
+        assertEquals(0, tmdb.notModified());
+    }
+
+    @Test
+    public void testEntriesSurviveRestart() {
+        tmdb.cacheControl("public, max-age=60");
+        get(restTemplate(new HttpResponseCache(cacheDirectory, 1 << 20)), "a");
+
+        HttpResponseCache reopened = new HttpResponseCache(cacheDirectory, 1 << 20);
+        assertEquals(1, reopened.size());
+        get(restTemplate(reopened), "a");
+
+        assertEquals(1, tmdb.calls("/tv/66732"));
+    }
+
+    @Test
+    public void testResponsesWithoutValidatorsAreNotStored() {
+        HttpResponseCache cache = new HttpResponseCache(cacheDirectory, 1 << 20);
+        RestTemplate restTemplate = restTemplate(cache);
+
+        get(restTemplate, "a");
+        get(restTemplate, "a");
+
+        assertEquals(2, tmdb.calls("/tv/66732"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testGzipResponsesAreDecodedBeforeCaching() {
+        tmdb.cacheControl("public, max-age=60").gzip(true);
+        RestTemplate restTemplate = restTemplate(new HttpResponseCache(cacheDirectory, 1 << 20));
+
+        assertEquals("Stranger Things", get(restTemplate, "a").getName());
+        assertEquals("Stranger Things", get(restTemplate, "a").getName());
+
+        assertEquals(1, tmdb.calls("/tv/66732"));
+        assertTrue(meterRegistry.counter("http.client.gzip.bytes_saved").count() > 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        HttpResponseCache cache = new HttpResponseCache(cacheDirectory, 10);
+        cache.store("a", "\"1\"", null, null, Long.MAX_VALUE, new byte[6]);
+        cache.store("b", "\"2\"", null, null, Long.MAX_VALUE, new byte[6]);
+
+        assertNull(cache.lookup("a"));
+        assertNotNull(cache.lookup("b"));
+        assertEquals(6, cache.totalBytes());
+    }
+}
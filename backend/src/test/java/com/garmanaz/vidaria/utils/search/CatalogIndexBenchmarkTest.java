@@ -0,0 +1,56 @@
+package com.garmanaz.vidaria.utils.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn test -Pbenchmark
+@Tag("benchmark")
+public class CatalogIndexBenchmarkTest {
+
+    private static final int DOCUMENTS = 500_000;
+    private static final int ITERATIONS = 2_000;
+    private static final String[] FIRST = {"dark", "night", "star", "lost", "city", "river", "silent", "golden", "broken", "last"};
+    private static final String[] SECOND = {"empire", "dream", "road", "kingdom", "shadow", "storm", "garden", "island", "game", "heart"};
+    private static final String[] GENRES = {"action", "drama", "comedy", "horror", "romance", "thriller"};
+
+    @Test
+    public void suggestLatencyOnHalfAMillionDocuments() {
+        List<SearchDocument> documents = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(new SearchDocument(i, FIRST[i % 10] + " " + SECOND[(i / 10) % 10] + " " + i, null,
+                    LocalDate.of(1950, 1, 1).plusDays(i % 27_000), (i % 100) / 10.0, (i * 7919L % 100_000) / 100.0,
+                    Set.of(GENRES[i % GENRES.length]), "popular"));
+        }
+        long start = System.nanoTime();
+        CatalogIndex index = new CatalogIndex("movie", 1000);
+        index.load(documents);
+        System.out.printf("load: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        List<CatalogQuery> queries = List.of(
+                CatalogQuery.of("st", null, null, null, null, null, null, null, null, 10),
+                CatalogQuery.of("star emp", null, null, null, null, null, null, null, null, 10),
+                CatalogQuery.of("gold", List.of("drama"), null, LocalDate.of(1990, 1, 1), null, 7.0, null, null, null, 10),
+                CatalogQuery.of("12345", null, null, null, null, null, null, null, null, 10));
+
+        System.out.printf("%-12s %10s %10s%n", "query", "p50 us", "p99 us");
+        for (CatalogQuery query : queries) {
+            long[] samples = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long t = System.nanoTime();
+                index.search(query);
+                samples[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(samples);
+            System.out.printf("%-12s %10d %10d%n", query.text(), samples[ITERATIONS / 2] / 1000, samples[ITERATIONS * 99 / 100] / 1000);
+            assertTrue(!index.search(query).isEmpty());
+        }
+    }
+}
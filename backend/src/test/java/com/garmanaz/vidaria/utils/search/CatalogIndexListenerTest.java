@@ -0,0 +1,74 @@
+package com.garmanaz.vidaria.utils.search;
+
+import com.garmanaz.vidaria.entities.Movie;
+import com.garmanaz.vidaria.entities.Serie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class CatalogIndexListenerTest {
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final CatalogIndexListener listener = new CatalogIndexListener(eventPublisher);
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(listener);
+    }
+
+    @Test
+    public void testPublishesOneEventPerCatalogAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.onWrite(Movie.builder().id(1L).title("Old title").build());
+        listener.onWrite(Movie.builder().id(1L).title("New title").build());
+        listener.onWrite(Movie.builder().id(2L).title("Removed later").build());
+        listener.onRemove(Movie.builder().id(2L).build());
+        listener.onRemove(Serie.builder().id(10L).build());
+        verifyNoInteractions(eventPublisher);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        ArgumentCaptor<CatalogChangedEvent> events = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        CatalogChangedEvent movies = events.getAllValues().stream().filter(event -> event.catalog().equals("movie")).findFirst().orElseThrow();
+        assertEquals(List.of("New title"), movies.upserted().stream().map(SearchDocument::title).toList());
+        assertEquals(List.of(2L), List.copyOf(movies.removed()));
+        CatalogChangedEvent series = events.getAllValues().stream().filter(event -> event.catalog().equals("serie")).findFirst().orElseThrow();
+        assertEquals(List.of(10L), List.copyOf(series.removed()));
+    }
+
+    @Test
+    public void testRollbackPublishesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.onWrite(Movie.builder().id(1L).title("Never committed").build());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testPublishesImmediatelyWithoutTransaction() {
+        listener.onWrite(Serie.builder().id(1396L).title("Breaking Bad").releaseDate("2008-01-20").build());
+
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("serie", event.getValue().catalog());
+        assertEquals(2008, event.getValue().upserted().iterator().next().releaseDate().getYear());
+    }
+}
@@ -0,0 +1,144 @@
+package com.garmanaz.vidaria.utils.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CatalogIndexTest {
+
+    private CatalogIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new CatalogIndex("movie", 100);
+        index.load(List.of(
+                doc(1, "Star Wars: A New Hope", 80.0, 8.6, LocalDate.of(1977, 5, 25), Set.of("science fiction", "adventure"), "popular"),
+                doc(2, "Stardust", 20.0, 7.6, LocalDate.of(2007, 8, 10), Set.of("fantasy"), "top_rated"),
+                doc(3, "Starship Troopers", 35.0, 6.6, LocalDate.of(1997, 11, 7), Set.of("science fiction", "action"), "popular"),
+                doc(4, "Amélie", 25.0, 7.9, LocalDate.of(2001, 4, 25), Set.of("comedy", "romance"), "top_rated"),
+                doc(5, "Lost in Space", 10.0, 5.2, null, Set.of("science fiction"), "upcoming"),
+                doc(6, "Star Trek", 50.0, null, LocalDate.of(2009, 5, 6), Set.of("science fiction"), "popular")));
+    }
+
+    @Test
+    public void testPrefixMatchesEveryWordOrderedByPopularity() {
+        assertEquals(List.of(1L, 6L, 3L, 2L), ids(query("sta")));
+        assertEquals(List.of(3L), ids(query("stars")));
+        assertEquals(List.of(1L), ids(query("star ne")));
+        assertEquals(List.of(5L), ids(query("in spa")));
+        assertEquals(List.of(), ids(query("starz")));
+    }
+
+    @Test
+    public void testNormalizesCaseAccentsAndPunctuation() {
+        assertEquals(List.of(4L), ids(query("AMELIE")));
+        assertEquals(List.of(4L), ids(query("amél")));
+        assertEquals(List.of(1L), ids(query("wars:")));
+    }
+
+    @Test
+    public void testFiltersIntersectWithText() {
+        CatalogQuery sciFiPopular = CatalogQuery.of("star", List.of("Science Fiction"), List.of("popular"),
+                null, null, null, null, null, null, 10);
+        assertEquals(List.of(1L, 6L, 3L), ids(sciFiPopular));
+
+        CatalogQuery ranges = CatalogQuery.of(null, null, null, LocalDate.of(1990, 1, 1), LocalDate.of(2008, 12, 31),
+                7.0, null, null, 30.0, 10);
+        assertEquals(List.of(4L, 2L), ids(ranges));
+
+        // Sin valoración no entra en un rango de valoración, igual que en SQL
+        CatalogQuery rated = CatalogQuery.of("star", null, null, null, null, 0.0, 10.0, null, null, 10);
+        assertTrue(!ids(rated).contains(6L));
+
+        assertEquals(List.of(1L, 6L), ids(CatalogQuery.of(null, null, null, null, null, null, null, 40.0, null, 10)));
+    }
+
+    @Test
+    public void testLimitStopsEarly() {
+        assertEquals(List.of(1L, 6L), ids(CatalogQuery.of("s", null, null, null, null, null, null, null, null, 2)));
+    }
+
+    @Test
+    public void testIncrementalUpsertAndRemoveAreVisibleImmediately() {
+        index.upsert(List.of(
+                doc(2, "Stardust", 90.0, 7.6, LocalDate.of(2007, 8, 10), Set.of("fantasy"), "top_rated"),
+                doc(7, "Star Wars: The Empire Strikes Back", 60.0, 8.4, LocalDate.of(1980, 5, 20), Set.of("adventure"), "popular")));
+        index.remove(List.of(3L));
+
+        assertEquals(List.of(2L, 1L, 7L, 6L), ids(query("star")));
+        assertEquals(List.of(1L, 7L), ids(query("wars")));
+        assertEquals(6, index.size());
+
+        // Renombrar deja de encontrar el título viejo
+        index.upsert(List.of(doc(1, "A New Hope", 80.0, 8.6, null, Set.of(), null)));
+        assertEquals(List.of(7L), ids(query("wars")));
+    }
+
+    @Test
+    public void testCompactionKeepsResultsConsistent() {
+        CatalogIndex small = new CatalogIndex("serie", 3);
+        small.load(List.of(doc(1, "Breaking Bad", 50.0, 8.9, null, Set.of("drama"), null)));
+        List<SearchDocument> added = new ArrayList<>();
+        for (int i = 2; i <= 10; i++) {
+            added.add(doc(i, "Better Call Saul " + i, 10.0 + i, 8.0, null, Set.of("drama"), null));
+            small.upsert(List.of(added.get(added.size() - 1)));
+        }
+        small.remove(List.of(5L));
+
+        assertEquals(9, small.size());
+        assertEquals(List.of(1L, 10L, 9L), ids(small, CatalogQuery.of("b", List.of("drama"), null, null, null, null, null, null, null, 3)));
+        assertTrue(!ids(small, CatalogQuery.of("saul", null, null, null, null, null, null, null, null, 20)).contains(5L));
+    }
+
+    @Test
+    public void testChangesBeforeLoadSurviveTheLoad() {
+        CatalogIndex fresh = new CatalogIndex("movie", 100);
+        fresh.upsert(List.of(doc(9, "Dune: Part Two", 99.0, 8.3, null, Set.of(), null)));
+        fresh.remove(List.of(2L));
+
+        fresh.load(List.of(doc(2, "Dune", 40.0, 7.8, null, Set.of(), null), doc(9, "Dune Part Two (old)", 1.0, 8.0, null, Set.of(), null)));
+
+        assertTrue(fresh.isLoaded());
+        assertEquals(List.of(9L), ids(fresh, CatalogQuery.of("dune", null, null, null, null, null, null, null, null, 10)));
+        assertEquals("Dune: Part Two", fresh.search(CatalogQuery.of("dune", null, null, null, null, null, null, null, null, 10)).get(0).title());
+    }
+
+    @Test
+    public void testChangesDuringLoadAreNotCompactedAway() {
+        CatalogIndex fresh = new CatalogIndex("movie", 2);
+        // Más cambios que el umbral mientras la carga inicial sigue leyendo
+        fresh.upsert(List.of(doc(9, "Dune: Part Two", 99.0, 8.3, null, Set.of(), null)));
+        fresh.upsert(List.of(doc(10, "Dune: Prophecy", 30.0, 7.0, null, Set.of(), null)));
+        fresh.upsert(List.of(doc(11, "Dune Messiah", 20.0, 7.0, null, Set.of(), null)));
+        fresh.remove(List.of(2L));
+
+        fresh.load(List.of(doc(2, "Dune", 40.0, 7.8, null, Set.of(), null), doc(9, "Dune Part Two (old)", 1.0, 8.0, null, Set.of(), null)));
+
+        assertEquals(List.of(9L, 10L, 11L), ids(fresh, CatalogQuery.of("dune", null, null, null, null, null, null, null, null, 10)));
+        assertEquals("Dune: Part Two", fresh.search(CatalogQuery.of("dune", null, null, null, null, null, null, null, null, 10)).get(0).title());
+    }
+
+    private List<Long> ids(CatalogQuery query) {
+        return ids(index, query);
+    }
+
+    private static List<Long> ids(CatalogIndex index, CatalogQuery query) {
+        return index.search(query).stream().map(SearchDocument::id).toList();
+    }
+
+    private static CatalogQuery query(String text) {
+        return CatalogQuery.of(text, null, null, null, null, null, null, null, null, 10);
+    }
+
+    private static SearchDocument doc(long id, String title, Double popularity, Double rating, LocalDate releaseDate,
+                                      Set<String> genres, String category) {
+        return new SearchDocument(id, title, null, releaseDate, rating, popularity, genres, category);
+    }
+}
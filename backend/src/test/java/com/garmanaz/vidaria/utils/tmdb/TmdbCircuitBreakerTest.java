@@ -0,0 +1,107 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TmdbCircuitBreakerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TmdbCircuitBreaker circuitBreaker;
+    private Instant now;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new TmdbCircuitBreaker(meterRegistry, 3, Duration.ofSeconds(30));
+        now = Instant.parse("2026-01-01T00:00:00Z");
+        tick(Duration.ZERO);
+    }
+
+    private void tick(Duration elapsed) {
+        now = now.plus(elapsed);
+        circuitBreaker.clock = Clock.fixed(now, ZoneOffset.UTC);
+    }
+
+    private void fail() {
+        assertThrows(HttpServerErrorException.class, () -> circuitBreaker.call(() -> {
+            throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null);
+        }));
+    }
+
+    @Test
+    public void testOpensAfterConsecutiveFailuresOnly() {
+        fail();
+        fail();
+        circuitBreaker.call(() -> "ok");
+        fail();
+        fail();
+        // Un 404 es una respuesta de TMDB: no cuenta como caída y reinicia la cuenta
+        assertThrows(HttpClientErrorException.class, () -> circuitBreaker.call(() -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        }));
+        fail();
+        fail();
+        assertEquals(TmdbCircuitBreaker.State.CLOSED, circuitBreaker.state());
+
+        fail();
+
+        assertEquals(TmdbCircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertThrows(TmdbUnavailableException.class, () -> circuitBreaker.call(() -> "ok"));
+        assertEquals(1, meterRegistry.get("tmdb.requests").tag("outcome", "short_circuited").counter().count());
+        assertEquals(1.0, meterRegistry.get("tmdb.circuit.state").gauge().value());
+    }
+
+    @Test
+    public void testHalfOpenLetsOneTrialThrough() {
+        fail();
+        fail();
+        fail();
+        tick(Duration.ofSeconds(30));
+
+        // La prueba falla: vuelve a abrirse otros 30 segundos
+        fail();
+        assertEquals(TmdbCircuitBreaker.State.OPEN, circuitBreaker.state());
+        tick(Duration.ofSeconds(29));
+        assertThrows(TmdbUnavailableException.class, () -> circuitBreaker.call(() -> "ok"));
+        tick(Duration.ofSeconds(1));
+
+        // Mientras la prueba está en curso el resto sigue rechazándose; si sale bien, se cierra
+        String result = circuitBreaker.call(() -> {
+            assertEquals(TmdbCircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+            assertThrows(TmdbUnavailableException.class, () -> circuitBreaker.call(() -> "concurrent"));
+            return "trial";
+        });
+
+        assertEquals("trial", result);
+        assertEquals(TmdbCircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertEquals("ok", circuitBreaker.call(() -> "ok"));
+    }
+
+    @Test
+    public void testTrialEndingInAnErrorDoesNotBlockTheNextOne() {
+        fail();
+        fail();
+        fail();
+        tick(Duration.ofSeconds(30));
+
+        assertThrows(StackOverflowError.class, () -> circuitBreaker.call(() -> {
+            throw new StackOverflowError();
+        }));
+
+        // Sigue medio abierto, pero otra llamada puede hacer de prueba
+        assertEquals(TmdbCircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        assertEquals("ok", circuitBreaker.call(() -> "ok"));
+        assertEquals(TmdbCircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+}
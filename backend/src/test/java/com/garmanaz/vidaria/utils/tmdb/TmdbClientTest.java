@@ -0,0 +1,112 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+import com.garmanaz.vidaria.DTO.MovieResponse;
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.garmanaz.vidaria.utils.async.BoundedExecutor;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TmdbClientTest {
+
+    private TmdbStubServer tmdb;
+    private BoundedExecutor tmdbExecutor;
+    private TmdbClient tmdbClient;
+
+    @BeforeEach
+    public void setUp() {
+        tmdb = TmdbStubServer.start()
+                .stub("/movie/550", "movie-550.json")
+                .stub("/tv/66732", "tv-66732.json")
+                .stub("/tv/\\d+/videos", "tv-videos.json");
+        tmdbExecutor = new BoundedExecutor("tmdb", 16, 100, BoundedExecutor.RejectionPolicy.CALLER_RUNS,
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+        tmdbClient = client(Duration.ofSeconds(5), 3, 5);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tmdbExecutor.close();
+        tmdb.close();
+    }
+
+    private TmdbClient client(Duration callTimeout, int fanOut, int failureThreshold) {
+        TmdbRequestExecutor requestExecutor = new TmdbRequestExecutor(new RestTemplate(), new SimpleMeterRegistry(),
+                1000, 100, 10, 1, Duration.ZERO, Duration.ZERO, Optional.empty());
+        return new TmdbClient(requestExecutor, tmdb.baseUrl(), "key",
+                new TmdbCircuitBreaker(new SimpleMeterRegistry(), failureThreshold, Duration.ofSeconds(30)),
+                tmdbExecutor, callTimeout, fanOut);
+    }
+
+    @Test
+    public void testMovieDetailsWithVideosAndCreditsInOneRequest() {
+        MovieResponse.MovieDetails details = tmdbClient.movieDetails(550L, TmdbClient.Append.VIDEOS, TmdbClient.Append.CREDITS);
+
+        assertEquals("Fight Club", details.getTitle());
+        assertEquals("https://www.youtube.com/watch?v=BdJKm16Co6M", TmdbClient.trailerUrl(details.getVideos()));
+        assertEquals("David Fincher", TmdbClient.director(details.getCredits()));
+        assertEquals(1, tmdb.totalCalls());
+        assertEquals("api_key=key&append_to_response=videos,credits", tmdb.lastQuery("/movie/550"));
+    }
+
+    @Test
+    public void testSerieDetailsWithVideos() {
+        SerieResponse.SerieDetails details = tmdbClient.serieDetails(66732L, TmdbClient.Append.VIDEOS);
+
+        assertEquals("Stranger Things", details.getName());
+        assertEquals("https://www.youtube.com/watch?v=trailer-66732", TmdbClient.trailerUrl(details.getVideos()));
+        assertEquals(1, tmdb.totalCalls());
+    }
+
+    @Test
+    public void testUnknownTitleReturnsNull() {
+        assertNull(tmdbClient.serieDetails(1L, TmdbClient.Append.VIDEOS));
+        assertNull(TmdbClient.trailerUrl((SerieResponse.SerieDetails.SerieTrailer) null));
+        assertNull(TmdbClient.director(null));
+    }
+
+    @Test
+    public void testFanOutCapsConcurrentCallsAndKeepsOrder() {
+        tmdb.latency(Duration.ofMillis(30));
+        List<Long> ids = LongStream.rangeClosed(1, 12).boxed().toList();
+
+        List<Long> resolved = TmdbClient.await(tmdbClient.fanOut(ids,
+                id -> tmdbClient.serieVideosAsync(id).thenApply(videos -> videos != null ? id : null)));
+
+        assertEquals(ids, resolved);
+        assertEquals(12, tmdb.totalCalls());
+        assertTrue(tmdb.maxInFlight() > 1, "calls were not concurrent");
+        assertTrue(tmdb.maxInFlight() <= 3, "max in flight was " + tmdb.maxInFlight());
+    }
+
+    @Test
+    public void testAsyncCallFailsWhenTimeoutExpires() {
+        tmdb.latency(Duration.ofMillis(500));
+        TmdbClient impatient = client(Duration.ofMillis(50), 3, 5);
+
+        assertThrows(TmdbUnavailableException.class, () -> TmdbClient.await(impatient.serieVideosAsync(1L)));
+    }
+
+    @Test
+    public void testCircuitOpensAfterConsecutiveFailures() {
+        tmdb.failNext("/tv/66732", 503, 503);
+        TmdbClient fragile = client(Duration.ofSeconds(5), 3, 2);
+
+        assertThrows(HttpServerErrorException.class, () -> fragile.serieDetails(66732L));
+        assertThrows(HttpServerErrorException.class, () -> fragile.serieDetails(66732L));
+        // Abierto: falla sin llegar a TMDB, aunque ya respondería bien
+        assertThrows(TmdbUnavailableException.class, () -> fragile.serieDetails(66732L));
+        assertThrows(TmdbUnavailableException.class, () -> TmdbClient.await(fragile.serieDetailsAsync(66732L)));
+        assertEquals(2, tmdb.calls("/tv/66732"));
+    }
+}
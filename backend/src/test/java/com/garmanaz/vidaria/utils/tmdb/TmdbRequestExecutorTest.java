@@ -0,0 +1,130 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+import com.garmanaz.vidaria.DTO.SerieResponse;
+import com.garmanaz.vidaria.utils.http.ConditionalCacheInterceptor;
+import com.garmanaz.vidaria.utils.http.HttpResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TmdbRequestExecutorTest {
+
+    private TmdbStubServer tmdb;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        tmdb = TmdbStubServer.start()
+                .stub("/tv/\\d+", "tv-66732.json")
+                .stub("/tv/\\d+/videos", "tv-videos.json");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tmdb.close();
+    }
+
+    private TmdbRequestExecutor executor(double requestsPerSecond, int burst, int maxInFlight) {
+        return new TmdbRequestExecutor(new RestTemplate(), meterRegistry, requestsPerSecond, burst, maxInFlight, 4,
+                Duration.ofMillis(10), Duration.ofMillis(50), Optional.empty());
+    }
+
+    @Test
+    public void testRetriesTooManyRequestsAndServerErrors() {
+        tmdb.failNext("/tv/66732", 429, 503);
+
+        SerieResponse.SerieDetails details = executor(1000, 100, 10)
+                .get(tmdb.baseUrl() + "/tv/66732?api_key=key", SerieResponse.SerieDetails.class);
+
+        assertEquals("Stranger Things", details.getName());
+        assertEquals(3, tmdb.calls("/tv/66732"));
+        assertEquals(2, meterRegistry.counter("tmdb.requests", "outcome", "retry").count());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        tmdb.failNext("/tv/66732", 500, 500, 500, 500, 500);
+
+        assertThrows(HttpServerErrorException.class, () -> executor(1000, 100, 10)
+                .get(tmdb.baseUrl() + "/tv/66732?api_key=key", SerieResponse.SerieDetails.class));
+        assertEquals(4, tmdb.calls("/tv/66732"));
+    }
+
+    @Test
+    public void testNotFoundReturnsNullWithoutRetrying() {
+        assertNull(executor(1000, 100, 10).get(tmdb.baseUrl() + "/movie/1?api_key=key", SerieResponse.SerieDetails.class));
+        assertEquals(1, tmdb.calls("/movie/1"));
+    }
+
+    @Test
+    public void testFreshCacheHitsDoNotWaitForTheRateLimit(@TempDir Path cacheDirectory) {
+        tmdb.cacheControl("public, max-age=60");
+        ConditionalCacheInterceptor cache = new ConditionalCacheInterceptor(new HttpResponseCache(cacheDirectory, 1 << 20), meterRegistry);
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(cache));
+        // Un token cada 2 segundos: cada petición de red después de la primera esperaría
+        TmdbRequestExecutor executor = new TmdbRequestExecutor(restTemplate, meterRegistry, 0.5, 1, 1, 1,
+                Duration.ZERO, Duration.ZERO, Optional.of(cache));
+        String url = tmdb.baseUrl() + "/tv/66732?api_key=key";
+        executor.get(url, SerieResponse.SerieDetails.class);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Stranger Things", executor.get(url, SerieResponse.SerieDetails.class).getName());
+        }
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(1, tmdb.calls("/tv/66732"));
+    }
+
+    @Test
+    public void testBoundsInFlightRequests() {
+        tmdb.latency(Duration.ofMillis(30));
+        TmdbRequestExecutor executor = executor(1000, 100, 3);
+
+        runConcurrently(executor, 30);
+
+        assertEquals(30, tmdb.totalCalls());
+        assertTrue(tmdb.maxInFlight() <= 3, "max in flight was " + tmdb.maxInFlight());
+        assertTrue(tmdb.maxInFlight() > 1, "requests were not concurrent");
+    }
+
+    @Test
+    public void testTokenBucketLimitsRequestRate() {
+        // 10 peticiones de golpe y el resto a 50 por segundo: al menos 400 ms para 30 peticiones
+        TmdbRequestExecutor executor = executor(50, 10, 30);
+
+        long start = System.nanoTime();
+        runConcurrently(executor, 30);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(30, tmdb.totalCalls());
+        assertTrue(elapsedMillis >= 380, "30 requests took only " + elapsedMillis + " ms");
+    }
+
+    private void runConcurrently(TmdbRequestExecutor executor, int requests) {
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<SerieResponse.SerieDetails.SerieTrailer>> futures = IntStream.range(0, requests)
+                    .mapToObj(id -> CompletableFuture.supplyAsync(() -> executor.get(tmdb.baseUrl() + "/tv/" + id + "/videos?api_key=key",
+                            SerieResponse.SerieDetails.SerieTrailer.class), threads))
+                    .toList();
+            futures.forEach(future -> assertNotNull(future.join()));
+        }
+    }
+}
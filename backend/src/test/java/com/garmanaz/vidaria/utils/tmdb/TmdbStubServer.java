@@ -0,0 +1,219 @@
+package com.garmanaz.vidaria.utils.tmdb;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// Servidor HTTP local que imita a TMDB: devuelve el JSON guardado en src/test/resources/tmdb
+// para cada ruta registrada y cuenta las peticiones y la concurrencia máxima observada
+public class TmdbStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Pattern, String> fixtures = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Integer>> failures = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Map<String, String> lastQueries = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile String cacheControl;
+    private volatile boolean gzip;
+
+    private TmdbStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static TmdbStubServer start() {
+        try {
+            return new TmdbStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/3";
+    }
+
+    // pathRegex se compara con la ruta sin el prefijo /3; las páginas se distinguen con "?page=N"
+    public TmdbStubServer stub(String pathRegex, String resource) {
+        fixtures.put(Pattern.compile(pathRegex), resource);
+        return this;
+    }
+
+    // Las próximas peticiones a path responden con estos códigos antes de servir el JSON
+    public TmdbStubServer failNext(String path, int... statuses) {
+        Queue<Integer> queue = failures.computeIfAbsent(path, key -> new ConcurrentLinkedQueue<>());
+        for (int status : statuses) {
+            queue.add(status);
+        }
+        return this;
+    }
+
+    public TmdbStubServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    // Añade ETag y Cache-Control a las respuestas y contesta 304 a las peticiones condicionales que coinciden
+    public TmdbStubServer cacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+        return this;
+    }
+
+    public TmdbStubServer gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public int notModified() {
+        return notModified.get();
+    }
+
+    public int calls(String path) {
+        AtomicInteger counter = calls.get(path);
+        return counter != null ? counter.get() : 0;
+    }
+
+    public String lastQuery(String path) {
+        return lastQueries.get(path);
+    }
+
+    public int totalCalls() {
+        return calls.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().replaceFirst("^/3", "");
+        calls.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        if (exchange.getRequestURI().getQuery() != null) {
+            lastQueries.put(path, exchange.getRequestURI().getQuery());
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            if (!latency.isZero()) {
+                Thread.sleep(latency);
+            }
+            Queue<Integer> queue = failures.get(path);
+            Integer failure = queue != null ? queue.poll() : null;
+            if (failure != null) {
+                if (failure == 429) {
+                    exchange.getResponseHeaders().add("Retry-After", "0");
+                }
+                respond(exchange, failure, "{\"status_message\":\"stub failure\"}");
+                return;
+            }
+
+            String resource = fixture(path + page(exchange.getRequestURI().getQuery()));
+            if (resource == null) {
+                resource = fixture(path);
+            }
+            if (resource == null) {
+                respond(exchange, 404, "{\"status_code\":34,\"status_message\":\"The resource you requested could not be found.\"}");
+                return;
+            }
+            String body = read(resource);
+            if (cacheControl != null) {
+                String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+            }
+            if (gzip && String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+                exchange.sendResponseHeaders(200, compressed.size());
+                try (OutputStream out = exchange.getResponseBody()) {
+                    compressed.writeTo(out);
+                }
+                return;
+            }
+            respond(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private String fixture(String route) {
+        return fixtures.entrySet().stream()
+                .filter(entry -> entry.getKey().matcher(route).matches())
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String page(String query) {
+        if (query == null) {
+            return "";
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("page=")) {
+                return "?" + parameter;
+            }
+        }
+        return "";
+    }
+
+    private static String read(String resource) throws IOException {
+        try (InputStream in = TmdbStubServer.class.getResourceAsStream("/tmdb/" + resource)) {
+            if (in == null) {
+                throw new IOException("Missing fixture tmdb/" + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}